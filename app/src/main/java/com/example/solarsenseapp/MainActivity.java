@@ -1,12 +1,13 @@
 package com.example.solarsenseapp;
 
-import android.Manifest;
+import android.content.ComponentName;
+import android.content.Context;
+import android.content.Intent;
+import android.content.ServiceConnection;
 import android.content.pm.PackageManager;
 import android.location.Location;
-import android.location.LocationListener;
-import android.location.LocationManager;
 import android.os.Bundle;
-import android.os.Handler;
+import android.os.IBinder;
 import android.speech.tts.TextToSpeech;
 import android.util.Log;
 import android.view.View;
@@ -20,22 +21,23 @@ import android.widget.ToggleButton;
 
 import androidx.annotation.NonNull;
 import androidx.appcompat.app.AppCompatActivity;
-import androidx.core.app.ActivityCompat;
-import androidx.core.content.ContextCompat;
 
 import com.example.solarsenseapp.controllers.ServoController;
 import com.example.solarsenseapp.controllers.VoiceController;
 import com.example.solarsenseapp.controllers.WeatherController;
-import com.example.solarsenseapp.managers.AutoTrackingManager;
-import com.example.solarsenseapp.managers.LocationServiceManager;
 import com.example.solarsenseapp.managers.PermissionManager;
+import com.example.solarsenseapp.managers.TrackingService;
 import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ServoJournal;
+import com.example.solarsenseapp.utils.AndroidLogger;
 import com.example.solarsenseapp.utils.Constants;
-import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.TrackingLog;
+import com.example.solarsenseapp.voice.VoiceCommand;
+import com.example.solarsenseapp.voice.VoiceCommandParser;
 
 import java.util.Locale;
 
-public class MainActivity extends AppCompatActivity implements LocationListener {
+public class MainActivity extends AppCompatActivity implements TrackingService.Client {
 
     private static final String TAG = "SolarSenseApp";
 
@@ -54,27 +56,51 @@ public class MainActivity extends AppCompatActivity implements LocationListener
     // Controllers and Managers
     private ServoController servoController;
     private VoiceController voiceController;
+    private final VoiceCommandParser voiceCommandParser = new VoiceCommandParser();
     private WeatherController weatherController;
-    private AutoTrackingManager autoTrackingManager;
-    private LocationServiceManager locationServiceManager;
     private PermissionManager permissionManager;
     private ESPCommunicator espCommunicator;
     private TextToSpeech textToSpeech;
 
+    // Owns tracking, location, the ESP pool and the caches; null until bound
+    private TrackingService trackingService;
+    // Set by bindService, which must be undone even if the connection never arrived
+    private boolean serviceBound = false;
+
     // System State
-    private Location currentLocation;
     private boolean isAutoMode = false;
 
+    private final ServiceConnection trackingConnection = new ServiceConnection() {
+        @Override
+        public void onServiceConnected(ComponentName name, IBinder binder) {
+            trackingService = ((TrackingService.LocalBinder) binder).getService();
+            trackingService.setClient(MainActivity.this);
+            initializeControllers();
+            restoreAutoModeState();
+            setupUIListeners();
+        }
+
+        @Override
+        public void onServiceDisconnected(ComponentName name) {
+            trackingService = null;
+        }
+    };
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
+        TrackingLog.setLogger(new AndroidLogger());
 
         initializeUI();
-        initializeControllers();
+        permissionManager = new PermissionManager(this);
         setupPermissions();
-        setupUIListeners();
         initializeTextToSpeech();
+
+        // Started as well as bound, so the service outlives this Activity across rotations
+        Intent serviceIntent = new Intent(this, TrackingService.class);
+        startService(serviceIntent);
+        serviceBound = bindService(serviceIntent, trackingConnection, Context.BIND_AUTO_CREATE);
     }
 
     private void initializeUI() {
@@ -103,20 +129,19 @@ public class MainActivity extends AppCompatActivity implements LocationListener
     }
 
     private void initializeControllers() {
-        espCommunicator = new ESPCommunicator();
-        servoController = new ServoController(this, espCommunicator, baseServoSeekBar,
+        espCommunicator = trackingService.getESPCommunicator();
+        servoController = new ServoController(this, trackingService.getCommandQueue(), baseServoSeekBar,
                 panelServoSeekBar, baseServoValue, panelServoValue);
+        ServoJournal journal = trackingService.getServoJournal();
+        if (journal != null) {
+            servoController.restoreAngles(journal.getBaseAngle(), journal.getPanelAngle());
+        }
 
         voiceController = new VoiceController(this, btnVoice, voiceProgressBar,
                 txtVoiceCommands, btnShowCommands);
 
-        weatherController = new WeatherController(this, weatherDataText, servoController);
-
-        autoTrackingManager = new AutoTrackingManager(this, servoController);
-
-        locationServiceManager = new LocationServiceManager(this, this);
-
-        permissionManager = new PermissionManager(this);
+        weatherController = new WeatherController(this, weatherDataText, servoController,
+                trackingService.getWeatherAPI(), trackingService.getWeatherCache());
 
         // Set voice command callback
         voiceController.setVoiceCommandCallback(this::handleVoiceCommand);
@@ -135,6 +160,9 @@ public class MainActivity extends AppCompatActivity implements LocationListener
         btnFetchWeather.setOnClickListener(v -> fetchWeather());
 
         toggleAutoMode.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked == isAutoMode) {
+                return; // state came from the service
+            }
             isAutoMode = isChecked;
             if (isAutoMode) {
                 startAutoMode();
@@ -144,6 +172,15 @@ public class MainActivity extends AppCompatActivity implements LocationListener
         });
     }
 
+    // Tracking may have kept running while no Activity was bound
+    private void restoreAutoModeState() {
+        isAutoMode = trackingService.isAutoTrackingActive();
+        toggleAutoMode.setChecked(isAutoMode);
+        if (isAutoMode) {
+            servoController.disableManualControls();
+        }
+    }
+
     private void initializeTextToSpeech() {
         textToSpeech = new TextToSpeech(this, status -> {
             if (status == TextToSpeech.SUCCESS) {
@@ -169,42 +206,62 @@ public class MainActivity extends AppCompatActivity implements LocationListener
     // Auto Mode Methods
     private void startAutoMode() {
         servoController.disableManualControls();
-        autoTrackingManager.startAutoMode(currentLocation, locationInput.getText().toString());
+        trackingService.startAutoMode(locationInput.getText().toString());
     }
 
     private void stopAutoMode() {
         servoController.enableManualControls();
-        autoTrackingManager.stopAutoMode();
+        trackingService.stopAutoMode();
     }
 
     // Voice Command Handling
-    private void handleVoiceCommand(String command) {
-        if (command.contains("clockwise")) {
-            servoController.adjustBaseServo(-40, isAutoMode);
-        } else if (command.contains("counter") || command.contains("anti-clockwise")) {
-            servoController.adjustBaseServo(40, isAutoMode);
-        } else if (command.contains("up") || command.contains("panel up")) {
-            servoController.adjustPanelServo(40, isAutoMode);
-        } else if (command.contains("down") || command.contains("panel down")) {
-            servoController.adjustPanelServo(-40, isAutoMode);
-        } else if (command.contains("panel zero")) {
-            servoController.setPanelServo(0, isAutoMode);
-        } else if (command.contains("panel max")) {
-            servoController.setPanelServo(180, isAutoMode);
-        } else if (command.contains("base zero")) {
-            servoController.setBaseServo(0, isAutoMode);
-        } else if (command.contains("base max")) {
-            servoController.setBaseServo(180, isAutoMode);
-        } else if (command.contains("auto mode on") || command.contains("start tracking")) {
-            runOnUiThread(() -> toggleAutoMode.setChecked(true));
-        } else if (command.contains("auto mode off") || command.contains("stop tracking")) {
-            runOnUiThread(() -> toggleAutoMode.setChecked(false));
-        } else if (command.contains("weather")) {
-            weatherController.handleWeatherVoiceCommand(command, locationInput);
-        } else if (command.contains("reset location") || command.contains("clear location")) {
-            resetLocation();
-        } else {
-            servoController.extractAndSetAngle(command, isAutoMode);
+    private void handleVoiceCommand(String spoken) {
+        VoiceCommand command = voiceCommandParser.parse(spoken);
+        switch (command.action) {
+            case BASE_CLOCKWISE:
+                servoController.adjustBaseServo(-40, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case BASE_COUNTER_CLOCKWISE:
+                servoController.adjustBaseServo(40, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case PANEL_UP:
+                servoController.adjustPanelServo(40, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case PANEL_DOWN:
+                servoController.adjustPanelServo(-40, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case PANEL_ZERO:
+                servoController.setPanelServo(0, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case PANEL_MAX:
+                servoController.setPanelServo(180, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case BASE_ZERO:
+                servoController.setBaseServo(0, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case BASE_MAX:
+                servoController.setBaseServo(180, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case AUTO_MODE_ON:
+                runOnUiThread(() -> toggleAutoMode.setChecked(true));
+                break;
+            case AUTO_MODE_OFF:
+                runOnUiThread(() -> toggleAutoMode.setChecked(false));
+                break;
+            case WEATHER:
+                weatherController.handleWeatherVoiceCommand(command.location, locationInput);
+                break;
+            case RESET_LOCATION:
+                resetLocation();
+                break;
+            case SET_BASE_ANGLE:
+                servoController.setBaseServo(command.angle, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            case SET_PANEL_ANGLE:
+                servoController.setPanelServo(command.angle, isAutoMode, ServoJournal.Source.VOICE);
+                break;
+            default:
+                Log.d(TAG, "Unrecognized voice command: " + spoken);
         }
     }
 
@@ -214,7 +271,19 @@ public class MainActivity extends AppCompatActivity implements LocationListener
         if (!newIp.isEmpty()) {
             String fullIp = "http://" + newIp;
             espCommunicator.updateIP(fullIp);
+            trackingService.getTelemetryClient().reset();
             showToast("ESP IP updated to: " + fullIp);
+            espCommunicator.testConnection(new ESPCommunicator.ESPCallback() {
+                @Override
+                public void onSuccess() {
+                    Log.d(TAG, "ESP reachable, combined move: " + espCommunicator.supportsCombinedMove());
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    showToast("ESP not reachable: " + errorMessage);
+                }
+            });
         }
     }
 
@@ -224,10 +293,9 @@ public class MainActivity extends AppCompatActivity implements LocationListener
 
         if (isAutoMode) {
             toggleAutoMode.setChecked(false);
-            stopAutoMode();
         }
 
-        currentLocation = null;
+        trackingService.setCurrentLocation(null);
         showToast("Location has been reset");
         speakFeedback("Location reset complete");
     }
@@ -236,28 +304,40 @@ public class MainActivity extends AppCompatActivity implements LocationListener
         String location = locationInput.getText().toString().trim();
         if (!location.isEmpty()) {
             weatherController.fetchWeatherData(location);
+        } else if (getCurrentLocation() != null) {
+            weatherController.fetchWeatherData(getCurrentLocation());
         } else {
             showToast("Please enter a location");
         }
     }
 
-    // Location Listener Implementation
+    // Tracking Service Callbacks
     @Override
-    public void onLocationChanged(Location location) {
-        currentLocation = location;
-        if (isAutoMode) {
-            autoTrackingManager.updatePanelPosition(location);
-        }
+    public void onPanelMoved(int baseAngle, int panelAngle) {
+        servoController.showAutoAngles(baseAngle, panelAngle);
     }
 
     @Override
-    public void onStatusChanged(String provider, int status, Bundle extras) {}
-
-    @Override
-    public void onProviderEnabled(String provider) {}
+    public void onStowChanged(boolean stowed) {
+        servoController.showStowed(stowed);
+    }
 
     @Override
-    public void onProviderDisabled(String provider) {}
+    public void onAutoModeChanged(boolean active) {
+        runOnUiThread(() -> {
+            if (active == isAutoMode) {
+                return;
+            }
+            // Stopped from the notification or because the location could not be found
+            isAutoMode = active;
+            toggleAutoMode.setChecked(active);
+            if (active) {
+                servoController.disableManualControls();
+            } else {
+                servoController.enableManualControls();
+            }
+        });
+    }
 
     // Permission Handling
     @Override
@@ -268,7 +348,9 @@ public class MainActivity extends AppCompatActivity implements LocationListener
 
         if (requestCode == Constants.LOCATION_PERMISSION_REQUEST) {
             if (grantResults.length > 0 && grantResults[0] == PackageManager.PERMISSION_GRANTED) {
-                locationServiceManager.initializeLocationService();
+                if (trackingService != null) {
+                    trackingService.onLocationPermissionGranted();
+                }
             }
         }
     }
@@ -289,11 +371,7 @@ public class MainActivity extends AppCompatActivity implements LocationListener
     }
 
     public Location getCurrentLocation() {
-        return currentLocation;
-    }
-
-    public void setCurrentLocation(Location location) {
-        this.currentLocation = location;
+        return trackingService != null ? trackingService.getCurrentLocation() : null;
     }
 
     @Override
@@ -302,15 +380,23 @@ public class MainActivity extends AppCompatActivity implements LocationListener
         if (voiceController != null) {
             voiceController.cleanup();
         }
-        if (locationServiceManager != null) {
-            locationServiceManager.cleanup();
-        }
         if (textToSpeech != null) {
             textToSpeech.stop();
             textToSpeech.shutdown();
         }
-        if (autoTrackingManager != null) {
-            autoTrackingManager.cleanup();
+        boolean stopTrackingService = false;
+        if (trackingService != null) {
+            trackingService.setClient(null);
+            // Leaving for good and not tracking: nothing left for the service to do
+            stopTrackingService = isFinishing() && !trackingService.isAutoTrackingActive();
+            trackingService = null;
+        }
+        if (serviceBound) {
+            unbindService(trackingConnection);
+            serviceBound = false;
+        }
+        if (stopTrackingService) {
+            stopService(new Intent(this, TrackingService.class));
         }
     }
-}
\ No newline at end of file
+}
@@ -6,18 +6,17 @@ import android.widget.SeekBar;
 import android.widget.TextView;
 
 import com.example.solarsenseapp.MainActivity;
-import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ServoCommandQueue;
+import com.example.solarsenseapp.network.ServoJournal;
 import com.example.solarsenseapp.utils.Constants;
 
 import java.util.function.BooleanSupplier;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class ServoController {
     private static final String TAG = "ServoController";
 
     private final MainActivity activity;
-    private final ESPCommunicator espCommunicator;
+    private final ServoCommandQueue commandQueue;
 
     // UI Components
     private final SeekBar baseServoSeekBar;
@@ -28,15 +27,16 @@ public class ServoController {
     private Button btnBaseClockwise, btnBaseCounterClockwise;
     private Button btnPanelToZero, btnPanelToMax;
 
-    // Current positions
-    private int baseCurrentAngle = Constants.DEFAULT_BASE_ANGLE;
-    private int panelCurrentAngle = Constants.DEFAULT_PANEL_ANGLE;
+    // Current positions; auto mode writes them from the tracking thread, restoreAngles() from the journal
+    private volatile int baseCurrentAngle = Constants.DEFAULT_BASE_ANGLE;
+    private volatile int panelCurrentAngle = Constants.DEFAULT_PANEL_ANGLE;
 
-    public ServoController(MainActivity activity, ESPCommunicator espCommunicator,
+    // The queue belongs to TrackingService, so manual moves and weather stows share one lane per axis
+    public ServoController(MainActivity activity, ServoCommandQueue commandQueue,
                            SeekBar baseServoSeekBar, SeekBar panelServoSeekBar,
                            TextView baseServoValue, TextView panelServoValue) {
         this.activity = activity;
-        this.espCommunicator = espCommunicator;
+        this.commandQueue = commandQueue;
         this.baseServoSeekBar = baseServoSeekBar;
         this.panelServoSeekBar = panelServoSeekBar;
         this.baseServoValue = baseServoValue;
@@ -52,20 +52,42 @@ public class ServoController {
         btnPanelToMax = activity.findViewById(com.example.solarsenseapp.R.id.btnPanelMax);
     }
 
+    /**
+     * Start from where the servos were last sent, so relative moves and the
+     * SeekBars match the panel after a restart. Angles below 0 are unknown and
+     * keep the default.
+     */
+    public void restoreAngles(int baseAngle, int panelAngle) {
+        if (baseAngle >= 0) {
+            baseCurrentAngle = baseAngle;
+        }
+        if (panelAngle >= 0) {
+            panelCurrentAngle = panelAngle;
+        }
+    }
+
+    // The base SeekBar runs in reverse: progress 0 is the base at SERVO_MAX_ANGLE
+    static int baseProgressFor(int baseAngle) {
+        return Constants.SERVO_MAX_ANGLE - baseAngle;
+    }
+
+    static int baseAngleFor(int progress) {
+        return Constants.SERVO_MAX_ANGLE - progress;
+    }
+
     public void setupSeekBars(BooleanSupplier isAutoModeSupplier) {
         // Base servo setup with reversed controls
         baseServoSeekBar.setMax(Constants.SERVO_MAX_ANGLE);
-        baseServoSeekBar.setProgress(baseCurrentAngle);
+        baseServoSeekBar.setProgress(baseProgressFor(baseCurrentAngle));
         baseServoValue.setText("Base Servo Angle: " + baseCurrentAngle);
 
         baseServoSeekBar.setOnSeekBarChangeListener(new SeekBar.OnSeekBarChangeListener() {
             @Override
             public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
                 if (fromUser && !isAutoModeSupplier.getAsBoolean()) {
-                    // Calculate reversed value (180 - progress)
-                    baseCurrentAngle = Constants.SERVO_MAX_ANGLE - progress;
+                    baseCurrentAngle = baseAngleFor(progress);
                     baseServoValue.setText("Base Servo Angle: " + baseCurrentAngle);
-                    sendBaseServoCommand(baseCurrentAngle);
+                    sendBaseServoCommand(baseCurrentAngle, ServoJournal.Source.MANUAL);
                     seekBar.setProgress(progress);
                 }
             }
@@ -88,7 +110,7 @@ public class ServoController {
                 if (fromUser && !isAutoModeSupplier.getAsBoolean()) {
                     panelCurrentAngle = progress;
                     panelServoValue.setText("Panel Servo Angle: " + panelCurrentAngle);
-                    sendPanelServoCommand(panelCurrentAngle);
+                    sendPanelServoCommand(panelCurrentAngle, ServoJournal.Source.MANUAL);
                 }
             }
 
@@ -102,56 +124,60 @@ public class ServoController {
 
     public void setupButtons() {
         // Reversed button actions for base
-        btnBaseClockwise.setOnClickListener(v -> adjustBaseServo(-Constants.SERVO_STEP_SIZE, false));
-        btnBaseCounterClockwise.setOnClickListener(v -> adjustBaseServo(Constants.SERVO_STEP_SIZE, false));
+        btnBaseClockwise.setOnClickListener(v ->
+                adjustBaseServo(-Constants.SERVO_STEP_SIZE, false, ServoJournal.Source.MANUAL));
+        btnBaseCounterClockwise.setOnClickListener(v ->
+                adjustBaseServo(Constants.SERVO_STEP_SIZE, false, ServoJournal.Source.MANUAL));
 
         // Panel buttons
-        btnPanelToZero.setOnClickListener(v -> setPanelServo(Constants.SERVO_MIN_ANGLE, false));
-        btnPanelToMax.setOnClickListener(v -> setPanelServo(Constants.SERVO_MAX_ANGLE, false));
+        btnPanelToZero.setOnClickListener(v ->
+                setPanelServo(Constants.SERVO_MIN_ANGLE, false, ServoJournal.Source.MANUAL));
+        btnPanelToMax.setOnClickListener(v ->
+                setPanelServo(Constants.SERVO_MAX_ANGLE, false, ServoJournal.Source.MANUAL));
     }
 
-    public void adjustBaseServo(int delta, boolean isAutoMode) {
+    public void adjustBaseServo(int delta, boolean isAutoMode, ServoJournal.Source source) {
         if (!isAutoMode) {
             baseCurrentAngle = Math.max(Constants.SERVO_MIN_ANGLE,
                     Math.min(Constants.SERVO_MAX_ANGLE, baseCurrentAngle + delta));
 
             // Update seekbar with reversed value
-            baseServoSeekBar.setProgress(Constants.SERVO_MAX_ANGLE - baseCurrentAngle);
+            baseServoSeekBar.setProgress(baseProgressFor(baseCurrentAngle));
             baseServoValue.setText("Base Servo Angle: " + baseCurrentAngle);
-            sendBaseServoCommand(baseCurrentAngle);
+            sendBaseServoCommand(baseCurrentAngle, source);
         }
     }
 
-    public void adjustPanelServo(int delta, boolean isAutoMode) {
+    public void adjustPanelServo(int delta, boolean isAutoMode, ServoJournal.Source source) {
         if (!isAutoMode) {
             panelCurrentAngle = Math.max(Constants.SERVO_MIN_ANGLE,
                     Math.min(Constants.SERVO_MAX_ANGLE, panelCurrentAngle + delta));
 
             panelServoSeekBar.setProgress(panelCurrentAngle);
             panelServoValue.setText("Panel Servo Angle: " + panelCurrentAngle);
-            sendPanelServoCommand(panelCurrentAngle);
+            sendPanelServoCommand(panelCurrentAngle, source);
         }
     }
 
-    public void setBaseServo(int angle, boolean isAutoMode) {
+    public void setBaseServo(int angle, boolean isAutoMode, ServoJournal.Source source) {
         if (!isAutoMode) {
             baseCurrentAngle = Math.max(Constants.SERVO_MIN_ANGLE,
                     Math.min(Constants.SERVO_MAX_ANGLE, angle));
 
-            baseServoSeekBar.setProgress(Constants.SERVO_MAX_ANGLE - baseCurrentAngle);
+            baseServoSeekBar.setProgress(baseProgressFor(baseCurrentAngle));
             baseServoValue.setText("Base Servo Angle: " + baseCurrentAngle);
-            sendBaseServoCommand(baseCurrentAngle);
+            sendBaseServoCommand(baseCurrentAngle, source);
         }
     }
 
-    public void setPanelServo(int angle, boolean isAutoMode) {
+    public void setPanelServo(int angle, boolean isAutoMode, ServoJournal.Source source) {
         if (!isAutoMode) {
             panelCurrentAngle = Math.max(Constants.SERVO_MIN_ANGLE,
                     Math.min(Constants.SERVO_MAX_ANGLE, angle));
 
             panelServoSeekBar.setProgress(panelCurrentAngle);
             panelServoValue.setText("Panel Servo Angle: " + panelCurrentAngle);
-            sendPanelServoCommand(panelCurrentAngle);
+            sendPanelServoCommand(panelCurrentAngle, source);
         }
     }
 
@@ -161,11 +187,11 @@ public class ServoController {
                 Math.min(Constants.SERVO_MAX_ANGLE, angle));
 
         activity.runOnUiThread(() -> {
-            baseServoSeekBar.setProgress(Constants.SERVO_MAX_ANGLE - baseCurrentAngle);
+            baseServoSeekBar.setProgress(baseProgressFor(baseCurrentAngle));
             baseServoValue.setText("Base: " + baseCurrentAngle + "°");
         });
 
-        sendBaseServoCommand(baseCurrentAngle);
+        sendBaseServoCommand(baseCurrentAngle, ServoJournal.Source.AUTO);
     }
 
     public void setPanelServoAuto(int angle) {
@@ -177,36 +203,40 @@ public class ServoController {
             panelServoValue.setText("Panel: " + panelCurrentAngle + "°");
         });
 
-        sendPanelServoCommand(panelCurrentAngle);
+        sendPanelServoCommand(panelCurrentAngle, ServoJournal.Source.AUTO);
     }
 
-    public void extractAndSetAngle(String command, boolean isAutoMode) {
-        try {
-            Pattern pattern = Pattern.compile("(\\d{1,3})");
-            Matcher matcher = pattern.matcher(command);
-            if (matcher.find()) {
-                int angle = Math.max(Constants.SERVO_MIN_ANGLE,
-                        Math.min(Constants.SERVO_MAX_ANGLE, Integer.parseInt(matcher.group(1))));
+    // Shows a move made by the tracking service; the service has already sent it
+    public void showAutoAngles(int baseAngle, int panelAngle) {
+        baseCurrentAngle = baseAngle;
+        panelCurrentAngle = panelAngle;
 
-                if (command.contains("base")) {
-                    setBaseServo(angle, isAutoMode);
-                } else if (command.contains("panel")) {
-                    setPanelServo(angle, isAutoMode);
-                } else if (command.contains("angle") || command.contains("set")) {
-                    setPanelServo(angle, isAutoMode);
-                }
-            }
-        } catch (Exception e) {
-            Log.e(TAG, "Error parsing angle", e);
+        activity.runOnUiThread(() -> {
+            baseServoSeekBar.setProgress(baseProgressFor(baseAngle));
+            baseServoValue.setText("Base: " + baseAngle + "°");
+            panelServoSeekBar.setProgress(panelAngle);
+            panelServoValue.setText("Panel: " + panelAngle + "°");
+        });
+    }
+
+    public void showStowed(boolean stowed) {
+        if (!stowed) {
+            return;
         }
+        panelCurrentAngle = Constants.STOW_PANEL_ANGLE;
+
+        activity.runOnUiThread(() -> {
+            panelServoSeekBar.setProgress(Constants.STOW_PANEL_ANGLE);
+            panelServoValue.setText("Panel: " + Constants.STOW_PANEL_ANGLE + "° (stowed)");
+        });
     }
 
-    private void sendBaseServoCommand(int angle) {
-        espCommunicator.sendServoCommand(Constants.BASE_SERVO_ENDPOINT + angle);
+    private void sendBaseServoCommand(int angle, ServoJournal.Source source) {
+        commandQueue.submit(ServoCommandQueue.Axis.BASE, angle, source);
     }
 
-    private void sendPanelServoCommand(int angle) {
-        espCommunicator.sendServoCommand(Constants.PANEL_SERVO_ENDPOINT + angle);
+    private void sendPanelServoCommand(int angle, ServoJournal.Source source) {
+        commandQueue.submit(ServoCommandQueue.Axis.PANEL, angle, source);
     }
 
     public void disableManualControls() {
@@ -235,4 +265,8 @@ public class ServoController {
     public int getPanelCurrentAngle() {
         return panelCurrentAngle;
     }
+
+    public ServoCommandQueue getCommandQueue() {
+        return commandQueue;
+    }
 }
\ No newline at end of file
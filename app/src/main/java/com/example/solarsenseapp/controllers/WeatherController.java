@@ -1,20 +1,18 @@
 package com.example.solarsenseapp.controllers;
 
+import android.location.Location;
 import android.widget.EditText;
 import android.widget.TextView;
 
 import com.example.solarsenseapp.MainActivity;
 import com.example.solarsenseapp.controllers.ServoController;
 import com.example.solarsenseapp.network.WeatherAPI;
+import com.example.solarsenseapp.network.WeatherCache;
 import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
 import com.example.solarsenseapp.utils.Constants;
 
-import org.json.JSONArray;
-import org.json.JSONObject;
-
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 public class WeatherController {
     private static final String TAG = "WeatherController";
@@ -23,20 +21,35 @@ public class WeatherController {
     private final TextView weatherDataText;
     private final ServoController servoController;
     private final WeatherAPI weatherAPI;
+    private final WeatherCache weatherCache;
 
+    // The client and cache belong to TrackingService and outlive this controller
     public WeatherController(MainActivity activity, TextView weatherDataText,
-                             ServoController servoController) {
+                             ServoController servoController, WeatherAPI weatherAPI,
+                             WeatherCache weatherCache) {
         this.activity = activity;
         this.weatherDataText = weatherDataText;
         this.servoController = servoController;
-        this.weatherAPI = new WeatherAPI(activity);
+        this.weatherAPI = weatherAPI;
+        this.weatherCache = weatherCache;
     }
 
     public void fetchWeatherData(String location) {
-        weatherAPI.fetchWeatherData(location, new WeatherAPI.WeatherCallback() {
+        fetchWeatherData(WeatherQuery.byName(location), location);
+    }
+
+    // Nearby fixes share a cache entry, so GPS jitter doesn't trigger new requests
+    public void fetchWeatherData(Location location) {
+        fetchWeatherData(WeatherQuery.byCoordinates(location.getLatitude(), location.getLongitude()),
+                "your location");
+    }
+
+    private void fetchWeatherData(WeatherQuery query, String location) {
+        weatherCache.fetchWeatherData(query, new WeatherAPI.WeatherCallback() {
             @Override
-            public void onSuccess(String jsonResponse) {
-                parseWeatherData(jsonResponse, location);
+            public void onSuccess(WeatherData weatherData) {
+                updateWeatherUI(location, weatherData);
+                checkWeatherAlerts(weatherData);
             }
 
             @Override
@@ -46,82 +59,26 @@ public class WeatherController {
         });
     }
 
-    public void handleWeatherVoiceCommand(String command, EditText locationInput) {
-        String location = extractLocation(command);
-        if (location != null && !location.isEmpty()) {
+    /**
+     * @param location Spoken location, or null to use the typed or current one
+     */
+    public void handleWeatherVoiceCommand(String location, EditText locationInput) {
+        if (location != null) {
             locationInput.setText(location);
             fetchWeatherData(location);
         } else if (!locationInput.getText().toString().isEmpty()) {
             fetchWeatherData(locationInput.getText().toString());
+        } else if (activity.getCurrentLocation() != null) {
+            fetchWeatherData(activity.getCurrentLocation());
         }
     }
 
-    private String extractLocation(String command) {
-        Pattern pattern = Pattern.compile("(weather|for|in)\\s+(.+?)(\\s+(please|now|today)|$)");
-        Matcher matcher = pattern.matcher(command);
-        return matcher.find() ? matcher.group(2).trim() : null;
-    }
-
-    private void parseWeatherData(String jsonResponse, String location) {
-        try {
-            JSONObject jsonObject = new JSONObject(jsonResponse);
-            WeatherData weatherData = parseWeatherFromJson(jsonObject);
-
-            updateWeatherUI(location, weatherData);
-            checkWeatherAlerts(weatherData);
-
-        } catch (Exception e) {
-            activity.showToast("Error parsing weather data: " + e.getMessage());
-        }
+    public WeatherCache getWeatherCache() {
+        return weatherCache;
     }
 
-    private WeatherData parseWeatherFromJson(JSONObject jsonObject) throws Exception {
-        WeatherData weatherData = new WeatherData();
-
-        // Main weather data
-        JSONObject main = jsonObject.getJSONObject("main");
-        weatherData.temperature = main.getDouble("temp");
-        weatherData.humidity = main.getInt("humidity");
-
-        // Wind data
-        JSONObject wind = jsonObject.getJSONObject("wind");
-        weatherData.windSpeed = wind.getDouble("speed");
-        weatherData.windDirection = wind.has("deg") ? wind.getDouble("deg") : 0;
-
-        // Weather conditions
-        JSONArray weatherArray = jsonObject.getJSONArray("weather");
-        for (int i = 0; i < weatherArray.length(); i++) {
-            JSONObject weatherObj = weatherArray.getJSONObject(i);
-            String mainCondition = weatherObj.getString("main");
-
-            if (mainCondition.equalsIgnoreCase("Rain")) {
-                weatherData.weatherIcon = "🌧️";
-                weatherData.weatherCondition = "Rain";
-            } else if (mainCondition.equalsIgnoreCase("Snow")) {
-                weatherData.weatherIcon = "❄️";
-                weatherData.weatherCondition = "Snow";
-            } else if (mainCondition.equalsIgnoreCase("Thunderstorm")) {
-                weatherData.weatherIcon = "⚡";
-                weatherData.weatherCondition = "Thunderstorm";
-                weatherData.isThunderstorm = true;
-            } else if (mainCondition.equalsIgnoreCase("Clouds")) {
-                weatherData.weatherIcon = "☁️";
-                weatherData.weatherCondition = "Clouds";
-            } else {
-                weatherData.weatherIcon = "☀️";
-                weatherData.weatherCondition = "Clear";
-            }
-        }
-
-        // Precipitation data
-        if (jsonObject.has("rain")) {
-            weatherData.rainAmount = jsonObject.getJSONObject("rain").optDouble("1h", 0);
-        }
-        if (jsonObject.has("snow")) {
-            weatherData.snowAmount = jsonObject.getJSONObject("snow").optDouble("1h", 0);
-        }
-
-        return weatherData;
+    public WeatherAPI getWeatherAPI() {
+        return weatherAPI;
     }
 
     private void updateWeatherUI(String location, WeatherData weatherData) {
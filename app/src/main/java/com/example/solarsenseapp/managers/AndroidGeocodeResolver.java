@@ -0,0 +1,36 @@
+package com.example.solarsenseapp.managers;
+
+import android.content.Context;
+import android.location.Address;
+import android.location.Geocoder;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.network.GeocodeResolver;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * GeocodeResolver backed by the platform Geocoder. Blocks, often on the network.
+ */
+public class AndroidGeocodeResolver implements GeocodeResolver {
+
+    private final Context context;
+
+    public AndroidGeocodeResolver(Context context) {
+        this.context = context.getApplicationContext();
+    }
+
+    @Override
+    public Coordinates resolve(String locationName) throws IOException {
+        if (!Geocoder.isPresent()) {
+            throw new IOException("No geocoder available on this device");
+        }
+        List<Address> addresses = new Geocoder(context).getFromLocationName(locationName, 1);
+        if (addresses == null || addresses.isEmpty()) {
+            return null;
+        }
+        Address address = addresses.get(0);
+        return new Coordinates(address.getLatitude(), address.getLongitude());
+    }
+}
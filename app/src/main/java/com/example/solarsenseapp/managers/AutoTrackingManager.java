@@ -1,108 +1,238 @@
 package com.example.solarsenseapp.managers;
 
-import android.location.Address;
-import android.location.Geocoder;
 import android.location.Location;
-import android.os.Handler;
 import android.util.Log;
 
-import com.example.solarsenseapp.MainActivity;
-import com.example.solarsenseapp.controllers.ServoController;
+import com.example.solarsenseapp.history.YieldStore;
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.network.GeocodeCache;
+import com.example.solarsenseapp.network.GeocodeResolver;
+import com.example.solarsenseapp.network.WeatherSource;
+import com.example.solarsenseapp.telemetry.TelemetryBuffer;
+import com.example.solarsenseapp.tracking.Clock;
+import com.example.solarsenseapp.tracking.ExecutorTickScheduler;
+import com.example.solarsenseapp.tracking.SolarTracker;
+import com.example.solarsenseapp.tracking.TrackingSnapshot;
+import com.example.solarsenseapp.tracking.WeatherStowMonitor;
 import com.example.solarsenseapp.utils.Constants;
 import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
 
+import java.io.File;
 import java.io.IOException;
-import java.util.Date;
-import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Runs auto mode inside TrackingService. The tracker and the weather stow
+ * monitor share one background thread, and every call into the tracker is
+ * posted to it, so the main thread does no work per tick and the tracker
+ * needs no locking. The same thread records a yield history sample every
+ * minute while auto mode runs.
+ */
 public class AutoTrackingManager {
     private static final String TAG = "AutoTrackingManager";
 
-    private final MainActivity activity;
-    private final ServoController servoController;
-    private final Handler autoHandler;
-    private Runnable autoRunnable;
+    private final TrackingService service;
+    private final ScheduledExecutorService trackingExecutor;
+    private final SolarTracker tracker;
+    private final WeatherStowMonitor stowMonitor;
+    private final GeocodeCache geocodeCache;
+    private final ExecutorService geocodeExecutor;
+    // Set while a start waits on the geocoder; stopAutoMode() clears it to cancel the start
+    private final AtomicBoolean startPending = new AtomicBoolean(false);
 
-    private boolean isAutoTrackingActive = false;
+    // Used only on the tracking thread
+    private ScheduledFuture<?> yieldRecording;
+    private final double[] solarPosition = new double[2];
+    private long telemetryWritten = -1;
 
-    public AutoTrackingManager(MainActivity activity, ServoController servoController) {
-        this.activity = activity;
-        this.servoController = servoController;
-        this.autoHandler = new Handler();
-
-        setupAutoRunnable();
+    public AutoTrackingManager(TrackingService service, WeatherSource weatherSource) {
+        this(service, weatherSource, new AndroidGeocodeResolver(service));
     }
 
-    private void setupAutoRunnable() {
-        autoRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (isAutoTrackingActive) {
-                    Location currentLocation = activity.getCurrentLocation();
-                    if (currentLocation != null) {
-                        updatePanelPosition(currentLocation);
+    /**
+     * @param weatherSource polled for stow decisions; pass the shared cache so polls stay cheap
+     * @param geocodeResolver resolves typed locations on a cache miss, e.g. an offline gazetteer
+     */
+    public AutoTrackingManager(TrackingService service, WeatherSource weatherSource,
+                               GeocodeResolver geocodeResolver) {
+        this.service = service;
+        this.geocodeCache = new GeocodeCache(geocodeResolver,
+                new File(service.getCacheDir(), Constants.GEOCODE_CACHE_FILE));
+        this.geocodeExecutor = Executors.newSingleThreadExecutor(r -> new Thread(r, "geocoder"));
+        this.trackingExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "solar-tracking");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.tracker = new SolarTracker(
+                Clock.SYSTEM,
+                this::getTrackingLocation,
+                service::moveServosAuto,
+                new ExecutorTickScheduler(trackingExecutor));
+        this.stowMonitor = new WeatherStowMonitor(
+                Clock.SYSTEM,
+                this::getTrackingLocation,
+                weatherSource,
+                new ExecutorTickScheduler(trackingExecutor),
+                new WeatherStowMonitor.StowListener() {
+                    @Override
+                    public void onStow(String reason) {
+                        onWeatherStow(reason);
                     }
-                    autoHandler.postDelayed(this, Constants.AUTO_UPDATE_INTERVAL);
-                }
-            }
-        };
+
+                    @Override
+                    public void onRelease() {
+                        onWeatherRelease();
+                    }
+                });
+    }
+
+    private Coordinates getTrackingLocation() {
+        Location location = service.getCurrentLocation();
+        return location != null ? new Coordinates(location.getLatitude(), location.getLongitude()) : null;
     }
 
-    public void startAutoMode(Location currentLocation, String locationText) {
+    /**
+     * @return false if there is no location to track, so auto mode did not start
+     */
+    public boolean startAutoMode(Location currentLocation, String locationText) {
         if (currentLocation != null) {
-            startTrackingWithLocation(currentLocation);
+            startTracking();
             Log.d(TAG, "Auto tracking started with GPS location");
         } else if (!locationText.isEmpty()) {
             startTrackingWithGeocoding(locationText);
         } else {
-            activity.showToast("Please enable GPS or enter location");
-            // Reset toggle if no location available
-            activity.runOnUiThread(() -> {
-                // This would require access to the toggle, might need a callback
-            });
+            service.showToast("Please enable GPS or enter location");
+            return false;
         }
+        return true;
     }
 
-    private void startTrackingWithLocation(Location location) {
-        isAutoTrackingActive = true;
-        updatePanelPosition(location);
-        autoHandler.postDelayed(autoRunnable, Constants.AUTO_UPDATE_INTERVAL);
-        activity.speakFeedback("Auto tracking started");
+    // Updates immediately from the service's current location, then on every interval
+    private void startTracking() {
+        trackingExecutor.execute(() -> {
+            tracker.start();
+            stowMonitor.start();
+            startYieldRecording();
+        });
+        service.onAutoModeChanged(true);
+        service.speakFeedback("Auto tracking started");
     }
 
-    private void startTrackingWithGeocoding(String locationText) {
-        new Thread(() -> {
-            try {
-                Geocoder geocoder = new Geocoder(activity);
-                List<Address> addresses = geocoder.getFromLocationName(locationText, 1);
+    private void startYieldRecording() {
+        if (yieldRecording == null) {
+            telemetryWritten = -1;
+            yieldRecording = trackingExecutor.scheduleAtFixedRate(this::recordYield,
+                    Constants.YIELD_RECORD_INTERVAL, Constants.YIELD_RECORD_INTERVAL, TimeUnit.MILLISECONDS);
+        }
+    }
 
-                if (addresses != null && !addresses.isEmpty()) {
-                    Location location = new Location("");
-                    location.setLatitude(addresses.get(0).getLatitude());
-                    location.setLongitude(addresses.get(0).getLongitude());
+    private void stopYieldRecording() {
+        if (yieldRecording != null) {
+            yieldRecording.cancel(false);
+            yieldRecording = null;
+        }
+    }
+
+    // What the panel is doing now, with a fresh sun position since the tracker ticks less often when idle
+    private void recordYield() {
+        YieldStore yieldStore = service.getYieldStore();
+        Location location = service.getCurrentLocation();
+        TrackingSnapshot snapshot = tracker.getSnapshot();
+        if (yieldStore == null || location == null || snapshot.baseAngle < 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        tracker.getEphemeris().lookup(location.getLatitude(), location.getLongitude(), now, solarPosition);
+        int panelAngle = snapshot.stowed ? Constants.STOW_PANEL_ANGLE : snapshot.panelAngle;
+        yieldStore.record(now, snapshot.baseAngle, panelAngle,
+                solarPosition[SolarCalculator.AZIMUTH], solarPosition[SolarCalculator.ALTITUDE],
+                stowMonitor.getLastWeather(), averagePowerSinceLastRecord());
+    }
 
-                    activity.setCurrentLocation(location);
+    // NaN when the ESP sent no telemetry since the previous sample
+    private float averagePowerSinceLastRecord() {
+        TelemetryBuffer buffer = service.getTelemetryClient().getBuffer();
+        long written = buffer.getWrittenCount();
+        long previous = telemetryWritten;
+        telemetryWritten = written;
+        if (previous < 0 || written <= previous) {
+            return Float.NaN;
+        }
+        return buffer.getAveragePower((int) Math.min(written - previous, buffer.capacity()));
+    }
+
+    // Runs on the weather callback thread; the queue takes the stow before anything else
+    private void onWeatherStow(String reason) {
+        service.stowPanel();
+        trackingExecutor.execute(() -> tracker.setStowed(true));
+        service.showToast("⚠️ Stowing panel: " + reason);
+        service.speakFeedback("Stowing panel for bad weather");
+    }
+
+    private void onWeatherRelease() {
+        service.releaseStow();
+        trackingExecutor.execute(() -> tracker.setStowed(false));
+        Log.d(TAG, "Weather stow released");
+    }
 
-                    activity.runOnUiThread(() -> {
-                        startTrackingWithLocation(location);
-                    });
+    private void startTrackingWithGeocoding(String locationText) {
+        // A place resolved before starts straight away, without touching the geocoder
+        Coordinates cached = geocodeCache.lookup(locationText);
+        if (cached != null) {
+            startTrackingAt(cached);
+            Log.d(TAG, "Auto tracking started with cached geocode");
+            return;
+        }
+
+        startPending.set(true);
+        geocodeExecutor.execute(() -> {
+            try {
+                Coordinates coordinates = geocodeCache.resolve(locationText);
+                if (!startPending.compareAndSet(true, false)) {
+                    Log.d(TAG, "Auto mode turned off while geocoding; not starting");
+                    return;
+                }
+
+                if (coordinates != null) {
+                    startTrackingAt(coordinates);
                     Log.d(TAG, "Auto tracking started with geocoded location");
                 } else {
-                    activity.showToast("Could not find location");
+                    service.showToast("Could not find location");
                     stopAutoMode();
                 }
             } catch (IOException e) {
                 Log.e(TAG, "Geocoding error", e);
-                activity.showToast("Geocoding error");
-                stopAutoMode();
+                if (startPending.compareAndSet(true, false)) {
+                    service.showToast("Geocoding error");
+                    stopAutoMode();
+                }
             }
-        }).start();
+        });
+    }
+
+    private void startTrackingAt(Coordinates coordinates) {
+        Location location = new Location("");
+        location.setLatitude(coordinates.latitude);
+        location.setLongitude(coordinates.longitude);
+
+        service.setCurrentLocation(location);
+        startTracking();
     }
 
     public void stopAutoMode() {
-        isAutoTrackingActive = false;
-        autoHandler.removeCallbacks(autoRunnable);
-        activity.speakFeedback("Auto tracking stopped");
+        startPending.set(false);
+        stowMonitor.stop();
+        tracker.stop();
+        trackingExecutor.execute(this::stopYieldRecording);
+        service.onAutoModeChanged(false);
+        service.speakFeedback("Auto tracking stopped");
         Log.d(TAG, "Auto tracking stopped");
     }
 
@@ -111,38 +241,42 @@ public class AutoTrackingManager {
             Log.w(TAG, "Cannot update panel position: location is null");
             return;
         }
+        double latitude = location.getLatitude();
+        double longitude = location.getLongitude();
+        trackingExecutor.execute(() -> tracker.updatePosition(latitude, longitude));
+    }
 
-        // Calculate solar position
-        SolarCalculator.SolarPosition solarPosition = SolarCalculator.calculateSolarPosition(
-                location.getLatitude(),
-                location.getLongitude(),
-                new Date()
-        );
-
-        // Convert to servo angles
-        int[] servoAngles = SolarCalculator.solarPositionToServoAngles(solarPosition);
-        int baseAngle = servoAngles[0];
-        int panelAngle = servoAngles[1];
-
-        // Update servos
-        servoController.setBaseServoAuto(baseAngle);
-        servoController.setPanelServoAuto(panelAngle);
-
-        // Log the update
-        Log.d(TAG, String.format("Panel position updated - Base: %d°, Panel: %d° (Solar: %.1f° azimuth, %.1f° altitude)",
-                baseAngle, panelAngle, solarPosition.azimuth, solarPosition.altitude));
-
-        // Check if it's nighttime
-        if (!SolarCalculator.isDaylight(solarPosition)) {
-            Log.i(TAG, "Sun is below horizon - positioning for next sunrise");
-        }
+    public SolarEphemeris getEphemeris() {
+        return tracker.getEphemeris();
+    }
+
+    // True between asking for auto mode with a typed location and the geocoder answering
+    public boolean isStartPending() {
+        return startPending.get();
     }
 
     public boolean isAutoTrackingActive() {
-        return isAutoTrackingActive;
+        return tracker.isActive();
+    }
+
+    // Lock-free; safe to poll from the UI thread
+    public TrackingSnapshot getTrackingSnapshot() {
+        return tracker.getSnapshot();
+    }
+
+    public WeatherStowMonitor getStowMonitor() {
+        return stowMonitor;
+    }
+
+    public GeocodeCache getGeocodeCache() {
+        return geocodeCache;
     }
 
     public void cleanup() {
-        stopAutoMode();
+        stowMonitor.stop();
+        tracker.stop();
+        trackingExecutor.shutdownNow();
+        geocodeExecutor.shutdownNow();
+        geocodeCache.shutdown();
     }
-}
\ No newline at end of file
+}
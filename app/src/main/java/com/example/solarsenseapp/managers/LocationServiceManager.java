@@ -1,24 +1,24 @@
 package com.example.solarsenseapp.managers;
 
 import android.Manifest;
+import android.content.Context;
 import android.content.pm.PackageManager;
 import android.location.LocationListener;
 import android.util.Log;
 
 import androidx.core.content.ContextCompat;
 
-import com.example.solarsenseapp.MainActivity;
 import com.example.solarsenseapp.utils.Constants;
 
 public class LocationServiceManager {
     private static final String TAG = "LocationServiceManager";
 
-    private final MainActivity activity;
+    private final TrackingService service;
     private final LocationListener locationListener;
     private android.location.LocationManager systemLocationManager;
 
-    public LocationServiceManager(MainActivity activity, LocationListener locationListener) {
-        this.activity = activity;
+    public LocationServiceManager(TrackingService service, LocationListener locationListener) {
+        this.service = service;
         this.locationListener = locationListener;
 
         initializeLocationService();
@@ -30,11 +30,11 @@ public class LocationServiceManager {
             return;
         }
 
-        systemLocationManager = (android.location.LocationManager) activity.getSystemService(MainActivity.LOCATION_SERVICE);
+        systemLocationManager = (android.location.LocationManager) service.getSystemService(Context.LOCATION_SERVICE);
 
         if (systemLocationManager == null) {
             Log.e(TAG, "LocationManager is null");
-            activity.showToast("Location services not available");
+            service.showToast("Location services not available");
             return;
         }
 
@@ -64,7 +64,7 @@ public class LocationServiceManager {
 
         } catch (SecurityException e) {
             Log.e(TAG, "Security Exception when requesting location updates: " + e.getMessage());
-            activity.showToast("Location permission denied");
+            service.showToast("Location permission denied");
         }
     }
 
@@ -101,9 +101,9 @@ public class LocationServiceManager {
     }
 
     public boolean hasLocationPermission() {
-        return ContextCompat.checkSelfPermission(activity, Manifest.permission.ACCESS_FINE_LOCATION)
+        return ContextCompat.checkSelfPermission(service, Manifest.permission.ACCESS_FINE_LOCATION)
                 == PackageManager.PERMISSION_GRANTED ||
-                ContextCompat.checkSelfPermission(activity, Manifest.permission.ACCESS_COARSE_LOCATION)
+                ContextCompat.checkSelfPermission(service, Manifest.permission.ACCESS_COARSE_LOCATION)
                         == PackageManager.PERMISSION_GRANTED;
     }
 
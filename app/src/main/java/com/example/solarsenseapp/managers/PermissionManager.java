@@ -2,6 +2,7 @@ package com.example.solarsenseapp.managers;
 
 import android.Manifest;
 import android.content.pm.PackageManager;
+import android.os.Build;
 import android.util.Log;
 
 import androidx.core.app.ActivityCompat;
@@ -14,6 +15,8 @@ public class PermissionManager {
     private static final String TAG = "PermissionManager";
 
     private final MainActivity activity;
+    // Set while the notification request waits for the location (or microphone) dialog to close
+    private boolean notificationRequestDeferred = false;
 
     // Required permissions
     private static final String[] REQUIRED_PERMISSIONS = {
@@ -39,6 +42,14 @@ public class PermissionManager {
             requestLocationPermissions();
         }
 
+        // Android drops a request made while another permission dialog is showing,
+        // so the notification request is sent from the pending dialog's result
+        if (!hasLocationPermissions() || !hasMicrophonePermission()) {
+            notificationRequestDeferred = true;
+        } else {
+            requestNotificationPermissionIfNeeded();
+        }
+
         // Log permission status
         logPermissionStatus();
     }
@@ -60,6 +71,12 @@ public class PermissionManager {
                 == PackageManager.PERMISSION_GRANTED;
     }
 
+    public boolean hasNotificationPermission() {
+        return Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU ||
+                ContextCompat.checkSelfPermission(activity, Manifest.permission.POST_NOTIFICATIONS)
+                        == PackageManager.PERMISSION_GRANTED;
+    }
+
     public boolean hasInternetPermission() {
         return ContextCompat.checkSelfPermission(activity, Manifest.permission.INTERNET)
                 == PackageManager.PERMISSION_GRANTED;
@@ -82,14 +99,38 @@ public class PermissionManager {
         Log.d(TAG, "Requesting location permissions");
     }
 
+    // The tracking notification is hidden without this on Android 13+
+    private void requestNotificationPermissionIfNeeded() {
+        notificationRequestDeferred = false;
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.TIRAMISU || hasNotificationPermission()) {
+            return;
+        }
+        ActivityCompat.requestPermissions(activity,
+                new String[]{Manifest.permission.POST_NOTIFICATIONS},
+                Constants.NOTIFICATION_PERMISSION_REQUEST);
+        Log.d(TAG, "Requesting notification permission");
+    }
+
     public void handlePermissionResult(int requestCode, int[] grantResults) {
         switch (requestCode) {
             case Constants.RECORD_AUDIO_PERMISSION_REQUEST:
                 handleMicrophonePermissionResult(grantResults);
+                // Only the microphone was asked for; otherwise the location result sends it
+                if (notificationRequestDeferred && hasLocationPermissions()) {
+                    requestNotificationPermissionIfNeeded();
+                }
                 break;
 
             case Constants.LOCATION_PERMISSION_REQUEST:
                 handleLocationPermissionResult(grantResults);
+                if (notificationRequestDeferred) {
+                    requestNotificationPermissionIfNeeded();
+                }
+                break;
+
+            case Constants.NOTIFICATION_PERMISSION_REQUEST:
+                Log.d(TAG, "Notification permission " + (grantResults.length > 0
+                        && grantResults[0] == PackageManager.PERMISSION_GRANTED ? "granted" : "denied"));
                 break;
 
             default:
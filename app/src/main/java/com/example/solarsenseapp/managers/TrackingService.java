@@ -0,0 +1,449 @@
+package com.example.solarsenseapp.managers;
+
+import android.Manifest;
+import android.app.Notification;
+import android.app.PendingIntent;
+import android.app.Service;
+import android.content.Intent;
+import android.content.pm.PackageManager;
+import android.content.pm.ServiceInfo;
+import android.location.Location;
+import android.location.LocationListener;
+import android.os.Binder;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.IBinder;
+import android.os.Looper;
+import android.util.Log;
+import android.widget.Toast;
+
+import androidx.core.app.NotificationChannelCompat;
+import androidx.core.app.NotificationCompat;
+import androidx.core.app.NotificationManagerCompat;
+import androidx.core.app.ServiceCompat;
+import androidx.core.content.ContextCompat;
+
+import com.example.solarsenseapp.MainActivity;
+import com.example.solarsenseapp.R;
+import com.example.solarsenseapp.history.YieldStore;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ESPControlChannel;
+import com.example.solarsenseapp.network.ServoCommandQueue;
+import com.example.solarsenseapp.network.ServoJournal;
+import com.example.solarsenseapp.network.WeatherAPI;
+import com.example.solarsenseapp.network.WeatherCache;
+import com.example.solarsenseapp.telemetry.TelemetryBuffer;
+import com.example.solarsenseapp.telemetry.TelemetryClient;
+import com.example.solarsenseapp.telemetry.TelemetryFrameDecoder;
+import com.example.solarsenseapp.tracking.ExecutorTickScheduler;
+import com.example.solarsenseapp.tracking.LocationFilter;
+import com.example.solarsenseapp.tracking.TrackingSnapshot;
+import com.example.solarsenseapp.utils.AndroidLogger;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+
+/**
+ * Owns everything that should outlive the UI: the ESP connection pool, the
+ * weather and geocode caches, location updates, the auto tracking loop and
+ * the yield history.
+ * MainActivity binds to it for display and control, so rotating the screen or
+ * leaving the app keeps the warm connections, caches and ephemeris. While auto
+ * mode runs the service is started in the foreground, so tracking carries on
+ * with no Activity at all.
+ */
+public class TrackingService extends Service implements LocationListener {
+    private static final String TAG = "TrackingService";
+
+    private static final String ACTION_STOP_TRACKING = "com.example.solarsenseapp.action.STOP_TRACKING";
+    private static final String CHANNEL_ID = "tracking";
+    private static final int NOTIFICATION_ID = 1;
+
+    /**
+     * Implemented by the bound UI. Calls arrive on background threads, except
+     * onAutoModeChanged, which arrives on the main thread.
+     */
+    public interface Client {
+        void speakFeedback(String message);
+        void onPanelMoved(int baseAngle, int panelAngle);
+        void onStowChanged(boolean stowed);
+        void onAutoModeChanged(boolean active);
+    }
+
+    public class LocalBinder extends Binder {
+        public TrackingService getService() {
+            return TrackingService.this;
+        }
+    }
+
+    private final IBinder binder = new LocalBinder();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    private ESPCommunicator espCommunicator;
+    private ServoCommandQueue commandQueue;
+    private WeatherAPI weatherAPI;
+    private WeatherCache weatherCache;
+    private AutoTrackingManager autoTrackingManager;
+    private LocationServiceManager locationServiceManager;
+    private ExecutorTickScheduler telemetryScheduler;
+    private TelemetryClient telemetryClient;
+    private ExecutorTickScheduler journalScheduler;
+    private ServoJournal servoJournal; // null if the journal file could not be opened
+    private YieldStore yieldStore; // null if the history files could not be opened
+    private final LocationFilter locationFilter = new LocationFilter();
+
+    private volatile Location currentLocation; // read by the tracking thread
+    private volatile Client client;
+    private volatile boolean autoMode = false;
+    private boolean foreground = false; // main thread only
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        TrackingLog.setLogger(new AndroidLogger());
+
+        espCommunicator = new ESPCommunicator();
+        // Servo moves use the persistent channel when the firmware offers one, HTTP otherwise
+        espCommunicator.setControlChannel(new ESPControlChannel());
+        openServoJournal();
+        commandQueue = new ServoCommandQueue(espCommunicator);
+        weatherAPI = new WeatherAPI();
+        weatherCache = new WeatherCache(weatherAPI, new File(getCacheDir(), "weather"));
+        try {
+            yieldStore = new YieldStore(new File(getFilesDir(), "yield"), TimeZone.getDefault());
+        } catch (IOException e) {
+            Log.e(TAG, "Yield history unavailable", e);
+        }
+        autoTrackingManager = new AutoTrackingManager(this, weatherCache);
+        locationServiceManager = new LocationServiceManager(this, this);
+
+        // Read-back polls only while someone uses it; see updateTelemetryPolling()
+        telemetryScheduler = new ExecutorTickScheduler(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "telemetry");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        telemetryClient = new TelemetryClient(espCommunicator,
+                new TelemetryFrameDecoder(new TelemetryBuffer(Constants.TELEMETRY_BUFFER_CAPACITY)),
+                telemetryScheduler);
+
+        NotificationManagerCompat.from(this).createNotificationChannel(
+                new NotificationChannelCompat.Builder(CHANNEL_ID, NotificationManagerCompat.IMPORTANCE_LOW)
+                        .setName("Solar tracking")
+                        .build());
+        Log.d(TAG, "Tracking service created");
+    }
+
+    // Every servo command is journaled; replaying it tells the UI where the servos were left
+    private void openServoJournal() {
+        try {
+            servoJournal = new ServoJournal(new File(getFilesDir(), "servo-journal"));
+        } catch (IOException e) {
+            Log.e(TAG, "Servo journal unavailable", e);
+            return;
+        }
+        journalScheduler = new ExecutorTickScheduler(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "servo-journal");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        servoJournal.start(journalScheduler);
+        espCommunicator.setJournal(servoJournal);
+    }
+
+    @Override
+    public int onStartCommand(Intent intent, int flags, int startId) {
+        if (intent != null && ACTION_STOP_TRACKING.equals(intent.getAction())) {
+            stopAutoMode();
+        }
+        // Tracking state lives in memory, so there is nothing to resume after the process is killed
+        return START_NOT_STICKY;
+    }
+
+    @Override
+    public IBinder onBind(Intent intent) {
+        return binder;
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        telemetryClient.stop();
+        telemetryScheduler.shutdown();
+        autoTrackingManager.cleanup();
+        if (yieldStore != null) {
+            yieldStore.flush();
+        }
+        locationServiceManager.cleanup();
+        weatherCache.shutdown();
+        weatherAPI.shutdown();
+        // Also closes the journal, flushing what is left
+        espCommunicator.shutdown();
+        if (journalScheduler != null) {
+            journalScheduler.shutdown();
+        }
+        dumpMetrics();
+        Log.d(TAG, "Tracking service destroyed");
+    }
+
+    // The last session's latencies and error counts survive for a bug report, e.g. via adb pull
+    private void dumpMetrics() {
+        try (OutputStream out = new FileOutputStream(new File(getFilesDir(), "metrics.bin"))) {
+            MetricsRegistry.getDefault().snapshot().writeTo(out);
+        } catch (IOException e) {
+            Log.w(TAG, "Could not write metrics dump", e);
+        }
+    }
+
+    // Auto mode
+
+    // Called from the visible Activity, the last point where Android 12+ reliably lets us start a
+    // foreground service; a typed location finishes starting on the geocoder thread seconds later
+    public void startAutoMode(String locationText) {
+        enterForeground();
+        if (!autoTrackingManager.startAutoMode(currentLocation, locationText)) {
+            // Nothing to track; hand the toggle and the manual controls back
+            onAutoModeChanged(false);
+        }
+    }
+
+    // Also cancels a start still waiting on the geocoder
+    public void stopAutoMode() {
+        if (autoMode || autoTrackingManager.isStartPending()) {
+            autoTrackingManager.stopAutoMode();
+        }
+    }
+
+    // Any thread; the foreground state and the client hear about it on the main thread
+    void onAutoModeChanged(boolean active) {
+        autoMode = active;
+        mainHandler.post(() -> applyAutoMode(active));
+    }
+
+    private void applyAutoMode(boolean active) {
+        updateTelemetryPolling();
+        if (active) {
+            enterForeground();
+        } else {
+            exitForeground();
+        }
+        Client current = client;
+        if (current != null) {
+            current.onAutoModeChanged(active);
+        }
+    }
+
+    private void enterForeground() {
+        if (foreground) {
+            return;
+        }
+        foreground = true;
+        // Started as well as bound, so tracking survives the Activity unbinding
+        ContextCompat.startForegroundService(this, new Intent(this, TrackingService.class));
+        ServiceCompat.startForeground(this, NOTIFICATION_ID, buildNotification(), foregroundServiceType());
+    }
+
+    // Android 14 refuses the location type without a location permission, which users
+    // tracking a typed location often have not granted
+    private int foregroundServiceType() {
+        if (Build.VERSION.SDK_INT < Build.VERSION_CODES.Q) {
+            return 0;
+        }
+        return hasLocationPermission()
+                ? ServiceInfo.FOREGROUND_SERVICE_TYPE_LOCATION
+                : ServiceInfo.FOREGROUND_SERVICE_TYPE_DATA_SYNC;
+    }
+
+    private boolean hasLocationPermission() {
+        return ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_FINE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED
+                || ContextCompat.checkSelfPermission(this, Manifest.permission.ACCESS_COARSE_LOCATION)
+                == PackageManager.PERMISSION_GRANTED;
+    }
+
+    private void exitForeground() {
+        foreground = false;
+        ServiceCompat.stopForeground(this, ServiceCompat.STOP_FOREGROUND_REMOVE);
+        if (client == null) {
+            // Nobody is watching; let the service go
+            stopSelf();
+        }
+    }
+
+    private Notification buildNotification() {
+        PendingIntent openApp = PendingIntent.getActivity(this, 0,
+                new Intent(this, MainActivity.class), PendingIntent.FLAG_IMMUTABLE);
+        PendingIntent stopTracking = PendingIntent.getService(this, 1,
+                new Intent(this, TrackingService.class).setAction(ACTION_STOP_TRACKING),
+                PendingIntent.FLAG_IMMUTABLE);
+
+        return new NotificationCompat.Builder(this, CHANNEL_ID)
+                .setSmallIcon(R.drawable.ic_solar_panel)
+                .setContentTitle("Solar tracking active")
+                .setContentText("Following the sun in the background")
+                .setOngoing(true)
+                .setContentIntent(openApp)
+                .addAction(0, "Stop", stopTracking)
+                .build();
+    }
+
+    // Servo output for the tracker and the stow monitor
+
+    void moveServosAuto(int baseAngle, int panelAngle) {
+        // Through the queue, so a weather stow always orders after it
+        if (!commandQueue.submitMove(baseAngle, panelAngle, ServoJournal.Source.AUTO)) {
+            return;
+        }
+        Client current = client;
+        if (current != null) {
+            current.onPanelMoved(baseAngle, panelAngle);
+        }
+    }
+
+    void stowPanel() {
+        commandQueue.stow(Constants.STOW_PANEL_ANGLE);
+        Client current = client;
+        if (current != null) {
+            current.onStowChanged(true);
+        }
+    }
+
+    void releaseStow() {
+        commandQueue.releaseStow();
+        Client current = client;
+        if (current != null) {
+            current.onStowChanged(false);
+        }
+    }
+
+    // Location
+
+    public void onLocationPermissionGranted() {
+        locationServiceManager.initializeLocationService();
+    }
+
+    // GPS and network fixes both land here; only the best one is kept, and
+    // the tracker hears about it only when a servo target would move
+    @Override
+    public void onLocationChanged(Location location) {
+        LocationFilter.Result result = locationFilter.offer(location.getLatitude(), location.getLongitude(),
+                location.hasAccuracy() ? location.getAccuracy() : 0, location.getTime(),
+                location.getProvider(), System.currentTimeMillis());
+        if (!result.isAccepted()) {
+            return;
+        }
+        currentLocation = location;
+        if (autoMode && result == LocationFilter.Result.RECOMPUTE) {
+            autoTrackingManager.updatePanelPosition(location);
+        }
+    }
+
+    @Override
+    public void onStatusChanged(String provider, int status, Bundle extras) {}
+
+    @Override
+    public void onProviderEnabled(String provider) {}
+
+    @Override
+    public void onProviderDisabled(String provider) {}
+
+    public Location getCurrentLocation() {
+        return currentLocation;
+    }
+
+    // A typed or reset location replaces whatever the providers reported
+    public void setCurrentLocation(Location location) {
+        locationFilter.reset();
+        this.currentLocation = location;
+    }
+
+    // Feedback goes to the bound UI; toasts also work with no Activity
+
+    public void showToast(String message) {
+        mainHandler.post(() -> Toast.makeText(this, message, Toast.LENGTH_SHORT).show());
+    }
+
+    public void speakFeedback(String message) {
+        Client current = client;
+        if (current != null) {
+            current.speakFeedback(message);
+        }
+    }
+
+    public void setClient(Client client) {
+        this.client = client;
+        updateTelemetryPolling();
+    }
+
+    // Telemetry feeds the UI and the yield history; with neither in use, leave the ESP and the transport alone
+    private synchronized void updateTelemetryPolling() {
+        boolean wanted = client != null || autoMode;
+        if (wanted && !telemetryClient.isActive()) {
+            telemetryClient.start();
+        } else if (!wanted && telemetryClient.isActive()) {
+            telemetryClient.stop();
+        }
+    }
+
+    // Getters
+
+    public boolean isAutoTrackingActive() {
+        return autoMode;
+    }
+
+    public TrackingSnapshot getTrackingSnapshot() {
+        return autoTrackingManager.getTrackingSnapshot();
+    }
+
+    public ESPCommunicator getESPCommunicator() {
+        return espCommunicator;
+    }
+
+    public ServoCommandQueue getCommandQueue() {
+        return commandQueue;
+    }
+
+    // Null if storage failed
+    public ServoJournal getServoJournal() {
+        return servoJournal;
+    }
+
+    // Measured angles, voltage and current from the ESP
+    public TelemetryClient getTelemetryClient() {
+        return telemetryClient;
+    }
+
+    // Recorded while auto mode runs; null if storage failed
+    public YieldStore getYieldStore() {
+        return yieldStore;
+    }
+
+    // ESP and weather latencies, error counts, tick durations and queue depth so far
+    public String getMetricsReport() {
+        return MetricsRegistry.getDefault().snapshot().report();
+    }
+
+    public WeatherAPI getWeatherAPI() {
+        return weatherAPI;
+    }
+
+    public WeatherCache getWeatherCache() {
+        return weatherCache;
+    }
+
+    public LocationFilter getLocationFilter() {
+        return locationFilter;
+    }
+
+    public AutoTrackingManager getAutoTrackingManager() {
+        return autoTrackingManager;
+    }
+}
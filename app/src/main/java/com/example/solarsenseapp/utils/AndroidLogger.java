@@ -0,0 +1,35 @@
+package com.example.solarsenseapp.utils;
+
+import android.util.Log;
+
+/**
+ * Routes tracking core logs to logcat.
+ */
+public class AndroidLogger implements Logger {
+
+    // Off by default; enable with adb shell setprop log.tag.<TAG> DEBUG
+    @Override
+    public boolean isDebugEnabled(String tag) {
+        return Log.isLoggable(tag, Log.DEBUG);
+    }
+
+    @Override
+    public void d(String tag, String message) {
+        Log.d(tag, message);
+    }
+
+    @Override
+    public void i(String tag, String message) {
+        Log.i(tag, message);
+    }
+
+    @Override
+    public void w(String tag, String message) {
+        Log.w(tag, message);
+    }
+
+    @Override
+    public void e(String tag, String message, Throwable throwable) {
+        Log.e(tag, message, throwable);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.solarsenseapp.controllers;
+
+import com.example.solarsenseapp.utils.Constants;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ServoControllerTest {
+
+    @Test
+    public void restoredBaseAngle_isDrawnReversedOnTheSeekBar() {
+        // A base restored at 30° sits at progress 150; progress 30 would draw it mirrored
+        assertEquals(150, ServoController.baseProgressFor(30));
+        assertEquals(Constants.SERVO_MAX_ANGLE, ServoController.baseProgressFor(Constants.SERVO_MIN_ANGLE));
+        assertEquals(Constants.SERVO_MIN_ANGLE, ServoController.baseProgressFor(Constants.SERVO_MAX_ANGLE));
+    }
+
+    @Test
+    public void restoredBaseAngle_roundTripsThroughTheSeekBarProgress() {
+        for (int angle = Constants.SERVO_MIN_ANGLE; angle <= Constants.SERVO_MAX_ANGLE; angle++) {
+            int progress = ServoController.baseProgressFor(angle);
+            assertEquals(angle, ServoController.baseAngleFor(progress));
+        }
+    }
+}
@@ -0,0 +1,27 @@
+plugins {
+    java
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    jmh(project(":tracking-core"))
+    jmh(testFixtures(project(":tracking-core")))
+    jmh(libs.json)
+}
+
+// Run with: ./gradlew :benchmarks:jmh  (results in build/results/jmh)
+// Mode, time unit, forks and iteration counts come from each benchmark's annotations
+jmh {
+    jmhVersion = libs.versions.jmh
+    profilers = listOf("gc")
+    resultFormat = "JSON"
+}
@@ -0,0 +1,76 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ESPControlChannel;
+import com.example.solarsenseapp.network.StubControlServer;
+import com.example.solarsenseapp.network.StubEspServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Command to ack for one servo move against local stubs: an HTTP GET on the
+ * keep-alive transport, or a frame on the persistent control channel.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ControlChannelBenchmark {
+
+    @Param({"http", "channel"})
+    public String transport;
+
+    private StubEspServer httpServer;
+    private StubControlServer controlServer;
+    private ESPCommunicator communicator;
+    private int angle;
+
+    @Setup
+    public void setUp() throws Exception {
+        httpServer = new StubEspServer(true, 0);
+        controlServer = new StubControlServer();
+        communicator = new ESPCommunicator();
+        communicator.updateIP(httpServer.getBaseUrl());
+        if (transport.equals("channel")) {
+            ESPControlChannel channel = new ESPControlChannel(controlServer.getPort(), 200, 1000);
+            communicator.setControlChannel(channel);
+            long deadline = System.currentTimeMillis() + 5000;
+            while (!channel.isConnected()) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Control channel did not connect");
+                }
+                Thread.sleep(5);
+            }
+        }
+        // Warms the HTTP keep-alive connection, so only per-command cost is measured
+        EspMoveBenchmark.await(EspMoveBenchmark.send(callback -> communicator.sendBaseServo(0, callback)));
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        communicator.shutdown();
+        controlServer.close();
+        httpServer.close();
+    }
+
+    @Benchmark
+    public void commandToAck() throws Exception {
+        int next = angle = (angle + 1) % 180;
+        EspMoveBenchmark.await(EspMoveBenchmark.send(callback -> communicator.sendBaseServo(next, callback)));
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.StubEspServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A dual-axis move, end to end against a local stub ESP that takes 20 ms per
+ * request: one combined /move, or two per-axis requests in parallel on
+ * firmware without it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class EspMoveBenchmark {
+
+    private static final long ESP_DELAY_MS = 20;
+
+    @Param({"true", "false"})
+    public boolean combinedMove;
+
+    private StubEspServer server;
+    private ESPCommunicator communicator;
+
+    @Setup
+    public void setUp() throws Exception {
+        server = new StubEspServer(combinedMove, ESP_DELAY_MS);
+        communicator = new ESPCommunicator();
+        communicator.updateIP(server.getBaseUrl());
+        await(send(communicator::testConnection));
+    }
+
+    @TearDown
+    public void tearDown() {
+        communicator.shutdown();
+        server.close();
+    }
+
+    @Benchmark
+    public void dualAxisMove() throws Exception {
+        await(send(callback -> communicator.sendBothServos(120, 60, callback)));
+    }
+
+    interface Action {
+        void run(ESPCommunicator.ESPCallback callback);
+    }
+
+    static CompletableFuture<Void> send(Action action) {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        action.run(new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                done.complete(null);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                done.completeExceptionally(new IllegalStateException(errorMessage));
+            }
+        });
+        return done;
+    }
+
+    static void await(CompletableFuture<Void> done) throws Exception {
+        done.get(5, TimeUnit.SECONDS);
+    }
+}
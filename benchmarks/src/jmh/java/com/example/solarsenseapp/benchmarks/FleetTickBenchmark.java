@@ -0,0 +1,76 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.fleet.DeviceCalibration;
+import com.example.solarsenseapp.fleet.FleetController;
+import com.example.solarsenseapp.fleet.TickReport;
+import com.example.solarsenseapp.network.StubEspServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One fleet tick across 500 stub devices on five sites, each taking 2 ms per
+ * request. Sample mode reports the tick duration percentiles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class FleetTickBenchmark {
+
+    private static final long NOON_MILLIS = 1750487400000L; // 2025-06-21 06:30 UTC
+    private static final int SITES = 5;
+    private static final int DEVICES_PER_SITE = 100;
+
+    private final List<StubEspServer> servers = new ArrayList<>();
+    private ExecutorService farmExecutor;
+    private FleetController fleet;
+
+    @Setup
+    public void setUp() throws Exception {
+        farmExecutor = Executors.newFixedThreadPool(64);
+        fleet = new FleetController(() -> NOON_MILLIS, 64, 2000);
+        for (int s = 0; s < SITES; s++) {
+            String siteId = "site-" + s;
+            fleet.addSite(siteId, 20 + s, 70 + s);
+            for (int d = 0; d < DEVICES_PER_SITE; d++) {
+                StubEspServer server = new StubEspServer(true, 2, farmExecutor);
+                servers.add(server);
+                fleet.registerDevice(siteId + "/panel-" + d, siteId, server.getBaseUrl(),
+                        new DeviceCalibration(d % 5, 0, false));
+            }
+        }
+        fleet.probeDevices().get(30, TimeUnit.SECONDS);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fleet.shutdown();
+        for (StubEspServer server : servers) {
+            server.close();
+        }
+        farmExecutor.shutdownNow();
+    }
+
+    @Benchmark
+    public TickReport tick() throws Exception {
+        return fleet.tick().get(30, TimeUnit.SECONDS);
+    }
+}
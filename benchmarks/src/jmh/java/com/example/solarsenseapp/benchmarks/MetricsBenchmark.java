@@ -0,0 +1,57 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.metrics.Counter;
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.metrics.MetricsSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Recording cost of the metrics on the ESP and weather request paths, alone and with threads contending,
+ * and the cost of taking a snapshot and round-tripping it through the binary dump.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MetricsBenchmark {
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Histogram histogram = registry.histogram("bench.micros");
+    private final Counter counter = registry.counter("bench.count");
+    private long value;
+
+    @Benchmark
+    public void recordLatency() {
+        histogram.record(value++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public void incrementCounter() {
+        counter.increment();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void recordLatencyContended() {
+        histogram.record(System.nanoTime() & 0xFFFF);
+    }
+
+    @Benchmark
+    public MetricsSnapshot snapshotAndDump() throws IOException {
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        registry.snapshot().writeTo(dump);
+        return MetricsSnapshot.readFrom(new ByteArrayInputStream(dump.toByteArray()));
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.network.ServoJournal;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Journaling cost per servo command on the send path, and one group-commit
+ * flush of the mapped ring to storage.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ServoJournalBenchmark {
+
+    private File file;
+    private ServoJournal journal;
+    private int angle;
+
+    @Setup
+    public void setUp() throws IOException {
+        file = File.createTempFile("servo-journal", ".bin");
+        journal = new ServoJournal(file, 4096);
+    }
+
+    @TearDown
+    public void tearDown() {
+        journal.close();
+        file.delete();
+    }
+
+    @Benchmark
+    public void trackCommand() {
+        angle = (angle + 1) % 180;
+        journal.track(angle, -1, ServoJournal.Source.AUTO, null).onSuccess();
+    }
+
+    // One command per flush, so there is always something to write back
+    @Benchmark
+    public void trackAndFlush() {
+        trackCommand();
+        journal.flush();
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Hot paths of the auto-tracking loop: solar position, servo mapping and the
+ * human readable description. Run with -prof gc to see allocations per call.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class SolarCalculatorBenchmark {
+
+    private static final double LATITUDE = 28.6139;
+    private static final double LONGITUDE = 77.2090;
+    // 2025-06-21 12:00 IST, so the description benchmark takes the daytime branch
+    private static final long NOON_MILLIS = 1750487400000L;
+
+    private final double[] position = new double[2];
+    private final int[] servoAngles = new int[2];
+
+    private long timeMillis;
+    private long utcOffsetMillis;
+    private Date date;
+    private SolarCalculator.SolarPosition solarPosition;
+    private SolarEphemeris ephemeris;
+
+    @Setup
+    public void setUp() {
+        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+        timeMillis = NOON_MILLIS;
+        utcOffsetMillis = TimeZone.getDefault().getOffset(timeMillis);
+        date = new Date(timeMillis);
+        solarPosition = SolarCalculator.calculateSolarPosition(LATITUDE, LONGITUDE, date);
+        ephemeris = new SolarEphemeris();
+        ephemeris.lookup(LATITUDE, LONGITUDE, timeMillis, position);
+    }
+
+    @Benchmark
+    public SolarCalculator.SolarPosition calculateSolarPosition() {
+        return SolarCalculator.calculateSolarPosition(LATITUDE, LONGITUDE, date);
+    }
+
+    @Benchmark
+    public double[] calculateSolarPositionPrimitive() {
+        SolarCalculator.calculateSolarPosition(LATITUDE, LONGITUDE, timeMillis, utcOffsetMillis, position);
+        return position;
+    }
+
+    @Benchmark
+    public double[] ephemerisLookup() {
+        ephemeris.lookup(LATITUDE, LONGITUDE, timeMillis, position);
+        return position;
+    }
+
+    @Benchmark
+    public int[] solarPositionToServoAngles() {
+        return SolarCalculator.solarPositionToServoAngles(solarPosition);
+    }
+
+    @Benchmark
+    public void solarPositionToServoAnglesPrimitive(Blackhole blackhole) {
+        SolarCalculator.solarPositionToServoAngles(solarPosition.azimuth, solarPosition.altitude, servoAngles);
+        blackhole.consume(servoAngles);
+    }
+
+    @Benchmark
+    public String getSunPositionDescription() {
+        return SolarCalculator.getSunPositionDescription(solarPosition);
+    }
+}
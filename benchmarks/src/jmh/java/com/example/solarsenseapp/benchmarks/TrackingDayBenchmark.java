@@ -0,0 +1,129 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.tracking.AdaptiveIntervalPolicy;
+import com.example.solarsenseapp.tracking.IntervalPolicy;
+import com.example.solarsenseapp.tracking.MotionPlanner;
+import com.example.solarsenseapp.tracking.SolarTracker;
+import com.example.solarsenseapp.tracking.TickScheduler;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One simulated day of auto tracking over Delhi, minute by minute, with a
+ * fixed or the adaptive tick interval. Each operation is a whole day; after
+ * one warm-up day a single day is measured, so the counters describe that
+ * day: wakeups, servo commands, and daytime minutes the panel pointed further
+ * off than the deadband plus hysteresis.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+public class TrackingDayBenchmark {
+
+    private static final Coordinates DELHI = new Coordinates(28.6139, 77.2090);
+    private static final long MIDNIGHT_IST = 1750444200000L; // 2025-06-21 00:00 IST
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 86_400_000L;
+
+    @Param({"fixed", "adaptive"})
+    public String policy;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Day {
+        public long wakeups;
+        public long commands;
+        public long offTargetMinutes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            wakeups = 0;
+            commands = 0;
+            offTargetMinutes = 0;
+        }
+    }
+
+    private long now;
+    private Runnable pendingTick;
+    private long pendingDueMillis;
+    private final int[] commanded = new int[2];
+    private final double[] position = new double[2];
+    private final int[] ideal = new int[2];
+    private Day day;
+
+    private final TickScheduler manualScheduler = new TickScheduler() {
+        @Override
+        public void start(Runnable tick, long periodMillis) {}
+
+        @Override
+        public void scheduleNext(Runnable tick, long delayMillis) {
+            pendingTick = tick;
+            pendingDueMillis = now + delayMillis;
+        }
+
+        @Override
+        public void stop() {
+            pendingTick = null;
+        }
+    };
+
+    private SolarTracker newTracker() {
+        SolarEphemeris ephemeris = new SolarEphemeris();
+        IntervalPolicy intervalPolicy = policy.equals("fixed")
+                ? IntervalPolicy.fixed(Constants.AUTO_UPDATE_INTERVAL)
+                : new AdaptiveIntervalPolicy(ephemeris);
+        return new SolarTracker(() -> now, () -> DELHI, (base, panel) -> {
+            commanded[0] = base;
+            commanded[1] = panel;
+            day.commands++;
+        }, manualScheduler, ephemeris, new MotionPlanner(), intervalPolicy);
+    }
+
+    @Benchmark
+    public void simulateDay(Day day) {
+        this.day = day;
+        SolarTracker tracker = newTracker();
+        now = MIDNIGHT_IST;
+        tracker.start();
+        for (; now < MIDNIGHT_IST + DAY; now += MINUTE) {
+            if (pendingTick != null && pendingDueMillis <= now) {
+                day.wakeups++;
+                pendingTick.run();
+            }
+            SolarCalculator.calculateSolarPosition(DELHI.latitude, DELHI.longitude, now,
+                    TimeZone.getDefault().getOffset(now), position);
+            if (!SolarCalculator.isDaylight(position[SolarCalculator.ALTITUDE])) {
+                continue;
+            }
+            SolarCalculator.solarPositionToServoAngles(position[SolarCalculator.AZIMUTH],
+                    position[SolarCalculator.ALTITUDE], ideal);
+            int error = Math.max(Math.abs(commanded[0] - ideal[0]), Math.abs(commanded[1] - ideal[1]));
+            if (error > Constants.TRACKING_DEADBAND + Constants.TRACKING_HYSTERESIS) {
+                day.offTargetMinutes++;
+            }
+        }
+        tracker.stop();
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.voice.VoiceCommand;
+import com.example.solarsenseapp.voice.VoiceCommandParser;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Voice command dispatch, run once per recognizer result.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class VoiceCommandBenchmark {
+
+    // A mix of short commands, angle commands and the weather slot
+    static final String[] SPOKEN = {
+            "clockwise",
+            "counter-clockwise",
+            "panel up",
+            "base position max",
+            "stop tracking",
+            "weather for new york please",
+            "reset location",
+            "set base to 45 degrees",
+            "panel 120",
+            "hello there",
+    };
+
+    private final VoiceCommandParser parser = new VoiceCommandParser();
+    private int next = 0;
+
+    private String nextSpoken() {
+        String spoken = SPOKEN[next];
+        next = (next + 1) % SPOKEN.length;
+        return spoken;
+    }
+
+    @Benchmark
+    public VoiceCommand trieParser() {
+        return parser.parse(nextSpoken());
+    }
+
+    // The previous path: an ordered contains() chain, compiling a Pattern for each slot
+    @Benchmark
+    public Object containsChain() {
+        String command = nextSpoken();
+        if (command.contains("clockwise")) {
+            return VoiceCommand.Action.BASE_CLOCKWISE;
+        } else if (command.contains("counter") || command.contains("anti-clockwise")) {
+            return VoiceCommand.Action.BASE_COUNTER_CLOCKWISE;
+        } else if (command.contains("up") || command.contains("panel up")) {
+            return VoiceCommand.Action.PANEL_UP;
+        } else if (command.contains("down") || command.contains("panel down")) {
+            return VoiceCommand.Action.PANEL_DOWN;
+        } else if (command.contains("panel zero")) {
+            return VoiceCommand.Action.PANEL_ZERO;
+        } else if (command.contains("panel max")) {
+            return VoiceCommand.Action.PANEL_MAX;
+        } else if (command.contains("base zero")) {
+            return VoiceCommand.Action.BASE_ZERO;
+        } else if (command.contains("base max")) {
+            return VoiceCommand.Action.BASE_MAX;
+        } else if (command.contains("auto mode on") || command.contains("start tracking")) {
+            return VoiceCommand.Action.AUTO_MODE_ON;
+        } else if (command.contains("auto mode off") || command.contains("stop tracking")) {
+            return VoiceCommand.Action.AUTO_MODE_OFF;
+        } else if (command.contains("weather")) {
+            Pattern pattern = Pattern.compile("(weather|for|in)\\s+(.+?)(\\s+(please|now|today)|$)");
+            Matcher matcher = pattern.matcher(command);
+            return matcher.find() ? matcher.group(2).trim() : null;
+        } else if (command.contains("reset location") || command.contains("clear location")) {
+            return VoiceCommand.Action.RESET_LOCATION;
+        } else {
+            Pattern pattern = Pattern.compile("(\\d{1,3})");
+            Matcher matcher = pattern.matcher(command);
+            return matcher.find() ? Integer.parseInt(matcher.group(1)) : null;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.network.WeatherJsonParser;
+import com.example.solarsenseapp.network.WeatherStreamParser;
+
+import org.json.JSONException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Scanner;
+
+/**
+ * Weather response parsing as done after every OpenWeatherMap fetch.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class WeatherParseBenchmark {
+
+    // Captured OpenWeatherMap "current weather" response
+    static final String RESPONSE = "{\"coord\":{\"lon\":77.2167,\"lat\":28.6667},"
+            + "\"weather\":[{\"id\":211,\"main\":\"Thunderstorm\",\"description\":\"thunderstorm\",\"icon\":\"11d\"},"
+            + "{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":31.05,\"feels_like\":38.05,\"temp_min\":31.05,\"temp_max\":31.05,"
+            + "\"pressure\":1002,\"humidity\":74,\"sea_level\":1002,\"grnd_level\":977},"
+            + "\"visibility\":3000,\"wind\":{\"speed\":4.12,\"deg\":110,\"gust\":7.2},"
+            + "\"rain\":{\"1h\":1.27},\"clouds\":{\"all\":75},\"dt\":1724317800,"
+            + "\"sys\":{\"type\":1,\"id\":9165,\"country\":\"IN\",\"sunrise\":1724285826,\"sunset\":1724332938},"
+            + "\"timezone\":19800,\"id\":1273294,\"name\":\"Delhi\",\"cod\":200}";
+
+    // Stands in for the connection's InputStream; reset() rewinds it without allocating
+    private final ByteArrayInputStream body =
+            new ByteArrayInputStream(RESPONSE.getBytes(StandardCharsets.UTF_8));
+    private final WeatherStreamParser streamParser = new WeatherStreamParser();
+    private final WeatherData weatherData = new WeatherData();
+
+    @Benchmark
+    public WeatherData parseWeatherFromJson() throws JSONException {
+        return WeatherJsonParser.parse(RESPONSE);
+    }
+
+    // The previous path: Scanner into a StringBuilder, then a JSONObject tree
+    @Benchmark
+    public WeatherData scannerThenJsonObject() throws JSONException {
+        body.reset();
+        Scanner scanner = new Scanner(body);
+        StringBuilder response = new StringBuilder();
+        while (scanner.hasNext()) {
+            response.append(scanner.nextLine());
+        }
+        scanner.close();
+        return WeatherJsonParser.parse(response.toString());
+    }
+
+    @Benchmark
+    public WeatherData streamParser() throws IOException {
+        body.reset();
+        streamParser.parse(body, weatherData);
+        return weatherData;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.solarsenseapp.benchmarks;
+
+import com.example.solarsenseapp.history.YieldSeries;
+import com.example.solarsenseapp.history.YieldStore;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.TimeZone;
+
+/**
+ * Yield history queries behind the history charts, on a month of minute samples.
+ */
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class YieldStoreBenchmark {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 86_400_000L;
+    private static final long END = 1_750_000_000_000L;
+    private static final long START = END - 30 * DAY;
+
+    private File directory;
+    private YieldStore store;
+    private final YieldSeries month = new YieldSeries(30 * 96);
+    private long recordTime = END;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("yield-bench").toFile();
+        store = new YieldStore(directory, TimeZone.getTimeZone("Asia/Kolkata"));
+        for (long t = START; t < END; t += MINUTE) {
+            store.record(t, 90, 100, 180, 45, null, 12f);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public int monthOfQuarterHours() {
+        return store.query(YieldStore.Resolution.QUARTER_HOUR, START, END, month);
+    }
+
+    @Benchmark
+    public int monthOfDays() {
+        return store.query(YieldStore.Resolution.DAY, START, END, month);
+    }
+
+    @Benchmark
+    public float monthTrackingGain() {
+        return store.getTrackingGain(YieldStore.Resolution.DAY, START, END);
+    }
+
+    // One sample into all three resolutions, as recorded every minute
+    @Benchmark
+    public void record() {
+        recordTime += MINUTE;
+        store.record(recordTime, 90, 100, 180, 45, null, 12f);
+    }
+}
@@ -21,4 +21,6 @@ dependencyResolutionManagement {
 
 rootProject.name = "SolarSenseApp"
 include(":app")
+include(":tracking-core")
+include(":benchmarks")
  
\ No newline at end of file
@@ -0,0 +1,22 @@
+plugins {
+    `java-library`
+    // Stub ESP servers, shared by the unit tests and the :benchmarks module
+    `java-test-fixtures`
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+tasks.withType<JavaCompile>().configureEach {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    api(libs.okhttp)
+    // org.json ships with Android; only the JVM consumers need the artifact at runtime
+    compileOnly(libs.json)
+    testImplementation(libs.json)
+    testImplementation(libs.junit)
+}
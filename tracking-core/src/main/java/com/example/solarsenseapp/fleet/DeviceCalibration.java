@@ -0,0 +1,30 @@
+package com.example.solarsenseapp.fleet;
+
+import com.example.solarsenseapp.utils.Constants;
+
+/**
+ * Per-device mounting correction applied on top of the computed servo angles.
+ */
+public class DeviceCalibration {
+    public static final DeviceCalibration NONE = new DeviceCalibration(0, 0, false);
+
+    public final int baseOffset;
+    public final int panelOffset;
+    public final boolean baseReversed;
+
+    public DeviceCalibration(int baseOffset, int panelOffset, boolean baseReversed) {
+        this.baseOffset = baseOffset;
+        this.panelOffset = panelOffset;
+        this.baseReversed = baseReversed;
+    }
+
+    public int applyToBase(int baseAngle) {
+        int angle = (baseReversed ? Constants.SERVO_MAX_ANGLE - baseAngle : baseAngle) + baseOffset;
+        return Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, angle));
+    }
+
+    public int applyToPanel(int panelAngle) {
+        int angle = panelAngle + panelOffset;
+        return Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, angle));
+    }
+}
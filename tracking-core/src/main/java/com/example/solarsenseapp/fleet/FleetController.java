@@ -0,0 +1,281 @@
+package com.example.solarsenseapp.fleet;
+
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ESPTransport;
+import com.example.solarsenseapp.tracking.Clock;
+import com.example.solarsenseapp.tracking.TickScheduler;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives many ESP trackers from one host.
+ * Devices are grouped by site; the solar position is computed once per site
+ * per tick and the resulting moves are fanned out over a shared transport
+ * whose worker pool bounds how many requests run at once. Each device has
+ * its own request timeout, and a device that keeps failing is skipped for a
+ * few ticks so it cannot slow down the rest of the fleet.
+ */
+public class FleetController {
+    private static final String TAG = "FleetController";
+
+    private static class Site {
+        final String id;
+        final double latitude;
+        final double longitude;
+        final SolarEphemeris ephemeris = new SolarEphemeris();
+        final double[] solarPosition = new double[2];
+        final int[] servoAngles = new int[2];
+        final List<Device> devices = new ArrayList<>();
+
+        Site(String id, double latitude, double longitude) {
+            this.id = id;
+            this.latitude = latitude;
+            this.longitude = longitude;
+        }
+    }
+
+    private static class Device {
+        final String id;
+        final Site site;
+        final DeviceCalibration calibration;
+        final ESPCommunicator communicator;
+
+        // Only touched by the tick that commands the device and that tick's callbacks
+        int targetBase;
+        int targetPanel;
+        int consecutiveFailures;
+        int backoffTicksLeft;
+
+        Device(String id, Site site, DeviceCalibration calibration, ESPCommunicator communicator) {
+            this.id = id;
+            this.site = site;
+            this.calibration = calibration;
+            this.communicator = communicator;
+        }
+    }
+
+    private final Clock clock;
+    private final ESPTransport transport;
+    private final long deviceTimeoutMillis;
+    private final Map<String, Site> sites = new LinkedHashMap<>();
+    private final Map<String, Device> devices = new LinkedHashMap<>();
+    private final AtomicBoolean tickInProgress = new AtomicBoolean(false);
+
+    public FleetController(Clock clock) {
+        this(clock, Constants.FLEET_MAX_PARALLEL_REQUESTS, Constants.FLEET_DEVICE_TIMEOUT);
+    }
+
+    public FleetController(Clock clock, int maxParallelRequests, long deviceTimeoutMillis) {
+        this.clock = clock;
+        this.deviceTimeoutMillis = deviceTimeoutMillis;
+        // Idle sockets are kept per device so ticks do not pay a handshake for every panel
+        this.transport = new ESPTransport(maxParallelRequests, Constants.FLEET_MAX_IDLE_CONNECTIONS,
+                Constants.ESP_KEEP_ALIVE_DURATION);
+    }
+
+    public synchronized void addSite(String siteId, double latitude, double longitude) {
+        if (sites.containsKey(siteId)) {
+            throw new IllegalArgumentException("Site already registered: " + siteId);
+        }
+        sites.put(siteId, new Site(siteId, latitude, longitude));
+    }
+
+    public synchronized void registerDevice(String deviceId, String siteId, String espUrl,
+                                            DeviceCalibration calibration) {
+        Site site = sites.get(siteId);
+        if (site == null) {
+            throw new IllegalArgumentException("Unknown site: " + siteId);
+        }
+        if (devices.containsKey(deviceId)) {
+            throw new IllegalArgumentException("Device already registered: " + deviceId);
+        }
+
+        ESPCommunicator communicator = new ESPCommunicator(transport);
+        communicator.updateIP(espUrl);
+        communicator.setRequestTimeout(deviceTimeoutMillis);
+
+        Device device = new Device(deviceId, site, calibration, communicator);
+        devices.put(deviceId, device);
+        site.devices.add(device);
+    }
+
+    public synchronized void removeDevice(String deviceId) {
+        Device device = devices.remove(deviceId);
+        if (device != null) {
+            device.site.devices.remove(device);
+        }
+    }
+
+    public synchronized int getDeviceCount() {
+        return devices.size();
+    }
+
+    /**
+     * Probe every device for combined /move support, so ticks need one request per device
+     * @return Completes once every probe has answered or failed
+     */
+    public CompletableFuture<Void> probeDevices() {
+        List<Device> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(devices.values());
+        }
+
+        CompletableFuture<Void> result = new CompletableFuture<>();
+        if (snapshot.isEmpty()) {
+            result.complete(null);
+            return result;
+        }
+        AtomicInteger remaining = new AtomicInteger(snapshot.size());
+        ESPCommunicator.ESPCallback countDown = new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                if (remaining.decrementAndGet() == 0) {
+                    result.complete(null);
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                onSuccess();
+            }
+        };
+        for (Device device : snapshot) {
+            device.communicator.testConnection(countDown);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the sun position for every site and command every device once
+     * @return Completes when every commanded device has answered, failed or timed out
+     */
+    public CompletableFuture<TickReport> tick() {
+        CompletableFuture<TickReport> result = new CompletableFuture<>();
+        if (!tickInProgress.compareAndSet(false, true)) {
+            result.completeExceptionally(new IllegalStateException("Previous fleet tick still running"));
+            return result;
+        }
+
+        long startNanos = System.nanoTime();
+        long now = clock.currentTimeMillis();
+        List<Device> targets = new ArrayList<>();
+        int skipped = 0;
+
+        synchronized (this) {
+            for (Site site : sites.values()) {
+                if (site.devices.isEmpty()) {
+                    continue;
+                }
+                // One solar computation shared by every panel on the site
+                site.ephemeris.lookup(site.latitude, site.longitude, now, site.solarPosition);
+                SolarCalculator.solarPositionToServoAngles(site.solarPosition[SolarCalculator.AZIMUTH],
+                        site.solarPosition[SolarCalculator.ALTITUDE], site.servoAngles);
+
+                for (Device device : site.devices) {
+                    if (device.backoffTicksLeft > 0) {
+                        device.backoffTicksLeft--;
+                        skipped++;
+                        continue;
+                    }
+                    device.targetBase = device.calibration.applyToBase(site.servoAngles[SolarCalculator.BASE_ANGLE]);
+                    device.targetPanel = device.calibration.applyToPanel(site.servoAngles[SolarCalculator.PANEL_ANGLE]);
+                    targets.add(device);
+                }
+            }
+        }
+
+        TickCollector collector = new TickCollector(targets.size(), startNanos, skipped, result);
+        if (targets.isEmpty()) {
+            collector.finish();
+            return result;
+        }
+        for (Device device : targets) {
+            long sentNanos = System.nanoTime();
+            device.communicator.sendBothServos(device.targetBase, device.targetPanel,
+                    new ESPCommunicator.ESPCallback() {
+                        @Override
+                        public void onSuccess() {
+                            device.consecutiveFailures = 0;
+                            collector.deviceDone(true, System.nanoTime() - sentNanos);
+                        }
+
+                        @Override
+                        public void onError(String errorMessage) {
+                            recordFailure(device, errorMessage);
+                            collector.deviceDone(false, System.nanoTime() - sentNanos);
+                        }
+                    });
+        }
+        return result;
+    }
+
+    private void recordFailure(Device device, String errorMessage) {
+        device.consecutiveFailures++;
+        if (device.consecutiveFailures >= Constants.FLEET_FAILURE_THRESHOLD) {
+            device.backoffTicksLeft = Constants.FLEET_BACKOFF_TICKS;
+            device.consecutiveFailures = 0;
+            TrackingLog.w(TAG, "Device " + device.id + " keeps failing, skipping it for "
+                    + Constants.FLEET_BACKOFF_TICKS + " ticks: " + errorMessage);
+        }
+    }
+
+    // Gathers per-device results and completes the tick once the last device reports
+    private class TickCollector {
+        private final AtomicInteger remaining;
+        private final AtomicInteger succeeded = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final long[] latencyNanos;
+        private final AtomicInteger latencyCount = new AtomicInteger();
+        private final long startNanos;
+        private final int skipped;
+        private final CompletableFuture<TickReport> result;
+
+        TickCollector(int deviceCount, long startNanos, int skipped, CompletableFuture<TickReport> result) {
+            this.remaining = new AtomicInteger(deviceCount);
+            this.latencyNanos = new long[deviceCount];
+            this.startNanos = startNanos;
+            this.skipped = skipped;
+            this.result = result;
+        }
+
+        void deviceDone(boolean success, long elapsedNanos) {
+            (success ? succeeded : failed).incrementAndGet();
+            latencyNanos[latencyCount.getAndIncrement()] = elapsedNanos;
+            if (remaining.decrementAndGet() == 0) {
+                finish();
+            }
+        }
+
+        void finish() {
+            TickReport report = new TickReport(System.nanoTime() - startNanos,
+                    succeeded.get(), failed.get(), skipped, latencyNanos);
+            tickInProgress.set(false);
+            result.complete(report);
+        }
+    }
+
+    // Ticks on the given scheduler, skipping a tick while the previous one is still running
+    public void start(TickScheduler scheduler, long periodMillis) {
+        scheduler.start(() -> tick().whenComplete((report, error) -> {
+            if (error != null) {
+                TrackingLog.w(TAG, "Fleet tick skipped: " + error.getMessage());
+            } else {
+                TrackingLog.d(TAG, report.toString());
+            }
+        }), periodMillis);
+    }
+
+    public void shutdown() {
+        transport.shutdown();
+    }
+}
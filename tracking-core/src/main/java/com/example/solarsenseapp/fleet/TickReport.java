@@ -0,0 +1,52 @@
+package com.example.solarsenseapp.fleet;
+
+import java.util.Arrays;
+
+/**
+ * Outcome of one fleet tick: device counts and command latencies.
+ */
+public class TickReport {
+    public final long durationNanos;
+    public final int succeeded;
+    public final int failed;
+    public final int skipped;
+
+    // Sorted latencies of the commands that completed, successful or not
+    private final long[] latencyNanos;
+
+    TickReport(long durationNanos, int succeeded, int failed, int skipped, long[] latencyNanos) {
+        this.durationNanos = durationNanos;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.skipped = skipped;
+        this.latencyNanos = latencyNanos;
+        Arrays.sort(this.latencyNanos);
+    }
+
+    public double getDurationMillis() {
+        return durationNanos / 1e6;
+    }
+
+    public double latencyPercentileMillis(double percentile) {
+        return percentile(latencyNanos, percentile) / 1e6;
+    }
+
+    /**
+     * Nearest-rank percentile of sorted values
+     * @param percentile 0-100
+     */
+    public static long percentile(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sortedValues.length);
+        return sortedValues[Math.max(0, Math.min(sortedValues.length - 1, rank - 1))];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TickReport{duration=%.1fms, ok=%d, failed=%d, skipped=%d, p50=%.1fms, p99=%.1fms}",
+                getDurationMillis(), succeeded, failed, skipped,
+                latencyPercentileMillis(50), latencyPercentileMillis(99));
+    }
+}
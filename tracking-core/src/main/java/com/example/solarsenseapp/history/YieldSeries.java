@@ -0,0 +1,77 @@
+package com.example.solarsenseapp.history;
+
+/**
+ * Result of a YieldStore range query: one entry per recorded bucket, oldest
+ * first, in preallocated parallel arrays. Reuse one instance per chart so
+ * redrawing allocates nothing. Weather and power values are NaN for buckets
+ * recorded without them.
+ */
+public class YieldSeries {
+    public final long[] bucketStart;      // millis
+    public final int[] samples;
+    public final float[] baseAngle;       // mean commanded angle
+    public final float[] panelAngle;
+    public final float[] azimuth;         // mean solar position
+    public final float[] altitude;
+    public final float[] trackedIrradiance; // mean fraction of full sun on the tracked panel
+    public final float[] fixedIrradiance;   // the same for a flat, untracked panel
+    public final float[] temperature;
+    public final float[] windSpeed;
+    public final float[] rain;
+    public final float[] meanPower;       // watts
+    public final float[] maxPower;
+
+    private int size;
+    private long resolutionMillis;
+
+    public YieldSeries(int capacity) {
+        bucketStart = new long[capacity];
+        samples = new int[capacity];
+        baseAngle = new float[capacity];
+        panelAngle = new float[capacity];
+        azimuth = new float[capacity];
+        altitude = new float[capacity];
+        trackedIrradiance = new float[capacity];
+        fixedIrradiance = new float[capacity];
+        temperature = new float[capacity];
+        windSpeed = new float[capacity];
+        rain = new float[capacity];
+        meanPower = new float[capacity];
+        maxPower = new float[capacity];
+    }
+
+    void reset(long resolutionMillis) {
+        this.size = 0;
+        this.resolutionMillis = resolutionMillis;
+    }
+
+    void setSize(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return bucketStart.length;
+    }
+
+    public long getResolutionMillis() {
+        return resolutionMillis;
+    }
+
+    /**
+     * @return Energy over the bucket in watt-hours, assuming the measured mean held throughout; NaN without power
+     */
+    public float energyWh(int i) {
+        return meanPower[i] * resolutionMillis / 3_600_000f;
+    }
+
+    /**
+     * @return Extra sunlight the tracked panel caught over a flat one, e.g. 0.35 for 35%; NaN at night
+     */
+    public float trackingGain(int i) {
+        return fixedIrradiance[i] > 0 ? trackedIrradiance[i] / fixedIrradiance[i] - 1 : Float.NaN;
+    }
+}
@@ -0,0 +1,242 @@
+package com.example.solarsenseapp.history;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.TimeZone;
+
+/**
+ * On-device history of what the tracker did and what it earned: commanded
+ * angles, solar position, weather and measured panel power.
+ *
+ * Each sample is folded straight into per-minute, 15-minute and daily
+ * buckets, each resolution kept in its own memory-mapped ring (see
+ * YieldTier) sized to its retention. Rolling up on write means there is no
+ * raw log to compact and no background job; a query only reads the buckets
+ * it returns, so charting a month of 15-minute buckets touches ~3000 slots.
+ * Buckets follow the local clock, so a daily bucket is a calendar day.
+ *
+ * Besides measured power, every sample records how much direct sunlight the
+ * commanded orientation catches compared with a flat, untracked panel. That
+ * answers "how much did tracking gain" from geometry alone, even without a
+ * power sensor.
+ */
+public class YieldStore {
+    public enum Resolution {
+        MINUTE(60_000L, Constants.YIELD_MINUTE_RETENTION_DAYS, "yield-1m"),
+        QUARTER_HOUR(900_000L, Constants.YIELD_QUARTER_HOUR_RETENTION_DAYS, "yield-15m"),
+        DAY(86_400_000L, Constants.YIELD_DAY_RETENTION_DAYS, "yield-1d");
+
+        public final long millis;
+        public final int retentionDays;
+        final String fileName;
+
+        Resolution(long millis, int retentionDays, String fileName) {
+            this.millis = millis;
+            this.retentionDays = retentionDays;
+            this.fileName = fileName;
+        }
+
+        int slots() {
+            return (int) (retentionDays * 86_400_000L / millis);
+        }
+    }
+
+    private static final Resolution[] RESOLUTIONS = Resolution.values();
+
+    private final TimeZone timeZone;
+    private final YieldTier[] tiers = new YieldTier[RESOLUTIONS.length];
+
+    // Stats
+    private long recordCount = 0;
+    private long queryCount = 0;
+
+    /**
+     * Opens the store in a directory, creating its files on first use.
+     * Files from an older layout or retention setting start over empty.
+     */
+    public YieldStore(File directory, TimeZone timeZone) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create yield history directory: " + directory);
+        }
+        this.timeZone = timeZone;
+        for (Resolution resolution : RESOLUTIONS) {
+            tiers[resolution.ordinal()] = new YieldTier(new File(directory, resolution.fileName),
+                    resolution.millis, resolution.slots());
+        }
+    }
+
+    private long bucketKey(long timeMillis, long resolutionMillis) {
+        return Math.floorDiv(timeMillis + timeZone.getOffset(timeMillis), resolutionMillis);
+    }
+
+    private long bucketStart(long key, long resolutionMillis) {
+        long localMillis = key * resolutionMillis;
+        return localMillis - timeZone.getOffset(localMillis - timeZone.getRawOffset());
+    }
+
+    // First bucket starting at or after fromMillis that is still within retention
+    private long firstKey(YieldTier tier, long fromMillis) {
+        long first = bucketKey(fromMillis - 1, tier.resolutionMillis) + 1;
+        long newest = tier.newestKey();
+        return newest == Long.MIN_VALUE ? first : Math.max(first, newest - tier.slots + 1);
+    }
+
+    // Bucket holding toMillis - 1, or before the first bucket if nothing has been recorded
+    private long lastKey(YieldTier tier, long toMillis) {
+        return Math.min(bucketKey(toMillis - 1, tier.resolutionMillis), tier.newestKey());
+    }
+
+    /**
+     * Add one sample to every resolution.
+     * @param baseAngle Commanded base servo angle
+     * @param panelAngle Commanded panel servo angle
+     * @param azimuth Solar azimuth at timeMillis, degrees
+     * @param altitude Solar altitude at timeMillis, degrees
+     * @param weather Latest report, or null if none
+     * @param powerWatts Mean panel power since the previous sample, or NaN if not measured
+     */
+    public synchronized void record(long timeMillis, int baseAngle, int panelAngle, double azimuth, double altitude,
+                                    WeatherData weather, float powerWatts) {
+        float tracked = (float) trackedIrradiance(baseAngle, panelAngle, azimuth, altitude);
+        float fixed = (float) fixedIrradiance(altitude);
+
+        for (YieldTier tier : tiers) {
+            int slot = tier.claim(bucketKey(timeMillis, tier.resolutionMillis));
+            tier.addInt(YieldTier.COUNT, slot, 1);
+            tier.addFloat(YieldTier.BASE_ANGLE, slot, baseAngle);
+            tier.addFloat(YieldTier.PANEL_ANGLE, slot, panelAngle);
+            tier.addFloat(YieldTier.AZIMUTH, slot, (float) azimuth);
+            tier.addFloat(YieldTier.ALTITUDE, slot, (float) altitude);
+            tier.addFloat(YieldTier.TRACKED_IRRADIANCE, slot, tracked);
+            tier.addFloat(YieldTier.FIXED_IRRADIANCE, slot, fixed);
+            if (weather != null) {
+                tier.addInt(YieldTier.WEATHER_COUNT, slot, 1);
+                tier.addFloat(YieldTier.TEMPERATURE, slot, (float) weather.temperature);
+                tier.addFloat(YieldTier.WIND_SPEED, slot, (float) weather.windSpeed);
+                tier.addFloat(YieldTier.RAIN, slot, (float) weather.rainAmount);
+            }
+            if (!Float.isNaN(powerWatts)) {
+                tier.addInt(YieldTier.POWER_COUNT, slot, 1);
+                tier.addFloat(YieldTier.POWER, slot, powerWatts);
+                tier.maxFloat(YieldTier.POWER_MAX, slot, powerWatts);
+            }
+        }
+        recordCount++;
+    }
+
+    /**
+     * Fill {@code out} with the recorded buckets that start in [fromMillis, toMillis),
+     * oldest first. Buckets with no samples are left out, and so are buckets
+     * past the resolution's retention.
+     * @return Number of buckets written; stops early when {@code out} is full
+     */
+    public synchronized int query(Resolution resolution, long fromMillis, long toMillis, YieldSeries out) {
+        YieldTier tier = tiers[resolution.ordinal()];
+        out.reset(resolution.millis);
+        queryCount++;
+
+        long firstKey = firstKey(tier, fromMillis);
+        long lastKey = lastKey(tier, toMillis);
+
+        int n = 0;
+        int capacity = out.capacity();
+        for (long key = firstKey; key <= lastKey && n < capacity; key++) {
+            int slot = tier.find(key);
+            if (slot < 0) {
+                continue;
+            }
+            int count = tier.getInt(YieldTier.COUNT, slot);
+            int weatherCount = tier.getInt(YieldTier.WEATHER_COUNT, slot);
+            int powerCount = tier.getInt(YieldTier.POWER_COUNT, slot);
+
+            out.bucketStart[n] = bucketStart(key, resolution.millis);
+            out.samples[n] = count;
+            out.baseAngle[n] = tier.getFloat(YieldTier.BASE_ANGLE, slot) / count;
+            out.panelAngle[n] = tier.getFloat(YieldTier.PANEL_ANGLE, slot) / count;
+            out.azimuth[n] = tier.getFloat(YieldTier.AZIMUTH, slot) / count;
+            out.altitude[n] = tier.getFloat(YieldTier.ALTITUDE, slot) / count;
+            out.trackedIrradiance[n] = tier.getFloat(YieldTier.TRACKED_IRRADIANCE, slot) / count;
+            out.fixedIrradiance[n] = tier.getFloat(YieldTier.FIXED_IRRADIANCE, slot) / count;
+            out.temperature[n] = mean(tier.getFloat(YieldTier.TEMPERATURE, slot), weatherCount);
+            out.windSpeed[n] = mean(tier.getFloat(YieldTier.WIND_SPEED, slot), weatherCount);
+            out.rain[n] = mean(tier.getFloat(YieldTier.RAIN, slot), weatherCount);
+            out.meanPower[n] = mean(tier.getFloat(YieldTier.POWER, slot), powerCount);
+            out.maxPower[n] = powerCount > 0 ? tier.getFloat(YieldTier.POWER_MAX, slot) : Float.NaN;
+            n++;
+        }
+        out.setSize(n);
+        return n;
+    }
+
+    /**
+     * Extra direct sunlight the tracked panel caught over a flat one in [fromMillis, toMillis),
+     * e.g. 0.35 for 35%. NaN if nothing was recorded in daylight.
+     */
+    public synchronized float getTrackingGain(Resolution resolution, long fromMillis, long toMillis) {
+        YieldTier tier = tiers[resolution.ordinal()];
+        long lastKey = lastKey(tier, toMillis);
+
+        double tracked = 0;
+        double fixed = 0;
+        for (long key = firstKey(tier, fromMillis); key <= lastKey; key++) {
+            int slot = tier.find(key);
+            if (slot >= 0) {
+                tracked += tier.getFloat(YieldTier.TRACKED_IRRADIANCE, slot);
+                fixed += tier.getFloat(YieldTier.FIXED_IRRADIANCE, slot);
+            }
+        }
+        return fixed > 0 ? (float) (tracked / fixed - 1) : Float.NaN;
+    }
+
+    private static float mean(float sum, int count) {
+        return count > 0 ? sum / count : Float.NaN;
+    }
+
+    /**
+     * Fraction of full direct sun on a panel facing the commanded orientation.
+     * The servo mapping halves azimuth for the base and doubles altitude for
+     * the panel, so the panel normal points at (base * 2, panel / 2).
+     */
+    static double trackedIrradiance(int baseAngle, int panelAngle, double azimuth, double altitude) {
+        if (altitude <= 0) {
+            return 0;
+        }
+        double sunAlt = Math.toRadians(altitude);
+        double panelAlt = Math.toRadians(panelAngle / 2.0);
+        double deltaAz = Math.toRadians(azimuth - baseAngle * 2.0);
+        double cosIncidence = Math.sin(sunAlt) * Math.sin(panelAlt)
+                + Math.cos(sunAlt) * Math.cos(panelAlt) * Math.cos(deltaAz);
+        return Math.max(0, cosIncidence);
+    }
+
+    // A flat panel faces straight up
+    static double fixedIrradiance(double altitude) {
+        return Math.max(0, Math.sin(Math.toRadians(altitude)));
+    }
+
+    /**
+     * Write dirty pages to disk. The OS does this on its own; call it when
+     * the service stops so a crash right after loses nothing.
+     */
+    public synchronized void flush() {
+        for (YieldTier tier : tiers) {
+            tier.flush();
+        }
+    }
+
+    // Getters for stats
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized long getQueryCount() {
+        return queryCount;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Yield history: records=%d, queries=%d", recordCount, queryCount);
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.solarsenseapp.history;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * One resolution of the yield history: a ring of fixed-size buckets in a
+ * memory-mapped file, laid out column by column so a range query walks
+ * contiguous primitives. A bucket's slot is its index modulo the ring size,
+ * so finding a time range needs no search, and a bucket older than the
+ * retention is simply reused.
+ */
+class YieldTier {
+    private static final int MAGIC = 0x594C4431; // "YLD1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int NEWEST_KEY = 24;
+
+    // Integer columns
+    static final int COUNT = 0;
+    static final int WEATHER_COUNT = 1;
+    static final int POWER_COUNT = 2;
+    private static final int INT_COLUMNS = 3;
+
+    // Float columns, sums unless noted
+    static final int BASE_ANGLE = 0;
+    static final int PANEL_ANGLE = 1;
+    static final int AZIMUTH = 2;
+    static final int ALTITUDE = 3;
+    static final int TRACKED_IRRADIANCE = 4;
+    static final int FIXED_IRRADIANCE = 5;
+    static final int TEMPERATURE = 6;
+    static final int WIND_SPEED = 7;
+    static final int RAIN = 8;
+    static final int POWER = 9;
+    static final int POWER_MAX = 10; // maximum
+    private static final int FLOAT_COLUMNS = 11;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    final long resolutionMillis;
+    final int slots;
+    private final MappedByteBuffer map;
+    private final int keyOffset;
+    private final int intOffset;
+    private final int floatOffset;
+
+    YieldTier(File file, long resolutionMillis, int slots) throws IOException {
+        this.resolutionMillis = resolutionMillis;
+        this.slots = slots;
+        this.keyOffset = HEADER_SIZE;
+        this.intOffset = keyOffset + 8 * slots;
+        this.floatOffset = intOffset + 4 * INT_COLUMNS * slots;
+        int size = floatOffset + 4 * FLOAT_COLUMNS * slots;
+
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            // The mapping stays valid after the channel is closed
+            map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != slots
+                || map.getLong(16) != resolutionMillis) {
+            // New file, or one written with a different layout or retention
+            clear();
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, slots);
+            map.putLong(16, resolutionMillis);
+            map.putLong(NEWEST_KEY, EMPTY);
+        }
+    }
+
+    private void clear() {
+        for (int slot = 0; slot < slots; slot++) {
+            map.putLong(keyOffset + 8 * slot, EMPTY);
+        }
+    }
+
+    private int slot(long key) {
+        return (int) Math.floorMod(key, (long) slots);
+    }
+
+    private int intAt(int column, int slot) {
+        return intOffset + 4 * (column * slots + slot);
+    }
+
+    private int floatAt(int column, int slot) {
+        return floatOffset + 4 * (column * slots + slot);
+    }
+
+    // Returns the slot for the bucket, taking it over from an expired bucket if needed
+    int claim(long key) {
+        int slot = slot(key);
+        if (map.getLong(keyOffset + 8 * slot) != key) {
+            map.putLong(keyOffset + 8 * slot, key);
+            for (int c = 0; c < INT_COLUMNS; c++) {
+                map.putInt(intAt(c, slot), 0);
+            }
+            for (int c = 0; c < FLOAT_COLUMNS; c++) {
+                map.putFloat(floatAt(c, slot), 0);
+            }
+            if (key > map.getLong(NEWEST_KEY)) {
+                map.putLong(NEWEST_KEY, key);
+            }
+        }
+        return slot;
+    }
+
+    // Slot holding the bucket, or -1 if it was never written or has been reused
+    int find(long key) {
+        int slot = slot(key);
+        return map.getLong(keyOffset + 8 * slot) == key ? slot : -1;
+    }
+
+    // Latest bucket written, or Long.MIN_VALUE for an empty tier
+    long newestKey() {
+        return map.getLong(NEWEST_KEY);
+    }
+
+    void addInt(int column, int slot, int delta) {
+        int at = intAt(column, slot);
+        map.putInt(at, map.getInt(at) + delta);
+    }
+
+    void addFloat(int column, int slot, float delta) {
+        int at = floatAt(column, slot);
+        map.putFloat(at, map.getFloat(at) + delta);
+    }
+
+    void maxFloat(int column, int slot, float value) {
+        int at = floatAt(column, slot);
+        map.putFloat(at, Math.max(map.getFloat(at), value));
+    }
+
+    int getInt(int column, int slot) {
+        return map.getInt(intAt(column, slot));
+    }
+
+    float getFloat(int column, int slot) {
+        return map.getFloat(floatAt(column, slot));
+    }
+
+    void flush() {
+        map.force();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.solarsenseapp.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Named counters and histograms for the whole process.
+ * Components look their metrics up once, when they are constructed, and keep
+ * the references; after that recording never touches the registry. Names are
+ * dotted and end in the unit, e.g. "esp.base.micros".
+ */
+public class MetricsRegistry {
+    private static final MetricsRegistry DEFAULT = new MetricsRegistry();
+
+    // Sorted, so reports and dumps list metrics in a stable order
+    private final ConcurrentMap<String, Counter> counters = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<String, Histogram> histograms = new ConcurrentSkipListMap<>();
+
+    public static MetricsRegistry getDefault() {
+        return DEFAULT;
+    }
+
+    /**
+     * @return The counter with this name, created on first use
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, key -> new Counter());
+    }
+
+    /**
+     * @return The histogram with this name, created on first use
+     */
+    public Histogram histogram(String name) {
+        return histograms.computeIfAbsent(name, key -> new Histogram());
+    }
+
+    /**
+     * Copy every metric's current values, for a report or a dump.
+     * Metrics keep counting while the copy is taken, so it is not an atomic cut.
+     */
+    public MetricsSnapshot snapshot() {
+        MetricsSnapshot snapshot = new MetricsSnapshot(System.currentTimeMillis());
+        for (Map.Entry<String, Counter> entry : counters.entrySet()) {
+            snapshot.addCounter(entry.getKey(), entry.getValue().get());
+        }
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            snapshot.addHistogram(entry.getKey(), histogram.getCount(), histogram.getSum(),
+                    histogram.getMax(), histogram.copyCounts());
+        }
+        return snapshot;
+    }
+
+    // Zero everything, keeping the instances components already hold
+    public void reset() {
+        for (Counter counter : counters.values()) {
+            counter.reset();
+        }
+        for (Histogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+}
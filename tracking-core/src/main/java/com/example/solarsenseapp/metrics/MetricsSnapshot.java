@@ -0,0 +1,214 @@
+package com.example.solarsenseapp.metrics;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Point-in-time copy of a MetricsRegistry, as a text report for people or a
+ * compact binary dump for files and bug reports. A dump read back with
+ * {@link #readFrom(InputStream)} gives the same report.
+ * <pre>
+ *  u32 magic "MTR1"  u8 version  u64 time millis
+ *  varint counters, then per counter: UTF name, varint value
+ *  varint histograms, then per histogram: UTF name, varint count, sum, max,
+ *      varint non-empty buckets, then per bucket: varint index gap, varint count
+ * </pre>
+ */
+public class MetricsSnapshot {
+    private static final int MAGIC = 0x4D545231; // "MTR1"
+    private static final int VERSION = 1;
+
+    /**
+     * One histogram's values at the time of the snapshot.
+     */
+    public static final class HistogramSnapshot {
+        public final String name;
+        public final long count;
+        public final long sum;
+        public final long max;
+        private final long[] counts;
+
+        HistogramSnapshot(String name, long count, long sum, long max, long[] counts) {
+            this.name = name;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+            this.counts = counts;
+        }
+
+        public long getMean() {
+            return count == 0 ? 0 : sum / count;
+        }
+
+        /**
+         * @param percentile 0 to 100
+         * @return Upper bound of the bucket holding that percentile, capped at the maximum; 0 if empty
+         */
+        public long getValueAtPercentile(double percentile) {
+            long total = 0;
+            for (long c : counts) {
+                total += c;
+            }
+            if (total == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(Histogram.highestValue(i), max);
+                }
+            }
+            return max;
+        }
+    }
+
+    public final long timeMillis;
+    private final List<String> counterNames = new ArrayList<>();
+    private final List<Long> counterValues = new ArrayList<>();
+    private final List<HistogramSnapshot> histograms = new ArrayList<>();
+
+    MetricsSnapshot(long timeMillis) {
+        this.timeMillis = timeMillis;
+    }
+
+    void addCounter(String name, long value) {
+        counterNames.add(name);
+        counterValues.add(value);
+    }
+
+    void addHistogram(String name, long count, long sum, long max, long[] counts) {
+        histograms.add(new HistogramSnapshot(name, count, sum, max, counts));
+    }
+
+    /**
+     * @return The counter's value, or 0 if it was not registered
+     */
+    public long getCounter(String name) {
+        int i = counterNames.indexOf(name);
+        return i < 0 ? 0 : counterValues.get(i);
+    }
+
+    /**
+     * @return The histogram, or null if it was not registered
+     */
+    public HistogramSnapshot getHistogram(String name) {
+        for (HistogramSnapshot histogram : histograms) {
+            if (histogram.name.equals(name)) {
+                return histogram;
+            }
+        }
+        return null;
+    }
+
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        for (int i = 0; i < counterNames.size(); i++) {
+            out.append(String.format(Locale.US, "%-28s %d%n", counterNames.get(i), counterValues.get(i)));
+        }
+        for (HistogramSnapshot h : histograms) {
+            out.append(String.format(Locale.US, "%-28s n=%d mean=%d p50=%d p90=%d p99=%d max=%d%n",
+                    h.name, h.count, h.getMean(), h.getValueAtPercentile(50), h.getValueAtPercentile(90),
+                    h.getValueAtPercentile(99), h.max));
+        }
+        return out.toString();
+    }
+
+    public void writeTo(OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeLong(timeMillis);
+
+        writeVarLong(out, counterNames.size());
+        for (int i = 0; i < counterNames.size(); i++) {
+            out.writeUTF(counterNames.get(i));
+            writeVarLong(out, counterValues.get(i));
+        }
+
+        writeVarLong(out, histograms.size());
+        for (HistogramSnapshot h : histograms) {
+            out.writeUTF(h.name);
+            writeVarLong(out, h.count);
+            writeVarLong(out, h.sum);
+            writeVarLong(out, h.max);
+            int buckets = 0;
+            for (long c : h.counts) {
+                if (c != 0) {
+                    buckets++;
+                }
+            }
+            writeVarLong(out, buckets);
+            int previous = -1;
+            for (int i = 0; i < h.counts.length; i++) {
+                if (h.counts[i] != 0) {
+                    writeVarLong(out, i - previous);
+                    writeVarLong(out, h.counts[i]);
+                    previous = i;
+                }
+            }
+        }
+        out.flush();
+    }
+
+    public static MetricsSnapshot readFrom(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if (in.readInt() != MAGIC || in.readUnsignedByte() != VERSION) {
+            throw new IOException("Not a metrics dump");
+        }
+        MetricsSnapshot snapshot = new MetricsSnapshot(in.readLong());
+
+        long counters = readVarLong(in);
+        for (long i = 0; i < counters; i++) {
+            snapshot.addCounter(in.readUTF(), readVarLong(in));
+        }
+
+        long histograms = readVarLong(in);
+        for (long i = 0; i < histograms; i++) {
+            String name = in.readUTF();
+            long count = readVarLong(in);
+            long sum = readVarLong(in);
+            long max = readVarLong(in);
+            long[] counts = new long[Histogram.BUCKETS];
+            long buckets = readVarLong(in);
+            int index = -1;
+            for (long b = 0; b < buckets; b++) {
+                index += (int) readVarLong(in);
+                if (index < 0 || index >= counts.length) {
+                    throw new IOException("Bucket index out of range: " + index);
+                }
+                counts[index] = readVarLong(in);
+            }
+            snapshot.addHistogram(name, count, sum, max, counts);
+        }
+        return snapshot;
+    }
+
+    // Unsigned LEB128: seven bits per byte, high bit set on all but the last
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.solarsenseapp.models;
+
+public class Coordinates {
+    public final double latitude;
+    public final double longitude;
+
+    public Coordinates(double latitude, double longitude) {
+        this.latitude = latitude;
+        this.longitude = longitude;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Coordinates{lat=%.6f, lon=%.6f}", latitude, longitude);
+    }
+}
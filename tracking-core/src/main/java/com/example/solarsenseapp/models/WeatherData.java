@@ -10,6 +10,9 @@ public class WeatherData {
     public double rainAmount = 0;
     public double snowAmount = 0;
     public boolean isThunderstorm = false;
+    public long cityId; // OpenWeatherMap city ID, 0 if unknown
+    public double latitude = Double.NaN; // station coordinates, NaN if unknown
+    public double longitude = Double.NaN;
 
     public WeatherData() {
         // Default constructor
@@ -25,6 +28,22 @@ public class WeatherData {
         this.weatherIcon = weatherIcon;
     }
 
+    // Restore defaults so one instance can be parsed into repeatedly
+    public void reset() {
+        temperature = 0;
+        humidity = 0;
+        windSpeed = 0;
+        windDirection = 0;
+        weatherCondition = "Clear";
+        weatherIcon = "☀️";
+        rainAmount = 0;
+        snowAmount = 0;
+        isThunderstorm = false;
+        cityId = 0;
+        latitude = Double.NaN;
+        longitude = Double.NaN;
+    }
+
     @Override
     public String toString() {
         return String.format("WeatherData{temp=%.1f°C, humidity=%d%%, wind=%.1fm/s, condition='%s'}",
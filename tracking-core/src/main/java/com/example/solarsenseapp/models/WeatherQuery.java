@@ -0,0 +1,100 @@
+package com.example.solarsenseapp.models;
+
+import com.example.solarsenseapp.utils.GeoHash;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * A weather lookup by place name, coordinates, geohash cell or OpenWeatherMap city ID.
+ * Two queries are equal when they would ask the upstream the same thing,
+ * so "Delhi" and " delhi" deduplicate and share cache entries.
+ */
+public final class WeatherQuery {
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern COMMA = Pattern.compile("\\s*,\\s*");
+
+    public final String name; // null unless queried by name
+    public final double latitude; // NaN unless queried by coordinates or cell
+    public final double longitude;
+    public final long cityId; // 0 unless queried by ID
+
+    private final String key;
+
+    private WeatherQuery(String name, double latitude, double longitude, long cityId, String key) {
+        this.name = name;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.cityId = cityId;
+        this.key = key;
+    }
+
+    public static WeatherQuery byName(String name) {
+        return new WeatherQuery(name.trim(), Double.NaN, Double.NaN, 0, "q:" + normalizeName(name));
+    }
+
+    public static WeatherQuery byCoordinates(double latitude, double longitude) {
+        return new WeatherQuery(null, latitude, longitude, 0,
+                String.format(Locale.US, "ll:%.4f,%.4f", latitude, longitude));
+    }
+
+    public static WeatherQuery byCoordinates(Coordinates coordinates) {
+        return byCoordinates(coordinates.latitude, coordinates.longitude);
+    }
+
+    /**
+     * Weather at the centre of a geohash cell, shared by every position inside it
+     */
+    public static WeatherQuery byCell(String geohash) {
+        double[] center = new double[2];
+        GeoHash.decodeCenter(geohash, center);
+        return new WeatherQuery(null, center[0], center[1], 0, "gh:" + geohash);
+    }
+
+    public static WeatherQuery byCell(double latitude, double longitude, int precision) {
+        return byCell(GeoHash.encode(latitude, longitude, precision));
+    }
+
+    public static WeatherQuery byCityId(long cityId) {
+        return new WeatherQuery(null, Double.NaN, Double.NaN, cityId, "id:" + cityId);
+    }
+
+    // Lower case, single spaces, no spaces around commas
+    public static String normalizeName(String name) {
+        String normalized = name.trim().toLowerCase(Locale.ROOT);
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ");
+        return COMMA.matcher(normalized).replaceAll(",");
+    }
+
+    public boolean isByName() {
+        return name != null;
+    }
+
+    public boolean isByCell() {
+        return key.startsWith("gh:");
+    }
+
+    public boolean isByCityId() {
+        return cityId != 0;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof WeatherQuery && key.equals(((WeatherQuery) other).key);
+    }
+
+    @Override
+    public int hashCode() {
+        return key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return key;
+    }
+}
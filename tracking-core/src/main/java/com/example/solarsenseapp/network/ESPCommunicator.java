@@ -0,0 +1,403 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.metrics.Counter;
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import okhttp3.HttpUrl;
+
+public class ESPCommunicator {
+    private static final String TAG = "ESPCommunicator";
+
+    private final ESPTransport transport;
+    private String espIp = Constants.DEFAULT_ESP_IP;
+    private long requestTimeoutMillis = 0; // 0 = transport connect/read timeouts only
+
+    // Combined /move support, probed in testConnection
+    private static final int MOVE_SUPPORT_UNKNOWN = 0;
+    private static final int MOVE_SUPPORTED = 1;
+    private static final int MOVE_UNSUPPORTED = 2;
+    private volatile int moveSupport = MOVE_SUPPORT_UNKNOWN;
+
+    private volatile ESPControlChannel controlChannel;
+    private volatile ServoJournal journal;
+
+    // Latency in microseconds and failures, per kind of request
+    private static final class EndpointMetrics {
+        final Histogram latency;
+        final Counter errors;
+
+        EndpointMetrics(MetricsRegistry registry, String endpoint) {
+            latency = registry.histogram("esp." + endpoint + ".micros");
+            errors = registry.counter("esp." + endpoint + ".errors");
+        }
+    }
+
+    private final EndpointMetrics baseMetrics;
+    private final EndpointMetrics panelMetrics;
+    private final EndpointMetrics moveMetrics;
+    private final EndpointMetrics otherMetrics;
+    private final Histogram pendingRequests; // transport queue depth seen by each new request
+
+    public interface ESPCallback {
+        void onSuccess();
+        void onError(String errorMessage);
+    }
+
+    public ESPCommunicator() {
+        this(new ESPTransport());
+    }
+
+    public ESPCommunicator(ESPTransport transport) {
+        this.transport = transport;
+        MetricsRegistry registry = MetricsRegistry.getDefault();
+        this.baseMetrics = new EndpointMetrics(registry, "base");
+        this.panelMetrics = new EndpointMetrics(registry, "panel");
+        this.moveMetrics = new EndpointMetrics(registry, "move");
+        this.otherMetrics = new EndpointMetrics(registry, "other");
+        this.pendingRequests = registry.histogram("esp.pending");
+    }
+
+    public void updateIP(String newIp) {
+        this.espIp = newIp;
+        this.moveSupport = MOVE_SUPPORT_UNKNOWN;
+        ESPControlChannel channel = controlChannel;
+        if (channel != null) {
+            channel.connect(hostOf(newIp));
+        }
+        TrackingLog.d(TAG, "ESP IP updated to: " + espIp);
+    }
+
+    /**
+     * Send servo moves over a persistent control connection while it is up.
+     * The HTTP endpoints stay in use whenever it is down, and for any command
+     * it fails to ack.
+     */
+    public void setControlChannel(ESPControlChannel channel) {
+        this.controlChannel = channel;
+        if (channel != null) {
+            channel.connect(hostOf(espIp));
+        }
+    }
+
+    public ESPControlChannel getControlChannel() {
+        return controlChannel;
+    }
+
+    /**
+     * Record every servo command sent through the typed methods, with its
+     * source, latency and result.
+     */
+    public void setJournal(ServoJournal journal) {
+        this.journal = journal;
+    }
+
+    public ServoJournal getJournal() {
+        return journal;
+    }
+
+    // Wraps the caller's callback so the journal sees the final result, after any HTTP fallback
+    private ESPCallback journaled(int baseAngle, int panelAngle, ServoJournal.Source source, ESPCallback callback) {
+        ServoJournal current = journal;
+        return current != null ? current.track(baseAngle, panelAngle, source, callback) : callback;
+    }
+
+    // Null if the URL is malformed, e.g. a mistyped IP, which leaves the channel down; HTTP requests then report the error
+    private static String hostOf(String url) {
+        HttpUrl parsed = url != null ? HttpUrl.parse(url) : null;
+        return parsed != null ? parsed.host() : null;
+    }
+
+    public String getCurrentIP() {
+        return espIp;
+    }
+
+    // Caps each request end to end, so one unresponsive ESP cannot hold a transport worker for long
+    public void setRequestTimeout(long timeoutMillis) {
+        this.requestTimeoutMillis = timeoutMillis;
+    }
+
+    public void sendBaseServo(int angle, ESPCallback callback) {
+        sendBaseServo(angle, ServoJournal.Source.MANUAL, callback);
+    }
+
+    public void sendBaseServo(int angle, ServoJournal.Source source, ESPCallback originalCallback) {
+        ESPCallback callback = journaled(angle, -1, source, originalCallback);
+        ESPControlChannel channel = controlChannel;
+        if (channel == null || !channel.sendBase(angle, fallback(callback, () ->
+                sendServoCommand(Constants.BASE_SERVO_ENDPOINT + angle, callback)))) {
+            sendServoCommand(Constants.BASE_SERVO_ENDPOINT + angle, callback);
+        }
+    }
+
+    public void sendPanelServo(int angle, ESPCallback callback) {
+        sendPanelServo(angle, ServoJournal.Source.MANUAL, callback);
+    }
+
+    public void sendPanelServo(int angle, ServoJournal.Source source, ESPCallback originalCallback) {
+        ESPCallback callback = journaled(-1, angle, source, originalCallback);
+        ESPControlChannel channel = controlChannel;
+        if (channel == null || !channel.sendPanel(angle, fallback(callback, () ->
+                sendServoCommand(Constants.PANEL_SERVO_ENDPOINT + angle, callback)))) {
+            sendServoCommand(Constants.PANEL_SERVO_ENDPOINT + angle, callback);
+        }
+    }
+
+    // Retries a command over HTTP if the control channel loses it
+    private static ESPCallback fallback(ESPCallback callback, Runnable viaHttp) {
+        return new ESPCallback() {
+            @Override
+            public void onSuccess() {
+                if (callback != null) {
+                    callback.onSuccess();
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                TrackingLog.w(TAG, errorMessage + ", resending over HTTP");
+                viaHttp.run();
+            }
+        };
+    }
+
+    public void sendServoCommand(String endpoint) {
+        sendServoCommand(endpoint, null);
+    }
+
+    public void sendServoCommand(String endpoint, ESPCallback callback) {
+        String fullUrl = espIp + endpoint;
+        sendRequest(fullUrl, metricsFor(endpoint), callback);
+    }
+
+    private EndpointMetrics metricsFor(String endpoint) {
+        if (endpoint.startsWith(Constants.BASE_SERVO_ENDPOINT)) {
+            return baseMetrics;
+        }
+        if (endpoint.startsWith(Constants.PANEL_SERVO_ENDPOINT)) {
+            return panelMetrics;
+        }
+        return otherMetrics;
+    }
+
+    public void sendRequest(String urlStr) {
+        sendRequest(urlStr, null);
+    }
+
+    public void sendRequest(String urlStr, ESPCallback callback) {
+        sendRequest(urlStr, otherMetrics, callback);
+    }
+
+    // Successes only feed the metrics; formatting a log line for each would allocate on every move
+    private void sendRequest(String urlStr, EndpointMetrics metrics, ESPCallback callback) {
+        pendingRequests.record(transport.getPendingCount());
+        long startNanos = System.nanoTime();
+        transport.get(urlStr, requestTimeoutMillis, new ESPTransport.ResponseCallback() {
+            @Override
+            public void onResponse(int responseCode) {
+                metrics.latency.recordSince(startNanos);
+                if (responseCode == HttpURLConnection.HTTP_OK) {
+                    if (callback != null) {
+                        callback.onSuccess();
+                    }
+                } else {
+                    metrics.errors.increment();
+                    String errorMsg = "ESP responded with code: " + responseCode;
+                    TrackingLog.w(TAG, errorMsg + " for URL: " + urlStr);
+                    if (callback != null) {
+                        callback.onError(errorMsg);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                metrics.latency.recordSince(startNanos);
+                metrics.errors.increment();
+                String errorMsg = "Network Error: " + e.getMessage();
+                TrackingLog.e(TAG, errorMsg + " for URL: " + urlStr, e);
+                if (callback != null) {
+                    callback.onError(errorMsg);
+                }
+            }
+        });
+    }
+
+    // Test connection to ESP and probe whether the firmware supports combined moves
+    public void testConnection(ESPCallback callback) {
+        sendRequest(espIp + "/", new ESPCallback() {
+            @Override
+            public void onSuccess() {
+                probeMoveSupport(callback);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                if (callback != null) {
+                    callback.onError(errorMessage);
+                }
+            }
+        });
+    }
+
+    private void probeMoveSupport(ESPCallback callback) {
+        transport.get(espIp + Constants.MOVE_ENDPOINT, requestTimeoutMillis, new ESPTransport.ResponseCallback() {
+            @Override
+            public void onResponse(int responseCode) {
+                // Old firmware answers unknown paths with 404; anything else means /move is routed
+                moveSupport = isUnsupportedCode(responseCode) ? MOVE_UNSUPPORTED : MOVE_SUPPORTED;
+                TrackingLog.d(TAG, "Combined move support: " + (moveSupport == MOVE_SUPPORTED));
+                if (callback != null) {
+                    callback.onSuccess();
+                }
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                TrackingLog.w(TAG, "Combined move probe failed: " + e.getMessage());
+                if (callback != null) {
+                    callback.onSuccess();
+                }
+            }
+        });
+    }
+
+    // Send both servo commands, in one command or request when the firmware supports it
+    public void sendBothServos(int baseAngle, int panelAngle, ESPCallback callback) {
+        sendBothServos(baseAngle, panelAngle, ServoJournal.Source.MANUAL, callback);
+    }
+
+    public void sendBothServos(int baseAngle, int panelAngle, ServoJournal.Source source,
+                               ESPCallback originalCallback) {
+        ESPCallback callback = journaled(baseAngle, panelAngle, source, originalCallback);
+        ESPControlChannel channel = controlChannel;
+        if (channel != null && channel.sendMove(baseAngle, panelAngle, fallback(callback, () ->
+                sendBothServosOverHttp(baseAngle, panelAngle, callback)))) {
+            return;
+        }
+        sendBothServosOverHttp(baseAngle, panelAngle, callback);
+    }
+
+    private void sendBothServosOverHttp(int baseAngle, int panelAngle, ESPCallback callback) {
+        if (moveSupport == MOVE_SUPPORTED) {
+            sendCombinedMove(baseAngle, panelAngle, callback);
+        } else {
+            sendParallelMove(baseAngle, panelAngle, callback);
+        }
+    }
+
+    private void sendCombinedMove(int baseAngle, int panelAngle, ESPCallback callback) {
+        String url = espIp + Constants.MOVE_ENDPOINT + "?base=" + baseAngle + "&panel=" + panelAngle;
+        pendingRequests.record(transport.getPendingCount());
+        long startNanos = System.nanoTime();
+        transport.get(url, requestTimeoutMillis, new ESPTransport.ResponseCallback() {
+            @Override
+            public void onResponse(int responseCode) {
+                moveMetrics.latency.recordSince(startNanos);
+                if (responseCode == HttpURLConnection.HTTP_OK) {
+                    if (callback != null) {
+                        callback.onSuccess();
+                    }
+                } else if (isUnsupportedCode(responseCode)) {
+                    // Firmware was swapped since the probe, fall back for good
+                    TrackingLog.w(TAG, "Combined move rejected, falling back to per-axis requests");
+                    moveSupport = MOVE_UNSUPPORTED;
+                    sendParallelMove(baseAngle, panelAngle, callback);
+                } else {
+                    moveMetrics.errors.increment();
+                    if (callback != null) {
+                        callback.onError("ESP responded with code: " + responseCode);
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                moveMetrics.latency.recordSince(startNanos);
+                moveMetrics.errors.increment();
+                TrackingLog.e(TAG, "Network Error for URL: " + url, e);
+                if (callback != null) {
+                    callback.onError("Network Error: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    // Both axis requests go out together instead of waiting on each other
+    private void sendParallelMove(int baseAngle, int panelAngle, ESPCallback callback) {
+        JoinedCallback joined = new JoinedCallback(2, callback);
+        sendServoCommand(Constants.BASE_SERVO_ENDPOINT + baseAngle, joined.forPart("Base servo error: "));
+        sendServoCommand(Constants.PANEL_SERVO_ENDPOINT + panelAngle, joined.forPart("Panel servo error: "));
+    }
+
+    private static boolean isUnsupportedCode(int responseCode) {
+        return responseCode == HttpURLConnection.HTTP_NOT_FOUND
+                || responseCode == HttpURLConnection.HTTP_NOT_IMPLEMENTED;
+    }
+
+    public boolean supportsCombinedMove() {
+        return moveSupport == MOVE_SUPPORTED;
+    }
+
+    // Reports once after every part has finished, with the first error if any
+    private static class JoinedCallback {
+        private final AtomicInteger remaining;
+        private final AtomicReference<String> firstError = new AtomicReference<>();
+        private final ESPCallback callback;
+
+        JoinedCallback(int parts, ESPCallback callback) {
+            this.remaining = new AtomicInteger(parts);
+            this.callback = callback;
+        }
+
+        ESPCallback forPart(String errorPrefix) {
+            return new ESPCallback() {
+                @Override
+                public void onSuccess() {
+                    partDone();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    firstError.compareAndSet(null, errorPrefix + errorMessage);
+                    partDone();
+                }
+            };
+        }
+
+        private void partDone() {
+            if (remaining.decrementAndGet() != 0 || callback == null) {
+                return;
+            }
+            String error = firstError.get();
+            if (error == null) {
+                callback.onSuccess();
+            } else {
+                callback.onError(error);
+            }
+        }
+    }
+
+    public ESPTransport getTransport() {
+        return transport;
+    }
+
+    public void shutdown() {
+        ESPControlChannel channel = controlChannel;
+        if (channel != null) {
+            channel.close();
+        }
+        ServoJournal current = journal;
+        if (current != null) {
+            current.close();
+        }
+        transport.shutdown();
+    }
+}
\ No newline at end of file
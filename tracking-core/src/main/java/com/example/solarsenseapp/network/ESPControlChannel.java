@@ -0,0 +1,399 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.metrics.Counter;
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-lived TCP control connection to the ESP, an alternative to one HTTP
+ * GET per servo move. Commands are a few bytes each:
+ * <pre>
+ *  u16 length of what follows (big-endian)
+ *  u8  type: 1 base, 2 panel, 3 both, 4 ping; 0x80 ack from the ESP
+ *  u16 sequence number
+ *  payload: base/panel angle u8, both angles u8 u8, ack status u8 (0 = ok)
+ * </pre>
+ * Every command is acked with its sequence number, so callbacks complete
+ * exactly as they do for HTTP. A background thread owns the connection: it
+ * reads acks, expires commands that were never acked, pings an idle ESP to
+ * detect dead connections, and reconnects with backoff after any failure.
+ * The send methods only queue the frame for a second thread that writes it,
+ * so they never block and are safe to call from the main thread.
+ * While the channel is down they return false and the caller uses the HTTP
+ * endpoints instead.
+ */
+public class ESPControlChannel {
+    private static final String TAG = "ESPControlChannel";
+
+    static final int TYPE_BASE = 1;
+    static final int TYPE_PANEL = 2;
+    static final int TYPE_MOVE = 3;
+    static final int TYPE_PING = 4;
+    static final int TYPE_ACK = 0x80;
+    static final int STATUS_OK = 0;
+
+    private static final int MAX_FRAME = 16;
+
+    // An encoded command waiting for the writer thread
+    private static class Frame {
+        final byte[] bytes;
+        final int sequence;
+        final OutputStream stream; // the connection it was queued for
+
+        Frame(byte[] bytes, int sequence, OutputStream stream) {
+            this.bytes = bytes;
+            this.sequence = sequence;
+            this.stream = stream;
+        }
+    }
+
+    private static class Pending {
+        final ESPCommunicator.ESPCallback callback;
+        final long sentNanos;
+
+        Pending(ESPCommunicator.ESPCallback callback, long sentNanos) {
+            this.callback = callback;
+            this.sentNanos = sentNanos;
+        }
+    }
+
+    private final int port;
+    private final long ackTimeoutMillis;
+    private final long maxReconnectDelayMillis;
+
+    private volatile String host;
+    private volatile boolean closed = false;
+    private volatile Socket socket;     // non-null while connected
+    private volatile OutputStream out;
+    private Thread thread;
+    private Thread writer;
+
+    // Guarded by writeLock
+    private final Object writeLock = new Object();
+    private int nextSequence = 0;
+    private volatile long lastSendNanos;
+
+    private final BlockingQueue<Frame> outbox = new LinkedBlockingQueue<>();
+
+    private final Map<Integer, Pending> pending = new ConcurrentHashMap<>();
+
+    // Stats
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong ackedCount = new AtomicLong();
+    private final AtomicLong timeoutCount = new AtomicLong();
+    private final AtomicLong connectCount = new AtomicLong();
+    private final AtomicLong totalAckMicros = new AtomicLong();
+    private final AtomicLong maxAckMicros = new AtomicLong();
+    private final Histogram ackLatency = MetricsRegistry.getDefault().histogram("esp.control.micros");
+    private final Counter ackTimeouts = MetricsRegistry.getDefault().counter("esp.control.timeouts");
+
+    public ESPControlChannel() {
+        this(Constants.ESP_CONTROL_PORT, Constants.ESP_CONTROL_ACK_TIMEOUT, Constants.ESP_CONTROL_MAX_RECONNECT_DELAY);
+    }
+
+    public ESPControlChannel(int port, long ackTimeoutMillis, long maxReconnectDelayMillis) {
+        this.port = port;
+        this.ackTimeoutMillis = ackTimeoutMillis;
+        this.maxReconnectDelayMillis = maxReconnectDelayMillis;
+    }
+
+    /**
+     * Start connecting to the ESP, or switch to a different one.
+     * Returns at once; the connection comes up in the background.
+     * @param host ESP host, or null to stay disconnected until a host is set
+     */
+    public synchronized void connect(String host) {
+        this.host = host;
+        if (thread == null) {
+            thread = new Thread(this::run, "esp-control");
+            thread.setDaemon(true);
+            thread.start();
+            writer = new Thread(this::writeFrames, "esp-control-writer");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            // The connection thread notices and reconnects to the new host without waiting out its backoff
+            disconnect();
+            thread.interrupt();
+        }
+    }
+
+    public boolean isConnected() {
+        return socket != null;
+    }
+
+    public boolean sendBase(int angle, ESPCommunicator.ESPCallback callback) {
+        return send(TYPE_BASE, angle, -1, callback);
+    }
+
+    public boolean sendPanel(int angle, ESPCommunicator.ESPCallback callback) {
+        return send(TYPE_PANEL, angle, -1, callback);
+    }
+
+    public boolean sendMove(int baseAngle, int panelAngle, ESPCommunicator.ESPCallback callback) {
+        return send(TYPE_MOVE, baseAngle, panelAngle, callback);
+    }
+
+    // Returns false, without calling back, if the channel is down; write failures call back with an error
+    private boolean send(int type, int first, int second, ESPCommunicator.ESPCallback callback) {
+        synchronized (writeLock) {
+            OutputStream stream = out;
+            if (stream == null) {
+                return false;
+            }
+            int sequence = nextSequence;
+            nextSequence = (nextSequence + 1) & 0xFFFF;
+
+            int length = 3 + (second >= 0 ? 2 : first >= 0 ? 1 : 0);
+            byte[] frame = new byte[2 + length];
+            frame[0] = (byte) (length >> 8);
+            frame[1] = (byte) length;
+            frame[2] = (byte) type;
+            frame[3] = (byte) (sequence >> 8);
+            frame[4] = (byte) sequence;
+            if (first >= 0) {
+                frame[5] = (byte) first;
+            }
+            if (second >= 0) {
+                frame[6] = (byte) second;
+            }
+
+            long now = System.nanoTime();
+            // Registered under writeLock, so a disconnect either sees it in failPending or this sees out == null
+            pending.put(sequence, new Pending(callback, now));
+            outbox.add(new Frame(frame, sequence, stream));
+            lastSendNanos = now;
+            return true;
+        }
+    }
+
+    private void writeFrames() {
+        while (!closed) {
+            Frame frame;
+            try {
+                frame = outbox.take();
+            } catch (InterruptedException e) {
+                continue; // close() sets closed first
+            }
+            if (frame.stream != out) {
+                continue; // queued for a connection that has since dropped; its command was already failed
+            }
+            try {
+                frame.stream.write(frame.bytes);
+                sentCount.incrementAndGet();
+            } catch (IOException e) {
+                TrackingLog.w(TAG, "Control write failed: " + e.getMessage());
+                Pending command = pending.remove(frame.sequence);
+                if (command != null && command.callback != null) {
+                    command.callback.onError("Control write failed");
+                }
+                if (frame.stream == out) {
+                    disconnect();
+                }
+            }
+        }
+    }
+
+    private void run() {
+        long reconnectDelay = Constants.ESP_CONTROL_MIN_RECONNECT_DELAY;
+        while (!closed) {
+            String target = host;
+            if (target == null) {
+                sleep(maxReconnectDelayMillis); // connect() interrupts this
+                continue;
+            }
+            try (Socket s = new Socket()) {
+                s.connect(new InetSocketAddress(target, port), Constants.CONNECTION_TIMEOUT);
+                s.setTcpNoDelay(true);
+                // Wake up regularly to expire unacked commands and ping
+                s.setSoTimeout((int) Math.max(10, ackTimeoutMillis / 4));
+                synchronized (writeLock) {
+                    out = s.getOutputStream();
+                    lastSendNanos = System.nanoTime();
+                }
+                socket = s;
+                connectCount.incrementAndGet();
+                reconnectDelay = Constants.ESP_CONTROL_MIN_RECONNECT_DELAY;
+                TrackingLog.d(TAG, "Control channel connected to " + target + ":" + port);
+
+                readAcks(s.getInputStream(), target);
+            } catch (IOException e) {
+                if (!closed && socket == null) {
+                    TrackingLog.d(TAG, "Control channel unavailable: " + e.getMessage());
+                }
+            } finally {
+                synchronized (writeLock) {
+                    out = null;
+                }
+                socket = null;
+                failPending("Control channel disconnected");
+            }
+
+            if (!closed && target.equals(host)) {
+                sleep(reconnectDelay);
+                reconnectDelay = Math.min(reconnectDelay * 2, maxReconnectDelayMillis);
+            }
+        }
+    }
+
+    private void readAcks(InputStream in, String target) throws IOException {
+        byte[] rx = new byte[MAX_FRAME];
+        int have = 0;
+        long sweepNanos = Math.max(10, ackTimeoutMillis / 4) * 1_000_000L;
+        long lastSweep = System.nanoTime();
+        while (!closed && target.equals(host)) {
+            if (System.nanoTime() - lastSweep >= sweepNanos) {
+                lastSweep = System.nanoTime();
+                expireAndPing();
+            }
+            int need = have < 2 ? 2 : 2 + (((rx[0] & 0xFF) << 8) | (rx[1] & 0xFF));
+            if (need > MAX_FRAME) {
+                throw new IOException("Oversized control frame");
+            }
+            if (have < need) {
+                int read;
+                try {
+                    read = in.read(rx, have, need - have);
+                } catch (SocketTimeoutException e) {
+                    continue; // a partial frame stays in rx
+                }
+                if (read < 0) {
+                    throw new IOException("ESP closed the control channel");
+                }
+                have += read;
+                continue;
+            }
+            if ((rx[2] & 0xFF) == TYPE_ACK && need >= 6) {
+                int sequence = ((rx[3] & 0xFF) << 8) | (rx[4] & 0xFF);
+                onAck(sequence, rx[5] & 0xFF);
+            }
+            have = 0;
+        }
+    }
+
+    private void onAck(int sequence, int status) {
+        Pending command = pending.remove(sequence);
+        if (command == null) {
+            return; // already expired
+        }
+        long micros = (System.nanoTime() - command.sentNanos) / 1000;
+        ackedCount.incrementAndGet();
+        totalAckMicros.addAndGet(micros);
+        maxAckMicros.accumulateAndGet(micros, Math::max);
+        ackLatency.record(micros);
+        if (command.callback == null) {
+            return;
+        }
+        if (status == STATUS_OK) {
+            command.callback.onSuccess();
+        } else {
+            command.callback.onError("ESP rejected command with status: " + status);
+        }
+    }
+
+    private void expireAndPing() {
+        long now = System.nanoTime();
+        long timeoutNanos = ackTimeoutMillis * 1_000_000L;
+        Iterator<Map.Entry<Integer, Pending>> it = pending.entrySet().iterator();
+        boolean expired = false;
+        while (it.hasNext()) {
+            Pending command = it.next().getValue();
+            if (now - command.sentNanos > timeoutNanos) {
+                it.remove();
+                expired = true;
+                timeoutCount.incrementAndGet();
+                ackTimeouts.increment();
+                if (command.callback != null) {
+                    command.callback.onError("No ack from ESP");
+                }
+            }
+        }
+        if (expired) {
+            // Acks stopped arriving; start over rather than trust a half-open socket
+            disconnect();
+        } else if (now - lastSendNanos > Constants.ESP_CONTROL_PING_INTERVAL * 1_000_000L) {
+            send(TYPE_PING, -1, -1, null);
+        }
+    }
+
+    private void failPending(String reason) {
+        Iterator<Pending> it = pending.values().iterator();
+        while (it.hasNext()) {
+            Pending command = it.next();
+            it.remove();
+            if (command.callback != null) {
+                command.callback.onError(reason);
+            }
+        }
+    }
+
+    private void disconnect() {
+        Socket s = socket;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    // Interrupted by connect() and close(); both leave state for the loop to check
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ignored) {
+        }
+    }
+
+    public synchronized void close() {
+        closed = true;
+        disconnect();
+        if (thread != null) {
+            thread.interrupt();
+            writer.interrupt();
+        }
+    }
+
+    // Getters for stats
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getAckedCount() {
+        return ackedCount.get();
+    }
+
+    public long getTimeoutCount() {
+        return timeoutCount.get();
+    }
+
+    public long getConnectCount() {
+        return connectCount.get();
+    }
+
+    public long getAverageAckMicros() {
+        long acked = ackedCount.get();
+        return acked == 0 ? 0 : totalAckMicros.get() / acked;
+    }
+
+    public String getStats() {
+        return String.format("Control channel: connected=%b, sent=%d, acked=%d, timeouts=%d, connects=%d, ackMicros avg=%d max=%d",
+                isConnected(), getSentCount(), getAckedCount(), getTimeoutCount(), getConnectCount(),
+                getAverageAckMicros(), maxAckMicros.get());
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.utils.Constants;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Shared HTTP transport for ESP requests.
+ * Uses a bounded worker pool and a small keep-alive connection pool so that
+ * bursts of servo commands reuse the same sockets instead of opening a new
+ * thread and TCP connection per command.
+ */
+public class ESPTransport {
+
+    public interface ResponseCallback {
+        void onResponse(int responseCode);
+        void onFailure(IOException e);
+    }
+
+    public interface BodyCallback {
+        /** Read the body before returning; it is closed afterwards. An IOException goes to onFailure. */
+        void onResponse(int responseCode, InputStream body) throws IOException;
+        void onFailure(IOException e);
+    }
+
+    private final ExecutorService executor;
+    private final OkHttpClient client;
+
+    public ESPTransport() {
+        this(Constants.ESP_TRANSPORT_THREADS, Constants.ESP_MAX_IDLE_CONNECTIONS,
+                Constants.ESP_KEEP_ALIVE_DURATION);
+    }
+
+    public ESPTransport(int maxThreads, int maxIdleConnections, long keepAliveMillis) {
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                maxThreads, maxThreads,
+                keepAliveMillis, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                new TransportThreadFactory());
+        pool.allowCoreThreadTimeOut(true);
+        this.executor = pool;
+
+        // The dispatcher queues calls beyond the limits below, so the worker
+        // pool never grows past maxThreads no matter how fast commands arrive.
+        Dispatcher dispatcher = new Dispatcher(executor);
+        dispatcher.setMaxRequests(maxThreads);
+        dispatcher.setMaxRequestsPerHost(maxThreads);
+
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(maxIdleConnections, keepAliveMillis, TimeUnit.MILLISECONDS))
+                .connectTimeout(Constants.CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+                .readTimeout(Constants.READ_TIMEOUT, TimeUnit.MILLISECONDS)
+                .retryOnConnectionFailure(true)
+                .build();
+    }
+
+    public void get(String url, ResponseCallback callback) {
+        get(url, 0, callback);
+    }
+
+    /**
+     * Issue a GET on the shared pool
+     * @param timeoutMillis Budget for the call and its retries once a worker runs it, 0 for none.
+     *                      Time spent waiting for a free worker is not counted.
+     */
+    public void get(String url, long timeoutMillis, ResponseCallback callback) {
+        Call call = newCall(url);
+        if (call == null) {
+            callback.onFailure(new IOException("Invalid ESP URL: " + url));
+            return;
+        }
+        if (timeoutMillis > 0) {
+            call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                // Closing the body returns the connection to the pool
+                try (Response r = response) {
+                    callback.onResponse(r.code());
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    /**
+     * Issue a GET and stream the response body, e.g. binary telemetry
+     * @param timeoutMillis Budget for the call including reading the body once a worker runs it, 0 for none
+     */
+    public void fetch(String url, long timeoutMillis, BodyCallback callback) {
+        Call call = newCall(url);
+        if (call == null) {
+            callback.onFailure(new IOException("Invalid ESP URL: " + url));
+            return;
+        }
+        if (timeoutMillis > 0) {
+            call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                try (Response r = response) {
+                    callback.onResponse(r.code(), r.body().byteStream());
+                } catch (IOException e) {
+                    callback.onFailure(e);
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                callback.onFailure(e);
+            }
+        });
+    }
+
+    // Null for a malformed URL, e.g. a mistyped ESP IP; Request.Builder would throw on the caller's thread
+    private Call newCall(String url) {
+        HttpUrl parsed = url != null ? HttpUrl.parse(url) : null;
+        if (parsed == null) {
+            return null;
+        }
+        return client.newCall(new Request.Builder().url(parsed).get().build());
+    }
+
+    public OkHttpClient getClient() {
+        return client;
+    }
+
+    // Number of calls currently executing or waiting for a worker
+    public int getPendingCount() {
+        return client.dispatcher().runningCallsCount() + client.dispatcher().queuedCallsCount();
+    }
+
+    public int getConnectionCount() {
+        return client.connectionPool().connectionCount();
+    }
+
+    public void shutdown() {
+        client.dispatcher().cancelAll();
+        executor.shutdown();
+        client.connectionPool().evictAll();
+    }
+
+    private static class TransportThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "esp-transport-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.models.WeatherQuery;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Remembers where typed place names resolved to, so starting auto mode for a
+ * known place needs no geocoder call.
+ * Names are normalized the same way as weather queries. The LRU is mirrored to
+ * a single file, read in the background at construction and rewritten after
+ * each new entry, so lookups themselves never touch the disk.
+ */
+public class GeocodeCache implements GeocodeResolver {
+    private static final String TAG = "GeocodeCache";
+    private static final int FILE_VERSION = 1;
+
+    private final GeocodeResolver upstream;
+    private final File file;
+
+    // Disk reads and writes run here, in submission order
+    private final ExecutorService diskExecutor;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+
+    // Guarded by this
+    private final LinkedHashMap<String, Coordinates> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    public GeocodeCache(GeocodeResolver upstream, File file) {
+        this(upstream, file, Constants.GEOCODE_CACHE_MAX_ENTRIES);
+    }
+
+    /**
+     * @param file where entries are persisted, or null to keep them in memory only
+     */
+    public GeocodeCache(GeocodeResolver upstream, File file, int maxEntries) {
+        this.upstream = upstream;
+        this.file = file;
+
+        // Access order makes this an LRU
+        this.entries = new LinkedHashMap<String, Coordinates>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Coordinates> eldest) {
+                return size() > maxEntries;
+            }
+        };
+
+        this.diskExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "geocode-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (file != null) {
+            diskExecutor.execute(this::loadFromDisk);
+        } else {
+            loaded.countDown();
+        }
+    }
+
+    /**
+     * Answers from memory only; safe to call on the UI thread.
+     * @return Cached coordinates, or null if the name has not been resolved
+     *         before or the disk tier is still loading
+     */
+    public Coordinates lookup(String locationName) {
+        Coordinates coordinates;
+        synchronized (this) {
+            coordinates = entries.get(WeatherQuery.normalizeName(locationName));
+        }
+        if (coordinates != null) {
+            hits.incrementAndGet();
+        }
+        return coordinates;
+    }
+
+    /**
+     * Answers from the cache if it can, otherwise asks the upstream resolver
+     * and remembers the answer. Names that do not resolve are not cached.
+     */
+    @Override
+    public Coordinates resolve(String locationName) throws IOException {
+        awaitLoaded();
+        Coordinates cached = lookup(locationName);
+        if (cached != null) {
+            return cached;
+        }
+
+        misses.incrementAndGet();
+        Coordinates coordinates = upstream.resolve(locationName);
+        if (coordinates != null) {
+            put(locationName, coordinates);
+        }
+        return coordinates;
+    }
+
+    public void put(String locationName, Coordinates coordinates) {
+        synchronized (this) {
+            entries.put(WeatherQuery.normalizeName(locationName), coordinates);
+        }
+        saveToDisk();
+    }
+
+    private void awaitLoaded() throws IOException {
+        try {
+            loaded.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading geocode cache", e);
+        }
+    }
+
+    // File layout: version, entry count, then (name, lat, lon) from least to most recently used
+    private void loadFromDisk() {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                TrackingLog.w(TAG, "Ignoring geocode cache with unknown version");
+                return;
+            }
+            int count = in.readInt();
+            synchronized (this) {
+                for (int i = 0; i < count; i++) {
+                    String name = in.readUTF();
+                    entries.put(name, new Coordinates(in.readDouble(), in.readDouble()));
+                }
+            }
+            TrackingLog.d(TAG, "Loaded " + count + " cached geocodes");
+        } catch (FileNotFoundException e) {
+            // First run
+        } catch (IOException e) {
+            TrackingLog.w(TAG, "Dropping unreadable geocode cache " + file);
+            file.delete();
+        } finally {
+            loaded.countDown();
+        }
+    }
+
+    private void saveToDisk() {
+        if (file == null) {
+            return;
+        }
+        diskExecutor.execute(() -> {
+            List<Map.Entry<String, Coordinates>> snapshot;
+            synchronized (this) {
+                snapshot = new ArrayList<>(entries.entrySet());
+            }
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                TrackingLog.w(TAG, "Cannot create geocode cache directory " + parent);
+                return;
+            }
+            File temp = new File(file.getPath() + ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(snapshot.size());
+                for (Map.Entry<String, Coordinates> entry : snapshot) {
+                    out.writeUTF(entry.getKey());
+                    out.writeDouble(entry.getValue().latitude);
+                    out.writeDouble(entry.getValue().longitude);
+                }
+            } catch (IOException e) {
+                TrackingLog.e(TAG, "Failed to save geocode cache", e);
+                temp.delete();
+                return;
+            }
+            if (!temp.renameTo(file)) {
+                TrackingLog.w(TAG, "Failed to replace geocode cache file");
+                temp.delete();
+            }
+        });
+    }
+
+    // Pending disk writes still run; new requests are no longer accepted
+    public void shutdown() {
+        diskExecutor.shutdown();
+    }
+
+    // Getters for stats
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public String getStats() {
+        return String.format("Geocode cache: entries=%d, hits=%d, misses=%d",
+                size(), getHitCount(), getMissCount());
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.Coordinates;
+
+import java.io.IOException;
+
+/**
+ * Turns a typed place name into coordinates. Implemented by the platform
+ * geocoder in the app, by GeocodeCache, which wraps it, and can be backed by
+ * an offline gazetteer instead.
+ * Implementations may block, so call resolve off the UI thread.
+ */
+public interface GeocodeResolver {
+    /**
+     * @return Coordinates of the place, or null if the name is not known
+     * @throws IOException if the lookup itself failed, e.g. no network
+     */
+    Coordinates resolve(String locationName) throws IOException;
+}
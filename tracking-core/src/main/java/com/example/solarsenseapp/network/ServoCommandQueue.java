@@ -0,0 +1,262 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Latest-wins command queue for servo moves.
+ * Each axis has at most one request in flight; a newer target replaces any
+ * pending one, so a SeekBar drag collapses into a few requests and the last
+ * angle submitted is always the last angle sent.
+ * A stow jumps the queue: it replaces whatever target is pending, goes out as
+ * soon as the axis is free, and normal moves are dropped until it is released.
+ * A move already in flight cannot be recalled, so a stow waits at most one
+ * ESP round trip.
+ * Dual-axis moves from auto tracking go through the same lanes, so a stow
+ * orders after them too; when both axes are free they go out as one command.
+ * Angles are clamped to the servo range.
+ */
+public class ServoCommandQueue {
+    private static final String TAG = "ServoCommandQueue";
+
+    private static final int NO_TARGET = -1;
+    private static final int SOURCE_SHIFT = 16; // pending targets carry their source above the angle
+    private static final int ANGLE_MASK = 0xFFFF;
+    private static final ServoJournal.Source[] SOURCES = ServoJournal.Source.values();
+
+    public enum Axis {
+        BASE,
+        PANEL
+    }
+
+    private static class Lane {
+        final Axis axis;
+        final AtomicInteger pendingTarget = new AtomicInteger(NO_TARGET);
+        final AtomicBoolean inFlight = new AtomicBoolean(false);
+
+        Lane(Axis axis) {
+            this.axis = axis;
+        }
+    }
+
+    private final ESPCommunicator espCommunicator;
+    private final Lane[] lanes;
+    private volatile boolean stowed = false;
+
+    // Stats
+    private final AtomicLong submittedCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong suppressedCount = new AtomicLong();
+
+    public ServoCommandQueue(ESPCommunicator espCommunicator) {
+        this.espCommunicator = espCommunicator;
+        Axis[] axes = Axis.values();
+        this.lanes = new Lane[axes.length];
+        for (Axis axis : axes) {
+            lanes[axis.ordinal()] = new Lane(axis);
+        }
+    }
+
+    public void submit(Axis axis, int angle) {
+        submit(axis, angle, ServoJournal.Source.MANUAL);
+    }
+
+    public void submit(Axis axis, int angle, ServoJournal.Source source) {
+        int target = target(angle, source);
+        Lane lane = lanes[axis.ordinal()];
+        submittedCount.incrementAndGet();
+        // The lane lock orders this against stow(), so a move can never overwrite a stow target
+        synchronized (lane) {
+            if (stowed) {
+                suppressedCount.incrementAndGet();
+                return;
+            }
+            if (lane.pendingTarget.getAndSet(target) != NO_TARGET) {
+                coalescedCount.incrementAndGet();
+            }
+        }
+        drain(lane);
+    }
+
+    /**
+     * Queue a move of both axes, sent as one combined command if both are free.
+     * @return false if it was dropped because the panel is stowed
+     */
+    public boolean submitMove(int baseAngle, int panelAngle, ServoJournal.Source source) {
+        Lane base = lanes[Axis.BASE.ordinal()];
+        Lane panel = lanes[Axis.PANEL.ordinal()];
+        submittedCount.incrementAndGet();
+        // Always base then panel; stow() never holds both locks at once
+        synchronized (base) {
+            synchronized (panel) {
+                if (stowed) {
+                    suppressedCount.incrementAndGet();
+                    return false;
+                }
+                if (base.pendingTarget.getAndSet(target(baseAngle, source)) != NO_TARGET
+                        | panel.pendingTarget.getAndSet(target(panelAngle, source)) != NO_TARGET) {
+                    coalescedCount.incrementAndGet();
+                }
+            }
+        }
+        drainBoth(base, panel);
+        return true;
+    }
+
+    /**
+     * Move the panel to a safe angle ahead of any pending moves and hold it
+     * there; submit() is ignored on both axes until releaseStow().
+     */
+    public void stow(int panelAngle) {
+        stowed = true;
+        Lane lane = lanes[Axis.PANEL.ordinal()];
+        synchronized (lane) {
+            if (lane.pendingTarget.getAndSet(target(panelAngle, ServoJournal.Source.STOW)) != NO_TARGET) {
+                coalescedCount.incrementAndGet();
+            }
+        }
+        // Rotation does not matter once the panel is flat; drop any pending base move
+        Lane base = lanes[Axis.BASE.ordinal()];
+        synchronized (base) {
+            base.pendingTarget.set(NO_TARGET);
+        }
+        drain(lane);
+    }
+
+    public void releaseStow() {
+        stowed = false;
+    }
+
+    public boolean isStowed() {
+        return stowed;
+    }
+
+    // A negative angle would pack into NO_TARGET and vanish, so clamp like every other servo path
+    private static int target(int angle, ServoJournal.Source source) {
+        int clamped = Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, angle));
+        return clamped | source.ordinal() << SOURCE_SHIFT;
+    }
+
+    private void drain(Lane lane) {
+        while (lane.inFlight.compareAndSet(false, true)) {
+            int target = lane.pendingTarget.getAndSet(NO_TARGET);
+            if (target != NO_TARGET) {
+                send(lane, target & ANGLE_MASK, SOURCES[target >>> SOURCE_SHIFT]);
+                return;
+            }
+            lane.inFlight.set(false);
+            // A submit may have slipped in between taking the target and clearing the flag
+            if (lane.pendingTarget.get() == NO_TARGET) {
+                return;
+            }
+        }
+    }
+
+    // Claims both lanes for one combined command; an axis that is busy, has lost its target, or was
+    // last set from another source (the journal keeps one source per command) goes on its own
+    private void drainBoth(Lane base, Lane panel) {
+        if (!base.inFlight.compareAndSet(false, true)) {
+            drain(panel); // the base target follows when its request completes
+            return;
+        }
+        if (!panel.inFlight.compareAndSet(false, true)) {
+            base.inFlight.set(false);
+            drain(base);
+            return;
+        }
+        int baseTarget = base.pendingTarget.getAndSet(NO_TARGET);
+        int panelTarget = panel.pendingTarget.getAndSet(NO_TARGET);
+        if (baseTarget != NO_TARGET && panelTarget != NO_TARGET
+                && baseTarget >>> SOURCE_SHIFT == panelTarget >>> SOURCE_SHIFT) {
+            sendBoth(base, panel, baseTarget & ANGLE_MASK, panelTarget & ANGLE_MASK,
+                    SOURCES[baseTarget >>> SOURCE_SHIFT]);
+            return;
+        }
+        sendOrRelease(base, baseTarget);
+        sendOrRelease(panel, panelTarget);
+    }
+
+    private void sendOrRelease(Lane lane, int target) {
+        if (target != NO_TARGET) {
+            send(lane, target & ANGLE_MASK, SOURCES[target >>> SOURCE_SHIFT]);
+        } else {
+            complete(lane);
+        }
+    }
+
+    private void sendBoth(Lane base, Lane panel, int baseAngle, int panelAngle, ServoJournal.Source source) {
+        sentCount.incrementAndGet();
+        espCommunicator.sendBothServos(baseAngle, panelAngle, source, new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                complete(base);
+                complete(panel);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                TrackingLog.w(TAG, "Dual-axis servo command failed: " + errorMessage);
+                complete(base);
+                complete(panel);
+            }
+        });
+    }
+
+    private void send(Lane lane, int angle, ServoJournal.Source source) {
+        sentCount.incrementAndGet();
+        ESPCommunicator.ESPCallback callback = new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                complete(lane);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                TrackingLog.w(TAG, lane.axis + " servo command failed: " + errorMessage);
+                complete(lane);
+            }
+        };
+        if (lane.axis == Axis.BASE) {
+            espCommunicator.sendBaseServo(angle, source, callback);
+        } else {
+            espCommunicator.sendPanelServo(angle, source, callback);
+        }
+    }
+
+    private void complete(Lane lane) {
+        lane.inFlight.set(false);
+        drain(lane);
+    }
+
+    public boolean isIdle(Axis axis) {
+        Lane lane = lanes[axis.ordinal()];
+        return !lane.inFlight.get() && lane.pendingTarget.get() == NO_TARGET;
+    }
+
+    // Getters for stats
+    public long getSubmittedCount() {
+        return submittedCount.get();
+    }
+
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    public long getSentCount() {
+        return sentCount.get();
+    }
+
+    public long getSuppressedCount() {
+        return suppressedCount.get();
+    }
+
+    public String getStats() {
+        return String.format("Servo commands: submitted=%d, coalesced=%d, sent=%d, suppressedWhileStowed=%d",
+                getSubmittedCount(), getCoalescedCount(), getSentCount(), getSuppressedCount());
+    }
+}
@@ -0,0 +1,364 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.tracking.TickScheduler;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only record of every servo command, kept in a memory-mapped ring
+ * file. A command is written as pending when it is sent, and the same record
+ * is updated with the result and latency when the ESP answers, so a crash
+ * mid-command still leaves the last position the servos were told to take.
+ * <pre>
+ *  u64 sequence (0 = empty slot)   u64 time millis
+ *  u8 source  u8 result  u16 reserved
+ *  i16 base angle  i16 panel angle (-1 if the command left that axis alone)
+ *  u32 latency micros              u32 CRC32 of the bytes before it
+ * </pre>
+ * Writes only touch the mapping, which survives the process dying. Pushing
+ * the pages to storage is batched: a scheduler flushes whatever was written
+ * since the last flush, so the send path never waits on the disk.
+ */
+public class ServoJournal {
+    private static final String TAG = "ServoJournal";
+
+    private static final int MAGIC = 0x534A5231; // "SJR1"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int RECORD_SIZE = 32;
+    private static final int CRC_OFFSET = 28;
+
+    public enum Source {
+        MANUAL,
+        VOICE,
+        AUTO,
+        STOW
+    }
+
+    public enum Result {
+        PENDING,
+        OK,
+        FAILED
+    }
+
+    /**
+     * Reusable holder for one record.
+     */
+    public static final class Entry {
+        public long sequence;
+        public long timeMillis;
+        public Source source;
+        public Result result;
+        public int baseAngle;   // -1 if not part of the command
+        public int panelAngle;
+        public long latencyMicros;
+    }
+
+    private static final Source[] SOURCES = Source.values();
+    private static final Result[] RESULTS = Result.values();
+
+    private final int capacity;
+    private final MappedByteBuffer map;
+
+    // Guarded by this
+    private final byte[] record = new byte[RECORD_SIZE];
+    private final ByteBuffer recordBuffer = ByteBuffer.wrap(record);
+    private final CRC32 crc = new CRC32();
+    private final Entry scratch = new Entry();
+    private long nextSequence;
+    private int baseAngle = -1;       // latest command not known to have failed
+    private int panelAngle = -1;
+    private long baseSequence = 0;
+    private long panelSequence = 0;
+    private int confirmedBaseAngle = -1; // latest acked, to fall back on when a newer one fails
+    private int confirmedPanelAngle = -1;
+    private long writeCount = 0;
+
+    private volatile long flushedWriteCount = 0;
+    private TickScheduler scheduler;
+
+    // Stats
+    private long okCount = 0;
+    private long failedCount = 0;
+    private long flushCount = 0;
+
+    public ServoJournal(File file) throws IOException {
+        this(file, Constants.SERVO_JOURNAL_CAPACITY);
+    }
+
+    /**
+     * Opens the journal, creating it if needed, and restores the last
+     * commanded angles from it.
+     */
+    public ServoJournal(File file, int capacity) throws IOException {
+        this.capacity = capacity;
+        int size = HEADER_SIZE + RECORD_SIZE * capacity;
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create journal directory: " + parent);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(size);
+            map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+        if (map.getInt(0) != MAGIC || map.getInt(4) != VERSION || map.getInt(8) != capacity) {
+            for (int slot = 0; slot < capacity; slot++) {
+                map.putLong(offset(slot), 0);
+            }
+            map.putInt(0, MAGIC);
+            map.putInt(4, VERSION);
+            map.putInt(8, capacity);
+        }
+        replay();
+    }
+
+    private int offset(long sequence) {
+        return HEADER_SIZE + RECORD_SIZE * (int) (sequence % capacity);
+    }
+
+    // Finds the newest record, then walks back to the last angle sent on each axis
+    private synchronized void replay() {
+        long newest = 0;
+        for (int slot = 0; slot < capacity; slot++) {
+            long sequence = map.getLong(HEADER_SIZE + RECORD_SIZE * slot);
+            if (sequence > newest && read(sequence, scratch)) {
+                newest = sequence;
+            }
+        }
+        nextSequence = newest + 1;
+
+        for (long sequence = newest; sequence > 0 && sequence > newest - capacity; sequence--) {
+            if (!read(sequence, scratch) || scratch.result == Result.FAILED) {
+                continue;
+            }
+            if (baseAngle < 0 && scratch.baseAngle >= 0) {
+                baseAngle = scratch.baseAngle;
+                baseSequence = sequence;
+            }
+            if (panelAngle < 0 && scratch.panelAngle >= 0) {
+                panelAngle = scratch.panelAngle;
+                panelSequence = sequence;
+            }
+            if (baseAngle >= 0 && panelAngle >= 0) {
+                break;
+            }
+        }
+        // A command still pending at the crash may or may not have moved the servo; assume it did
+        confirmedBaseAngle = baseAngle;
+        confirmedPanelAngle = panelAngle;
+        if (newest > 0) {
+            TrackingLog.d(TAG, "Replayed journal to #" + newest + ": base=" + baseAngle + ", panel=" + panelAngle);
+        }
+    }
+
+    /**
+     * Record a command about to be sent.
+     * @param baseAngle Target base angle, or -1 if the command leaves the base alone
+     * @param panelAngle Target panel angle, or -1
+     * @return A callback that completes the record and then passes the result on to {@code callback}
+     */
+    public ESPCommunicator.ESPCallback track(int baseAngle, int panelAngle, Source source,
+                                             ESPCommunicator.ESPCallback callback) {
+        long sequence = append(baseAngle, panelAngle, source);
+        long sentNanos = System.nanoTime();
+        return new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                complete(sequence, Result.OK, (System.nanoTime() - sentNanos) / 1000);
+                if (callback != null) {
+                    callback.onSuccess();
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                complete(sequence, Result.FAILED, (System.nanoTime() - sentNanos) / 1000);
+                if (callback != null) {
+                    callback.onError(errorMessage);
+                }
+            }
+        };
+    }
+
+    synchronized long append(int baseAngle, int panelAngle, Source source) {
+        long sequence = nextSequence++;
+        recordBuffer.clear();
+        recordBuffer.putLong(sequence);
+        recordBuffer.putLong(System.currentTimeMillis());
+        recordBuffer.put((byte) source.ordinal());
+        recordBuffer.put((byte) Result.PENDING.ordinal());
+        recordBuffer.putShort((short) 0);
+        recordBuffer.putShort((short) baseAngle);
+        recordBuffer.putShort((short) panelAngle);
+        recordBuffer.putInt(0);
+        write(sequence);
+
+        if (baseAngle >= 0) {
+            this.baseAngle = baseAngle;
+            baseSequence = sequence;
+        }
+        if (panelAngle >= 0) {
+            this.panelAngle = panelAngle;
+            panelSequence = sequence;
+        }
+        return sequence;
+    }
+
+    synchronized void complete(long sequence, Result result, long latencyMicros) {
+        int at = offset(sequence);
+        if (map.getLong(at) != sequence) {
+            return; // the ring has already wrapped over it
+        }
+        map.position(at);
+        map.get(record);
+        recordBuffer.put(17, (byte) result.ordinal());
+        recordBuffer.putInt(24, (int) Math.min(latencyMicros, Integer.MAX_VALUE));
+        write(sequence);
+
+        int base = recordBuffer.getShort(20);
+        int panel = recordBuffer.getShort(22);
+        if (result == Result.OK) {
+            okCount++;
+            if (base >= 0) {
+                confirmedBaseAngle = base;
+            }
+            if (panel >= 0) {
+                confirmedPanelAngle = panel;
+            }
+        } else {
+            failedCount++;
+            // The servo stayed where the last successful command left it
+            if (base >= 0 && sequence == baseSequence) {
+                baseAngle = confirmedBaseAngle;
+            }
+            if (panel >= 0 && sequence == panelSequence) {
+                panelAngle = confirmedPanelAngle;
+            }
+        }
+    }
+
+    // Seals the record in the scratch array with its checksum and copies it into the ring
+    private void write(long sequence) {
+        crc.reset();
+        crc.update(record, 0, CRC_OFFSET);
+        recordBuffer.putInt(CRC_OFFSET, (int) crc.getValue());
+        map.position(offset(sequence));
+        map.put(record);
+        writeCount++;
+    }
+
+    /**
+     * @return false if the record was never written, has been overwritten, or is torn
+     */
+    public synchronized boolean read(long sequence, Entry out) {
+        if (sequence <= 0) {
+            return false;
+        }
+        map.position(offset(sequence));
+        map.get(record);
+        crc.reset();
+        crc.update(record, 0, CRC_OFFSET);
+        if (recordBuffer.getLong(0) != sequence || recordBuffer.getInt(CRC_OFFSET) != (int) crc.getValue()) {
+            return false;
+        }
+        int source = record[16] & 0xFF;
+        int result = record[17] & 0xFF;
+        if (source >= SOURCES.length || result >= RESULTS.length) {
+            return false;
+        }
+        out.sequence = sequence;
+        out.timeMillis = recordBuffer.getLong(8);
+        out.source = SOURCES[source];
+        out.result = RESULTS[result];
+        out.baseAngle = recordBuffer.getShort(20);
+        out.panelAngle = recordBuffer.getShort(22);
+        out.latencyMicros = recordBuffer.getInt(24) & 0xFFFFFFFFL;
+        return true;
+    }
+
+    /**
+     * Flush on a schedule instead of per command; at most one interval of
+     * writes is exposed to a power loss, and none to the app being killed.
+     */
+    public synchronized void start(TickScheduler scheduler) {
+        this.scheduler = scheduler;
+        scheduler.start(this::flush, Constants.SERVO_JOURNAL_FLUSH_INTERVAL);
+    }
+
+    /**
+     * Force everything written so far to storage. Does nothing if there is
+     * nothing new. Runs without the journal lock, so commands keep appending.
+     */
+    public void flush() {
+        long written;
+        synchronized (this) {
+            written = writeCount;
+        }
+        if (written == flushedWriteCount) {
+            return;
+        }
+        map.force();
+        flushedWriteCount = written;
+        synchronized (this) {
+            flushCount++;
+        }
+    }
+
+    public void close() {
+        TickScheduler current;
+        synchronized (this) {
+            current = scheduler;
+            scheduler = null;
+        }
+        if (current != null) {
+            current.stop();
+        }
+        flush();
+    }
+
+    /**
+     * @return Angle of the latest base command that has not failed, from this run or replayed; -1 if none
+     */
+    public synchronized int getBaseAngle() {
+        return baseAngle;
+    }
+
+    public synchronized int getPanelAngle() {
+        return panelAngle;
+    }
+
+    // Sequence the next command will get; records are numbered from 1
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    // Getters for stats
+    public synchronized long getOkCount() {
+        return okCount;
+    }
+
+    public synchronized long getFailedCount() {
+        return failedCount;
+    }
+
+    public synchronized long getFlushCount() {
+        return flushCount;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Servo journal: next=%d, ok=%d, failed=%d, flushes=%d, base=%d, panel=%d",
+                nextSequence, okCount, failedCount, flushCount, baseAngle, panelAngle);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.metrics.Counter;
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+import com.example.solarsenseapp.utils.Constants;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * OpenWeatherMap client.
+ * All requests share one OkHttp client, so concurrent fetches are capped by its
+ * dispatcher and reuse pooled connections. Responses are parsed straight off
+ * the socket by WeatherStreamParser.
+ */
+public class WeatherAPI implements WeatherSource {
+    private static final String TAG = "WeatherAPI";
+
+    public interface WeatherCallback {
+        void onSuccess(WeatherData weatherData);
+        void onError(String errorMessage);
+    }
+
+    public interface GroupCallback {
+        void onSuccess(List<WeatherData> results);
+        void onError(String errorMessage);
+    }
+
+    // Dispatcher threads are pooled, so each keeps its own parser
+    private static final ThreadLocal<WeatherStreamParser> PARSER = new ThreadLocal<WeatherStreamParser>() {
+        @Override
+        protected WeatherStreamParser initialValue() {
+            return new WeatherStreamParser();
+        }
+    };
+
+    private interface BodyHandler {
+        void handle(ResponseBody body) throws IOException;
+    }
+
+    private interface ErrorHandler {
+        void onError(String errorMessage);
+    }
+
+    private final OkHttpClient client;
+    private final HttpUrl weatherUrl;
+    private final HttpUrl groupUrl;
+    private final String apiKey;
+    private final long timeoutMillis;
+
+    private final AtomicLong requestCount = new AtomicLong();
+    private final Histogram fetchLatency = MetricsRegistry.getDefault().histogram("weather.fetch.micros");
+    private final Counter fetchErrors = MetricsRegistry.getDefault().counter("weather.fetch.errors");
+
+    public WeatherAPI() {
+        this(Constants.WEATHER_API_BASE_URL, Constants.WEATHER_API_KEY,
+                Constants.WEATHER_MAX_PARALLEL_REQUESTS, Constants.WEATHER_REQUEST_TIMEOUT);
+    }
+
+    /**
+     * @param timeoutMillis budget for each call once it leaves the dispatcher queue, 0 for none
+     */
+    public WeatherAPI(String baseUrl, String apiKey, int maxParallelRequests, long timeoutMillis) {
+        this.weatherUrl = HttpUrl.get(baseUrl + Constants.WEATHER_ENDPOINT);
+        this.groupUrl = HttpUrl.get(baseUrl + Constants.WEATHER_GROUP_ENDPOINT);
+        this.apiKey = apiKey;
+        this.timeoutMillis = timeoutMillis;
+
+        // Every request goes to the same host, so the per-host limit is the real cap
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxParallelRequests);
+        dispatcher.setMaxRequestsPerHost(maxParallelRequests);
+
+        this.client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectTimeout(Constants.CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS)
+                .readTimeout(Constants.READ_TIMEOUT, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    public void fetchWeatherData(String location, WeatherCallback callback) {
+        fetchWeatherData(WeatherQuery.byName(location), callback);
+    }
+
+    @Override
+    public void fetchWeatherData(WeatherQuery query, WeatherCallback callback) {
+        HttpUrl.Builder url = weatherUrl.newBuilder();
+        if (query.isByCityId()) {
+            url.addQueryParameter("id", Long.toString(query.cityId));
+        } else if (query.isByName()) {
+            url.addQueryParameter("q", query.name);
+        } else {
+            url.addQueryParameter("lat", String.format(Locale.US, "%.4f", query.latitude));
+            url.addQueryParameter("lon", String.format(Locale.US, "%.4f", query.longitude));
+        }
+
+        execute(url, body -> {
+            WeatherData weatherData = new WeatherData();
+            PARSER.get().parse(body.byteStream(), weatherData);
+            callback.onSuccess(weatherData);
+        }, callback::onError);
+    }
+
+    /**
+     * Current weather for several cities in one round trip.
+     * @param cityIds at most Constants.WEATHER_GROUP_MAX_IDS IDs
+     */
+    public void fetchGroup(long[] cityIds, GroupCallback callback) {
+        StringBuilder ids = new StringBuilder();
+        for (long cityId : cityIds) {
+            if (ids.length() > 0) {
+                ids.append(',');
+            }
+            ids.append(cityId);
+        }
+        HttpUrl.Builder url = groupUrl.newBuilder().addQueryParameter("id", ids.toString());
+
+        execute(url, body -> {
+            List<WeatherData> results = new ArrayList<>(cityIds.length);
+            PARSER.get().parseGroup(body.byteStream(), results::add);
+            callback.onSuccess(results);
+        }, callback::onError);
+    }
+
+    private void execute(HttpUrl.Builder url, BodyHandler handler, ErrorHandler errorHandler) {
+        url.addQueryParameter("units", "metric").addQueryParameter("appid", apiKey);
+        Call call = client.newCall(new Request.Builder().url(url.build()).get().build());
+        if (timeoutMillis > 0) {
+            call.timeout().timeout(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        requestCount.incrementAndGet();
+        long startNanos = System.nanoTime();
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onResponse(Call call, Response response) {
+                // Latency covers the parse, since that is part of getting usable weather
+                try (Response r = response) {
+                    if (!r.isSuccessful()) {
+                        fetchErrors.increment();
+                        errorHandler.onError("Weather API error: " + r.code());
+                        return;
+                    }
+                    handler.handle(r.body());
+                } catch (IOException e) {
+                    fetchErrors.increment();
+                    errorHandler.onError(e.getMessage());
+                } finally {
+                    fetchLatency.recordSince(startNanos);
+                }
+            }
+
+            @Override
+            public void onFailure(Call call, IOException e) {
+                fetchLatency.recordSince(startNanos);
+                fetchErrors.increment();
+                errorHandler.onError(e.getMessage());
+            }
+        });
+    }
+
+    // Upstream round trips issued so far
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    public void shutdown() {
+        client.dispatcher().cancelAll();
+        client.dispatcher().executorService().shutdown();
+        client.connectionPool().evictAll();
+    }
+}
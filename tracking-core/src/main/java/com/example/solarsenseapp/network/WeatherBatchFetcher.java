@@ -0,0 +1,209 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Fetches weather for many sites at once on the shared WeatherAPI client.
+ * Queries are deduplicated, at most maxConcurrent requests run per batch, and
+ * each result is reported as soon as it arrives. City IDs seen in earlier
+ * responses let named sites be fetched in group requests of up to 20 cities.
+ * If the upstream rejects group requests, they fall back to single requests.
+ */
+public class WeatherBatchFetcher {
+    private static final String TAG = "WeatherBatchFetcher";
+
+    public interface ResultListener {
+        void onResult(WeatherQuery query, WeatherData weatherData);
+        void onError(WeatherQuery query, String errorMessage);
+    }
+
+    private final WeatherAPI weatherAPI;
+    private final int maxConcurrent;
+    private final int maxGroupSize;
+
+    // Query key -> OpenWeatherMap city ID, learned from named responses
+    private final Map<String, Long> cityIds = new ConcurrentHashMap<>();
+    private volatile boolean groupSupported = true;
+
+    public WeatherBatchFetcher(WeatherAPI weatherAPI) {
+        this(weatherAPI, Constants.WEATHER_MAX_PARALLEL_REQUESTS, Constants.WEATHER_GROUP_MAX_IDS);
+    }
+
+    public WeatherBatchFetcher(WeatherAPI weatherAPI, int maxConcurrent, int maxGroupSize) {
+        this.weatherAPI = weatherAPI;
+        this.maxConcurrent = maxConcurrent;
+        this.maxGroupSize = maxGroupSize;
+    }
+
+    /**
+     * Fetch every query, reporting each result to the listener as it completes.
+     * @return completes once every query has succeeded or failed, with the successful results
+     */
+    public CompletableFuture<Map<WeatherQuery, WeatherData>> fetchAll(Collection<WeatherQuery> queries,
+                                                                      ResultListener listener) {
+        Batch batch = new Batch(listener);
+
+        // Queries with a known city ID go in group requests, the rest one by one
+        Map<Long, List<WeatherQuery>> byCityId = new LinkedHashMap<>();
+        for (WeatherQuery query : new LinkedHashSet<>(queries)) {
+            Long cityId = query.isByCityId() ? Long.valueOf(query.cityId) : cityIds.get(query.getKey());
+            if (cityId != null && groupSupported) {
+                List<WeatherQuery> sharing = byCityId.get(cityId);
+                if (sharing == null) {
+                    sharing = new ArrayList<>(1);
+                    byCityId.put(cityId, sharing);
+                }
+                sharing.add(query);
+            } else {
+                batch.addSingle(query);
+            }
+        }
+
+        Map<Long, List<WeatherQuery>> group = new LinkedHashMap<>();
+        for (Map.Entry<Long, List<WeatherQuery>> entry : byCityId.entrySet()) {
+            group.put(entry.getKey(), entry.getValue());
+            if (group.size() == maxGroupSize) {
+                batch.addGroup(group);
+                group = new LinkedHashMap<>();
+            }
+        }
+        if (!group.isEmpty()) {
+            batch.addGroup(group);
+        }
+
+        batch.start();
+        return batch.future;
+    }
+
+    public boolean isGroupSupported() {
+        return groupSupported;
+    }
+
+    private interface Task {
+        void run(Runnable done);
+    }
+
+    private class Batch {
+        final ResultListener listener;
+        final CompletableFuture<Map<WeatherQuery, WeatherData>> future = new CompletableFuture<>();
+        final Map<WeatherQuery, WeatherData> results = new ConcurrentHashMap<>();
+
+        // Guarded by this
+        final Deque<Task> pending = new ArrayDeque<>();
+        int inFlight;
+        int remaining;
+
+        Batch(ResultListener listener) {
+            this.listener = listener;
+        }
+
+        synchronized void addSingle(WeatherQuery query) {
+            remaining++;
+            pending.add(done -> weatherAPI.fetchWeatherData(query, new WeatherAPI.WeatherCallback() {
+                @Override
+                public void onSuccess(WeatherData weatherData) {
+                    if (query.isByName() && weatherData.cityId != 0) {
+                        cityIds.put(query.getKey(), weatherData.cityId);
+                    }
+                    deliver(query, weatherData);
+                    done.run();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    listener.onError(query, errorMessage);
+                    done.run();
+                }
+            }));
+        }
+
+        synchronized void addGroup(Map<Long, List<WeatherQuery>> group) {
+            remaining++;
+            long[] ids = new long[group.size()];
+            int i = 0;
+            for (Long cityId : group.keySet()) {
+                ids[i++] = cityId;
+            }
+            pending.add(done -> weatherAPI.fetchGroup(ids, new WeatherAPI.GroupCallback() {
+                @Override
+                public void onSuccess(List<WeatherData> groupResults) {
+                    for (WeatherData weatherData : groupResults) {
+                        List<WeatherQuery> sharing = group.remove(weatherData.cityId);
+                        if (sharing != null) {
+                            for (WeatherQuery query : sharing) {
+                                deliver(query, weatherData);
+                            }
+                        }
+                    }
+                    for (List<WeatherQuery> missing : group.values()) {
+                        for (WeatherQuery query : missing) {
+                            listener.onError(query, "No weather returned for city " + query);
+                        }
+                    }
+                    done.run();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    // Group queries need a paid plan; remember and retry these one by one
+                    TrackingLog.w(TAG, "Group request failed, falling back to single requests: " + errorMessage);
+                    groupSupported = false;
+                    for (List<WeatherQuery> sharing : group.values()) {
+                        for (WeatherQuery query : sharing) {
+                            addSingle(query);
+                        }
+                    }
+                    done.run();
+                }
+            }));
+        }
+
+        void deliver(WeatherQuery query, WeatherData weatherData) {
+            results.put(query, weatherData);
+            listener.onResult(query, weatherData);
+        }
+
+        void start() {
+            launch(null);
+        }
+
+        // Marks finished (if any) as done and starts as many pending tasks as the limit allows
+        private void launch(Task finished) {
+            List<Task> toRun = new ArrayList<>();
+            boolean complete;
+            synchronized (this) {
+                if (finished != null) {
+                    inFlight--;
+                    remaining--;
+                }
+                while (inFlight < maxConcurrent && !pending.isEmpty()) {
+                    toRun.add(pending.poll());
+                    inFlight++;
+                }
+                complete = remaining == 0;
+            }
+            if (complete) {
+                future.complete(Collections.unmodifiableMap(results));
+                return;
+            }
+            for (Task task : toRun) {
+                task.run(() -> launch(task));
+            }
+        }
+    }
+}
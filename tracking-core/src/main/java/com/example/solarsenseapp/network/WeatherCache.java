@@ -0,0 +1,399 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+import com.example.solarsenseapp.tracking.Clock;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.GeoHash;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caches parsed weather by normalized location.
+ * Fresh entries are answered from memory. Entries past their TTL are still
+ * served while a background refresh runs, and concurrent requests for the same
+ * location share a single upstream call. The LRU is mirrored to a cache
+ * directory so that after a cold start the last known weather is available
+ * without waiting for the network.
+ * Coordinates are snapped to a geohash cell, so nearby GPS fixes share one
+ * entry. A place name is memoized to its cell once a response reveals where it
+ * is, and from then on shares that entry too.
+ */
+public class WeatherCache implements WeatherSource {
+    private static final String TAG = "WeatherCache";
+    private static final String FILE_SUFFIX = ".json";
+    private static final String ENCODING = "UTF-8";
+
+    private static class CachedResponse {
+        final WeatherData weatherData;
+        final long fetchedAt;
+
+        CachedResponse(WeatherData weatherData, long fetchedAt) {
+            this.weatherData = weatherData;
+            this.fetchedAt = fetchedAt;
+        }
+    }
+
+    private final WeatherSource upstream;
+    private final Clock clock;
+    private final File directory;
+    private final long ttlMillis;
+    private final long maxStaleMillis;
+    private final int cellPrecision;
+
+    // Disk reads and writes run here, in submission order
+    private final ExecutorService diskExecutor;
+    private final WeatherStreamParser diskParser = new WeatherStreamParser();
+    private volatile boolean loaded;
+
+    // Guarded by this
+    private final LinkedHashMap<String, CachedResponse> entries;
+    private final Map<String, List<WeatherAPI.WeatherCallback>> inFlight = new HashMap<>();
+    private final LinkedHashMap<String, String> nameCells; // name query key -> geohash
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong collapsed = new AtomicLong();
+
+    public WeatherCache(WeatherSource upstream, File directory) {
+        this(upstream, Clock.SYSTEM, directory, Constants.WEATHER_CACHE_MAX_ENTRIES,
+                Constants.WEATHER_CACHE_TTL, Constants.WEATHER_CACHE_MAX_STALE,
+                Constants.WEATHER_GEOHASH_PRECISION);
+    }
+
+    /**
+     * @param directory where entries are persisted, or null to keep them in memory only
+     * @param cellPrecision geohash length coordinates are snapped to
+     */
+    public WeatherCache(WeatherSource upstream, Clock clock, File directory,
+                        int maxEntries, long ttlMillis, long maxStaleMillis, int cellPrecision) {
+        this.upstream = upstream;
+        this.clock = clock;
+        this.directory = directory;
+        this.ttlMillis = ttlMillis;
+        this.maxStaleMillis = maxStaleMillis;
+        this.cellPrecision = cellPrecision;
+
+        // Access order makes this an LRU; evicted entries are removed from disk too
+        this.entries = new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                if (size() > maxEntries) {
+                    deleteFromDisk(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        this.nameCells = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > Constants.WEATHER_NAME_CELL_MEMO_SIZE;
+            }
+        };
+
+        this.diskExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "weather-cache");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (directory != null) {
+            diskExecutor.execute(this::loadFromDisk);
+        } else {
+            loaded = true;
+        }
+    }
+
+    public static String normalize(String location) {
+        return WeatherQuery.normalizeName(location);
+    }
+
+    public void fetchWeatherData(String location, WeatherAPI.WeatherCallback callback) {
+        fetchWeatherData(WeatherQuery.byName(location), callback);
+    }
+
+    @Override
+    public void fetchWeatherData(WeatherQuery query, WeatherAPI.WeatherCallback callback) {
+        WeatherQuery bucketed = bucket(query);
+        String key = bucketed.getKey();
+        CachedResponse entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+
+        if (entry == null && !loaded
+                && runOnDisk(() -> fetchWeatherData(query, callback))) {
+            // Still reading the disk tier; queued behind it so a cold start can use it
+            return;
+        }
+
+        if (entry != null) {
+            long age = clock.currentTimeMillis() - entry.fetchedAt;
+            if (age < ttlMillis) {
+                hits.incrementAndGet();
+                callback.onSuccess(entry.weatherData);
+                return;
+            }
+            if (age < ttlMillis + maxStaleMillis) {
+                // Stale while revalidate
+                staleHits.incrementAndGet();
+                callback.onSuccess(entry.weatherData);
+                refresh(key, bucketed, null);
+                return;
+            }
+        }
+
+        misses.incrementAndGet();
+        refresh(key, bucketed, callback);
+    }
+
+    // Coordinates snap to their cell, and so do names whose cell is already known
+    private WeatherQuery bucket(WeatherQuery query) {
+        if (query.isByName()) {
+            String cell;
+            synchronized (this) {
+                cell = nameCells.get(query.getKey());
+            }
+            return cell != null ? WeatherQuery.byCell(cell) : query;
+        }
+        if (query.isByCityId() || query.isByCell()) {
+            return query;
+        }
+        return WeatherQuery.byCell(query.latitude, query.longitude, cellPrecision);
+    }
+
+    private void refresh(String key, WeatherQuery query, WeatherAPI.WeatherCallback callback) {
+        synchronized (this) {
+            List<WeatherAPI.WeatherCallback> waiters = inFlight.get(key);
+            if (waiters != null) {
+                // Someone is already asking upstream for this location
+                collapsed.incrementAndGet();
+                if (callback != null) {
+                    waiters.add(callback);
+                }
+                return;
+            }
+            waiters = new ArrayList<>();
+            if (callback != null) {
+                waiters.add(callback);
+            }
+            inFlight.put(key, waiters);
+        }
+
+        upstream.fetchWeatherData(query, new WeatherAPI.WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherData weatherData) {
+                complete(key, query, weatherData);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                fail(key, errorMessage);
+            }
+        });
+    }
+
+    private void complete(String key, WeatherQuery query, WeatherData weatherData) {
+        CachedResponse entry = new CachedResponse(weatherData, clock.currentTimeMillis());
+
+        // A named response says where the place is; file it under that cell as well
+        String cell = null;
+        String cellKey = null;
+        if (query.isByName() && !Double.isNaN(weatherData.latitude) && !Double.isNaN(weatherData.longitude)) {
+            cell = GeoHash.encode(weatherData.latitude, weatherData.longitude, cellPrecision);
+            cellKey = WeatherQuery.byCell(cell).getKey();
+        }
+
+        List<WeatherAPI.WeatherCallback> waiters;
+        synchronized (this) {
+            entries.put(key, entry);
+            if (cell != null) {
+                nameCells.put(query.getKey(), cell);
+                entries.put(cellKey, entry);
+            }
+            waiters = inFlight.remove(key);
+        }
+        saveToDisk(key, entry);
+        if (cellKey != null) {
+            saveToDisk(cellKey, entry);
+        }
+        for (WeatherAPI.WeatherCallback waiter : waiters) {
+            waiter.onSuccess(weatherData);
+        }
+    }
+
+    private void fail(String key, String errorMessage) {
+        CachedResponse stale;
+        List<WeatherAPI.WeatherCallback> waiters;
+        boolean expired = false;
+        synchronized (this) {
+            stale = entries.get(key);
+            // Old data is better than none when the network is down, but only up to max-stale
+            if (stale != null && clock.currentTimeMillis() - stale.fetchedAt >= ttlMillis + maxStaleMillis) {
+                entries.remove(key);
+                stale = null;
+                expired = true;
+            }
+            waiters = inFlight.remove(key);
+        }
+        TrackingLog.w(TAG, "Weather refresh failed for " + key + ": " + errorMessage);
+        if (expired) {
+            deleteFromDisk(key);
+        }
+
+        for (WeatherAPI.WeatherCallback waiter : waiters) {
+            if (stale != null) {
+                waiter.onSuccess(stale.weatherData);
+            } else {
+                waiter.onError(errorMessage);
+            }
+        }
+    }
+
+    private void loadFromDisk() {
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                TrackingLog.w(TAG, "Cannot create weather cache directory " + directory);
+                return;
+            }
+            File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+            if (files == null) {
+                return;
+            }
+
+            // Oldest first, so the most recently written entries end up most recently used
+            Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+            for (File file : files) {
+                String name = file.getName();
+                try {
+                    String key = URLDecoder.decode(name.substring(0, name.length() - FILE_SUFFIX.length()), ENCODING);
+                    CachedResponse entry = readEntry(file);
+                    synchronized (this) {
+                        entries.put(key, entry);
+                    }
+                } catch (IOException e) {
+                    TrackingLog.w(TAG, "Dropping unreadable cache file " + name);
+                    file.delete();
+                }
+            }
+            TrackingLog.d(TAG, "Loaded " + files.length + " cached weather responses");
+        } finally {
+            loaded = true;
+        }
+    }
+
+    // File layout: fetch time as a big-endian long, then WeatherStreamParser.toJson
+    private CachedResponse readEntry(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            long fetchedAt = in.readLong();
+            WeatherData weatherData = new WeatherData();
+            diskParser.parse(in, weatherData);
+            return new CachedResponse(weatherData, fetchedAt);
+        }
+    }
+
+    private void saveToDisk(String key, CachedResponse entry) {
+        if (directory == null) {
+            return;
+        }
+        runOnDisk(() -> {
+            try {
+                File file = fileFor(key);
+                File temp = new File(directory, file.getName() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new FileOutputStream(temp))) {
+                    out.writeLong(entry.fetchedAt);
+                    out.write(WeatherStreamParser.toJson(entry.weatherData).getBytes(ENCODING));
+                }
+                if (!temp.renameTo(file)) {
+                    TrackingLog.w(TAG, "Failed to save weather cache file for " + key);
+                    temp.delete();
+                }
+            } catch (IOException e) {
+                TrackingLog.e(TAG, "Failed to save weather cache file for " + key, e);
+            }
+        });
+    }
+
+    private void deleteFromDisk(String key) {
+        if (directory == null) {
+            return;
+        }
+        runOnDisk(() -> {
+            try {
+                fileFor(key).delete();
+            } catch (UnsupportedEncodingException e) {
+                TrackingLog.e(TAG, "Failed to delete weather cache file for " + key, e);
+            }
+        });
+    }
+
+    // Upstream responses can still arrive after shutdown(); their disk work is dropped
+    private boolean runOnDisk(Runnable task) {
+        if (diskExecutor.isShutdown()) {
+            return false;
+        }
+        try {
+            diskExecutor.execute(task);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false; // shut down since the check
+        }
+    }
+
+    private File fileFor(String key) throws UnsupportedEncodingException {
+        return new File(directory, URLEncoder.encode(key, ENCODING) + FILE_SUFFIX);
+    }
+
+    // Pending disk writes still run; new requests are no longer accepted
+    public void shutdown() {
+        diskExecutor.shutdown();
+    }
+
+    // Getters for stats
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getStaleHitCount() {
+        return staleHits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    public long getCollapsedCount() {
+        return collapsed.get();
+    }
+
+    public String getStats() {
+        return String.format("Weather cache: entries=%d, hits=%d, staleHits=%d, misses=%d, collapsed=%d",
+                size(), getHitCount(), getStaleHitCount(), getMissCount(), getCollapsedCount());
+    }
+}
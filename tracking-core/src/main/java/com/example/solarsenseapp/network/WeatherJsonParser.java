@@ -0,0 +1,73 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * Parses OpenWeatherMap "current weather" responses into WeatherData.
+ */
+public class WeatherJsonParser {
+
+    public static WeatherData parse(String jsonResponse) throws JSONException {
+        return parse(new JSONObject(jsonResponse));
+    }
+
+    public static WeatherData parse(JSONObject jsonObject) throws JSONException {
+        WeatherData weatherData = new WeatherData();
+
+        // Main weather data
+        JSONObject main = jsonObject.getJSONObject("main");
+        weatherData.temperature = main.getDouble("temp");
+        weatherData.humidity = main.getInt("humidity");
+
+        // Wind data
+        JSONObject wind = jsonObject.getJSONObject("wind");
+        weatherData.windSpeed = wind.getDouble("speed");
+        weatherData.windDirection = wind.has("deg") ? wind.getDouble("deg") : 0;
+
+        // Weather conditions
+        JSONArray weatherArray = jsonObject.getJSONArray("weather");
+        for (int i = 0; i < weatherArray.length(); i++) {
+            JSONObject weatherObj = weatherArray.getJSONObject(i);
+            String mainCondition = weatherObj.getString("main");
+
+            if (mainCondition.equalsIgnoreCase("Rain")) {
+                weatherData.weatherIcon = "🌧️";
+                weatherData.weatherCondition = "Rain";
+            } else if (mainCondition.equalsIgnoreCase("Snow")) {
+                weatherData.weatherIcon = "❄️";
+                weatherData.weatherCondition = "Snow";
+            } else if (mainCondition.equalsIgnoreCase("Thunderstorm")) {
+                weatherData.weatherIcon = "⚡";
+                weatherData.weatherCondition = "Thunderstorm";
+                weatherData.isThunderstorm = true;
+            } else if (mainCondition.equalsIgnoreCase("Clouds")) {
+                weatherData.weatherIcon = "☁️";
+                weatherData.weatherCondition = "Clouds";
+            } else {
+                weatherData.weatherIcon = "☀️";
+                weatherData.weatherCondition = "Clear";
+            }
+        }
+
+        weatherData.cityId = jsonObject.optLong("id", 0);
+        JSONObject coord = jsonObject.optJSONObject("coord");
+        if (coord != null) {
+            weatherData.latitude = coord.optDouble("lat");
+            weatherData.longitude = coord.optDouble("lon");
+        }
+
+        // Precipitation data
+        if (jsonObject.has("rain")) {
+            weatherData.rainAmount = jsonObject.getJSONObject("rain").optDouble("1h", 0);
+        }
+        if (jsonObject.has("snow")) {
+            weatherData.snowAmount = jsonObject.getJSONObject("snow").optDouble("1h", 0);
+        }
+
+        return weatherData;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherQuery;
+
+/**
+ * Anything that can answer a weather query. Implemented by WeatherAPI and by
+ * WeatherCache, which wraps it.
+ */
+public interface WeatherSource {
+    void fetchWeatherData(WeatherQuery query, WeatherAPI.WeatherCallback callback);
+}
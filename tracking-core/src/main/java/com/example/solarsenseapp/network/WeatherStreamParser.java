@@ -0,0 +1,565 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pull parser for OpenWeatherMap "current weather" responses.
+ * Reads bytes straight from the stream into a caller supplied WeatherData and
+ * skips every field it does not need, without building a String or a JSON
+ * tree. Produces the same values as WeatherJsonParser.
+ * Not thread-safe; keep one instance per thread.
+ */
+public class WeatherStreamParser {
+
+    private static final int BUFFER_SIZE = 4096;
+    private static final int MAX_TOKEN_LENGTH = 64;
+
+    private static final byte[] MAIN = ascii("main");
+    private static final byte[] TEMP = ascii("temp");
+    private static final byte[] HUMIDITY = ascii("humidity");
+    private static final byte[] WIND = ascii("wind");
+    private static final byte[] SPEED = ascii("speed");
+    private static final byte[] DEG = ascii("deg");
+    private static final byte[] WEATHER = ascii("weather");
+    private static final byte[] RAIN = ascii("rain");
+    private static final byte[] SNOW = ascii("snow");
+    private static final byte[] ONE_HOUR = ascii("1h");
+    private static final byte[] ID = ascii("id");
+    private static final byte[] LIST = ascii("list");
+    private static final byte[] COORD = ascii("coord");
+    private static final byte[] LAT = ascii("lat");
+    private static final byte[] LON = ascii("lon");
+    private static final byte[] THUNDERSTORM = ascii("thunderstorm");
+    private static final byte[] CLOUDS = ascii("clouds");
+
+    // Fields WeatherJsonParser treats as required
+    private static final int FOUND_TEMP = 1;
+    private static final int FOUND_HUMIDITY = 1 << 1;
+    private static final int FOUND_SPEED = 1 << 2;
+    private static final int FOUND_WEATHER = 1 << 3;
+    private static final int FOUND_ALL = FOUND_TEMP | FOUND_HUMIDITY | FOUND_SPEED | FOUND_WEATHER;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private InputStream in;
+
+    // Last key or string value; length is -1 when it was too long or not ASCII
+    private final byte[] token = new byte[MAX_TOKEN_LENGTH];
+    private int tokenLength;
+
+    // Text of the last number, for the rare values the fast path can't convert exactly
+    private final char[] numberText = new char[MAX_TOKEN_LENGTH];
+
+    public interface GroupListener {
+        void onWeather(WeatherData weatherData);
+    }
+
+    /**
+     * Parse a response into weatherData, overwriting all of its fields.
+     * The stream is read up to the end of the top level object and is not closed.
+     */
+    public void parse(InputStream in, WeatherData weatherData) throws IOException {
+        begin(in);
+        try {
+            parseWeather(weatherData);
+        } finally {
+            this.in = null;
+        }
+    }
+
+    /**
+     * Parse a group response ({"cnt":n,"list":[...]}), handing each entry to
+     * the listener as a new WeatherData.
+     * @return number of entries parsed
+     */
+    public int parseGroup(InputStream in, GroupListener listener) throws IOException {
+        begin(in);
+        try {
+            int count = 0;
+            expect('{');
+            if (!consume('}')) {
+                do {
+                    readString();
+                    expect(':');
+                    if (tokenEquals(LIST)) {
+                        expect('[');
+                        if (!consume(']')) {
+                            do {
+                                WeatherData weatherData = new WeatherData();
+                                parseWeather(weatherData);
+                                listener.onWeather(weatherData);
+                                count++;
+                            } while (consume(','));
+                            expect(']');
+                        }
+                    } else {
+                        skipValue();
+                    }
+                } while (consume(','));
+                expect('}');
+            }
+            return count;
+        } finally {
+            this.in = null;
+        }
+    }
+
+    private void begin(InputStream in) {
+        this.in = in;
+        position = 0;
+        limit = 0;
+    }
+
+    private void parseWeather(WeatherData weatherData) throws IOException {
+        weatherData.reset();
+        int found = 0;
+        expect('{');
+        if (!consume('}')) {
+            do {
+                readString();
+                expect(':');
+                if (tokenEquals(MAIN)) {
+                    found |= parseMain(weatherData);
+                } else if (tokenEquals(WIND)) {
+                    found |= parseWind(weatherData);
+                } else if (tokenEquals(WEATHER)) {
+                    parseConditions(weatherData);
+                    found |= FOUND_WEATHER;
+                } else if (tokenEquals(RAIN)) {
+                    weatherData.rainAmount = parsePrecipitation();
+                } else if (tokenEquals(SNOW)) {
+                    weatherData.snowAmount = parsePrecipitation();
+                } else if (tokenEquals(ID)) {
+                    weatherData.cityId = (long) readNumber();
+                } else if (tokenEquals(COORD)) {
+                    parseCoordinates(weatherData);
+                } else {
+                    skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        }
+        if ((found & FOUND_ALL) != FOUND_ALL) {
+            throw new IOException("Weather response is missing required fields");
+        }
+    }
+
+    private int parseMain(WeatherData weatherData) throws IOException {
+        int found = 0;
+        expect('{');
+        if (consume('}')) {
+            return found;
+        }
+        do {
+            readString();
+            expect(':');
+            if (tokenEquals(TEMP)) {
+                weatherData.temperature = readNumber();
+                found |= FOUND_TEMP;
+            } else if (tokenEquals(HUMIDITY)) {
+                weatherData.humidity = (int) readNumber();
+                found |= FOUND_HUMIDITY;
+            } else {
+                skipValue();
+            }
+        } while (consume(','));
+        expect('}');
+        return found;
+    }
+
+    private int parseWind(WeatherData weatherData) throws IOException {
+        int found = 0;
+        expect('{');
+        if (consume('}')) {
+            return found;
+        }
+        do {
+            readString();
+            expect(':');
+            if (tokenEquals(SPEED)) {
+                weatherData.windSpeed = readNumber();
+                found |= FOUND_SPEED;
+            } else if (tokenEquals(DEG)) {
+                weatherData.windDirection = readNumber();
+            } else {
+                skipValue();
+            }
+        } while (consume(','));
+        expect('}');
+        return found;
+    }
+
+    private void parseCoordinates(WeatherData weatherData) throws IOException {
+        expect('{');
+        if (consume('}')) {
+            return;
+        }
+        do {
+            readString();
+            expect(':');
+            if (tokenEquals(LAT)) {
+                weatherData.latitude = readNumber();
+            } else if (tokenEquals(LON)) {
+                weatherData.longitude = readNumber();
+            } else {
+                skipValue();
+            }
+        } while (consume(','));
+        expect('}');
+    }
+
+    // The last entry decides the condition; any thunderstorm entry sets the flag
+    private void parseConditions(WeatherData weatherData) throws IOException {
+        expect('[');
+        if (consume(']')) {
+            return;
+        }
+        do {
+            expect('{');
+            if (consume('}')) {
+                continue;
+            }
+            do {
+                readString();
+                expect(':');
+                if (tokenEquals(MAIN)) {
+                    readString();
+                    applyCondition(weatherData);
+                } else {
+                    skipValue();
+                }
+            } while (consume(','));
+            expect('}');
+        } while (consume(','));
+        expect(']');
+    }
+
+    private void applyCondition(WeatherData weatherData) {
+        if (tokenEqualsIgnoreCase(RAIN)) {
+            weatherData.weatherIcon = "🌧️";
+            weatherData.weatherCondition = "Rain";
+        } else if (tokenEqualsIgnoreCase(SNOW)) {
+            weatherData.weatherIcon = "❄️";
+            weatherData.weatherCondition = "Snow";
+        } else if (tokenEqualsIgnoreCase(THUNDERSTORM)) {
+            weatherData.weatherIcon = "⚡";
+            weatherData.weatherCondition = "Thunderstorm";
+            weatherData.isThunderstorm = true;
+        } else if (tokenEqualsIgnoreCase(CLOUDS)) {
+            weatherData.weatherIcon = "☁️";
+            weatherData.weatherCondition = "Clouds";
+        } else {
+            weatherData.weatherIcon = "☀️";
+            weatherData.weatherCondition = "Clear";
+        }
+    }
+
+    private double parsePrecipitation() throws IOException {
+        double amount = 0;
+        expect('{');
+        if (consume('}')) {
+            return amount;
+        }
+        do {
+            readString();
+            expect(':');
+            if (tokenEquals(ONE_HOUR)) {
+                amount = readNumber();
+            } else {
+                skipValue();
+            }
+        } while (consume(','));
+        expect('}');
+        return amount;
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '"') {
+            readString();
+        } else if (c == '{') {
+            position++;
+            if (!consume('}')) {
+                do {
+                    readString();
+                    expect(':');
+                    skipValue();
+                } while (consume(','));
+                expect('}');
+            }
+        } else if (c == '[') {
+            position++;
+            if (!consume(']')) {
+                do {
+                    skipValue();
+                } while (consume(','));
+                expect(']');
+            }
+        } else if (c == '-' || (c >= '0' && c <= '9')) {
+            readNumber();
+        } else if (c >= 'a' && c <= 'z') {
+            // true, false or null
+            position++;
+            do {
+                c = read();
+            } while (c >= 'a' && c <= 'z');
+            if (c != -1) {
+                position--;
+            }
+        } else {
+            throw syntaxError("unexpected character");
+        }
+    }
+
+    private void readString() throws IOException {
+        expect('"');
+        tokenLength = 0;
+        while (true) {
+            int c = read();
+            if (c == '"') {
+                return;
+            }
+            if (c == -1) {
+                throw syntaxError("unterminated string");
+            }
+            if (c == '\\') {
+                c = read();
+                switch (c) {
+                    case 'b': c = '\b'; break;
+                    case 'f': c = '\f'; break;
+                    case 'n': c = '\n'; break;
+                    case 'r': c = '\r'; break;
+                    case 't': c = '\t'; break;
+                    case 'u': c = readHex(); break;
+                    case -1: throw syntaxError("unterminated string");
+                    default: break; // \" \\ \/
+                }
+            }
+            if (tokenLength >= 0) {
+                if (c < 0x80 && tokenLength < MAX_TOKEN_LENGTH) {
+                    token[tokenLength++] = (byte) c;
+                } else {
+                    tokenLength = -1;
+                }
+            }
+        }
+    }
+
+    private int readHex() throws IOException {
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            int c = read();
+            int digit = Character.digit(c, 16);
+            if (c == -1 || digit < 0) {
+                throw syntaxError("bad unicode escape");
+            }
+            value = (value << 4) | digit;
+        }
+        return value;
+    }
+
+    private double readNumber() throws IOException {
+        int length = 0;
+        long mantissa = 0;
+        int significantDigits = 0;
+        int scale = 0;
+        boolean anyDigits = false;
+
+        int c = nextNonWhitespace();
+        boolean negative = c == '-';
+        if (negative) {
+            numberText[length++] = '-';
+            c = read();
+        }
+        while (c >= '0' && c <= '9') {
+            length = appendNumberChar(length, c);
+            if (significantDigits < 16) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) {
+                    significantDigits++;
+                }
+            } else {
+                scale++;
+                significantDigits++;
+            }
+            anyDigits = true;
+            c = read();
+        }
+        if (c == '.') {
+            length = appendNumberChar(length, c);
+            c = read();
+            while (c >= '0' && c <= '9') {
+                length = appendNumberChar(length, c);
+                if (significantDigits < 16) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) {
+                        significantDigits++;
+                    }
+                    scale--;
+                } else {
+                    significantDigits++;
+                }
+                anyDigits = true;
+                c = read();
+            }
+        }
+        if (c == 'e' || c == 'E') {
+            length = appendNumberChar(length, c);
+            c = read();
+            boolean negativeExponent = c == '-';
+            if (c == '-' || c == '+') {
+                length = appendNumberChar(length, c);
+                c = read();
+            }
+            int exponent = 0;
+            while (c >= '0' && c <= '9') {
+                length = appendNumberChar(length, c);
+                if (exponent < 10000) {
+                    exponent = exponent * 10 + (c - '0');
+                }
+                c = read();
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (c != -1) {
+            position--;
+        }
+        if (!anyDigits) {
+            throw syntaxError("bad number");
+        }
+
+        // Exact while both the mantissa and the power of ten are exactly representable
+        if (significantDigits <= 15 && scale >= -22 && scale <= 22) {
+            double value = scale < 0
+                    ? mantissa / POWERS_OF_TEN[-scale]
+                    : mantissa * POWERS_OF_TEN[scale];
+            return negative ? -value : value;
+        }
+        if (length > MAX_TOKEN_LENGTH) {
+            throw syntaxError("number too long");
+        }
+        return Double.parseDouble(new String(numberText, 0, length));
+    }
+
+    private int appendNumberChar(int length, int c) {
+        if (length < MAX_TOKEN_LENGTH) {
+            numberText[length] = (char) c;
+        }
+        return length + 1;
+    }
+
+    private boolean tokenEquals(byte[] expected) {
+        if (tokenLength != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // expected must be lower case
+    private boolean tokenEqualsIgnoreCase(byte[] expected) {
+        if (tokenLength != expected.length) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            int b = token[i];
+            if (b >= 'A' && b <= 'Z') {
+                b += 'a' - 'A';
+            }
+            if (b != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void expect(char expected) throws IOException {
+        if (nextNonWhitespace() != expected) {
+            throw syntaxError("expected '" + expected + "'");
+        }
+    }
+
+    private boolean consume(char expected) throws IOException {
+        if (peek() == expected) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private int peek() throws IOException {
+        int c = nextNonWhitespace();
+        if (c != -1) {
+            position--;
+        }
+        return c;
+    }
+
+    private int nextNonWhitespace() throws IOException {
+        int c;
+        do {
+            c = read();
+        } while (c == ' ' || c == '\n' || c == '\r' || c == '\t');
+        return c;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, BUFFER_SIZE);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++] & 0xFF;
+    }
+
+    private IOException syntaxError(String message) {
+        return new IOException("Malformed weather JSON: " + message);
+    }
+
+    /**
+     * Compact JSON in the OpenWeatherMap layout that parses back to the same WeatherData.
+     */
+    public static String toJson(WeatherData weatherData) {
+        StringBuilder json = new StringBuilder(224);
+        json.append('{');
+        if (!Double.isNaN(weatherData.latitude) && !Double.isNaN(weatherData.longitude)) {
+            json.append("\"coord\":{\"lon\":").append(weatherData.longitude)
+                    .append(",\"lat\":").append(weatherData.latitude).append("},");
+        }
+        json.append("\"main\":{\"temp\":").append(weatherData.temperature)
+                .append(",\"humidity\":").append(weatherData.humidity)
+                .append("},\"wind\":{\"speed\":").append(weatherData.windSpeed)
+                .append(",\"deg\":").append(weatherData.windDirection)
+                .append("},\"weather\":[");
+        if (weatherData.isThunderstorm && !"Thunderstorm".equals(weatherData.weatherCondition)) {
+            json.append("{\"main\":\"Thunderstorm\"},");
+        }
+        json.append("{\"main\":\"").append(weatherData.weatherCondition).append("\"}]")
+                .append(",\"rain\":{\"1h\":").append(weatherData.rainAmount)
+                .append("},\"snow\":{\"1h\":").append(weatherData.snowAmount)
+                .append("},\"id\":").append(weatherData.cityId)
+                .append('}');
+        return json.toString();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.solarsenseapp.telemetry;
+
+/**
+ * Fixed-size ring of decoded telemetry samples, held as parallel primitive
+ * arrays allocated once, so hundreds of samples a second produce no garbage.
+ * Samples are numbered by the order they were written; the oldest are
+ * overwritten once the ring is full.
+ * The decoder appends a whole frame under the buffer's lock, so readers take
+ * the lock a few times a second rather than once per sample.
+ */
+public class TelemetryBuffer {
+
+    /**
+     * Reusable holder for one sample; callers keep their own to avoid allocating.
+     */
+    public static final class Sample {
+        public long sequence;    // device sample number
+        public long timeMicros;  // device clock
+        public float baseAngle;  // degrees, as measured
+        public float panelAngle;
+        public float voltage;    // volts at the panel
+        public float current;    // amps
+
+        public float power() {
+            return voltage * current;
+        }
+    }
+
+    private final int mask;
+    private final long[] sequence;
+    private final long[] timeMicros;
+    private final float[] baseAngle;
+    private final float[] panelAngle;
+    private final float[] voltage;
+    private final float[] current;
+
+    // Guarded by this
+    private long written = 0;
+
+    /**
+     * @param capacity Rounded up to a power of two
+     */
+    public TelemetryBuffer(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequence = new long[size];
+        this.timeMicros = new long[size];
+        this.baseAngle = new float[size];
+        this.panelAngle = new float[size];
+        this.voltage = new float[size];
+        this.current = new float[size];
+    }
+
+    // Caller holds the lock; see TelemetryFrameDecoder
+    void append(long seq, long time, float base, float panel, float volts, float amps) {
+        int slot = (int) (written & mask);
+        sequence[slot] = seq;
+        timeMicros[slot] = time;
+        baseAngle[slot] = base;
+        panelAngle[slot] = panel;
+        voltage[slot] = volts;
+        current[slot] = amps;
+        written++;
+    }
+
+    /**
+     * @param index Position in write order, from getOldestIndex() to getWrittenCount() - 1
+     * @return false if the sample was overwritten or not written yet
+     */
+    public synchronized boolean read(long index, Sample out) {
+        if (index < 0 || index >= written || index < written - capacity()) {
+            return false;
+        }
+        int slot = (int) (index & mask);
+        out.sequence = sequence[slot];
+        out.timeMicros = timeMicros[slot];
+        out.baseAngle = baseAngle[slot];
+        out.panelAngle = panelAngle[slot];
+        out.voltage = voltage[slot];
+        out.current = current[slot];
+        return true;
+    }
+
+    public synchronized boolean readLatest(Sample out) {
+        return read(written - 1, out);
+    }
+
+    /**
+     * @return Mean power in watts over the last samples, or 0 if there are none
+     */
+    public synchronized float getAveragePower(int samples) {
+        int count = (int) Math.min(samples, Math.min(written, capacity()));
+        if (count <= 0) {
+            return 0;
+        }
+        double sum = 0;
+        for (long i = written - count; i < written; i++) {
+            int slot = (int) (i & mask);
+            sum += voltage[slot] * current[slot];
+        }
+        return (float) (sum / count);
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    public synchronized long getWrittenCount() {
+        return written;
+    }
+
+    public synchronized long getOldestIndex() {
+        return Math.max(0, written - capacity());
+    }
+
+    public synchronized void clear() {
+        written = 0;
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.solarsenseapp.telemetry;
+
+import com.example.solarsenseapp.metrics.Counter;
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.ESPTransport;
+import com.example.solarsenseapp.tracking.TickScheduler;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Reads servo position, panel voltage and current back from the ESP.
+ * Each poll asks for every sample since the last one received, and the ESP
+ * answers with a few binary frames holding everything it buffered, so a
+ * sample rate of hundreds of Hz costs a handful of requests a second over the
+ * shared keep-alive transport. Firmware that pushes frames instead (UDP, a
+ * websocket) hands them to {@link #ingest}; both paths feed the same decoder
+ * and buffer.
+ * Firmware without the endpoint answers 404, after which polling backs off.
+ * An unreachable ESP backs polling off exponentially, doubling the skipped
+ * polls per consecutive failure, so a poll waiting out its timeout rarely
+ * holds a transport slot that servo commands need.
+ */
+public class TelemetryClient {
+    private static final String TAG = "TelemetryClient";
+
+    private final ESPCommunicator communicator;
+    private final TelemetryFrameDecoder decoder;
+    private final TickScheduler scheduler;
+    private final long pollIntervalMillis;
+
+    private volatile boolean active = false;
+    private final AtomicBoolean pollInFlight = new AtomicBoolean(false);
+    private volatile int backoffPolls = 0;
+    private volatile int consecutiveFailures = 0;
+
+    // Stats
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong failedPolls = new AtomicLong();
+    private final AtomicLong pushes = new AtomicLong();
+    private final Histogram pollLatency = MetricsRegistry.getDefault().histogram("esp.telemetry.micros");
+    private final Counter pollErrors = MetricsRegistry.getDefault().counter("esp.telemetry.errors");
+
+    public TelemetryClient(ESPCommunicator communicator, TelemetryFrameDecoder decoder, TickScheduler scheduler) {
+        this(communicator, decoder, scheduler, Constants.TELEMETRY_POLL_INTERVAL);
+    }
+
+    public TelemetryClient(ESPCommunicator communicator, TelemetryFrameDecoder decoder,
+                           TickScheduler scheduler, long pollIntervalMillis) {
+        this.communicator = communicator;
+        this.decoder = decoder;
+        this.scheduler = scheduler;
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    public void start() {
+        active = true;
+        backoffPolls = 0;
+        consecutiveFailures = 0;
+        scheduler.start(this::poll, pollIntervalMillis);
+    }
+
+    public void stop() {
+        active = false;
+        scheduler.stop();
+    }
+
+    public void poll() {
+        if (!active) {
+            return;
+        }
+        if (backoffPolls > 0) {
+            backoffPolls--;
+            return;
+        }
+        // The decoder must see responses in order, so never overlap polls
+        if (!pollInFlight.compareAndSet(false, true)) {
+            skippedPolls.incrementAndGet();
+            return;
+        }
+        polls.incrementAndGet();
+
+        long since = decoder.getNextSequence();
+        String url = communicator.getCurrentIP() + Constants.TELEMETRY_ENDPOINT
+                + (since >= 0 ? "?since=" + since : "");
+        long startNanos = System.nanoTime();
+        communicator.getTransport().fetch(url, Constants.TELEMETRY_REQUEST_TIMEOUT, new ESPTransport.BodyCallback() {
+            @Override
+            public void onResponse(int responseCode, InputStream body) throws IOException {
+                try {
+                    consecutiveFailures = 0; // the ESP is reachable, whatever it answered
+                    if (responseCode == HttpURLConnection.HTTP_OK) {
+                        decoder.decode(body);
+                    } else if (responseCode == HttpURLConnection.HTTP_NOT_FOUND) {
+                        TrackingLog.w(TAG, "ESP firmware has no telemetry endpoint");
+                        backoffPolls = Constants.TELEMETRY_UNSUPPORTED_BACKOFF_POLLS;
+                    } else {
+                        failedPolls.incrementAndGet();
+                        pollErrors.increment();
+                        TrackingLog.w(TAG, "Telemetry poll answered with code: " + responseCode);
+                    }
+                } finally {
+                    pollLatency.recordSince(startNanos);
+                    pollInFlight.set(false);
+                }
+            }
+
+            @Override
+            public void onFailure(IOException e) {
+                pollLatency.recordSince(startNanos);
+                pollErrors.increment();
+                int failures = Math.min(consecutiveFailures + 1, 30);
+                consecutiveFailures = failures;
+                backoffPolls = (int) Math.min((1L << failures) - 1, Constants.TELEMETRY_MAX_FAILURE_BACKOFF_POLLS);
+                failedPolls.incrementAndGet();
+                pollInFlight.set(false);
+                TrackingLog.w(TAG, "Telemetry poll failed: " + e.getMessage() + "; skipping " + backoffPolls + " polls");
+            }
+        });
+    }
+
+    /**
+     * Accept frames pushed by the ESP
+     * @return Number of new samples stored, or -1 if the message was malformed
+     */
+    public int ingest(byte[] data, int offset, int length) {
+        pushes.incrementAndGet();
+        return decoder.decode(data, offset, length);
+    }
+
+    // Sequence numbers belong to one device; call after changing the ESP address
+    public void reset() {
+        decoder.reset();
+        decoder.getBuffer().clear();
+        backoffPolls = 0;
+        consecutiveFailures = 0;
+    }
+
+    public TelemetryBuffer getBuffer() {
+        return decoder.getBuffer();
+    }
+
+    public TelemetryFrameDecoder getDecoder() {
+        return decoder;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // Getters for stats
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    public long getSkippedPollCount() {
+        return skippedPolls.get();
+    }
+
+    public long getFailedPollCount() {
+        return failedPolls.get();
+    }
+
+    // Polls still to be skipped before asking again
+    public int getBackoffPolls() {
+        return backoffPolls;
+    }
+
+    public String getStats() {
+        return String.format("Telemetry: polls=%d, skipped=%d, failed=%d, pushes=%d; %s",
+                polls.get(), skippedPolls.get(), failedPolls.get(), pushes.get(), decoder.getStats());
+    }
+}
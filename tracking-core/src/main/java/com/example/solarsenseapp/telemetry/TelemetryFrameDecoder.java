@@ -0,0 +1,253 @@
+package com.example.solarsenseapp.telemetry;
+
+import com.example.solarsenseapp.utils.Constants;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Decodes ESP telemetry frames into a TelemetryBuffer.
+ * A frame carries many evenly spaced samples behind one 20 byte header, all
+ * little-endian as the ESP writes them:
+ * <pre>
+ *  0  'S' 'T'      magic
+ *  2  u8           version, 1
+ *  3  u8           bytes per sample, at least 8; extra trailing bytes are skipped
+ *  4  u32          sequence number of the first sample
+ *  8  u32          device time of the first sample, microseconds
+ * 12  u32          sample interval, microseconds
+ * 16  u16          sample count
+ * 18  u16          reserved
+ * 20  samples:     i16 base angle (centidegrees), i16 panel angle (centidegrees),
+ *                  u16 panel voltage (mV), i16 current (mA)
+ * </pre>
+ * A pull response or a pushed datagram may hold several frames back to back.
+ * Sequence numbers let the decoder count samples the ESP dropped and skip
+ * ones it has already stored, so overlapping pulls and pushes are harmless.
+ * A frame further behind than any overlap could reach, or whose device clock
+ * runs behind the samples it overlaps, means the ESP restarted its counter,
+ * and the decoder resyncs on it.
+ * Decoding reuses one scratch array and allocates nothing per frame.
+ */
+public class TelemetryFrameDecoder {
+
+    public static final int HEADER_SIZE = 20;
+    public static final int VERSION = 1;
+    public static final int MIN_SAMPLE_SIZE = 8;
+    public static final int MAX_SAMPLE_SIZE = 32;
+    private static final byte MAGIC_0 = 'S';
+    private static final byte MAGIC_1 = 'T';
+
+    private final TelemetryBuffer buffer;
+    private final int maxFrameSamples;
+    private final byte[] frame;
+    private final ByteBuffer view;
+
+    // Guarded by this
+    private boolean synced = false;
+    private long nextSequence;
+    private long lastTimeMicros;
+
+    // Stats
+    private long frames;
+    private long samples;
+    private long droppedSamples;
+    private long duplicateSamples;
+    private long malformedFrames;
+    private long resyncs;
+
+    public TelemetryFrameDecoder(TelemetryBuffer buffer) {
+        this(buffer, Constants.TELEMETRY_MAX_FRAME_SAMPLES);
+    }
+
+    public TelemetryFrameDecoder(TelemetryBuffer buffer, int maxFrameSamples) {
+        this.buffer = buffer;
+        this.maxFrameSamples = maxFrameSamples;
+        this.frame = new byte[HEADER_SIZE + maxFrameSamples * MAX_SAMPLE_SIZE];
+        this.view = ByteBuffer.wrap(frame).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Decode frames until the stream ends, e.g. a pull response body.
+     * @return Number of new samples stored
+     * @throws IOException on a read error or a malformed frame, after storing the frames before it
+     */
+    public synchronized int decode(InputStream in) throws IOException {
+        int stored = 0;
+        while (true) {
+            int first = in.read();
+            if (first < 0) {
+                return stored;
+            }
+            frame[0] = (byte) first;
+            readFully(in, 1, HEADER_SIZE - 1);
+            int bodySize = checkHeader();
+            if (bodySize < 0) {
+                malformedFrames++;
+                throw new IOException("Malformed telemetry frame");
+            }
+            readFully(in, HEADER_SIZE, bodySize);
+            stored += storeFrame();
+        }
+    }
+
+    /**
+     * Decode one pushed message.
+     * @return Number of new samples stored, or -1 if a frame was malformed or truncated
+     */
+    public synchronized int decode(byte[] data, int offset, int length) {
+        int stored = 0;
+        int end = offset + length;
+        while (offset < end) {
+            if (end - offset < HEADER_SIZE) {
+                malformedFrames++;
+                return -1;
+            }
+            System.arraycopy(data, offset, frame, 0, HEADER_SIZE);
+            int bodySize = checkHeader();
+            if (bodySize < 0 || end - offset - HEADER_SIZE < bodySize) {
+                malformedFrames++;
+                return -1;
+            }
+            System.arraycopy(data, offset + HEADER_SIZE, frame, HEADER_SIZE, bodySize);
+            stored += storeFrame();
+            offset += HEADER_SIZE + bodySize;
+        }
+        return stored;
+    }
+
+    private void readFully(InputStream in, int offset, int length) throws IOException {
+        while (length > 0) {
+            int read = in.read(frame, offset, length);
+            if (read < 0) {
+                malformedFrames++;
+                throw new EOFException("Truncated telemetry frame");
+            }
+            offset += read;
+            length -= read;
+        }
+    }
+
+    // Returns the size of the samples that follow the header in frame, or -1 if it is invalid
+    private int checkHeader() {
+        if (frame[0] != MAGIC_0 || frame[1] != MAGIC_1 || frame[2] != VERSION) {
+            return -1;
+        }
+        int sampleSize = frame[3] & 0xFF;
+        int count = view.getShort(16) & 0xFFFF;
+        if (sampleSize < MIN_SAMPLE_SIZE || sampleSize > MAX_SAMPLE_SIZE || count > maxFrameSamples) {
+            return -1;
+        }
+        return sampleSize * count;
+    }
+
+    private int storeFrame() {
+        int sampleSize = frame[3] & 0xFF;
+        int count = view.getShort(16) & 0xFFFF;
+        int rawSequence = view.getInt(4);
+        int rawTime = view.getInt(8);
+        long interval = view.getInt(12) & 0xFFFFFFFFL;
+
+        long first = synced ? extend(nextSequence, rawSequence) : rawSequence & 0xFFFFFFFFL;
+        long time = synced ? extend(lastTimeMicros, rawTime) : rawTime & 0xFFFFFFFFL;
+        if (synced && first < nextSequence && restarted(first, time, interval)) {
+            resyncs++;
+            synced = false;
+            first = rawSequence & 0xFFFFFFFFL;
+            time = rawTime & 0xFFFFFFFFL;
+        }
+
+        int skip = 0;
+        if (synced && first > nextSequence) {
+            droppedSamples += first - nextSequence;
+        } else if (synced && first < nextSequence) {
+            skip = (int) Math.min(count, nextSequence - first);
+            duplicateSamples += skip;
+        }
+
+        synchronized (buffer) {
+            for (int i = skip; i < count; i++) {
+                int pos = HEADER_SIZE + i * sampleSize;
+                buffer.append(first + i, time + i * interval,
+                        view.getShort(pos) / 100f,
+                        view.getShort(pos + 2) / 100f,
+                        (view.getShort(pos + 4) & 0xFFFF) / 1000f,
+                        view.getShort(pos + 6) / 1000f);
+            }
+        }
+
+        if (!synced || first + count > nextSequence) {
+            nextSequence = first + count;
+            lastTimeMicros = time + (count > 0 ? (count - 1) * interval : 0);
+        }
+        synced = true;
+        frames++;
+        samples += count - skip;
+        return count - skip;
+    }
+
+    // A frame behind what we already have is an overlap only if it is within one frame of it and
+    // its clock agrees; anything else is an ESP that rebooted, however few samples it sent since
+    private boolean restarted(long first, long time, long interval) {
+        long behind = nextSequence - first;
+        if (behind > maxFrameSamples || behind > buffer.capacity()) {
+            return true;
+        }
+        long overlappedTime = lastTimeMicros - (behind - 1) * interval;
+        return time < overlappedTime - interval;
+    }
+
+    // Widens a wrapping u32 counter to the value nearest the last one seen
+    private static long extend(long reference, int raw) {
+        return reference + (raw - (int) reference);
+    }
+
+    /**
+     * @return The device sequence number to ask for next, or -1 before the first frame
+     */
+    public synchronized long getNextSequence() {
+        return synced ? nextSequence & 0xFFFFFFFFL : -1;
+    }
+
+    // Forget the sequence, e.g. after pointing at a different ESP
+    public synchronized void reset() {
+        synced = false;
+    }
+
+    public TelemetryBuffer getBuffer() {
+        return buffer;
+    }
+
+    // Getters for stats
+    public synchronized long getFrameCount() {
+        return frames;
+    }
+
+    public synchronized long getSampleCount() {
+        return samples;
+    }
+
+    public synchronized long getDroppedSampleCount() {
+        return droppedSamples;
+    }
+
+    public synchronized long getDuplicateSampleCount() {
+        return duplicateSamples;
+    }
+
+    public synchronized long getMalformedFrameCount() {
+        return malformedFrames;
+    }
+
+    public synchronized long getResyncCount() {
+        return resyncs;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Telemetry decoder: frames=%d, samples=%d, dropped=%d, duplicates=%d, malformed=%d, resyncs=%d",
+                frames, samples, droppedSamples, duplicateSamples, malformedFrames, resyncs);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+
+import java.util.TimeZone;
+
+/**
+ * Wakes the tracker only when the panel would actually move.
+ * During the day the sun's rate of change in servo-angle space is estimated
+ * by finite difference and the next wake is set for when either axis will
+ * have moved one step. At night the tracker sleeps until the next sunrise,
+ * which is computed once per night.
+ */
+public class AdaptiveIntervalPolicy implements IntervalPolicy {
+
+    private static final long MINUTE = 60000;
+    private static final double LOCATION_TOLERANCE_DEGREES = 0.01;
+
+    private final SolarEphemeris ephemeris;
+    private final int stepDegrees;
+    private final long minIntervalMillis;
+    private final long maxIntervalMillis;
+
+    private final double[] position = new double[2];
+
+    // Cached next sunrise for the night in progress
+    private long sunriseMillis = Long.MIN_VALUE;
+    private double sunriseLatitude = Double.NaN;
+    private double sunriseLongitude = Double.NaN;
+
+    public AdaptiveIntervalPolicy(SolarEphemeris ephemeris) {
+        this(ephemeris, Constants.TRACKING_DEADBAND,
+                Constants.TRACKING_MIN_INTERVAL, Constants.TRACKING_MAX_INTERVAL);
+    }
+
+    public AdaptiveIntervalPolicy(SolarEphemeris ephemeris, int stepDegrees,
+                                  long minIntervalMillis, long maxIntervalMillis) {
+        this.ephemeris = ephemeris;
+        this.stepDegrees = stepDegrees;
+        this.minIntervalMillis = minIntervalMillis;
+        this.maxIntervalMillis = maxIntervalMillis;
+    }
+
+    @Override
+    public synchronized long nextDelayMillis(double latitude, double longitude, long nowMillis) {
+        ephemeris.lookup(latitude, longitude, nowMillis, position);
+        double azimuth = position[SolarCalculator.AZIMUTH];
+        double altitude = position[SolarCalculator.ALTITUDE];
+
+        if (!SolarCalculator.isDaylight(altitude)) {
+            return untilSunrise(latitude, longitude, nowMillis);
+        }
+
+        ephemeris.lookup(latitude, longitude, nowMillis + MINUTE, position);
+
+        // Servo-space rates in degrees per minute, matching solarPositionToServoAngles.
+        // No short-arc correction: the base servo really does swing across its range when the azimuth wraps.
+        double baseRate = Math.abs(position[SolarCalculator.AZIMUTH] - azimuth) / 2;
+        double panelRate = Math.abs(position[SolarCalculator.ALTITUDE] - altitude) * 2;
+        double fastestRate = Math.max(baseRate, panelRate);
+
+        if (fastestRate <= 0) {
+            return maxIntervalMillis;
+        }
+        long delay = (long) (stepDegrees / fastestRate * MINUTE);
+        return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, delay));
+    }
+
+    private long untilSunrise(double latitude, double longitude, long nowMillis) {
+        boolean sameLocation = Math.abs(latitude - sunriseLatitude) < LOCATION_TOLERANCE_DEGREES
+                && Math.abs(longitude - sunriseLongitude) < LOCATION_TOLERANCE_DEGREES;
+        if (!sameLocation || nowMillis >= sunriseMillis) {
+            sunriseMillis = findNextSunrise(latitude, longitude, nowMillis);
+            sunriseLatitude = latitude;
+            sunriseLongitude = longitude;
+        }
+        return Math.max(minIntervalMillis, sunriseMillis - nowMillis);
+    }
+
+    // Scans minute by minute; polar nights fall back to the longest night sleep
+    private long findNextSunrise(double latitude, double longitude, long nowMillis) {
+        TimeZone timeZone = TimeZone.getDefault();
+        long limit = nowMillis + Constants.TRACKING_MAX_NIGHT_INTERVAL;
+        for (long t = nowMillis + MINUTE; t < limit; t += MINUTE) {
+            SolarCalculator.calculateSolarPosition(latitude, longitude, t, timeZone.getOffset(t), position);
+            if (SolarCalculator.isDaylight(position[SolarCalculator.ALTITUDE])) {
+                return t;
+            }
+        }
+        return limit;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.solarsenseapp.tracking;
+
+/**
+ * Time source for the tracking core, so tests and simulations can run on a fake clock.
+ */
+public interface Clock {
+    long currentTimeMillis();
+
+    Clock SYSTEM = System::currentTimeMillis;
+}
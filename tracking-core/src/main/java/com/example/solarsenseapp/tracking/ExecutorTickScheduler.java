@@ -0,0 +1,52 @@
+package com.example.solarsenseapp.tracking;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * TickScheduler backed by a single-threaded ScheduledExecutorService, for JVM hosts.
+ */
+public class ExecutorTickScheduler implements TickScheduler {
+
+    private final ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+
+    public ExecutorTickScheduler() {
+        this(Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "tracking-tick");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    public ExecutorTickScheduler(ScheduledExecutorService executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void start(Runnable tick, long periodMillis) {
+        stop();
+        future = executor.scheduleAtFixedRate(tick, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void scheduleNext(Runnable tick, long delayMillis) {
+        stop();
+        future = executor.schedule(tick, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (future != null) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    public void shutdown() {
+        stop();
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.solarsenseapp.tracking;
+
+/**
+ * Decides how long the tracker sleeps after an update.
+ */
+public interface IntervalPolicy {
+    long nextDelayMillis(double latitude, double longitude, long nowMillis);
+
+    static IntervalPolicy fixed(long intervalMillis) {
+        return (latitude, longitude, nowMillis) -> intervalMillis;
+    }
+}
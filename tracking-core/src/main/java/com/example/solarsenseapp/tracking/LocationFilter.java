@@ -0,0 +1,201 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+
+import java.util.TimeZone;
+
+/**
+ * Fuses location fixes from several providers and decides which ones matter
+ * for tracking.
+ * A fix replaces the current one only if it is more accurate, or newer and no
+ * less accurate, or far enough away that the two cannot both be right; an old
+ * fix or a coarser one from a second provider is dropped. An accepted fix only
+ * asks for a solar recompute if it moves a servo target by at least
+ * LOCATION_RECOMPUTE_ANGLE compared with the position of the last recompute,
+ * so GPS jitter and walking around the garden cost nothing.
+ */
+public class LocationFilter {
+
+    public enum Result {
+        RECOMPUTE,
+        ACCEPTED,
+        DROPPED_OUTDATED,
+        DROPPED_LESS_ACCURATE;
+
+        public boolean isAccepted() {
+            return this == RECOMPUTE || this == ACCEPTED;
+        }
+    }
+
+    private static final double METERS_PER_DEGREE = 111320;
+
+    private final long maxFixAgeMillis;
+    private final double recomputeAngle;
+
+    // Guarded by this
+    private boolean hasFix = false;
+    private double latitude;
+    private double longitude;
+    private float accuracy;
+    private long fixTime;
+    private String provider;
+
+    private boolean hasAnchor = false;
+    private double anchorLatitude;
+    private double anchorLongitude;
+    private final double[] anchorPosition = new double[2];
+    private final double[] candidatePosition = new double[2];
+
+    // Stats
+    private long recomputeCount;
+    private long acceptedCount;
+    private long outdatedCount;
+    private long lessAccurateCount;
+
+    public LocationFilter() {
+        this(Constants.LOCATION_FIX_MAX_AGE, Constants.LOCATION_RECOMPUTE_ANGLE);
+    }
+
+    /**
+     * @param maxFixAgeMillis a fix this much newer than the current one wins regardless of accuracy
+     * @param recomputeAngle smallest servo angle change, in degrees, worth a recompute
+     */
+    public LocationFilter(long maxFixAgeMillis, double recomputeAngle) {
+        this.maxFixAgeMillis = maxFixAgeMillis;
+        this.recomputeAngle = recomputeAngle;
+    }
+
+    /**
+     * @param accuracyMeters horizontal accuracy radius, or 0 if the provider gave none
+     * @param fixTimeMillis when the fix was taken
+     * @param nowMillis current time, used to compare servo targets
+     */
+    public synchronized Result offer(double latitude, double longitude, float accuracyMeters,
+                                     long fixTimeMillis, String provider, long nowMillis) {
+        if (accuracyMeters <= 0) {
+            accuracyMeters = Constants.LOCATION_UNKNOWN_ACCURACY;
+        }
+
+        if (hasFix) {
+            Result drop = compare(latitude, longitude, accuracyMeters, fixTimeMillis, provider);
+            if (drop == Result.DROPPED_OUTDATED) {
+                outdatedCount++;
+                return drop;
+            }
+            if (drop == Result.DROPPED_LESS_ACCURATE) {
+                lessAccurateCount++;
+                return drop;
+            }
+        }
+
+        hasFix = true;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.accuracy = accuracyMeters;
+        this.fixTime = fixTimeMillis;
+        this.provider = provider;
+
+        if (hasAnchor && !movesServos(latitude, longitude, nowMillis)) {
+            acceptedCount++;
+            return Result.ACCEPTED;
+        }
+        hasAnchor = true;
+        anchorLatitude = latitude;
+        anchorLongitude = longitude;
+        recomputeCount++;
+        return Result.RECOMPUTE;
+    }
+
+    // Returns why the candidate loses to the current fix, or null if it wins
+    private Result compare(double latitude, double longitude, float accuracyMeters,
+                           long fixTimeMillis, String provider) {
+        long timeDelta = fixTimeMillis - fixTime;
+        if (timeDelta > maxFixAgeMillis) {
+            // The current fix is too old to trust, whatever its accuracy
+            return null;
+        }
+        if (timeDelta < -maxFixAgeMillis) {
+            return Result.DROPPED_OUTDATED;
+        }
+
+        float accuracyDelta = accuracyMeters - accuracy;
+        if (accuracyDelta < 0) {
+            return null;
+        }
+        if (timeDelta <= 0) {
+            // A repeat, or an older fix that is no more accurate
+            return Result.DROPPED_OUTDATED;
+        }
+        if (accuracyDelta == 0 || provider.equals(this.provider)) {
+            return null;
+        }
+        // A coarser provider only wins if the fixes disagree, i.e. the device has moved
+        if (distanceMeters(this.latitude, this.longitude, latitude, longitude) > accuracy + accuracyMeters) {
+            return null;
+        }
+        return Result.DROPPED_LESS_ACCURATE;
+    }
+
+    // Compares unrounded servo targets at the anchor and the candidate for the same instant
+    private boolean movesServos(double latitude, double longitude, long nowMillis) {
+        long utcOffset = TimeZone.getDefault().getOffset(nowMillis);
+        SolarCalculator.calculateSolarPosition(anchorLatitude, anchorLongitude, nowMillis, utcOffset, anchorPosition);
+        SolarCalculator.calculateSolarPosition(latitude, longitude, nowMillis, utcOffset, candidatePosition);
+
+        // Same scaling as SolarCalculator.solarPositionToServoAngles: base = azimuth / 2, panel = altitude * 2
+        double azimuthDelta = candidatePosition[SolarCalculator.AZIMUTH] - anchorPosition[SolarCalculator.AZIMUTH];
+        azimuthDelta = ((azimuthDelta % 360) + 540) % 360 - 180;
+        double baseDelta = Math.abs(azimuthDelta) / 2;
+        double panelDelta = Math.abs(candidatePosition[SolarCalculator.ALTITUDE]
+                - anchorPosition[SolarCalculator.ALTITUDE]) * 2;
+        return baseDelta >= recomputeAngle || panelDelta >= recomputeAngle;
+    }
+
+    // Equirectangular approximation; fine for comparing against accuracy radii
+    private static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = lat2 - lat1;
+        double dLon = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        return Math.sqrt(dLat * dLat + dLon * dLon) * METERS_PER_DEGREE;
+    }
+
+    // Forget all fixes, e.g. after the user resets or types a location
+    public synchronized void reset() {
+        hasFix = false;
+        hasAnchor = false;
+    }
+
+    /**
+     * @return Best fix so far, or null if none was accepted
+     */
+    public synchronized Coordinates getBestLocation() {
+        return hasFix ? new Coordinates(latitude, longitude) : null;
+    }
+
+    // Getters for stats
+    public synchronized long getRecomputeCount() {
+        return recomputeCount;
+    }
+
+    public synchronized long getAcceptedCount() {
+        return acceptedCount + recomputeCount;
+    }
+
+    public synchronized long getDroppedCount() {
+        return outdatedCount + lessAccurateCount;
+    }
+
+    public synchronized long getOutdatedCount() {
+        return outdatedCount;
+    }
+
+    public synchronized long getLessAccurateCount() {
+        return lessAccurateCount;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Location filter: accepted=%d, recomputes=%d, dropped=%d (outdated=%d, lessAccurate=%d)",
+                getAcceptedCount(), getRecomputeCount(), getDroppedCount(), getOutdatedCount(), getLessAccurateCount());
+    }
+}
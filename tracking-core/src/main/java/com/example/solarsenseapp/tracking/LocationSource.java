@@ -0,0 +1,13 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.models.Coordinates;
+
+/**
+ * Supplies the current panel location to the tracker.
+ */
+public interface LocationSource {
+    /**
+     * @return Current location, or null if none is known yet
+     */
+    Coordinates getLocation();
+}
@@ -0,0 +1,99 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+
+/**
+ * Filters auto-tracking moves before they reach the servos.
+ * Remembers the last commanded angles and drops moves smaller than the
+ * deadband. Reversing direction needs an extra hysteresis margin, so an
+ * angle hovering on a rounding boundary does not flip between two values.
+ */
+public class MotionPlanner {
+
+    private static final int UNKNOWN = -1;
+
+    private final int deadband;
+    private final int hysteresis;
+
+    // Indexed like SolarCalculator servo angles: last commanded angle and last move direction (-1, 0, 1)
+    private final int[] lastAngles = {UNKNOWN, UNKNOWN};
+    private final int[] lastDirections = new int[2];
+
+    // Stats
+    private long commandedCount;
+    private long suppressedCount;
+
+    public MotionPlanner() {
+        this(Constants.TRACKING_DEADBAND, Constants.TRACKING_HYSTERESIS);
+    }
+
+    public MotionPlanner(int deadband, int hysteresis) {
+        this.deadband = deadband;
+        this.hysteresis = hysteresis;
+    }
+
+    /**
+     * Decide whether a move should be sent
+     * @param baseAngle Target base angle
+     * @param panelAngle Target panel angle
+     * @param out Receives the angles to command; an axis inside the deadband keeps its last angle
+     * @return true if the servos should be commanded, false if the move was suppressed
+     */
+    public synchronized boolean plan(int baseAngle, int panelAngle, int[] out) {
+        boolean baseMoves = planAxis(SolarCalculator.BASE_ANGLE, baseAngle);
+        boolean panelMoves = planAxis(SolarCalculator.PANEL_ANGLE, panelAngle);
+        out[SolarCalculator.BASE_ANGLE] = lastAngles[SolarCalculator.BASE_ANGLE];
+        out[SolarCalculator.PANEL_ANGLE] = lastAngles[SolarCalculator.PANEL_ANGLE];
+
+        if (baseMoves || panelMoves) {
+            commandedCount++;
+            return true;
+        }
+        suppressedCount++;
+        return false;
+    }
+
+    private boolean planAxis(int axis, int target) {
+        int last = lastAngles[axis];
+        if (last == UNKNOWN) {
+            lastAngles[axis] = target;
+            return true;
+        }
+
+        int delta = target - last;
+        int direction = Integer.signum(delta);
+        int threshold = deadband;
+        if (direction != 0 && lastDirections[axis] != 0 && direction != lastDirections[axis]) {
+            threshold += hysteresis;
+        }
+        if (delta == 0 || Math.abs(delta) < threshold) {
+            return false;
+        }
+
+        lastAngles[axis] = target;
+        lastDirections[axis] = direction;
+        return true;
+    }
+
+    // Forget the commanded position, e.g. after manual moves, so the next plan always sends
+    public synchronized void reset() {
+        lastAngles[0] = UNKNOWN;
+        lastAngles[1] = UNKNOWN;
+        lastDirections[0] = 0;
+        lastDirections[1] = 0;
+    }
+
+    // Getters for stats
+    public synchronized long getCommandedCount() {
+        return commandedCount;
+    }
+
+    public synchronized long getSuppressedCount() {
+        return suppressedCount;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Motion planner: commanded=%d, suppressed=%d", commandedCount, suppressedCount);
+    }
+}
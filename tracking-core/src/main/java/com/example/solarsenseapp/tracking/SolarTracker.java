@@ -0,0 +1,227 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.metrics.Histogram;
+import com.example.solarsenseapp.metrics.MetricsRegistry;
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+/**
+ * Platform independent solar tracking engine.
+ * On each tick it reads the location, looks up the sun position and moves the
+ * panel. Time, location, scheduling and servo output are supplied by the host,
+ * so the same engine runs in the Android app, on a JVM server or in tests.
+ * After each update an IntervalPolicy picks when to wake next.
+ * While stowed for bad weather the schedule keeps running but no moves are sent.
+ * Each delay is measured from when the previous tick was due rather than when
+ * it ran, so scheduling latency does not accumulate into drift.
+ * start(), tick(), updatePosition() and setStowed() are meant to run on one
+ * thread, normally the scheduler's; stop() and the getters are safe from any
+ * thread, and getSnapshot() gives the UI a consistent view without locking.
+ */
+public class SolarTracker {
+    private static final String TAG = "SolarTracker";
+
+    public interface ServoActuator {
+        void moveTo(int baseAngle, int panelAngle);
+    }
+
+    private final Clock clock;
+    private final LocationSource locationSource;
+    private final ServoActuator actuator;
+    private final TickScheduler scheduler;
+    private final SolarEphemeris ephemeris;
+    private final MotionPlanner motionPlanner;
+    private final IntervalPolicy intervalPolicy;
+
+    // Reused on every update so the tracking loop does not allocate
+    private final double[] solarPosition = new double[2];
+    private final int[] servoAngles = new int[2];
+    private final Runnable tickTask = this::scheduledTick;
+    private final Histogram tickDuration = MetricsRegistry.getDefault().histogram("tracking.tick.micros");
+
+    private volatile boolean active = false;
+    private volatile boolean stowed = false;
+    private volatile long nextDueMillis;
+
+    // Written on the tracking thread, published through snapshot
+    private double lastAzimuth = Double.NaN;
+    private double lastAltitude = Double.NaN;
+    private int commandedBase = -1;
+    private int commandedPanel = -1;
+    private long tickCount;
+    private volatile TrackingSnapshot snapshot = TrackingSnapshot.EMPTY;
+
+    public SolarTracker(Clock clock, LocationSource locationSource,
+                        ServoActuator actuator, TickScheduler scheduler) {
+        this(clock, locationSource, actuator, scheduler, new SolarEphemeris(), new MotionPlanner());
+    }
+
+    public SolarTracker(Clock clock, LocationSource locationSource, ServoActuator actuator,
+                        TickScheduler scheduler, SolarEphemeris ephemeris, MotionPlanner motionPlanner) {
+        this(clock, locationSource, actuator, scheduler, ephemeris, motionPlanner,
+                new AdaptiveIntervalPolicy(ephemeris));
+    }
+
+    public SolarTracker(Clock clock, LocationSource locationSource, ServoActuator actuator,
+                        TickScheduler scheduler, SolarEphemeris ephemeris, MotionPlanner motionPlanner,
+                        IntervalPolicy intervalPolicy) {
+        this.clock = clock;
+        this.locationSource = locationSource;
+        this.actuator = actuator;
+        this.scheduler = scheduler;
+        this.ephemeris = ephemeris;
+        this.motionPlanner = motionPlanner;
+        this.intervalPolicy = intervalPolicy;
+    }
+
+    public void start() {
+        // Servos may have been moved by hand since the last run, so always send the first update
+        motionPlanner.reset();
+        active = true;
+        nextDueMillis = clock.currentTimeMillis();
+        scheduledTick();
+    }
+
+    public void stop() {
+        active = false;
+        scheduler.stop();
+    }
+
+    /**
+     * Hold tracking moves while the panel is stowed. On release the next update
+     * runs immediately and is always sent, since the stow moved the servos.
+     */
+    public void setStowed(boolean stowed) {
+        boolean wasStowed = this.stowed;
+        this.stowed = stowed;
+        if (wasStowed && !stowed) {
+            motionPlanner.reset();
+            if (active) {
+                nextDueMillis = clock.currentTimeMillis();
+                scheduler.scheduleNext(tickTask, 0);
+            }
+        }
+        publishSnapshot();
+    }
+
+    /**
+     * Move the panel for the current location, if one is known
+     * @return true if an update was sent
+     */
+    public boolean tick() {
+        if (!active || stowed) {
+            return false;
+        }
+        Coordinates location = locationSource.getLocation();
+        if (location == null) {
+            TrackingLog.w(TAG, "No location available, skipping tracking update");
+            return false;
+        }
+        updatePosition(location.latitude, location.longitude);
+        return true;
+    }
+
+    private void scheduledTick() {
+        if (!active) {
+            return;
+        }
+        long startNanos = System.nanoTime();
+        long due = nextDueMillis;
+        long delay = Constants.AUTO_UPDATE_INTERVAL;
+        Coordinates location = locationSource.getLocation();
+        if (location == null) {
+            TrackingLog.w(TAG, "No location available, skipping tracking update");
+        } else {
+            update(location.latitude, location.longitude);
+            delay = intervalPolicy.nextDelayMillis(location.latitude, location.longitude,
+                    clock.currentTimeMillis());
+        }
+        tickCount++;
+        if (active) {
+            long now = clock.currentTimeMillis();
+            long next = due + delay;
+            if (next <= now) {
+                // More than a whole interval late, e.g. after a deep sleep; skip the missed ticks
+                next = now + delay;
+            }
+            nextDueMillis = next;
+            scheduler.scheduleNext(tickTask, next - now);
+        }
+        publishSnapshot();
+        tickDuration.recordSince(startNanos);
+    }
+
+    public void updatePosition(double latitude, double longitude) {
+        update(latitude, longitude);
+        publishSnapshot();
+    }
+
+    private void update(double latitude, double longitude) {
+        if (stowed) {
+            return;
+        }
+
+        // Look up solar position from the cached daily table
+        ephemeris.lookup(latitude, longitude, clock.currentTimeMillis(), solarPosition);
+        double azimuth = solarPosition[SolarCalculator.AZIMUTH];
+        double altitude = solarPosition[SolarCalculator.ALTITUDE];
+        lastAzimuth = azimuth;
+        lastAltitude = altitude;
+
+        // Convert to servo angles
+        SolarCalculator.solarPositionToServoAngles(azimuth, altitude, servoAngles);
+
+        // Skip moves inside the deadband to save radio time and servo wear
+        boolean move = motionPlanner.plan(servoAngles[SolarCalculator.BASE_ANGLE],
+                servoAngles[SolarCalculator.PANEL_ANGLE], servoAngles);
+        commandedBase = servoAngles[SolarCalculator.BASE_ANGLE];
+        commandedPanel = servoAngles[SolarCalculator.PANEL_ANGLE];
+        if (!move) {
+            return;
+        }
+        int baseAngle = commandedBase;
+        int panelAngle = commandedPanel;
+
+        // Update servos
+        actuator.moveTo(baseAngle, panelAngle);
+
+        // Formatting allocates, so only when someone is listening
+        if (TrackingLog.isDebugEnabled(TAG)) {
+            TrackingLog.d(TAG, String.format("Panel position updated - Base: %d°, Panel: %d° (Solar: %.1f° azimuth, %.1f° altitude)",
+                    baseAngle, panelAngle, azimuth, altitude));
+        }
+
+        // Check if it's nighttime
+        if (!SolarCalculator.isDaylight(altitude)) {
+            TrackingLog.i(TAG, "Sun is below horizon - positioning for next sunrise");
+        }
+    }
+
+    private void publishSnapshot() {
+        snapshot = new TrackingSnapshot(clock.currentTimeMillis(), lastAzimuth, lastAltitude,
+                commandedBase, commandedPanel, stowed, active ? nextDueMillis : 0, tickCount);
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isStowed() {
+        return stowed;
+    }
+
+    public TrackingSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public SolarEphemeris getEphemeris() {
+        return ephemeris;
+    }
+
+    public MotionPlanner getMotionPlanner() {
+        return motionPlanner;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.solarsenseapp.tracking;
+
+/**
+ * Runs the tracker's ticks. Implementations decide which thread they run on.
+ * start() repeats at a fixed period; scheduleNext() runs once, replacing any pending tick.
+ */
+public interface TickScheduler {
+    void start(Runnable tick, long periodMillis);
+    void scheduleNext(Runnable tick, long delayMillis);
+    void stop();
+}
@@ -0,0 +1,38 @@
+package com.example.solarsenseapp.tracking;
+
+/**
+ * Immutable view of the tracker after its latest update.
+ * The tracking thread publishes a new instance through a volatile field, so
+ * the UI can read a consistent set of values at any time without locking.
+ */
+public final class TrackingSnapshot {
+    public static final TrackingSnapshot EMPTY =
+            new TrackingSnapshot(0, Double.NaN, Double.NaN, -1, -1, false, 0, 0);
+
+    public final long updatedAtMillis;
+    public final double azimuth;
+    public final double altitude;
+    public final int baseAngle;  // last commanded, -1 before the first move
+    public final int panelAngle;
+    public final boolean stowed;
+    public final long nextTickAtMillis;
+    public final long tickCount;
+
+    public TrackingSnapshot(long updatedAtMillis, double azimuth, double altitude, int baseAngle,
+                            int panelAngle, boolean stowed, long nextTickAtMillis, long tickCount) {
+        this.updatedAtMillis = updatedAtMillis;
+        this.azimuth = azimuth;
+        this.altitude = altitude;
+        this.baseAngle = baseAngle;
+        this.panelAngle = panelAngle;
+        this.stowed = stowed;
+        this.nextTickAtMillis = nextTickAtMillis;
+        this.tickCount = tickCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("TrackingSnapshot{azimuth=%.1f°, altitude=%.1f°, base=%d°, panel=%d°, stowed=%b, ticks=%d}",
+                azimuth, altitude, baseAngle, panelAngle, stowed, tickCount);
+    }
+}
@@ -0,0 +1,254 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+import com.example.solarsenseapp.network.WeatherAPI;
+import com.example.solarsenseapp.network.WeatherSource;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Polls the weather at the tracking location while auto mode runs and stows
+ * the panel when wind, rain, snow or a thunderstorm make tracking unsafe.
+ * Polls go through a WeatherSource, normally the shared WeatherCache, so they
+ * cost at most one upstream request per cache TTL. The panel is released only
+ * after conditions have stayed calm for a hold time, with a lower wind
+ * threshold, so a gusty afternoon does not cycle the servos.
+ * The time from a weather response arriving to the stow command being issued
+ * is measured against STOW_TARGET_LATENCY_MICROS.
+ */
+public class WeatherStowMonitor {
+    private static final String TAG = "WeatherStowMonitor";
+
+    public interface StowListener {
+        /** Issue the stow command; called on the thread that delivered the weather */
+        void onStow(String reason);
+        void onRelease();
+    }
+
+    private final Clock clock;
+    private final LocationSource locationSource;
+    private final WeatherSource weatherSource;
+    private final TickScheduler scheduler;
+    private final StowListener listener;
+    private final long pollIntervalMillis;
+    private final long releaseHoldMillis;
+
+    private volatile boolean active = false;
+    private final AtomicBoolean pollInFlight = new AtomicBoolean(false);
+    private volatile WeatherData lastWeather;
+
+    // Guarded by this
+    private boolean stowed = false;
+    private long calmSince = -1;
+
+    // Stats
+    private final AtomicLong polls = new AtomicLong();
+    private final AtomicLong skippedPolls = new AtomicLong();
+    private final AtomicLong stows = new AtomicLong();
+    private final AtomicLong releases = new AtomicLong();
+    private final AtomicLong lastStowLatencyMicros = new AtomicLong();
+    private final AtomicLong maxStowLatencyMicros = new AtomicLong();
+    private final AtomicLong lateStows = new AtomicLong();
+
+    public WeatherStowMonitor(Clock clock, LocationSource locationSource, WeatherSource weatherSource,
+                              TickScheduler scheduler, StowListener listener) {
+        this(clock, locationSource, weatherSource, scheduler, listener,
+                Constants.STOW_WEATHER_POLL_INTERVAL, Constants.STOW_RELEASE_HOLD);
+    }
+
+    public WeatherStowMonitor(Clock clock, LocationSource locationSource, WeatherSource weatherSource,
+                              TickScheduler scheduler, StowListener listener,
+                              long pollIntervalMillis, long releaseHoldMillis) {
+        this.clock = clock;
+        this.locationSource = locationSource;
+        this.weatherSource = weatherSource;
+        this.scheduler = scheduler;
+        this.listener = listener;
+        this.pollIntervalMillis = pollIntervalMillis;
+        this.releaseHoldMillis = releaseHoldMillis;
+    }
+
+    public void start() {
+        active = true;
+        scheduler.start(this::poll, pollIntervalMillis);
+        poll();
+    }
+
+    // Releases a held stow, since the stow also locks out manual control
+    public void stop() {
+        active = false;
+        scheduler.stop();
+        boolean release;
+        synchronized (this) {
+            release = stowed;
+            stowed = false;
+            calmSince = -1;
+        }
+        if (release) {
+            releases.incrementAndGet();
+            listener.onRelease();
+        }
+    }
+
+    public void poll() {
+        if (!active) {
+            return;
+        }
+        Coordinates location = locationSource.getLocation();
+        if (location == null) {
+            return;
+        }
+        // A slow response must not pile up further requests behind it
+        if (!pollInFlight.compareAndSet(false, true)) {
+            skippedPolls.incrementAndGet();
+            return;
+        }
+        polls.incrementAndGet();
+        weatherSource.fetchWeatherData(WeatherQuery.byCoordinates(location), new WeatherAPI.WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherData weatherData) {
+                pollInFlight.set(false);
+                if (active) {
+                    evaluate(weatherData);
+                }
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                pollInFlight.set(false);
+                TrackingLog.w(TAG, "Weather poll failed: " + errorMessage);
+            }
+        });
+    }
+
+    /**
+     * Stow or release for a weather report. Also usable for reports fetched elsewhere.
+     */
+    public void evaluate(WeatherData weatherData) {
+        long arrivedNanos = System.nanoTime();
+        lastWeather = weatherData;
+        String reason = stowReason(weatherData);
+
+        boolean stow = false;
+        boolean release = false;
+        synchronized (this) {
+            if (reason != null) {
+                calmSince = -1;
+                stow = !stowed;
+                stowed = true;
+            } else if (stowed) {
+                long now = clock.currentTimeMillis();
+                if (!isCalm(weatherData)) {
+                    calmSince = -1;
+                } else if (calmSince < 0) {
+                    calmSince = now;
+                } else if (now - calmSince >= releaseHoldMillis) {
+                    stowed = false;
+                    calmSince = -1;
+                    release = true;
+                }
+            }
+        }
+
+        if (stow) {
+            listener.onStow(reason);
+            recordStowLatency((System.nanoTime() - arrivedNanos) / 1000);
+            TrackingLog.w(TAG, "Panel stowed: " + reason);
+        } else if (release) {
+            releases.incrementAndGet();
+            listener.onRelease();
+            TrackingLog.i(TAG, "Weather calm, resuming tracking");
+        }
+    }
+
+    private void recordStowLatency(long micros) {
+        stows.incrementAndGet();
+        lastStowLatencyMicros.set(micros);
+        long max;
+        do {
+            max = maxStowLatencyMicros.get();
+        } while (micros > max && !maxStowLatencyMicros.compareAndSet(max, micros));
+        if (micros > Constants.STOW_TARGET_LATENCY_MICROS) {
+            lateStows.incrementAndGet();
+            TrackingLog.w(TAG, "Stow took " + micros + " us, over the "
+                    + Constants.STOW_TARGET_LATENCY_MICROS + " us target");
+        }
+    }
+
+    /**
+     * @return Why the panel should be stowed, or null if tracking is safe
+     */
+    public static String stowReason(WeatherData weatherData) {
+        if (weatherData.isThunderstorm) {
+            return "thunderstorm";
+        }
+        if (weatherData.windSpeed >= Constants.STOW_WIND_SPEED) {
+            return String.format(Locale.US, "wind %.1f m/s", weatherData.windSpeed);
+        }
+        if (weatherData.rainAmount >= Constants.STOW_RAIN_AMOUNT) {
+            return String.format(Locale.US, "rain %.1f mm", weatherData.rainAmount);
+        }
+        if (weatherData.snowAmount >= Constants.STOW_SNOW_AMOUNT) {
+            return String.format(Locale.US, "snow %.1f mm", weatherData.snowAmount);
+        }
+        return null;
+    }
+
+    private static boolean isCalm(WeatherData weatherData) {
+        return weatherData.windSpeed < Constants.STOW_WIND_SPEED * Constants.STOW_RELEASE_WIND_FACTOR;
+    }
+
+    public synchronized boolean isStowed() {
+        return stowed;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    // Latest report evaluated, or null before the first poll
+    public WeatherData getLastWeather() {
+        return lastWeather;
+    }
+
+    // Getters for stats
+    public long getPollCount() {
+        return polls.get();
+    }
+
+    public long getSkippedPollCount() {
+        return skippedPolls.get();
+    }
+
+    public long getStowCount() {
+        return stows.get();
+    }
+
+    public long getReleaseCount() {
+        return releases.get();
+    }
+
+    public long getLastStowLatencyMicros() {
+        return lastStowLatencyMicros.get();
+    }
+
+    public long getMaxStowLatencyMicros() {
+        return maxStowLatencyMicros.get();
+    }
+
+    public long getLateStowCount() {
+        return lateStows.get();
+    }
+
+    public String getStats() {
+        return String.format("Weather stow: polls=%d, skipped=%d, stows=%d, releases=%d, lastLatencyUs=%d, maxLatencyUs=%d, late=%d",
+                getPollCount(), getSkippedPollCount(), getStowCount(), getReleaseCount(),
+                getLastStowLatencyMicros(), getMaxStowLatencyMicros(), getLateStowCount());
+    }
+}
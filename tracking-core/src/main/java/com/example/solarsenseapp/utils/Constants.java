@@ -0,0 +1,137 @@
+package com.example.solarsenseapp.utils;
+
+public class Constants {
+    // API Keys
+    public static final String WEATHER_API_KEY = "4caa58a2c8523065469f2b1e7bd4c050";
+
+    // Network
+    public static final String DEFAULT_ESP_IP = "http://192.168.63.219";
+
+    // Permission Request Codes
+    public static final int LOCATION_PERMISSION_REQUEST = 100;
+    public static final int RECORD_AUDIO_PERMISSION_REQUEST = 101;
+    public static final int NOTIFICATION_PERMISSION_REQUEST = 102;
+
+    // Auto Mode Settings
+    public static final int AUTO_UPDATE_INTERVAL = 300000; // 5 minutes in milliseconds
+    public static final long EPHEMERIS_RESOLUTION = 60000; // 1 minute between table samples
+    public static final double EPHEMERIS_LOCATION_THRESHOLD_KM = 1.0;
+    public static final int TRACKING_DEADBAND = 2; // degrees of servo movement
+    public static final int TRACKING_HYSTERESIS = 1; // extra degrees needed to reverse direction
+    public static final long TRACKING_MIN_INTERVAL = 60000; // 1 minute
+    public static final long TRACKING_MAX_INTERVAL = 1800000; // 30 minutes
+    public static final long TRACKING_MAX_NIGHT_INTERVAL = 86400000; // give up looking for sunrise after a day
+
+    // Servo Settings
+    public static final int SERVO_MIN_ANGLE = 0;
+    public static final int SERVO_MAX_ANGLE = 180;
+    public static final int DEFAULT_BASE_ANGLE = 90;
+    public static final int DEFAULT_PANEL_ANGLE = 90;
+    public static final int SERVO_STEP_SIZE = 40;
+
+    // Location Settings
+    public static final long LOCATION_UPDATE_INTERVAL = 10000; // 10 seconds
+    public static final float LOCATION_MIN_DISTANCE = 10; // 10 meters
+    public static final long LOCATION_FIX_MAX_AGE = 120000; // 2 minutes; an older current fix loses to any newer one
+    public static final float LOCATION_UNKNOWN_ACCURACY = 1000; // meters, for fixes without an accuracy
+    public static final double LOCATION_RECOMPUTE_ANGLE = 1.0; // degrees of servo movement worth a recompute
+
+    // Network Timeouts
+    public static final int CONNECTION_TIMEOUT = 5000;
+    public static final int READ_TIMEOUT = 5000;
+
+    // ESP Transport
+    public static final int ESP_TRANSPORT_THREADS = 2; // ESP8266 only handles a few sockets
+    public static final int ESP_MAX_IDLE_CONNECTIONS = 2;
+    public static final long ESP_KEEP_ALIVE_DURATION = 30000; // 30 seconds
+
+    // ESP Control Channel
+    public static final int ESP_CONTROL_PORT = 8266; // length-prefixed binary commands over TCP
+    public static final long ESP_CONTROL_ACK_TIMEOUT = 1000;
+    public static final long ESP_CONTROL_PING_INTERVAL = 5000; // keeps NAT/AP state alive and detects dead sockets
+    public static final long ESP_CONTROL_MIN_RECONNECT_DELAY = 500;
+    public static final long ESP_CONTROL_MAX_RECONNECT_DELAY = 60000;
+
+    // Fleet Control
+    public static final int FLEET_MAX_PARALLEL_REQUESTS = 32;
+    public static final int FLEET_MAX_IDLE_CONNECTIONS = 512;
+    public static final long FLEET_DEVICE_TIMEOUT = 3000;
+    public static final int FLEET_FAILURE_THRESHOLD = 3; // consecutive failures before backoff
+    public static final int FLEET_BACKOFF_TICKS = 5;
+
+    // ESP Endpoints
+    public static final String BASE_SERVO_ENDPOINT = "/baseServo?angle=";
+    public static final String PANEL_SERVO_ENDPOINT = "/panelServo?angle=";
+    public static final String MOVE_ENDPOINT = "/move"; // ?base=..&panel=.. on newer firmware
+
+    // Weather API
+    public static final String WEATHER_API_BASE_URL = "https://api.openweathermap.org/data/2.5";
+    public static final String WEATHER_ENDPOINT = "/weather";
+    public static final String WEATHER_GROUP_ENDPOINT = "/group"; // ?id=.. current weather for several cities
+    public static final int WEATHER_GROUP_MAX_IDS = 20; // upstream limit per group request
+    public static final int WEATHER_MAX_PARALLEL_REQUESTS = 4;
+    public static final long WEATHER_REQUEST_TIMEOUT = 10000;
+
+    // Weather Cache
+    public static final long WEATHER_CACHE_TTL = 600000; // OpenWeatherMap refreshes about every 10 minutes
+    public static final long WEATHER_CACHE_MAX_STALE = 3600000; // serve up to an hour past TTL while refreshing
+    public static final int WEATHER_CACHE_MAX_ENTRIES = 32;
+    public static final int WEATHER_GEOHASH_PRECISION = 5; // ~5 km cells, finer than weather data resolution
+    public static final int WEATHER_NAME_CELL_MEMO_SIZE = 128;
+
+    // Geocode Cache
+    public static final String GEOCODE_CACHE_FILE = "geocode-cache.bin";
+    public static final int GEOCODE_CACHE_MAX_ENTRIES = 64;
+
+    // Weather Stow
+    public static final long STOW_WEATHER_POLL_INTERVAL = 300000; // the weather cache limits upstream calls further
+    public static final double STOW_WIND_SPEED = 15.0; // m/s
+    public static final double STOW_RELEASE_WIND_FACTOR = 0.75; // wind must drop below 75% of the stow speed
+    public static final double STOW_RAIN_AMOUNT = 10.0; // mm in the last hour
+    public static final double STOW_SNOW_AMOUNT = 2.0; // mm in the last hour
+    public static final long STOW_RELEASE_HOLD = 1800000; // stay stowed until calm for 30 minutes
+    public static final int STOW_PANEL_ANGLE = SERVO_MIN_ANGLE; // flat
+    public static final long STOW_TARGET_LATENCY_MICROS = 50000; // forecast arrival to stow command
+
+    // Telemetry
+    public static final String TELEMETRY_ENDPOINT = "/telemetry"; // ?since=<sequence>, binary frames
+    public static final long TELEMETRY_POLL_INTERVAL = 250; // the ESP batches samples between polls
+    public static final long TELEMETRY_REQUEST_TIMEOUT = 2000;
+    public static final int TELEMETRY_BUFFER_CAPACITY = 8192; // ~40 s at 200 Hz
+    public static final int TELEMETRY_MAX_FRAME_SAMPLES = 512;
+    public static final int TELEMETRY_UNSUPPORTED_BACKOFF_POLLS = 240; // ~1 minute before asking old firmware again
+    public static final int TELEMETRY_MAX_FAILURE_BACKOFF_POLLS = 128; // ~30 s between polls of an unreachable ESP
+
+    // Servo Journal
+    public static final int SERVO_JOURNAL_CAPACITY = 16384; // 512 KB, several days of commands
+    public static final long SERVO_JOURNAL_FLUSH_INTERVAL = 1000; // group commit: one fsync per second at most
+
+    // Yield History
+    public static final long YIELD_RECORD_INTERVAL = 60000; // one sample per minute bucket
+    public static final int YIELD_MINUTE_RETENTION_DAYS = 7;
+    public static final int YIELD_QUARTER_HOUR_RETENTION_DAYS = 90;
+    public static final int YIELD_DAY_RETENTION_DAYS = 3650;
+
+    // Voice Recognition
+    public static final String VOICE_COMMANDS_HELP =
+            "Supported Voice Commands:\n\n" +
+                    "Base Rotation:\n" +
+                    "- 'Clockwise' (rotate base clockwise)\n" +
+                    "- 'Counter-clockwise'/'Anti-clockwise' (rotate base counter-clockwise)\n\n" +
+                    "Panel Tilt:\n" +
+                    "- 'Up'/'Panel up' (tilt panel up)\n" +
+                    "- 'Down'/'Panel down' (tilt panel down)\n\n" +
+                    "Panel Position:\n" +
+                    "- 'Panel zero'/'Panel Angle zero' (set panel to 0°)\n" +
+                    "- 'Panel max'/'Panel Angle max' (set panel to 180°)\n\n" +
+                    "Base Position:\n" +
+                    "- 'Base zero'/'Base Position zero' (set base to 0°)\n" +
+                    "- 'Base max'/'Base Position max' (set base to 180°)\n\n" +
+                    "Auto Mode:\n" +
+                    "- 'Auto mode on'/'Start tracking' (enable auto tracking)\n" +
+                    "- 'Auto mode off'/'Stop tracking' (disable auto tracking)\n\n" +
+                    "Weather:\n" +
+                    "- 'Weather for [location]' (fetch weather data)\n\n" +
+                    "Location:\n" +
+                    "- 'Reset location'/'Clear location'/'Location reset' (clear current location)";
+}
\ No newline at end of file
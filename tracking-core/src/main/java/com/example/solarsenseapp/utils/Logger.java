@@ -0,0 +1,36 @@
+package com.example.solarsenseapp.utils;
+
+/**
+ * Logging sink used by the tracking core.
+ * The Android app plugs in logcat; JVM hosts can plug in their own logger.
+ */
+public interface Logger {
+    void d(String tag, String message);
+    void i(String tag, String message);
+    void w(String tag, String message);
+    void e(String tag, String message, Throwable throwable);
+
+    // Lets hot paths skip building debug messages nobody will see
+    default boolean isDebugEnabled(String tag) {
+        return true;
+    }
+
+    Logger NONE = new Logger() {
+        @Override
+        public boolean isDebugEnabled(String tag) {
+            return false;
+        }
+
+        @Override
+        public void d(String tag, String message) {}
+
+        @Override
+        public void i(String tag, String message) {}
+
+        @Override
+        public void w(String tag, String message) {}
+
+        @Override
+        public void e(String tag, String message, Throwable throwable) {}
+    };
+}
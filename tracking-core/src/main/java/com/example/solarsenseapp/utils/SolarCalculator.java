@@ -1,7 +1,7 @@
 package com.example.solarsenseapp.utils;
 
-import java.util.Calendar;
 import java.util.Date;
+import java.util.TimeZone;
 
 public class SolarCalculator {
     private static final String TAG = "SolarCalculator";
@@ -21,6 +21,14 @@ public class SolarCalculator {
         }
     }
 
+    // Output slots for the primitive API
+    public static final int AZIMUTH = 0;
+    public static final int ALTITUDE = 1;
+    public static final int BASE_ANGLE = 0;
+    public static final int PANEL_ANGLE = 1;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+
     /**
      * Calculate solar position (azimuth and altitude) for given location and time
      * @param latitude Location latitude in degrees
@@ -29,12 +37,28 @@ public class SolarCalculator {
      * @return SolarPosition containing azimuth (0-360°) and altitude (-90 to 90°)
      */
     public static SolarPosition calculateSolarPosition(double latitude, double longitude, Date date) {
+        long timeMillis = date.getTime();
+        double[] out = new double[2];
+        calculateSolarPosition(latitude, longitude, timeMillis, TimeZone.getDefault().getOffset(timeMillis), out);
+        return new SolarPosition(out[AZIMUTH], out[ALTITUDE]);
+    }
+
+    /**
+     * Allocation-free variant of {@link #calculateSolarPosition(double, double, Date)}
+     * @param latitude Location latitude in degrees
+     * @param longitude Location longitude in degrees
+     * @param epochMillis Time for calculation in epoch milliseconds
+     * @param utcOffsetMillis Local offset from UTC at that time, including daylight saving
+     * @param out Receives azimuth (0-360°) at {@link #AZIMUTH} and altitude (-90 to 90°) at {@link #ALTITUDE}
+     */
+    public static void calculateSolarPosition(double latitude, double longitude,
+                                              long epochMillis, long utcOffsetMillis, double[] out) {
         double latRad = Math.toRadians(latitude);
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
 
-        int dayOfYear = cal.get(Calendar.DAY_OF_YEAR);
-        double hour = cal.get(Calendar.HOUR_OF_DAY) + cal.get(Calendar.MINUTE) / 60.0;
+        long localMillis = epochMillis + utcOffsetMillis;
+        int dayOfYear = dayOfYear(Math.floorDiv(localMillis, MILLIS_PER_DAY));
+        int minuteOfDay = (int) (Math.floorMod(localMillis, MILLIS_PER_DAY) / 60000);
+        double hour = minuteOfDay / 60 + (minuteOfDay % 60) / 60.0;
 
         // Solar declination (δ)
         double declination = 23.45 * Math.sin(Math.toRadians(360.0 / 365.0 * (dayOfYear - 81)));
@@ -43,7 +67,7 @@ public class SolarCalculator {
         // Equation of time and time correction
         double B = Math.toRadians(360.0 / 365.0 * (dayOfYear - 81));
         double equationOfTime = 9.87 * Math.sin(2 * B) - 7.53 * Math.cos(B) - 1.5 * Math.sin(B);
-        double timeCorrection = equationOfTime + 4 * (longitude - cal.getTimeZone().getRawOffset() / 3600000.0 * 15);
+        double timeCorrection = equationOfTime + 4 * (longitude - utcOffsetMillis / 3600000.0 * 15);
         double solarTime = hour + timeCorrection / 60.0;
 
         // Hour angle (ω)
@@ -68,7 +92,26 @@ public class SolarCalculator {
                         Math.cos(latRad) * Math.cos(declRad) * Math.cos(hourAngle)
         ));
 
-        return new SolarPosition(azimuth, altitude);
+        out[AZIMUTH] = azimuth;
+        out[ALTITUDE] = altitude;
+    }
+
+    // Day of year (1-366) for a day count since 1970-01-01, without Calendar
+    static int dayOfYear(long epochDay) {
+        // Civil-from-days with years starting on March 1st, so the leap day falls at the end
+        long z = epochDay + 719468;
+        long era = Math.floorDiv(z, 146097);
+        long dayOfEra = z - era * 146097;
+        long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayFromMarch = (int) (dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100));
+
+        if (dayFromMarch >= 306) {
+            // January or February of the following calendar year
+            return dayFromMarch - 306 + 1;
+        }
+        long year = yearOfEra + era * 400;
+        boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return dayFromMarch + (leap ? 60 : 59) + 1;
     }
 
     /**
@@ -77,17 +120,27 @@ public class SolarCalculator {
      * @return int array [baseAngle, panelAngle] suitable for servo control
      */
     public static int[] solarPositionToServoAngles(SolarPosition solarPosition) {
+        int[] angles = new int[2];
+        solarPositionToServoAngles(solarPosition.azimuth, solarPosition.altitude, angles);
+        return angles;
+    }
+
+    /**
+     * Allocation-free variant of {@link #solarPositionToServoAngles(SolarPosition)}
+     * @param azimuth Solar azimuth in degrees
+     * @param altitude Solar altitude in degrees
+     * @param out Receives base angle at {@link #BASE_ANGLE} and panel angle at {@link #PANEL_ANGLE}
+     */
+    public static void solarPositionToServoAngles(double azimuth, double altitude, int[] out) {
         // Convert azimuth from 360° to 180° range for base servo
-        int baseAngle = (int) Math.round(solarPosition.azimuth / 2);
+        int baseAngle = (int) Math.round(azimuth / 2);
 
         // Convert altitude from 90° to 180° range for panel servo
-        int panelAngle = (int) Math.round(solarPosition.altitude * 2);
+        int panelAngle = (int) Math.round(altitude * 2);
 
         // Clamp to valid servo range
-        baseAngle = Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, baseAngle));
-        panelAngle = Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, panelAngle));
-
-        return new int[]{baseAngle, panelAngle};
+        out[BASE_ANGLE] = Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, baseAngle));
+        out[PANEL_ANGLE] = Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, panelAngle));
     }
 
     /**
@@ -96,7 +149,11 @@ public class SolarCalculator {
      * @return true if sun is above horizon
      */
     public static boolean isDaylight(SolarPosition solarPosition) {
-        return solarPosition.altitude > 0;
+        return isDaylight(solarPosition.altitude);
+    }
+
+    public static boolean isDaylight(double altitude) {
+        return altitude > 0;
     }
 
     /**
@@ -0,0 +1,157 @@
+package com.example.solarsenseapp.utils;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * Daily solar ephemeris cache.
+ * Samples azimuth and altitude for a whole local day once per location/date
+ * and answers lookups by linear interpolation, without allocating.
+ * The table is rebuilt when the date changes or the location moves further
+ * than the configured threshold.
+ */
+public class SolarEphemeris {
+    private static final String TAG = "SolarEphemeris";
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    private final long resolutionMillis;
+    private final double locationThresholdKm;
+
+    // Table state
+    private float[] azimuths = new float[0];
+    private float[] altitudes = new float[0];
+    private int sampleCount;
+    private double tableLatitude = Double.NaN;
+    private double tableLongitude = Double.NaN;
+    private long dayStartMillis;
+    private long dayEndMillis;
+
+    // Stats
+    private long hitCount;
+    private long missCount;
+
+    public SolarEphemeris() {
+        this(Constants.EPHEMERIS_RESOLUTION, Constants.EPHEMERIS_LOCATION_THRESHOLD_KM);
+    }
+
+    public SolarEphemeris(long resolutionMillis, double locationThresholdKm) {
+        if (resolutionMillis < 60000 || resolutionMillis % 60000 != 0) {
+            // SolarCalculator works at minute precision
+            throw new IllegalArgumentException("Resolution must be a whole number of minutes");
+        }
+        this.resolutionMillis = resolutionMillis;
+        this.locationThresholdKm = locationThresholdKm;
+    }
+
+    /**
+     * Look up the solar position for a location and time
+     * @param latitude Location latitude in degrees
+     * @param longitude Location longitude in degrees
+     * @param timeMillis Epoch time in milliseconds
+     * @param out Receives azimuth (0-360°) at {@link SolarCalculator#AZIMUTH} and altitude at {@link SolarCalculator#ALTITUDE}
+     */
+    public synchronized void lookup(double latitude, double longitude, long timeMillis, double[] out) {
+        if (covers(latitude, longitude, timeMillis)) {
+            hitCount++;
+        } else {
+            missCount++;
+            build(latitude, longitude, timeMillis);
+        }
+
+        double position = (timeMillis - dayStartMillis) / (double) resolutionMillis;
+        int index = Math.min((int) position, sampleCount - 2);
+        double fraction = position - index;
+
+        // Interpolate azimuth along the short arc so 359° -> 1° does not sweep through 180°
+        double azimuthStart = azimuths[index];
+        double azimuthDelta = azimuths[index + 1] - azimuthStart;
+        if (azimuthDelta > 180) {
+            azimuthDelta -= 360;
+        } else if (azimuthDelta < -180) {
+            azimuthDelta += 360;
+        }
+        double azimuth = azimuthStart + azimuthDelta * fraction;
+        if (azimuth < 0) {
+            azimuth += 360;
+        } else if (azimuth >= 360) {
+            azimuth -= 360;
+        }
+
+        double altitudeStart = altitudes[index];
+        out[SolarCalculator.AZIMUTH] = azimuth;
+        out[SolarCalculator.ALTITUDE] = altitudeStart + (altitudes[index + 1] - altitudeStart) * fraction;
+    }
+
+    public SolarCalculator.SolarPosition lookup(double latitude, double longitude, Date date) {
+        double[] out = new double[2];
+        lookup(latitude, longitude, date.getTime(), out);
+        return new SolarCalculator.SolarPosition(out[SolarCalculator.AZIMUTH], out[SolarCalculator.ALTITUDE]);
+    }
+
+    private boolean covers(double latitude, double longitude, long timeMillis) {
+        return sampleCount > 0
+                && timeMillis >= dayStartMillis && timeMillis < dayEndMillis
+                && distanceKm(tableLatitude, tableLongitude, latitude, longitude) <= locationThresholdKm;
+    }
+
+    private void build(double latitude, double longitude, long timeMillis) {
+        Calendar cal = Calendar.getInstance();
+        cal.setTimeInMillis(timeMillis);
+        cal.set(Calendar.HOUR_OF_DAY, 0);
+        cal.set(Calendar.MINUTE, 0);
+        cal.set(Calendar.SECOND, 0);
+        cal.set(Calendar.MILLISECOND, 0);
+        long start = cal.getTimeInMillis();
+        cal.add(Calendar.DAY_OF_YEAR, 1);
+        long end = cal.getTimeInMillis();
+
+        // One extra sample so the last interval of the day (23 or 25 h on DST changes) is covered
+        int count = (int) ((end - start + resolutionMillis - 1) / resolutionMillis) + 1;
+        if (azimuths.length < count) {
+            azimuths = new float[count];
+            altitudes = new float[count];
+        }
+
+        TimeZone timeZone = cal.getTimeZone();
+        double[] position = new double[2];
+        for (int i = 0; i < count; i++) {
+            long sampleMillis = start + i * resolutionMillis;
+            SolarCalculator.calculateSolarPosition(latitude, longitude,
+                    sampleMillis, timeZone.getOffset(sampleMillis), position);
+            azimuths[i] = (float) position[SolarCalculator.AZIMUTH];
+            altitudes[i] = (float) position[SolarCalculator.ALTITUDE];
+        }
+
+        sampleCount = count;
+        tableLatitude = latitude;
+        tableLongitude = longitude;
+        dayStartMillis = start;
+        dayEndMillis = end;
+    }
+
+    // Equirectangular approximation, accurate enough for a threshold of a few km
+    private static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = lat2 - lat1;
+        double dLon = (lon2 - lon1) * Math.cos(Math.toRadians((lat1 + lat2) / 2));
+        return Math.sqrt(dLat * dLat + dLon * dLon) * KM_PER_DEGREE;
+    }
+
+    public synchronized void invalidate() {
+        sampleCount = 0;
+    }
+
+    // Getters for stats
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized String getStats() {
+        return String.format("Ephemeris: hits=%d, misses=%d, samples=%d", hitCount, missCount, sampleCount);
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.solarsenseapp.utils;
+
+/**
+ * Static logging facade for the tracking core, mirroring android.util.Log.
+ * Logs are dropped until a host installs a Logger with {@link #setLogger(Logger)}.
+ */
+public final class TrackingLog {
+    private static volatile Logger logger = Logger.NONE;
+
+    private TrackingLog() {}
+
+    public static void setLogger(Logger newLogger) {
+        logger = newLogger != null ? newLogger : Logger.NONE;
+    }
+
+    public static boolean isDebugEnabled(String tag) {
+        return logger.isDebugEnabled(tag);
+    }
+
+    public static void d(String tag, String message) {
+        logger.d(tag, message);
+    }
+
+    public static void i(String tag, String message) {
+        logger.i(tag, message);
+    }
+
+    public static void w(String tag, String message) {
+        logger.w(tag, message);
+    }
+
+    public static void e(String tag, String message) {
+        logger.e(tag, message, null);
+    }
+
+    public static void e(String tag, String message, Throwable throwable) {
+        logger.e(tag, message, throwable);
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.solarsenseapp.voice;
+
+/**
+ * A recognized voice command with its slots filled in.
+ */
+public final class VoiceCommand {
+
+    public enum Action {
+        BASE_CLOCKWISE,
+        BASE_COUNTER_CLOCKWISE,
+        PANEL_UP,
+        PANEL_DOWN,
+        PANEL_ZERO,
+        PANEL_MAX,
+        BASE_ZERO,
+        BASE_MAX,
+        AUTO_MODE_ON,
+        AUTO_MODE_OFF,
+        WEATHER,
+        RESET_LOCATION,
+        SET_BASE_ANGLE,
+        SET_PANEL_ANGLE,
+        NONE
+    }
+
+    public static final VoiceCommand NONE = new VoiceCommand(Action.NONE, -1, null);
+
+    public final Action action;
+    public final int angle;        // SET_BASE_ANGLE and SET_PANEL_ANGLE only, otherwise -1
+    public final String location;  // WEATHER only; null if none was spoken
+
+    public VoiceCommand(Action action, int angle, String location) {
+        this.action = action;
+        this.angle = angle;
+        this.location = location;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("VoiceCommand{action=%s, angle=%d, location=%s}", action, angle, location);
+    }
+}
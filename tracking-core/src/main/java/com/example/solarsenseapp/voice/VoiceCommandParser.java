@@ -0,0 +1,183 @@
+package com.example.solarsenseapp.voice;
+
+import com.example.solarsenseapp.utils.Constants;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Matches recognized speech against the command grammar in one pass.
+ * Phrases are compiled once into a trie keyed by whole words, so "cupertino"
+ * never matches "up", and every partial match advances together as each word
+ * is read. The longest phrase wins, ties go to the one spoken first, so
+ * "counter-clockwise" beats "clockwise" whatever order the grammar lists them.
+ * Everything after "weather" is the location slot. If no phrase matches, a
+ * number with a base or panel hint sets that angle.
+ * Immutable once built and safe to share between threads.
+ */
+public class VoiceCommandParser {
+
+    private static final class Node {
+        final Map<String, Node> children = new HashMap<>();
+        VoiceCommand.Action action; // non-null where a phrase ends
+    }
+
+    private static final String[] LOCATION_PREFIXES = {"for ", "in ", "at "};
+    private static final String[] LOCATION_SUFFIXES = {" please", " now", " today"};
+
+    private final Node root = new Node();
+    private final Map<String, VoiceCommand.Action> angleHints = new HashMap<>();
+    private int maxPhraseWords = 0;
+
+    public VoiceCommandParser() {
+        add(VoiceCommand.Action.BASE_CLOCKWISE, "clockwise");
+        add(VoiceCommand.Action.BASE_COUNTER_CLOCKWISE,
+                "counter clockwise", "counterclockwise", "anti clockwise", "anticlockwise", "counter");
+        add(VoiceCommand.Action.PANEL_UP, "up", "panel up");
+        add(VoiceCommand.Action.PANEL_DOWN, "down", "panel down");
+        add(VoiceCommand.Action.PANEL_ZERO, "panel zero", "panel angle zero");
+        add(VoiceCommand.Action.PANEL_MAX, "panel max", "panel angle max");
+        add(VoiceCommand.Action.BASE_ZERO, "base zero", "base position zero");
+        add(VoiceCommand.Action.BASE_MAX, "base max", "base position max");
+        add(VoiceCommand.Action.AUTO_MODE_ON, "auto mode on", "start tracking");
+        add(VoiceCommand.Action.AUTO_MODE_OFF, "auto mode off", "stop tracking");
+        add(VoiceCommand.Action.WEATHER, "weather");
+        add(VoiceCommand.Action.RESET_LOCATION, "reset location", "clear location", "location reset");
+
+        // "base" beats the panel hints when both are spoken
+        angleHints.put("base", VoiceCommand.Action.SET_BASE_ANGLE);
+        for (String hint : new String[] {"panel", "angle", "set", "degree", "degrees"}) {
+            angleHints.put(hint, VoiceCommand.Action.SET_PANEL_ANGLE);
+        }
+    }
+
+    private void add(VoiceCommand.Action action, String... phrases) {
+        for (String phrase : phrases) {
+            String[] words = phrase.split(" ");
+            Node node = root;
+            for (String word : words) {
+                node = node.children.computeIfAbsent(word, w -> new Node());
+            }
+            node.action = action;
+            maxPhraseWords = Math.max(maxPhraseWords, words.length);
+        }
+    }
+
+    /**
+     * @param spoken Recognizer output, any case; words are runs of letters and digits
+     * @return The matched command, or {@link VoiceCommand#NONE}
+     */
+    public VoiceCommand parse(String spoken) {
+        // Partial matches still alive, oldest first; at most one per phrase length
+        Node[] active = new Node[maxPhraseWords];
+        int[] activeStart = new int[maxPhraseWords];
+        int activeCount = 0;
+
+        VoiceCommand.Action best = null;
+        int bestWords = 0;
+        int bestEnd = 0;
+
+        int number = -1;
+        VoiceCommand.Action hint = null;
+
+        StringBuilder word = new StringBuilder();
+        int wordIndex = 0;
+        int length = spoken.length();
+        for (int i = 0; i <= length; i++) {
+            char c = i < length ? spoken.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (word.length() == 0) {
+                continue;
+            }
+            String token = word.toString();
+            word.setLength(0);
+
+            // Advance every partial match, then start a new one at this word
+            int kept = 0;
+            for (int a = 0; a <= activeCount; a++) {
+                Node from = a < activeCount ? active[a] : root;
+                int start = a < activeCount ? activeStart[a] : wordIndex;
+                Node next = from.children.get(token);
+                if (next == null) {
+                    continue;
+                }
+                int words = wordIndex - start + 1;
+                if (next.action != null && words > bestWords) {
+                    best = next.action;
+                    bestWords = words;
+                    bestEnd = i;
+                }
+                if (!next.children.isEmpty() && kept < active.length) {
+                    active[kept] = next;
+                    activeStart[kept] = start;
+                    kept++;
+                }
+            }
+            activeCount = kept;
+            if (best == VoiceCommand.Action.WEATHER) {
+                break; // the rest is the location, not more commands
+            }
+
+            if (number < 0 && isDigits(token)) {
+                number = parseAngle(token);
+            }
+            VoiceCommand.Action tokenHint = angleHints.get(token);
+            if (tokenHint != null && hint != VoiceCommand.Action.SET_BASE_ANGLE) {
+                hint = tokenHint;
+            }
+            wordIndex++;
+        }
+
+        if (best == VoiceCommand.Action.WEATHER) {
+            return new VoiceCommand(best, -1, extractLocation(spoken.substring(bestEnd)));
+        }
+        if (best != null) {
+            return new VoiceCommand(best, -1, null);
+        }
+        if (number >= 0 && hint != null) {
+            return new VoiceCommand(hint, number, null);
+        }
+        return VoiceCommand.NONE;
+    }
+
+    private static boolean isDigits(String token) {
+        for (int i = 0; i < token.length(); i++) {
+            if (!Character.isDigit(token.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int parseAngle(String digits) {
+        int value = 0;
+        for (int i = 0; i < digits.length() && value <= Constants.SERVO_MAX_ANGLE; i++) {
+            value = value * 10 + Character.digit(digits.charAt(i), 10);
+        }
+        return Math.max(Constants.SERVO_MIN_ANGLE, Math.min(Constants.SERVO_MAX_ANGLE, value));
+    }
+
+    // "weather for new delhi please" -> "new delhi"
+    private static String extractLocation(String rest) {
+        String location = rest.trim();
+        String lower = location.toLowerCase(Locale.ROOT);
+        for (String prefix : LOCATION_PREFIXES) {
+            if (lower.startsWith(prefix)) {
+                location = location.substring(prefix.length()).trim();
+                lower = location.toLowerCase(Locale.ROOT);
+                break;
+            }
+        }
+        for (String suffix : LOCATION_SUFFIXES) {
+            if (lower.endsWith(suffix)) {
+                location = location.substring(0, location.length() - suffix.length()).trim();
+                break;
+            }
+        }
+        return location.isEmpty() ? null : location;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.solarsenseapp.fleet;
+
+import com.example.solarsenseapp.network.StubEspServer;
+import com.example.solarsenseapp.utils.Constants;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class FleetControllerTest {
+
+    private static final long NOON_MILLIS = 1750487400000L; // 2025-06-21 06:30 UTC
+
+    private final List<StubEspServer> servers = new ArrayList<>();
+    private final ExecutorService farmExecutor = Executors.newFixedThreadPool(64);
+    private FleetController fleet;
+
+    @After
+    public void tearDown() {
+        if (fleet != null) {
+            fleet.shutdown();
+        }
+        for (StubEspServer server : servers) {
+            server.close();
+        }
+        farmExecutor.shutdownNow();
+    }
+
+    private StubEspServer startDevice(long delayMillis) throws Exception {
+        StubEspServer server = new StubEspServer(true, delayMillis, farmExecutor);
+        servers.add(server);
+        return server;
+    }
+
+    @Test
+    public void tick_scalesToFiveHundredDevices() throws Exception {
+        final int sites = 5;
+        final int devicesPerSite = 100;
+        final int ticks = 20;
+
+        fleet = new FleetController(() -> NOON_MILLIS, 64, 2000);
+        for (int s = 0; s < sites; s++) {
+            String siteId = "site-" + s;
+            fleet.addSite(siteId, 20 + s, 70 + s);
+            for (int d = 0; d < devicesPerSite; d++) {
+                fleet.registerDevice(siteId + "/panel-" + d, siteId, startDevice(2).getBaseUrl(),
+                        new DeviceCalibration(d % 5, 0, false));
+            }
+        }
+        fleet.probeDevices().get(30, TimeUnit.SECONDS);
+
+        for (int i = 0; i < ticks; i++) {
+            TickReport report = fleet.tick().get(30, TimeUnit.SECONDS);
+            assertEquals(sites * devicesPerSite, report.succeeded);
+            assertEquals(0, report.failed);
+        }
+
+        // Two probe requests, then combined /move costs exactly one request per tick
+        for (StubEspServer server : servers) {
+            assertEquals(2 + ticks, server.getRequestCount());
+        }
+    }
+
+    @Test
+    public void tick_appliesPerDeviceCalibration() throws Exception {
+        fleet = new FleetController(() -> NOON_MILLIS, 4, 2000);
+        fleet.addSite("site", 28.6, 77.2);
+        StubEspServer plain = startDevice(0);
+        StubEspServer offset = startDevice(0);
+        fleet.registerDevice("plain", "site", plain.getBaseUrl(), DeviceCalibration.NONE);
+        fleet.registerDevice("offset", "site", offset.getBaseUrl(), new DeviceCalibration(10, -5, false));
+
+        fleet.tick().get(10, TimeUnit.SECONDS);
+
+        assertEquals(plain.getBaseAngle() + 10, offset.getBaseAngle());
+        assertEquals(plain.getPanelAngle() - 5, offset.getPanelAngle());
+    }
+
+    @Test
+    public void tick_isolatesUnresponsiveDevices() throws Exception {
+        final long timeoutMillis = 300;
+        fleet = new FleetController(() -> NOON_MILLIS, 8, timeoutMillis);
+        fleet.addSite("site", 28.6, 77.2);
+        for (int d = 0; d < 20; d++) {
+            // Every fifth device hangs far beyond the timeout
+            StubEspServer server = new StubEspServer(true, d % 5 == 0 ? 10000 : 1);
+            servers.add(server);
+            fleet.registerDevice("panel-" + d, "site", server.getBaseUrl(), DeviceCalibration.NONE);
+        }
+
+        for (int i = 0; i < Constants.FLEET_FAILURE_THRESHOLD; i++) {
+            TickReport report = fleet.tick().get(10, TimeUnit.SECONDS);
+            assertEquals(16, report.succeeded);
+            assertEquals(4, report.failed);
+            assertTrue("hung devices held the tick: " + report, report.getDurationMillis() < timeoutMillis * 4);
+        }
+
+        // After repeated failures the hung devices are skipped instead of timing out again
+        TickReport report = fleet.tick().get(10, TimeUnit.SECONDS);
+        assertEquals(16, report.succeeded);
+        assertEquals(4, report.skipped);
+        assertEquals(0, report.failed);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.solarsenseapp.history;
+
+import com.example.solarsenseapp.models.WeatherData;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class YieldStoreTest {
+
+    private static final long MINUTE = 60_000L;
+    private static final long DAY = 86_400_000L;
+    private static final long T0 = 1_750_000_000_000L - 1_750_000_000_000L % DAY + 12 * 3_600_000L; // noon UTC
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private YieldStore open(TimeZone timeZone) throws Exception {
+        return new YieldStore(new File(folder.getRoot(), "yield"), timeZone);
+    }
+
+    private static WeatherData weather(double temperature, double windSpeed) {
+        WeatherData weather = new WeatherData();
+        weather.temperature = temperature;
+        weather.windSpeed = windSpeed;
+        return weather;
+    }
+
+    @Test
+    public void samples_rollUpIntoEveryResolution() throws Exception {
+        YieldStore store = open(UTC);
+        store.record(T0, 90, 100, 180, 50, weather(20, 4), 10f);
+        store.record(T0 + 20_000, 92, 100, 182, 50, null, Float.NaN);
+        store.record(T0 + MINUTE, 94, 100, 184, 50, weather(22, 6), 30f);
+
+        YieldSeries series = new YieldSeries(16);
+        assertEquals(2, store.query(YieldStore.Resolution.MINUTE, T0, T0 + DAY, series));
+        assertEquals(T0, series.bucketStart[0]);
+        assertEquals(2, series.samples[0]);
+        assertEquals(91, series.baseAngle[0], 1e-4);
+        assertEquals(181, series.azimuth[0], 1e-4);
+        assertEquals(20, series.temperature[0], 1e-4);
+        assertEquals(10, series.meanPower[0], 1e-4);
+        assertEquals(T0 + MINUTE, series.bucketStart[1]);
+
+        assertEquals(1, store.query(YieldStore.Resolution.QUARTER_HOUR, T0, T0 + DAY, series));
+        assertEquals(3, series.samples[0]);
+        assertEquals(92, series.baseAngle[0], 1e-4);
+        assertEquals(21, series.temperature[0], 1e-4);
+        assertEquals(5, series.windSpeed[0], 1e-4);
+        assertEquals(20, series.meanPower[0], 1e-4);
+        assertEquals(30, series.maxPower[0], 1e-4);
+        assertEquals(20 * 0.25f, series.energyWh(0), 1e-4);
+
+        assertEquals(1, store.query(YieldStore.Resolution.DAY, T0 - DAY, T0 + DAY, series));
+        assertEquals(T0 - 12 * 3_600_000L, series.bucketStart[0]);
+        assertEquals(3, series.samples[0]);
+    }
+
+    @Test
+    public void bucketsWithoutWeatherOrPower_reportNaN() throws Exception {
+        YieldStore store = open(UTC);
+        store.record(T0, 90, 100, 180, 50, null, Float.NaN);
+
+        YieldSeries series = new YieldSeries(4);
+        assertEquals(1, store.query(YieldStore.Resolution.MINUTE, T0, T0 + MINUTE, series));
+        assertTrue(Float.isNaN(series.temperature[0]));
+        assertTrue(Float.isNaN(series.meanPower[0]));
+        assertTrue(Float.isNaN(series.maxPower[0]));
+        assertTrue(Float.isNaN(series.energyWh(0)));
+    }
+
+    @Test
+    public void history_survivesReopening() throws Exception {
+        YieldStore store = open(UTC);
+        store.record(T0, 45, 60, 90, 30, weather(15, 2), 5f);
+        store.flush();
+
+        YieldSeries series = new YieldSeries(4);
+        assertEquals(1, open(UTC).query(YieldStore.Resolution.QUARTER_HOUR, T0, T0 + DAY, series));
+        assertEquals(45, series.baseAngle[0], 1e-4);
+        assertEquals(5, series.meanPower[0], 1e-4);
+    }
+
+    @Test
+    public void bucketsPastRetention_areDropped() throws Exception {
+        YieldStore store = open(UTC);
+        long retention = YieldStore.Resolution.MINUTE.retentionDays * DAY;
+        store.record(T0, 90, 100, 180, 50, null, Float.NaN);
+        store.record(T0 + MINUTE, 90, 100, 180, 50, null, Float.NaN);
+        // Lands in T0's slot
+        store.record(T0 + retention, 91, 100, 180, 50, null, Float.NaN);
+
+        YieldSeries series = new YieldSeries(4);
+        assertEquals(2, store.query(YieldStore.Resolution.MINUTE, T0, T0 + retention + MINUTE, series));
+        assertEquals(T0 + MINUTE, series.bucketStart[0]);
+        assertEquals(T0 + retention, series.bucketStart[1]);
+
+        // T0 + MINUTE stays on disk, but is now more than a week older than the newest bucket
+        store.record(T0 + retention + 2 * MINUTE, 91, 100, 180, 50, null, Float.NaN);
+        assertEquals(0, store.query(YieldStore.Resolution.MINUTE, T0, T0 + 2 * MINUTE, series));
+        // Coarser resolutions keep every sample
+        assertEquals(2, store.query(YieldStore.Resolution.DAY, T0 - DAY, T0 + retention + DAY, series));
+        assertEquals(2, series.samples[0]);
+        assertEquals(2, series.samples[1]);
+    }
+
+    @Test
+    public void dailyBuckets_followTheLocalCalendar() throws Exception {
+        TimeZone india = TimeZone.getTimeZone("Asia/Kolkata");
+        YieldStore store = open(india);
+        long localMidnight = T0 - 12 * 3_600_000L - india.getRawOffset();
+        store.record(localMidnight + 23 * 3_600_000L, 90, 100, 270, 5, null, Float.NaN);
+        store.record(localMidnight + 25 * 3_600_000L, 90, 100, 90, 5, null, Float.NaN);
+
+        YieldSeries series = new YieldSeries(4);
+        assertEquals(2, store.query(YieldStore.Resolution.DAY, localMidnight, localMidnight + 2 * DAY, series));
+        assertEquals(localMidnight, series.bucketStart[0]);
+        assertEquals(localMidnight + DAY, series.bucketStart[1]);
+    }
+
+    @Test
+    public void trackingGain_comparesWithAFlatPanel() throws Exception {
+        YieldStore store = open(UTC);
+        // Sun at 30° altitude due south; the panel faces it squarely, a flat panel gets sin(30°)
+        store.record(T0, 90, 60, 180, 30, null, Float.NaN);
+
+        assertEquals(1.0, store.getTrackingGain(YieldStore.Resolution.DAY, T0 - DAY, T0 + DAY), 1e-4);
+        YieldSeries series = new YieldSeries(4);
+        store.query(YieldStore.Resolution.MINUTE, T0, T0 + MINUTE, series);
+        assertEquals(1.0, series.trackedIrradiance[0], 1e-4);
+        assertEquals(0.5, series.fixedIrradiance[0], 1e-4);
+        assertEquals(1.0, series.trackingGain(0), 1e-4);
+
+        assertTrue(Float.isNaN(store.getTrackingGain(YieldStore.Resolution.DAY, T0 + DAY, T0 + 2 * DAY)));
+    }
+
+    @Test
+    public void monthAtQuarterHours_fillsEveryBucket() throws Exception {
+        YieldStore store = open(UTC);
+        long start = T0 - 30 * DAY;
+        for (long t = start; t < T0; t += MINUTE) {
+            store.record(t, 90, 100, 180, 45, null, 12f);
+        }
+
+        YieldSeries series = new YieldSeries(30 * 96);
+        int buckets = store.query(YieldStore.Resolution.QUARTER_HOUR, start, T0, series);
+
+        assertEquals(30 * 96, buckets);
+        assertEquals(15, series.samples[0]);
+        assertEquals(15, series.samples[buckets - 1]);
+    }
+}
@@ -0,0 +1,150 @@
+package com.example.solarsenseapp.metrics;
+
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.StubEspServer;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+public class MetricsRegistryTest {
+
+    @Test
+    public void buckets_coverEveryValueWithinThreePercent() {
+        for (long value = 0; value < 1_000_000; value += 1 + value / 50) {
+            int index = Histogram.index(value);
+            assertTrue(Histogram.lowestValue(index) <= value);
+            assertTrue(Histogram.highestValue(index) >= value);
+            assertTrue(Histogram.highestValue(index) - Histogram.lowestValue(index) <= Math.max(0, value / 32));
+        }
+        assertEquals(Histogram.BUCKETS - 1, Histogram.index(Histogram.MAX_VALUE));
+        assertEquals(Histogram.lowestValue(Histogram.index(1L << 30)), 1L << 30);
+    }
+
+    @Test
+    public void percentiles_matchTheRecordedDistribution() {
+        MetricsRegistry registry = new MetricsRegistry();
+        Histogram histogram = registry.histogram("test.micros");
+        for (long value = 1; value <= 10_000; value++) {
+            histogram.record(value);
+        }
+        histogram.record(-5); // clamped to 0
+
+        MetricsSnapshot.HistogramSnapshot snapshot = registry.snapshot().getHistogram("test.micros");
+        assertEquals(10_001, snapshot.count);
+        assertEquals(10_000, snapshot.max);
+        assertEquals(5_000, snapshot.getMean(), 1);
+        assertEquals(5_000, snapshot.getValueAtPercentile(50), 5_000 * 0.032);
+        assertEquals(9_900, snapshot.getValueAtPercentile(99), 9_900 * 0.032);
+        assertEquals(10_000, snapshot.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void binaryDump_readsBackToTheSameReport() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("esp.base.errors").add(3);
+        registry.counter("weather.fetch.errors");
+        Histogram latency = registry.histogram("esp.base.micros");
+        for (int i = 0; i < 1000; i++) {
+            latency.record(200 + i % 300);
+        }
+        registry.histogram("tracking.tick.micros").record(42);
+
+        MetricsSnapshot snapshot = registry.snapshot();
+        ByteArrayOutputStream dump = new ByteArrayOutputStream();
+        snapshot.writeTo(dump);
+        MetricsSnapshot restored = MetricsSnapshot.readFrom(new ByteArrayInputStream(dump.toByteArray()));
+
+        assertEquals(snapshot.report(), restored.report());
+        assertEquals(snapshot.timeMillis, restored.timeMillis);
+        assertEquals(3, restored.getCounter("esp.base.errors"));
+        // Only non-empty buckets are written
+        assertTrue("dump is " + dump.size() + " bytes", dump.size() < 512);
+    }
+
+    @Test
+    public void concurrentRecording_losesNothing() throws Exception {
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test.count");
+        Histogram histogram = registry.histogram("test.micros");
+        int threads = 4;
+        int perThread = 100_000;
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    counter.increment();
+                    histogram.record(i % 1000);
+                }
+                done.countDown();
+            }).start();
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+
+        assertEquals(threads * perThread, counter.get());
+        assertEquals(threads * perThread, histogram.getCount());
+        assertEquals(999, histogram.getMax());
+    }
+
+    @Test
+    public void recording_doesNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+
+        MetricsRegistry registry = new MetricsRegistry();
+        Counter counter = registry.counter("test.count");
+        Histogram histogram = registry.histogram("test.micros");
+        for (int i = 0; i < 200_000; i++) {
+            counter.increment();
+            histogram.record(i);
+        }
+
+        long threadId = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 200_000; i++) {
+            counter.increment();
+            histogram.record(i);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("allocated " + allocated + " bytes", allocated < 1024);
+    }
+
+    @Test
+    public void espRequests_areTimedPerEndpoint() throws Exception {
+        Histogram base = MetricsRegistry.getDefault().histogram("esp.base.micros");
+        Histogram panel = MetricsRegistry.getDefault().histogram("esp.panel.micros");
+        long baseBefore = base.getCount();
+        long panelBefore = panel.getCount();
+
+        try (StubEspServer server = new StubEspServer(false, 0)) {
+            ESPCommunicator communicator = new ESPCommunicator();
+            communicator.updateIP(server.getBaseUrl());
+            CountDownLatch done = new CountDownLatch(1);
+            communicator.sendBaseServo(45, new ESPCommunicator.ESPCallback() {
+                @Override
+                public void onSuccess() {
+                    done.countDown();
+                }
+
+                @Override
+                public void onError(String errorMessage) {
+                    done.countDown();
+                }
+            });
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            communicator.shutdown();
+        }
+
+        assertEquals(baseBefore + 1, base.getCount());
+        assertEquals(panelBefore, panel.getCount());
+    }
+}
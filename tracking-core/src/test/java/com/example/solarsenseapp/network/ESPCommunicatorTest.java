@@ -0,0 +1,125 @@
+package com.example.solarsenseapp.network;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+public class ESPCommunicatorTest {
+
+    private static final long ESP_DELAY_MS = 20;
+    private static final int MOVES = 20;
+
+    private ESPCommunicator communicator;
+    private StubEspServer server;
+
+    @After
+    public void tearDown() {
+        if (communicator != null) {
+            communicator.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    private void connect(boolean supportsMove) throws Exception {
+        server = new StubEspServer(supportsMove, ESP_DELAY_MS);
+        communicator = new ESPCommunicator();
+        communicator.updateIP(server.getBaseUrl());
+        await(callback -> communicator.testConnection(callback));
+        server.resetRequestCount();
+    }
+
+    @Test
+    public void testConnection_detectsCombinedMoveSupport() throws Exception {
+        connect(true);
+        assertTrue(communicator.supportsCombinedMove());
+    }
+
+    @Test
+    public void testConnection_detectsLegacyFirmware() throws Exception {
+        connect(false);
+        assertFalse(communicator.supportsCombinedMove());
+    }
+
+    @Test
+    public void combinedMove_usesSingleRequest() throws Exception {
+        connect(true);
+        measureMoves();
+
+        assertEquals(MOVES, server.getRequestCount());
+        assertEquals(120, server.getBaseAngle());
+        assertEquals(60, server.getPanelAngle());
+    }
+
+    @Test
+    public void legacyFirmware_fallsBackToParallelRequests() throws Exception {
+        connect(false);
+        double avgMillis = measureMoves();
+
+        assertEquals(MOVES * 2, server.getRequestCount());
+        assertEquals(120, server.getBaseAngle());
+        assertEquals(60, server.getPanelAngle());
+        // Parallel requests overlap, so a move costs about one ESP delay, not two
+        assertTrue("parallel fallback too slow: " + avgMillis, avgMillis < ESP_DELAY_MS * 2);
+    }
+
+    @Test
+    public void malformedIp_isReportedAsAnError() throws Exception {
+        communicator = new ESPCommunicator();
+        communicator.updateIP("http://192.168.4.1 x");
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        communicator.sendBaseServo(45, new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                error.set(errorMessage);
+                done.countDown();
+            }
+        });
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertNotNull(error.get());
+    }
+
+    private double measureMoves() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < MOVES; i++) {
+            await(callback -> communicator.sendBothServos(120, 60, callback));
+        }
+        return (System.nanoTime() - start) / 1e6 / MOVES;
+    }
+
+    private interface Action {
+        void run(ESPCommunicator.ESPCallback callback);
+    }
+
+    private static void await(Action action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        action.run(new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                error.set(errorMessage);
+                done.countDown();
+            }
+        });
+        assertTrue("ESP request timed out", done.await(5, TimeUnit.SECONDS));
+        assertNull(error.get());
+    }
+}
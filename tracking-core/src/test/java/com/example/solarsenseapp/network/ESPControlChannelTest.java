@@ -0,0 +1,134 @@
+package com.example.solarsenseapp.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.Assert.*;
+
+public class ESPControlChannelTest {
+
+    private static final long ACK_TIMEOUT_MS = 200;
+
+    private StubEspServer httpServer;
+    private StubControlServer controlServer;
+    private ESPCommunicator communicator;
+    private ESPControlChannel channel;
+
+    @Before
+    public void setUp() throws Exception {
+        httpServer = new StubEspServer(true, 0);
+        controlServer = new StubControlServer();
+        communicator = new ESPCommunicator();
+        communicator.updateIP(httpServer.getBaseUrl());
+        channel = new ESPControlChannel(controlServer.getPort(), ACK_TIMEOUT_MS, 1000);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        communicator.shutdown();
+        controlServer.close();
+        httpServer.close();
+    }
+
+    private void connectChannel() throws InterruptedException {
+        communicator.setControlChannel(channel);
+        // The server may not have registered the accepted socket yet when the client sees it connected
+        waitFor(() -> channel.isConnected() && controlServer.getConnectionCount() > 0);
+    }
+
+    @Test
+    public void moves_goOverTheChannelAndAreAcked() throws Exception {
+        connectChannel();
+
+        await(callback -> communicator.sendBaseServo(30, callback));
+        await(callback -> communicator.sendBothServos(120, 60, callback));
+
+        assertEquals(120, controlServer.getBaseAngle());
+        assertEquals(60, controlServer.getPanelAngle());
+        assertEquals(2, channel.getAckedCount());
+        assertEquals(0, httpServer.getRequestCount());
+    }
+
+    @Test
+    public void droppedConnection_reconnectsAutomatically() throws Exception {
+        connectChannel();
+        controlServer.dropConnections();
+        waitFor(() -> channel.getConnectCount() == 2 && channel.isConnected());
+
+        await(callback -> communicator.sendPanelServo(45, callback));
+
+        assertEquals(45, controlServer.getPanelAngle());
+        assertEquals(0, httpServer.getRequestCount());
+    }
+
+    @Test
+    public void missingAck_fallsBackToHttp() throws Exception {
+        connectChannel();
+        controlServer.setAcking(false);
+
+        await(callback -> communicator.sendBothServos(100, 20, callback));
+
+        assertEquals(1, channel.getTimeoutCount());
+        assertEquals(100, httpServer.getBaseAngle());
+        assertEquals(20, httpServer.getPanelAngle());
+    }
+
+    @Test
+    public void unreachableChannel_usesHttp() throws Exception {
+        controlServer.close();
+        communicator.setControlChannel(channel);
+
+        await(callback -> communicator.sendBaseServo(10, callback));
+
+        assertFalse(channel.isConnected());
+        assertEquals(10, httpServer.getBaseAngle());
+    }
+
+    @Test
+    public void malformedIp_disconnectsInsteadOfThrowing() throws Exception {
+        connectChannel();
+
+        communicator.updateIP("http://192.168.4.1 x");
+        waitFor(() -> !channel.isConnected());
+
+        communicator.updateIP(httpServer.getBaseUrl());
+        waitFor(channel::isConnected);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue("condition not met in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(5);
+        }
+    }
+
+    private interface Action {
+        void run(ESPCommunicator.ESPCallback callback);
+    }
+
+    private static void await(Action action) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<String> error = new AtomicReference<>();
+        action.run(new ESPCommunicator.ESPCallback() {
+            @Override
+            public void onSuccess() {
+                done.countDown();
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                error.set(errorMessage);
+                done.countDown();
+            }
+        });
+        assertTrue("ESP command timed out", done.await(5, TimeUnit.SECONDS));
+        assertNull(error.get());
+    }
+}
@@ -0,0 +1,74 @@
+package com.example.solarsenseapp.network;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ESPTransportTest {
+
+    private static final int THREADS = 2;
+    private static final int BURST = 50;
+
+    private StubEspServer server;
+    private ESPTransport transport;
+    private final Set<Thread> workers = ConcurrentHashMap.newKeySet();
+
+    @Before
+    public void setUp() throws IOException {
+        server = new StubEspServer(false, 5);
+        transport = new ESPTransport(THREADS, THREADS, 30000);
+    }
+
+    @After
+    public void tearDown() {
+        transport.shutdown();
+        server.close();
+    }
+
+    // Fires count GETs at once and waits for every answer
+    private void burst(int count) throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(count);
+        AtomicInteger ok = new AtomicInteger();
+        for (int i = 0; i < count; i++) {
+            transport.get(server.getBaseUrl() + "/baseServo?angle=" + i % 180, new ESPTransport.ResponseCallback() {
+                @Override
+                public void onResponse(int responseCode) {
+                    workers.add(Thread.currentThread());
+                    if (responseCode == 200) {
+                        ok.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+
+                @Override
+                public void onFailure(IOException e) {
+                    done.countDown();
+                }
+            });
+        }
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(count, ok.get());
+    }
+
+    @Test
+    public void bursts_reusePooledConnectionsAndBoundedThreads() throws InterruptedException {
+        burst(BURST);
+        int connectionsAfterFirstBurst = server.getConnectionCount();
+
+        burst(BURST);
+
+        assertEquals(2 * BURST, server.getRequestCount());
+        assertTrue("opened " + connectionsAfterFirstBurst, connectionsAfterFirstBurst <= THREADS);
+        assertEquals(connectionsAfterFirstBurst, server.getConnectionCount());
+        assertTrue("used " + workers.size() + " threads", workers.size() <= THREADS);
+    }
+}
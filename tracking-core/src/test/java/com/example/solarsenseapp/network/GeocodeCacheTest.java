@@ -0,0 +1,104 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.Coordinates;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class GeocodeCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private GeocodeCache cache;
+
+    // Knows two places and records every name it is asked about
+    private final List<String> resolved = new ArrayList<>();
+    private final GeocodeResolver upstream = locationName -> {
+        resolved.add(locationName);
+        if (locationName.trim().equalsIgnoreCase("new delhi")) {
+            return new Coordinates(28.6139, 77.2090);
+        }
+        if (locationName.trim().equalsIgnoreCase("mumbai")) {
+            return new Coordinates(19.0760, 72.8777);
+        }
+        return null;
+    };
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void repeatedName_isResolvedOnce() throws Exception {
+        cache = new GeocodeCache(upstream, null, 8);
+
+        assertNull(cache.lookup("New Delhi"));
+        Coordinates first = cache.resolve("New Delhi");
+        Coordinates second = cache.resolve("  new   DELHI ");
+
+        assertEquals(28.6139, first.latitude, 1e-9);
+        assertSame(first, second);
+        assertSame(first, cache.lookup("new delhi"));
+        assertEquals(1, resolved.size());
+    }
+
+    @Test
+    public void unknownName_isNotCached() throws Exception {
+        cache = new GeocodeCache(upstream, null, 8);
+
+        assertNull(cache.resolve("Atlantis"));
+        assertNull(cache.resolve("Atlantis"));
+
+        assertEquals(2, resolved.size());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void leastRecentlyUsedName_isEvicted() throws Exception {
+        cache = new GeocodeCache(upstream, null, 1);
+
+        cache.resolve("New Delhi");
+        cache.resolve("Mumbai");
+
+        assertNull(cache.lookup("New Delhi"));
+        assertNotNull(cache.lookup("Mumbai"));
+    }
+
+    @Test
+    public void coldStart_answersFromDiskWithoutResolver() throws Exception {
+        File file = new File(folder.getRoot(), "geocode-cache.bin");
+
+        GeocodeCache previousRun = new GeocodeCache(upstream, file, 8);
+        previousRun.resolve("Mumbai");
+        previousRun.shutdown();
+        waitForFile(file);
+
+        cache = new GeocodeCache(locationName -> {
+            throw new AssertionError("resolver called for " + locationName);
+        }, file, 8);
+        Coordinates coordinates = cache.resolve("mumbai");
+
+        assertEquals(72.8777, coordinates.longitude, 1e-9);
+        assertEquals(1, cache.size());
+    }
+
+    private static void waitForFile(File file) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        while (!file.exists() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(file.exists());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.solarsenseapp.network;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ServoCommandQueueTest {
+
+    // Records endpoints and sources, and holds each request until the test completes it
+    private final List<String> sent = new ArrayList<>();
+    private final List<ServoJournal.Source> sources = new ArrayList<>();
+    private final List<ESPCommunicator.ESPCallback> inFlight = new ArrayList<>();
+    private final ESPCommunicator communicator = new ESPCommunicator() {
+        @Override
+        public void sendBaseServo(int angle, ServoJournal.Source source, ESPCallback callback) {
+            sources.add(source);
+            super.sendBaseServo(angle, source, callback);
+        }
+
+        @Override
+        public void sendPanelServo(int angle, ServoJournal.Source source, ESPCallback callback) {
+            sources.add(source);
+            super.sendPanelServo(angle, source, callback);
+        }
+
+        @Override
+        public void sendServoCommand(String endpoint, ESPCallback callback) {
+            sent.add(endpoint);
+            inFlight.add(callback);
+        }
+
+        @Override
+        public void sendBothServos(int baseAngle, int panelAngle, ServoJournal.Source source,
+                                   ESPCallback callback) {
+            sent.add("move:" + baseAngle + "," + panelAngle);
+            sources.add(source);
+            inFlight.add(callback);
+        }
+    };
+    private final ServoCommandQueue queue = new ServoCommandQueue(communicator);
+
+    @After
+    public void tearDown() {
+        communicator.shutdown();
+    }
+
+    private void completeAll() {
+        while (!inFlight.isEmpty()) {
+            inFlight.remove(0).onSuccess();
+        }
+    }
+
+    @Test
+    public void burst_keepsOneInFlightAndSendsTheLatestTarget() {
+        for (int angle = 0; angle <= 180; angle++) {
+            queue.submit(ServoCommandQueue.Axis.PANEL, angle);
+            assertEquals(1, inFlight.size());
+        }
+        assertEquals(1, sent.size());
+        assertTrue(sent.get(0).endsWith("=0"));
+
+        completeAll();
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(1).endsWith("=180"));
+        assertEquals(181, queue.getSubmittedCount());
+        // 1 went pending; 2..180 each replaced a pending target
+        assertEquals(179, queue.getCoalescedCount());
+        assertEquals(2, queue.getSentCount());
+        assertTrue(queue.isIdle(ServoCommandQueue.Axis.PANEL));
+    }
+
+    @Test
+    public void negativeAngle_isClampedInsteadOfLost() {
+        queue.submit(ServoCommandQueue.Axis.BASE, -5);
+        queue.submit(ServoCommandQueue.Axis.PANEL, 200);
+
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(0).endsWith("=0"));
+        assertTrue(sent.get(1).endsWith("=180"));
+    }
+
+    @Test
+    public void stow_replacesPendingMoveAndBlocksNewOnes() {
+        queue.submit(ServoCommandQueue.Axis.PANEL, 90); // in flight
+        queue.submit(ServoCommandQueue.Axis.PANEL, 100); // pending
+        queue.submit(ServoCommandQueue.Axis.BASE, 45);
+        queue.submit(ServoCommandQueue.Axis.BASE, 50); // pending
+
+        queue.stow(0);
+        queue.submit(ServoCommandQueue.Axis.PANEL, 110);
+        completeAll();
+        completeAll();
+
+        assertEquals(3, sent.size());
+        assertTrue(sent.get(2).endsWith("=0"));
+        assertEquals(1, queue.getSuppressedCount());
+        assertTrue(queue.isIdle(ServoCommandQueue.Axis.BASE));
+
+        queue.releaseStow();
+        queue.submit(ServoCommandQueue.Axis.PANEL, 120);
+        assertEquals(4, sent.size());
+        assertTrue(sent.get(3).endsWith("=120"));
+    }
+
+    @Test
+    public void stow_onIdleAxis_isSentImmediately() {
+        queue.stow(0);
+
+        assertEquals(1, sent.size());
+        assertTrue(queue.isStowed());
+    }
+
+    @Test
+    public void autoMove_goesOutAsOneCommandAndIsOrderedBeforeAStow() {
+        assertTrue(queue.submitMove(180, 60, ServoJournal.Source.AUTO)); // in flight
+        assertTrue(queue.submitMove(181, 61, ServoJournal.Source.AUTO)); // pending on both lanes
+
+        queue.stow(0);
+        assertFalse(queue.submitMove(182, 62, ServoJournal.Source.AUTO));
+        completeAll();
+
+        assertEquals(2, sent.size());
+        assertEquals("move:180,60", sent.get(0));
+        assertEquals(ServoJournal.Source.AUTO, sources.get(0));
+        assertTrue(sent.get(1).endsWith("=0"));
+        completeAll();
+        assertTrue(queue.isIdle(ServoCommandQueue.Axis.BASE));
+        assertTrue(queue.isIdle(ServoCommandQueue.Axis.PANEL));
+    }
+
+    @Test
+    public void autoMove_withOneAxisBusy_sendsTheOtherOnItsOwn() {
+        queue.submit(ServoCommandQueue.Axis.BASE, 10); // in flight
+
+        queue.submitMove(20, 30, ServoJournal.Source.AUTO);
+        assertEquals(2, sent.size());
+        assertTrue(sent.get(1).endsWith("=30"));
+
+        completeAll();
+        assertEquals(3, sent.size());
+        assertTrue(sent.get(2).endsWith("=20"));
+        // Each lane journals the source of its own target
+        assertEquals(ServoJournal.Source.MANUAL, sources.get(0));
+        assertEquals(ServoJournal.Source.AUTO, sources.get(1));
+        assertEquals(ServoJournal.Source.AUTO, sources.get(2));
+    }
+}
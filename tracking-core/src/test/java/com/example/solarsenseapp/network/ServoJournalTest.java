@@ -0,0 +1,167 @@
+package com.example.solarsenseapp.network;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ServoJournalTest {
+
+    private static final int CAPACITY = 16;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File file() {
+        return new File(folder.getRoot(), "servo-journal");
+    }
+
+    private ServoJournal open() throws Exception {
+        return new ServoJournal(file(), CAPACITY);
+    }
+
+    @Test
+    public void completedCommand_recordsSourceResultAndLatency() throws Exception {
+        ServoJournal journal = open();
+        ESPCommunicator.ESPCallback callback = journal.track(120, -1, ServoJournal.Source.VOICE, null);
+        ServoJournal.Entry entry = new ServoJournal.Entry();
+        assertTrue(journal.read(1, entry));
+        assertEquals(ServoJournal.Result.PENDING, entry.result);
+
+        callback.onSuccess();
+
+        assertTrue(journal.read(1, entry));
+        assertEquals(ServoJournal.Source.VOICE, entry.source);
+        assertEquals(ServoJournal.Result.OK, entry.result);
+        assertEquals(120, entry.baseAngle);
+        assertEquals(-1, entry.panelAngle);
+        assertTrue(entry.latencyMicros >= 0);
+        assertEquals(120, journal.getBaseAngle());
+        assertEquals(-1, journal.getPanelAngle());
+    }
+
+    @Test
+    public void reopening_restoresLastAnglesAndSkipsFailures() throws Exception {
+        ServoJournal journal = open();
+        journal.track(30, 40, ServoJournal.Source.AUTO, null).onSuccess();
+        journal.track(50, -1, ServoJournal.Source.MANUAL, null).onSuccess();
+        journal.track(-1, 90, ServoJournal.Source.MANUAL, null).onError("timeout");
+        // Sent but never answered before the "crash"
+        journal.track(-1, 0, ServoJournal.Source.STOW, null);
+        journal.close();
+
+        ServoJournal reopened = open();
+        assertEquals(50, reopened.getBaseAngle());
+        assertEquals(0, reopened.getPanelAngle());
+        assertEquals(5, reopened.getNextSequence());
+    }
+
+    @Test
+    public void failedCommand_fallsBackToLastConfirmedAngle() throws Exception {
+        ServoJournal journal = open();
+        journal.track(-1, 60, ServoJournal.Source.MANUAL, null).onSuccess();
+        ESPCommunicator.ESPCallback pending = journal.track(-1, 150, ServoJournal.Source.MANUAL, null);
+        assertEquals(150, journal.getPanelAngle());
+
+        pending.onError("ESP responded with code: 500");
+
+        assertEquals(60, journal.getPanelAngle());
+        assertEquals(1, journal.getFailedCount());
+    }
+
+    @Test
+    public void ringWraps_andReplayFindsTheNewestRecord() throws Exception {
+        ServoJournal journal = open();
+        for (int i = 0; i < CAPACITY * 2 + 3; i++) {
+            journal.track(i, -1, ServoJournal.Source.AUTO, null).onSuccess();
+        }
+        journal.close();
+
+        ServoJournal reopened = open();
+        ServoJournal.Entry entry = new ServoJournal.Entry();
+        assertEquals(CAPACITY * 2 + 4, reopened.getNextSequence());
+        assertEquals(CAPACITY * 2 + 2, reopened.getBaseAngle());
+        assertFalse(reopened.read(3, entry));
+        assertTrue(reopened.read(CAPACITY + 4, entry));
+    }
+
+    @Test
+    public void tornRecord_isIgnoredOnReplay() throws Exception {
+        ServoJournal journal = open();
+        journal.track(10, -1, ServoJournal.Source.MANUAL, null).onSuccess();
+        journal.track(20, -1, ServoJournal.Source.MANUAL, null).onSuccess();
+        journal.close();
+
+        // Damage the angle of record #2 without fixing its checksum
+        try (RandomAccessFile raf = new RandomAccessFile(file(), "rw")) {
+            raf.seek(64 + 32 * 2 + 20);
+            raf.writeShort(99);
+        }
+
+        ServoJournal reopened = open();
+        assertEquals(10, reopened.getBaseAngle());
+        assertEquals(2, reopened.getNextSequence());
+    }
+
+    @Test
+    public void flush_onlyForcesWhenThereAreNewWrites() throws Exception {
+        ServoJournal journal = open();
+        journal.flush();
+        assertEquals(0, journal.getFlushCount());
+
+        journal.track(10, 10, ServoJournal.Source.MANUAL, null).onSuccess();
+        journal.track(20, 20, ServoJournal.Source.MANUAL, null).onSuccess();
+        journal.flush();
+        journal.flush();
+
+        assertEquals(1, journal.getFlushCount());
+    }
+
+    @Test
+    public void queuedCommands_areJournaledWithTheirSource() throws Exception {
+        List<ESPCommunicator.ESPCallback> inFlight = new ArrayList<>();
+        ESPCommunicator communicator = new ESPCommunicator() {
+            @Override
+            public void sendServoCommand(String endpoint, ESPCallback callback) {
+                inFlight.add(callback);
+            }
+        };
+        ServoJournal journal = open();
+        communicator.setJournal(journal);
+        ServoCommandQueue queue = new ServoCommandQueue(communicator);
+
+        queue.submit(ServoCommandQueue.Axis.BASE, 45, ServoJournal.Source.VOICE);
+        queue.stow(0);
+        inFlight.remove(0).onSuccess();
+        inFlight.remove(0).onError("Network Error: timeout");
+        communicator.shutdown();
+
+        ServoJournal.Entry entry = new ServoJournal.Entry();
+        assertTrue(journal.read(1, entry));
+        assertEquals(ServoJournal.Source.VOICE, entry.source);
+        assertEquals(ServoJournal.Result.OK, entry.result);
+        assertTrue(journal.read(2, entry));
+        assertEquals(ServoJournal.Source.STOW, entry.source);
+        assertEquals(ServoJournal.Result.FAILED, entry.result);
+        assertEquals(-1, journal.getPanelAngle());
+    }
+
+    @Test
+    public void manyCommands_wrapTheRingAndAreAllCounted() throws Exception {
+        ServoJournal journal = new ServoJournal(file(), 4096);
+        int commands = 20000;
+        for (int i = 0; i < commands; i++) {
+            journal.track(i % 180, -1, ServoJournal.Source.AUTO, null).onSuccess();
+        }
+        journal.flush();
+
+        assertEquals(commands, journal.getOkCount());
+        assertEquals((commands - 1) % 180, journal.getBaseAngle());
+    }
+}
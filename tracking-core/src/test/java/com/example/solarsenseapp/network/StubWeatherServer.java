@@ -0,0 +1,164 @@
+package com.example.solarsenseapp.network;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for OpenWeatherMap used by network tests.
+ * Serves /weather by q, id or lat/lon, and /group?id=a,b,.. unless group
+ * queries are disabled. City IDs are derived from the query so repeated
+ * queries for the same place get the same ID. Tracks the peak number of
+ * requests in flight.
+ */
+public class StubWeatherServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final boolean supportsGroup;
+    private final long processingDelayMillis;
+
+    private final Set<String> slowQueries = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    static {
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubWeatherServer(boolean supportsGroup, long processingDelayMillis) throws IOException {
+        this.supportsGroup = supportsGroup;
+        this.processingDelayMillis = processingDelayMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // Requests for this q value take ten seconds
+    public void makeSlow(String name) {
+        slowQueries.add(name);
+    }
+
+    public static long cityIdFor(String name) {
+        return 1000 + Math.abs(name.trim().toLowerCase(Locale.ROOT).hashCode() % 1000000);
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        int current = inFlight.incrementAndGet();
+        maxInFlight.accumulateAndGet(current, Math::max);
+        boolean counted = true;
+        try {
+            Map<String, String> params = params(exchange.getRequestURI().getRawQuery());
+            String name = params.get("q");
+            sleep(name != null && slowQueries.contains(name) ? 10000 : processingDelayMillis);
+
+            String path = exchange.getRequestURI().getPath();
+            int code = 200;
+            String body;
+            if (path.equals("/weather")) {
+                long cityId;
+                if (params.containsKey("id")) {
+                    cityId = Long.parseLong(params.get("id"));
+                } else if (name != null) {
+                    cityId = cityIdFor(name);
+                } else {
+                    cityId = cityIdFor(params.get("lat") + "," + params.get("lon"));
+                }
+                body = weatherJson(cityId);
+            } else if (path.equals("/group") && supportsGroup) {
+                StringBuilder list = new StringBuilder();
+                String[] ids = params.get("id").split(",");
+                for (String id : ids) {
+                    if (list.length() > 0) {
+                        list.append(',');
+                    }
+                    list.append(weatherJson(Long.parseLong(id)));
+                }
+                body = "{\"cnt\":" + ids.length + ",\"list\":[" + list + "]}";
+            } else {
+                code = 401;
+                body = "{\"cod\":401,\"message\":\"Invalid API key\"}";
+            }
+
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            // Leave the in-flight count before replying; the client may start its next request as soon as it reads this
+            counted = false;
+            inFlight.decrementAndGet();
+            exchange.sendResponseHeaders(code, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        } finally {
+            if (counted) {
+                inFlight.decrementAndGet();
+            }
+        }
+    }
+
+    // Temperature encodes the city so tests can check results land on the right query
+    private static String weatherJson(long cityId) {
+        return "{\"weather\":[{\"id\":800,\"main\":\"Clear\"}],"
+                + "\"main\":{\"temp\":" + (cityId % 50) + ",\"humidity\":40},"
+                + "\"wind\":{\"speed\":2.5,\"deg\":180},\"id\":" + cityId + ",\"cod\":200}";
+    }
+
+    private static Map<String, String> params(String rawQuery) throws IOException {
+        Map<String, String> params = new HashMap<>();
+        if (rawQuery == null) {
+            return params;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(pair.substring(0, eq), URLDecoder.decode(pair.substring(eq + 1), "UTF-8"));
+            }
+        }
+        return params;
+    }
+
+    private static void sleep(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight.get();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
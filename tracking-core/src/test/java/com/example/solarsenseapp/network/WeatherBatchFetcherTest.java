@@ -0,0 +1,123 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class WeatherBatchFetcherTest {
+
+    private StubWeatherServer server;
+    private WeatherAPI weatherAPI;
+
+    private final AtomicInteger streamed = new AtomicInteger();
+    private final List<String> errors = new ArrayList<>();
+    private final WeatherBatchFetcher.ResultListener listener = new WeatherBatchFetcher.ResultListener() {
+        @Override
+        public void onResult(WeatherQuery query, WeatherData weatherData) {
+            streamed.incrementAndGet();
+        }
+
+        @Override
+        public void onError(WeatherQuery query, String errorMessage) {
+            synchronized (errors) {
+                errors.add(query + ": " + errorMessage);
+            }
+        }
+    };
+
+    private WeatherBatchFetcher start(boolean supportsGroup, long delayMillis, long timeoutMillis) throws Exception {
+        server = new StubWeatherServer(supportsGroup, delayMillis);
+        weatherAPI = new WeatherAPI(server.getBaseUrl(), "test", 16, timeoutMillis);
+        return new WeatherBatchFetcher(weatherAPI, 3, 20);
+    }
+
+    private static List<WeatherQuery> sites(int count) {
+        List<WeatherQuery> sites = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            sites.add(WeatherQuery.byName("Site " + i));
+        }
+        return sites;
+    }
+
+    @After
+    public void tearDown() {
+        if (weatherAPI != null) {
+            weatherAPI.shutdown();
+        }
+        if (server != null) {
+            server.close();
+        }
+    }
+
+    @Test
+    public void fetchAll_deduplicatesAndLimitsConcurrency() throws Exception {
+        WeatherBatchFetcher fetcher = start(true, 30, 0);
+        List<WeatherQuery> queries = sites(10);
+        queries.add(WeatherQuery.byName(" site 3"));
+        queries.add(WeatherQuery.byName("SITE  7"));
+        queries.add(WeatherQuery.byCoordinates(28.6139, 77.2090));
+
+        Map<WeatherQuery, WeatherData> results = fetcher.fetchAll(queries, listener).get(5, TimeUnit.SECONDS);
+
+        assertEquals(errors.toString(), 11, results.size());
+        assertEquals(11, streamed.get());
+        assertEquals(11, server.getRequestCount());
+        assertTrue(server.getMaxInFlight() <= 3);
+        assertEquals(StubWeatherServer.cityIdFor("Site 4") % 50,
+                results.get(WeatherQuery.byName("site 4")).temperature, 0);
+    }
+
+    @Test
+    public void repeatedBatch_usesGroupQueriesForLearnedCities() throws Exception {
+        WeatherBatchFetcher fetcher = start(true, 0, 0);
+        List<WeatherQuery> queries = sites(45);
+        fetcher.fetchAll(queries, listener).get(5, TimeUnit.SECONDS);
+        assertEquals(45, server.getRequestCount());
+
+        Map<WeatherQuery, WeatherData> results = fetcher.fetchAll(queries, listener).get(5, TimeUnit.SECONDS);
+
+        // 45 cities in groups of 20
+        assertEquals(errors.toString(), 45 + 3, server.getRequestCount());
+        assertEquals(45, results.size());
+        assertEquals(StubWeatherServer.cityIdFor("Site 44"), results.get(queries.get(44)).cityId);
+        assertTrue(errors.isEmpty());
+    }
+
+    @Test
+    public void rejectedGroupQuery_fallsBackToSingleRequests() throws Exception {
+        WeatherBatchFetcher fetcher = start(false, 0, 0);
+        List<WeatherQuery> queries = sites(5);
+        fetcher.fetchAll(queries, listener).get(5, TimeUnit.SECONDS);
+
+        Map<WeatherQuery, WeatherData> results = fetcher.fetchAll(queries, listener).get(5, TimeUnit.SECONDS);
+
+        assertEquals(5, results.size());
+        assertEquals(5 + 1 + 5, server.getRequestCount());
+        assertFalse(fetcher.isGroupSupported());
+    }
+
+    @Test
+    public void slowSite_timesOutWithoutHoldingUpTheBatch() throws Exception {
+        WeatherBatchFetcher fetcher = start(true, 0, 300);
+        server.makeSlow("Site 2");
+
+        long startNanos = System.nanoTime();
+        Map<WeatherQuery, WeatherData> results = fetcher.fetchAll(sites(6), listener).get(5, TimeUnit.SECONDS);
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1000000;
+
+        assertEquals(5, results.size());
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0).startsWith("q:site 2"));
+        assertTrue("Batch took " + elapsedMillis + " ms", elapsedMillis < 2000);
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.models.WeatherQuery;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class WeatherCacheTest {
+
+    private static final long TTL = 600000;
+    private static final long MAX_STALE = 3600000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private long now = 1750487400000L;
+    private WeatherCache cache;
+
+    // Upstream calls are held until the test answers them
+    private final List<String> upstreamQueries = new ArrayList<>();
+    private final List<WeatherAPI.WeatherCallback> upstreamCallbacks = new ArrayList<>();
+    private final WeatherSource upstream = (query, callback) -> {
+        synchronized (upstreamQueries) {
+            upstreamQueries.add(query.getKey());
+            upstreamCallbacks.add(callback);
+            upstreamQueries.notifyAll();
+        }
+    };
+
+    private final List<Object> results = new ArrayList<>();
+    private final WeatherAPI.WeatherCallback recorder = new WeatherAPI.WeatherCallback() {
+        @Override
+        public void onSuccess(WeatherData weatherData) {
+            results.add(weatherData);
+        }
+
+        @Override
+        public void onError(String errorMessage) {
+            results.add("error: " + errorMessage);
+        }
+    };
+
+    private WeatherCache newCache(File directory, int maxEntries) {
+        return new WeatherCache(upstream, () -> now, directory, maxEntries, TTL, MAX_STALE, 5);
+    }
+
+    private void awaitUpstreamQueries(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 1000;
+        synchronized (upstreamQueries) {
+            while (upstreamQueries.size() < count && System.currentTimeMillis() < deadline) {
+                upstreamQueries.wait(100);
+            }
+            assertEquals(count, upstreamQueries.size());
+        }
+    }
+
+    private static WeatherData weather(double temperature) {
+        return new WeatherData(temperature, 50, 3.0, 90, "Clear", "☀️");
+    }
+
+    private void answer(int index, WeatherData weatherData) {
+        upstreamCallbacks.get(index).onSuccess(weatherData);
+    }
+
+    @After
+    public void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    public void normalize_ignoresCaseAndSpacing() {
+        assertEquals("new delhi,in", WeatherCache.normalize("  New   Delhi , IN "));
+        assertEquals(WeatherCache.normalize("Mumbai"), WeatherCache.normalize("mumbai "));
+    }
+
+    @Test
+    public void freshEntry_isServedWithoutUpstreamCall() {
+        WeatherData first = weather(30);
+        cache = newCache(null, 8);
+        cache.fetchWeatherData("Delhi", recorder);
+        answer(0, first);
+
+        now += TTL - 1;
+        cache.fetchWeatherData(" delhi", recorder);
+
+        assertEquals(1, upstreamQueries.size());
+        assertEquals(2, results.size());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+    }
+
+    @Test
+    public void concurrentMisses_collapseIntoOneUpstreamCall() {
+        WeatherData first = weather(30);
+        cache = newCache(null, 8);
+        for (int i = 0; i < 5; i++) {
+            cache.fetchWeatherData("Delhi", recorder);
+        }
+        assertEquals(1, upstreamQueries.size());
+        assertTrue(results.isEmpty());
+
+        answer(0, first);
+        assertEquals(5, results.size());
+        assertEquals(4, cache.getCollapsedCount());
+    }
+
+    @Test
+    public void staleEntry_isServedWhileRevalidating() {
+        WeatherData first = weather(30);
+        WeatherData second = weather(31);
+        cache = newCache(null, 8);
+        cache.fetchWeatherData("Delhi", recorder);
+        answer(0, first);
+
+        now += TTL + 1;
+        cache.fetchWeatherData("Delhi", recorder);
+        cache.fetchWeatherData("Delhi", recorder);
+
+        // Both answered immediately from the stale entry, one refresh in flight
+        assertEquals(3, results.size());
+        assertSame(first, results.get(2));
+        assertEquals(2, upstreamQueries.size());
+        assertEquals(2, cache.getStaleHitCount());
+
+        answer(1, second);
+        cache.fetchWeatherData("Delhi", recorder);
+        assertSame(second, results.get(3));
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    public void entryPastMaxStale_isDroppedWhenUpstreamFails() {
+        WeatherData first = weather(30);
+        cache = newCache(null, 8);
+        cache.fetchWeatherData("Delhi", recorder);
+        answer(0, first);
+
+        now += TTL + MAX_STALE;
+        cache.fetchWeatherData("Delhi", recorder);
+        upstreamCallbacks.get(1).onError("offline");
+
+        assertEquals("error: offline", results.get(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void responseAfterShutdown_isNotSaved() throws Exception {
+        cache = newCache(folder.newFolder("weather"), 8);
+        cache.fetchWeatherData("Delhi", recorder);
+        awaitUpstreamQueries(1);
+
+        cache.shutdown();
+        answer(0, weather(30));
+
+        assertEquals(1, results.size());
+    }
+
+    @Test
+    public void nearbyFixes_shareOneCellEntry() {
+        cache = newCache(null, 8);
+        cache.fetchWeatherData(WeatherQuery.byCoordinates(28.6139, 77.2090), recorder);
+        cache.fetchWeatherData(WeatherQuery.byCoordinates(28.6145, 77.2098), recorder);
+        answer(0, weather(30));
+        cache.fetchWeatherData(WeatherQuery.byCoordinates(28.6131, 77.2085), recorder);
+
+        assertEquals(1, upstreamQueries.size());
+        assertTrue(upstreamQueries.get(0).startsWith("gh:"));
+        assertEquals(3, results.size());
+    }
+
+    @Test
+    public void resolvedName_isMemoizedToItsCell() {
+        cache = newCache(null, 8);
+        WeatherData delhi = weather(30);
+        delhi.latitude = 28.6667;
+        delhi.longitude = 77.2167;
+
+        cache.fetchWeatherData("Delhi", recorder);
+        answer(0, delhi);
+
+        // A GPS fix in the same cell and the same name again are both hits
+        cache.fetchWeatherData(WeatherQuery.byCoordinates(28.6670, 77.2160), recorder);
+        cache.fetchWeatherData(" delhi", recorder);
+
+        assertEquals(1, upstreamQueries.size());
+        assertSame(delhi, results.get(1));
+        assertSame(delhi, results.get(2));
+        assertEquals(2, cache.getHitCount());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntry_isEvicted() {
+        cache = newCache(null, 2);
+        cache.fetchWeatherData("Delhi", recorder);
+        answer(0, weather(20));
+        cache.fetchWeatherData("Mumbai", recorder);
+        answer(1, weather(21));
+        cache.fetchWeatherData("Delhi", recorder);
+        cache.fetchWeatherData("Pune", recorder);
+        answer(2, weather(22));
+
+        assertEquals(2, cache.size());
+        cache.fetchWeatherData("Delhi", recorder);
+        cache.fetchWeatherData("Mumbai", recorder);
+        assertEquals(4, upstreamQueries.size());
+    }
+
+    @Test
+    public void coldStart_servesLastKnownWeatherFromDisk() throws Exception {
+        WeatherData first = weather(30);
+        File directory = folder.newFolder("weather");
+        WeatherCache previousRun = newCache(directory, 8);
+        previousRun.fetchWeatherData("New Delhi", recorder);
+        awaitUpstreamQueries(1);
+        answer(0, first);
+        previousRun.shutdown();
+        long deadline = System.currentTimeMillis() + 1000;
+        while (directory.list().length == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        now += TTL * 2;
+        cache = newCache(directory, 8);
+        BlockingQueue<Object> delivered = new ArrayBlockingQueue<>(1);
+        cache.fetchWeatherData("new delhi", new WeatherAPI.WeatherCallback() {
+            @Override
+            public void onSuccess(WeatherData weatherData) {
+                delivered.add(weatherData);
+            }
+
+            @Override
+            public void onError(String errorMessage) {
+                delivered.add("error: " + errorMessage);
+            }
+        });
+
+        Object restored = delivered.poll(1, TimeUnit.SECONDS);
+        assertTrue(restored instanceof WeatherData);
+        assertEquals(first.temperature, ((WeatherData) restored).temperature, 0);
+        assertEquals(1, cache.getStaleHitCount());
+        awaitUpstreamQueries(2);
+    }
+}
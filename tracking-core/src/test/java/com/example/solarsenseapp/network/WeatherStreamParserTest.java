@@ -0,0 +1,149 @@
+package com.example.solarsenseapp.network;
+
+import com.example.solarsenseapp.models.WeatherData;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeatherStreamParserTest {
+
+    private static final String RESPONSE = "{\"coord\":{\"lon\":77.2167,\"lat\":28.6667},"
+            + "\"weather\":[{\"id\":211,\"main\":\"Thunderstorm\",\"description\":\"thunderstorm\",\"icon\":\"11d\"},"
+            + "{\"id\":500,\"main\":\"Rain\",\"description\":\"light rain\",\"icon\":\"10d\"}],"
+            + "\"base\":\"stations\","
+            + "\"main\":{\"temp\":31.05,\"feels_like\":38.05,\"temp_min\":31.05,\"temp_max\":31.05,"
+            + "\"pressure\":1002,\"humidity\":74,\"sea_level\":1002,\"grnd_level\":977},"
+            + "\"visibility\":3000,\"wind\":{\"speed\":4.12,\"deg\":110,\"gust\":7.2},"
+            + "\"rain\":{\"1h\":1.27},\"clouds\":{\"all\":75},\"dt\":1724317800,"
+            + "\"sys\":{\"type\":1,\"id\":9165,\"country\":\"IN\",\"sunrise\":1724285826,\"sunset\":1724332938},"
+            + "\"timezone\":19800,\"id\":1273294,\"name\":\"Delhi\",\"cod\":200}";
+
+    private static final String[] VARIANTS = {
+            RESPONSE,
+            // No wind direction, snow, lower case condition, nothing to skip
+            "{\"main\":{\"temp\":-3.5,\"humidity\":90},\"wind\":{\"speed\":0},"
+                    + "\"weather\":[{\"main\":\"snow\"}],\"snow\":{\"1h\":0.25,\"3h\":1e0}}",
+            // Pretty printed, escapes, nested values and literals in skipped fields
+            "{\n  \"name\" : \"Caf\\u00e9 \\\"Delhi\\\" \\\\ \\/\",\n"
+                    + "  \"extra\" : [true, false, null, {\"a\": [[], {}]}, -1.5E-3],\n"
+                    + "  \"weather\" : [ { \"main\" : \"\\u0043louds\" } ],\n"
+                    + "  \"main\" : { \"temp\" : 2.5e1, \"humidity\" : 55 },\n"
+                    + "  \"wind\" : { \"deg\" : 359.99, \"speed\" : 12.345678901234567890 }\n}",
+            // Unknown condition and an empty weather list after it
+            "{\"weather\":[{\"main\":\"Mist\"}],\"main\":{\"temp\":0.1,\"humidity\":100},"
+                    + "\"wind\":{\"speed\":1.0000000000000002,\"deg\":1.7976931348623157E308}}",
+            "{\"weather\":[],\"main\":{\"temp\":1E-7,\"humidity\":1},\"wind\":{\"speed\":0.30000000000000004}}"
+    };
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Hands the parser one byte per read, so every token crosses a buffer refill
+    private static InputStream trickle(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        };
+    }
+
+    private static void assertSameWeather(WeatherData expected, WeatherData actual) {
+        assertEquals(expected.temperature, actual.temperature, 0);
+        assertEquals(expected.humidity, actual.humidity);
+        assertEquals(expected.windSpeed, actual.windSpeed, 0);
+        assertEquals(expected.windDirection, actual.windDirection, 0);
+        assertEquals(expected.weatherCondition, actual.weatherCondition);
+        assertEquals(expected.weatherIcon, actual.weatherIcon);
+        assertEquals(expected.rainAmount, actual.rainAmount, 0);
+        assertEquals(expected.snowAmount, actual.snowAmount, 0);
+        assertEquals(expected.isThunderstorm, actual.isThunderstorm);
+        assertEquals(expected.cityId, actual.cityId);
+        assertEquals(expected.latitude, actual.latitude, 0);
+        assertEquals(expected.longitude, actual.longitude, 0);
+    }
+
+    @Test
+    public void parse_matchesJsonObjectParser() throws Exception {
+        WeatherStreamParser parser = new WeatherStreamParser();
+        for (String json : VARIANTS) {
+            WeatherData expected = WeatherJsonParser.parse(json);
+
+            WeatherData actual = new WeatherData();
+            parser.parse(stream(json), actual);
+            assertSameWeather(expected, actual);
+
+            WeatherData trickled = new WeatherData();
+            parser.parse(trickle(json), trickled);
+            assertSameWeather(expected, trickled);
+        }
+    }
+
+    @Test
+    public void parse_reusedInstanceIsReset() throws Exception {
+        WeatherStreamParser parser = new WeatherStreamParser();
+        WeatherData weatherData = new WeatherData();
+
+        parser.parse(stream(RESPONSE), weatherData);
+        assertTrue(weatherData.isThunderstorm);
+        assertEquals(1.27, weatherData.rainAmount, 0);
+
+        parser.parse(stream(VARIANTS[4]), weatherData);
+        assertFalse(weatherData.isThunderstorm);
+        assertEquals(0, weatherData.rainAmount, 0);
+        assertEquals("Clear", weatherData.weatherCondition);
+    }
+
+    @Test
+    public void parse_rejectsMissingOrMalformedFields() {
+        String[] invalid = {
+                "{\"main\":{\"temp\":20,\"humidity\":50},\"weather\":[]}",
+                "{\"main\":{\"temp\":20},\"wind\":{\"speed\":1},\"weather\":[]}",
+                "{\"main\":{\"temp\":20,\"humidity\":50},\"wind\":{\"speed\":1},\"weather\":[]",
+                "{\"main\":{\"temp\":\"x\",\"humidity\":50},\"wind\":{\"speed\":1},\"weather\":[]}",
+                ""
+        };
+        WeatherStreamParser parser = new WeatherStreamParser();
+        for (String json : invalid) {
+            try {
+                parser.parse(stream(json), new WeatherData());
+                fail("Expected failure for " + json);
+            } catch (IOException expected) {
+                // Expected
+            }
+        }
+    }
+
+    @Test
+    public void parseGroup_streamsEachListEntry() throws Exception {
+        String group = "{\"cnt\":2,\"list\":[" + RESPONSE + "," + VARIANTS[1] + "]}";
+        List<WeatherData> entries = new ArrayList<>();
+
+        int count = new WeatherStreamParser().parseGroup(trickle(group), entries::add);
+
+        assertEquals(2, count);
+        assertSameWeather(WeatherJsonParser.parse(RESPONSE), entries.get(0));
+        assertSameWeather(WeatherJsonParser.parse(VARIANTS[1]), entries.get(1));
+        assertEquals(1273294, entries.get(0).cityId);
+    }
+
+    @Test
+    public void toJson_roundTrips() throws Exception {
+        WeatherStreamParser parser = new WeatherStreamParser();
+        for (String json : VARIANTS) {
+            WeatherData original = WeatherJsonParser.parse(json);
+            WeatherData restored = new WeatherData();
+            parser.parse(stream(WeatherStreamParser.toJson(original)), restored);
+            assertSameWeather(original, restored);
+        }
+    }
+}
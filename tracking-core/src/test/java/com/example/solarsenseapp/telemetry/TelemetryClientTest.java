@@ -0,0 +1,102 @@
+package com.example.solarsenseapp.telemetry;
+
+import com.example.solarsenseapp.network.ESPCommunicator;
+import com.example.solarsenseapp.network.StubEspServer;
+import com.example.solarsenseapp.tracking.TickScheduler;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TelemetryClientTest {
+
+    // Polls are driven by hand
+    private static final TickScheduler MANUAL = new TickScheduler() {
+        @Override
+        public void start(Runnable tick, long periodMillis) {}
+
+        @Override
+        public void scheduleNext(Runnable tick, long delayMillis) {}
+
+        @Override
+        public void stop() {}
+    };
+
+    private StubEspServer server;
+    private ESPCommunicator communicator;
+    private TelemetryClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        server = new StubEspServer(true, 0);
+        communicator = new ESPCommunicator();
+        communicator.updateIP(server.getBaseUrl());
+        client = new TelemetryClient(communicator, new TelemetryFrameDecoder(new TelemetryBuffer(256)), MANUAL);
+        client.start();
+    }
+
+    @After
+    public void tearDown() {
+        client.stop();
+        communicator.shutdown();
+        server.close();
+    }
+
+    private void pollAndWait(long expectedSamples) throws InterruptedException {
+        // Retry while the previous poll is still finishing up
+        long deadline = System.currentTimeMillis() + 5000;
+        long polls = client.getPollCount();
+        while (client.getPollCount() == polls && System.currentTimeMillis() < deadline) {
+            client.poll();
+            Thread.sleep(1);
+        }
+        while (client.getBuffer().getWrittenCount() < expectedSamples && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void poll_asksForSamplesSinceTheLastOne() throws Exception {
+        server.setTelemetryBody(TelemetryFrameDecoderTest.concat(
+                TelemetryFrameDecoderTest.frame(0, 0, 50),
+                TelemetryFrameDecoderTest.frame(50, 250_000, 50)));
+        pollAndWait(100);
+        assertEquals(100, client.getBuffer().getWrittenCount());
+        assertNull(server.getLastTelemetryQuery());
+
+        server.setTelemetryBody(TelemetryFrameDecoderTest.frame(100, 500_000, 50));
+        pollAndWait(150);
+        assertEquals("since=100", server.getLastTelemetryQuery());
+        assertEquals(150, client.getBuffer().getWrittenCount());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void unreachableEsp_backsOffExponentially() throws Exception {
+        server.close(); // nothing listens on its port any more
+        int[] expected = {1, 3, 7, 15};
+        for (int backoff : expected) {
+            long failed = client.getFailedPollCount();
+            while (client.getBackoffPolls() > 0) {
+                client.poll(); // skipped
+            }
+            client.poll();
+            long deadline = System.currentTimeMillis() + 5000;
+            while (client.getFailedPollCount() == failed && System.currentTimeMillis() < deadline) {
+                Thread.sleep(5);
+            }
+            assertEquals(backoff, client.getBackoffPolls());
+        }
+        assertEquals(expected.length, client.getPollCount());
+    }
+
+    @Test
+    public void pushedFrames_shareTheBuffer() {
+        byte[] pushed = TelemetryFrameDecoderTest.frame(7, 0, 3);
+
+        assertEquals(3, client.ingest(pushed, 0, pushed.length));
+        assertEquals(10, client.getDecoder().getNextSequence());
+    }
+}
@@ -0,0 +1,152 @@
+package com.example.solarsenseapp.telemetry;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.junit.Assert.*;
+
+public class TelemetryFrameDecoderTest {
+
+    private final TelemetryBuffer buffer = new TelemetryBuffer(64);
+    private final TelemetryFrameDecoder decoder = new TelemetryFrameDecoder(buffer, 32);
+    private final TelemetryBuffer.Sample sample = new TelemetryBuffer.Sample();
+
+    // Frame of count samples at 5 ms; sample i reads base = i degrees, 12 V, 0.5 A
+    static byte[] frame(long firstSequence, long firstTimeMicros, int count) {
+        ByteBuffer out = ByteBuffer.allocate(TelemetryFrameDecoder.HEADER_SIZE + count * 8)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        out.put((byte) 'S').put((byte) 'T').put((byte) TelemetryFrameDecoder.VERSION).put((byte) 8);
+        out.putInt((int) firstSequence).putInt((int) firstTimeMicros).putInt(5000);
+        out.putShort((short) count).putShort((short) 0);
+        for (int i = 0; i < count; i++) {
+            int sequence = (int) (firstSequence + i);
+            out.putShort((short) (sequence % 180 * 100)).putShort((short) 4550)
+                    .putShort((short) 12000).putShort((short) 500);
+        }
+        return out.array();
+    }
+
+    static byte[] concat(byte[]... frames) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] frame : frames) {
+            out.write(frame);
+        }
+        return out.toByteArray();
+    }
+
+    @Test
+    public void batchedFrames_decodeIntoBuffer() throws IOException {
+        byte[] body = concat(frame(100, 1_000_000, 10), frame(110, 1_050_000, 10));
+
+        assertEquals(20, decoder.decode(new ByteArrayInputStream(body)));
+
+        assertTrue(buffer.readLatest(sample));
+        assertEquals(119, sample.sequence);
+        assertEquals(1_095_000, sample.timeMicros);
+        assertEquals(119f, sample.baseAngle, 0.001);
+        assertEquals(45.5f, sample.panelAngle, 0.001);
+        assertEquals(12f, sample.voltage, 0.001);
+        assertEquals(6f, sample.power(), 0.001);
+        assertEquals(6f, buffer.getAveragePower(50), 0.001);
+        assertEquals(120, decoder.getNextSequence());
+    }
+
+    @Test
+    public void sequenceGapsAndOverlaps_areCounted() throws IOException {
+        decoder.decode(new ByteArrayInputStream(frame(0, 0, 10)));
+        decoder.decode(new ByteArrayInputStream(frame(15, 75_000, 5))); // 10..14 lost on the ESP
+        byte[] overlap = frame(18, 90_000, 6); // 18 and 19 already stored
+
+        assertEquals(4, decoder.decode(overlap, 0, overlap.length));
+
+        assertEquals(5, decoder.getDroppedSampleCount());
+        assertEquals(2, decoder.getDuplicateSampleCount());
+        assertEquals(19, buffer.getWrittenCount());
+        assertTrue(buffer.readLatest(sample));
+        assertEquals(23, sample.sequence);
+    }
+
+    @Test
+    public void sequenceWrap_continuesWithoutGap() throws IOException {
+        long nearWrap = 0xFFFFFFFFL - 4;
+        decoder.decode(new ByteArrayInputStream(frame(nearWrap, 0, 5)));
+        decoder.decode(new ByteArrayInputStream(frame(0x1_0000_0000L, 25_000, 5)));
+
+        assertEquals(0, decoder.getDroppedSampleCount());
+        assertEquals(0, decoder.getDuplicateSampleCount());
+        assertEquals(10, buffer.getWrittenCount());
+        assertEquals(5, decoder.getNextSequence());
+    }
+
+    @Test
+    public void rebootAfterFewSamples_resyncsOnTheDeviceClock() throws IOException {
+        decoder.decode(new ByteArrayInputStream(frame(0, 1_000_000, 20)));
+
+        // Back to sequence 0 well inside one frame of overlap, but the clock restarted too
+        assertEquals(10, decoder.decode(new ByteArrayInputStream(frame(0, 2_000, 10))));
+
+        assertEquals(1, decoder.getResyncCount());
+        assertEquals(0, decoder.getDuplicateSampleCount());
+        assertEquals(30, buffer.getWrittenCount());
+        assertEquals(10, decoder.getNextSequence());
+        assertTrue(buffer.readLatest(sample));
+        assertEquals(9, sample.sequence);
+        assertEquals(2_000 + 9 * 5000, sample.timeMicros);
+    }
+
+    @Test
+    public void rebootBehindMoreThanAFrame_resyncsWithinTheRing() throws IOException {
+        // 50 samples: fewer than the ring holds, more than one frame can overlap
+        decoder.decode(new ByteArrayInputStream(frame(0, 0, 25)));
+        decoder.decode(new ByteArrayInputStream(frame(25, 125_000, 25)));
+
+        // Same clock value as before, so only the sequence gives the reboot away
+        assertEquals(5, decoder.decode(new ByteArrayInputStream(frame(3, 250_000, 5))));
+
+        assertEquals(1, decoder.getResyncCount());
+        assertEquals(0, decoder.getDuplicateSampleCount());
+        assertEquals(8, decoder.getNextSequence());
+    }
+
+    @Test
+    public void lateOverlappingFrame_isNotAReboot() throws IOException {
+        decoder.decode(new ByteArrayInputStream(frame(0, 0, 30)));
+
+        // A push covering samples already pulled, with the clock values they had
+        assertEquals(0, decoder.decode(new ByteArrayInputStream(frame(10, 50_000, 20))));
+
+        assertEquals(0, decoder.getResyncCount());
+        assertEquals(20, decoder.getDuplicateSampleCount());
+        assertEquals(30, decoder.getNextSequence());
+    }
+
+    @Test
+    public void malformedPush_isRejected() {
+        byte[] bad = frame(0, 0, 4);
+        bad[0] = 'X';
+        byte[] truncated = frame(0, 0, 4);
+
+        assertEquals(-1, decoder.decode(bad, 0, bad.length));
+        assertEquals(-1, decoder.decode(truncated, 0, truncated.length - 3));
+        assertEquals(2, decoder.getMalformedFrameCount());
+        assertEquals(0, buffer.getWrittenCount());
+    }
+
+    @Test
+    public void ring_keepsNewestSamples() throws IOException {
+        for (int i = 0; i < 5; i++) {
+            decoder.decode(new ByteArrayInputStream(frame(i * 30L, i * 150_000L, 30)));
+        }
+
+        assertEquals(150, buffer.getWrittenCount());
+        assertEquals(150 - buffer.capacity(), buffer.getOldestIndex());
+        assertFalse(buffer.read(buffer.getOldestIndex() - 1, sample));
+        assertTrue(buffer.read(buffer.getOldestIndex(), sample));
+        assertEquals(150 - buffer.capacity(), sample.sequence);
+    }
+}
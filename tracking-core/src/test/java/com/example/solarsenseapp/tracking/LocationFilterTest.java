@@ -0,0 +1,82 @@
+package com.example.solarsenseapp.tracking;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class LocationFilterTest {
+
+    private static final double LAT = 52.52;
+    private static final double LON = 13.405;
+    private static final long NOON = 1718791200000L; // 2024-06-19 10:00 UTC
+
+    private final LocationFilter filter = new LocationFilter();
+
+    @Test
+    public void firstFix_recomputes() {
+        assertEquals(LocationFilter.Result.RECOMPUTE, filter.offer(LAT, LON, 10, NOON, "gps", NOON));
+        assertEquals(1, filter.getRecomputeCount());
+    }
+
+    @Test
+    public void gpsJitter_isAcceptedWithoutRecompute() {
+        filter.offer(LAT, LON, 10, NOON, "gps", NOON);
+
+        // About 30 m away; no servo angle moves by a degree
+        LocationFilter.Result result = filter.offer(LAT + 0.0002, LON + 0.0002, 8, NOON + 10000, "gps", NOON + 10000);
+
+        assertEquals(LocationFilter.Result.ACCEPTED, result);
+        assertEquals(LAT + 0.0002, filter.getBestLocation().latitude, 1e-9);
+        assertEquals(1, filter.getRecomputeCount());
+        assertEquals(2, filter.getAcceptedCount());
+    }
+
+    @Test
+    public void coarserNetworkFix_isDroppedWhileGpsIsFresh() {
+        filter.offer(LAT, LON, 10, NOON, "gps", NOON);
+
+        LocationFilter.Result result = filter.offer(LAT + 0.001, LON, 500, NOON + 5000, "network", NOON + 5000);
+
+        assertEquals(LocationFilter.Result.DROPPED_LESS_ACCURATE, result);
+        assertEquals(LAT, filter.getBestLocation().latitude, 1e-9);
+        assertEquals(1, filter.getLessAccurateCount());
+    }
+
+    @Test
+    public void networkFix_winsOnceGpsGoesStale() {
+        filter.offer(LAT, LON, 10, NOON, "gps", NOON);
+
+        long later = NOON + 3 * 60 * 1000;
+        LocationFilter.Result result = filter.offer(LAT + 0.001, LON, 500, later, "network", later);
+
+        assertTrue(result.isAccepted());
+        assertEquals(LAT + 0.001, filter.getBestLocation().latitude, 1e-9);
+    }
+
+    @Test
+    public void repeatedOrOlderFix_isDropped() {
+        filter.offer(LAT, LON, 10, NOON, "gps", NOON);
+
+        assertEquals(LocationFilter.Result.DROPPED_OUTDATED, filter.offer(LAT, LON, 10, NOON, "gps", NOON + 1000));
+        assertEquals(LocationFilter.Result.DROPPED_OUTDATED, filter.offer(LAT, LON, 3, NOON - 10 * 60 * 1000, "gps", NOON));
+        assertEquals(2, filter.getOutdatedCount());
+        assertEquals(2, filter.getDroppedCount());
+    }
+
+    @Test
+    public void largeMove_recomputesAgainstLastRecompute() {
+        filter.offer(LAT, LON, 10, NOON, "gps", NOON);
+
+        // Creeping 100 m at a time still adds up to a recompute eventually
+        int recomputes = 0;
+        for (int i = 1; i <= 1000; i++) {
+            long time = NOON + i * 1000L;
+            if (filter.offer(LAT - i * 0.001, LON, 10, time, "gps", time) == LocationFilter.Result.RECOMPUTE) {
+                recomputes++;
+            }
+        }
+
+        assertTrue(recomputes > 0);
+        assertTrue(recomputes < 100);
+    }
+}
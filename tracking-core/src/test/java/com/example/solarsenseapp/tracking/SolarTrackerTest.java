@@ -0,0 +1,253 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.utils.Logger;
+import com.example.solarsenseapp.utils.SolarCalculator;
+import com.example.solarsenseapp.utils.SolarEphemeris;
+import com.example.solarsenseapp.utils.TrackingLog;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class SolarTrackerTest {
+
+    private static final Coordinates DELHI = new Coordinates(28.6139, 77.2090);
+
+    private long now = 1750487400000L; // 2025-06-21 06:30 UTC
+    private Coordinates location = DELHI;
+    private final List<int[]> moves = new ArrayList<>();
+
+    // Holds the next tick until the test advances the simulated clock past it
+    private Runnable pendingTick;
+    private long pendingDueMillis;
+    private int wakeups;
+
+    private final TickScheduler manualScheduler = new TickScheduler() {
+        @Override
+        public void start(Runnable tick, long periodMillis) {}
+
+        @Override
+        public void scheduleNext(Runnable tick, long delayMillis) {
+            pendingTick = tick;
+            pendingDueMillis = now + delayMillis;
+        }
+
+        @Override
+        public void stop() {
+            pendingTick = null;
+        }
+    };
+
+    private SolarTracker newTracker() {
+        return new SolarTracker(() -> now, () -> location,
+                (base, panel) -> moves.add(new int[]{base, panel}), manualScheduler);
+    }
+
+    private SolarTracker newTracker(IntervalPolicy intervalPolicy) {
+        SolarEphemeris ephemeris = new SolarEphemeris();
+        return new SolarTracker(() -> now, () -> location,
+                (base, panel) -> moves.add(new int[]{base, panel}), manualScheduler,
+                ephemeris, new MotionPlanner(), intervalPolicy);
+    }
+
+    /**
+     * Runs the tracker over one simulated day, minute by minute.
+     * @return the worst daytime gap in degrees between the commanded and ideal servo angles
+     */
+    private int simulateDay(SolarTracker tracker) {
+        long start = now;
+        int worstError = 0;
+        double[] position = new double[2];
+        int[] ideal = new int[2];
+        tracker.start();
+        for (now = start; now < start + 86400000L; now += 60000) {
+            if (pendingTick != null && pendingDueMillis <= now) {
+                wakeups++;
+                pendingTick.run();
+            }
+            SolarCalculator.calculateSolarPosition(DELHI.latitude, DELHI.longitude, now,
+                    TimeZone.getDefault().getOffset(now), position);
+            if (!SolarCalculator.isDaylight(position[SolarCalculator.ALTITUDE])) {
+                continue;
+            }
+            SolarCalculator.solarPositionToServoAngles(position[SolarCalculator.AZIMUTH],
+                    position[SolarCalculator.ALTITUDE], ideal);
+            int[] commanded = moves.get(moves.size() - 1);
+            for (int axis = 0; axis < 2; axis++) {
+                worstError = Math.max(worstError, Math.abs(commanded[axis] - ideal[axis]));
+            }
+        }
+        tracker.stop();
+        return worstError;
+    }
+
+    @Test
+    public void start_movesPanelToSunImmediately() {
+        SolarTracker tracker = newTracker();
+        tracker.start();
+
+        assertEquals(1, moves.size());
+        int[] expected = SolarCalculator.solarPositionToServoAngles(
+                SolarCalculator.calculateSolarPosition(DELHI.latitude, DELHI.longitude, new Date(now)));
+        assertArrayEquals(expected, moves.get(0));
+    }
+
+    @Test
+    public void move_buildsItsDebugMessageOnlyWhenDebugIsEnabled() {
+        List<String> debugMessages = new ArrayList<>();
+        boolean[] debugEnabled = {false};
+        TrackingLog.setLogger(new Logger() {
+            @Override
+            public boolean isDebugEnabled(String tag) {
+                return debugEnabled[0];
+            }
+
+            @Override
+            public void d(String tag, String message) {
+                debugMessages.add(message);
+            }
+
+            @Override
+            public void i(String tag, String message) {}
+
+            @Override
+            public void w(String tag, String message) {}
+
+            @Override
+            public void e(String tag, String message, Throwable throwable) {}
+        });
+        try {
+            newTracker().start();
+            assertEquals(1, moves.size());
+            assertTrue(debugMessages.isEmpty());
+
+            debugEnabled[0] = true;
+            moves.clear();
+            newTracker().start();
+            assertEquals(1, moves.size());
+            assertEquals(1, debugMessages.size());
+            assertTrue(debugMessages.get(0).startsWith("Panel position updated"));
+        } finally {
+            TrackingLog.setLogger(null);
+        }
+    }
+
+    @Test
+    public void tick_withoutLocation_sendsNothing() {
+        location = null;
+        SolarTracker tracker = newTracker();
+        tracker.start();
+
+        assertFalse(tracker.tick());
+        assertTrue(moves.isEmpty());
+    }
+
+    @Test
+    public void stop_preventsFurtherTicks() {
+        SolarTracker tracker = newTracker();
+        tracker.start();
+        tracker.stop();
+        now += 60000;
+
+        assertFalse(tracker.tick());
+        assertEquals(1, moves.size());
+    }
+
+    @Test
+    public void updatePosition_suppressesMovesInsideDeadband() {
+        SolarTracker tracker = newTracker();
+        tracker.start();
+
+        // A GPS fix a few metres away at the same moment changes nothing
+        tracker.updatePosition(DELHI.latitude + 0.0001, DELHI.longitude);
+        now += 60000;
+        tracker.tick();
+
+        assertEquals(1, moves.size());
+        assertEquals(2, tracker.getMotionPlanner().getSuppressedCount());
+    }
+
+    @Test
+    public void stowed_holdsMovesAndResendsOnRelease() {
+        SolarTracker tracker = newTracker();
+        tracker.start();
+        tracker.setStowed(true);
+        now += 3600000;
+        pendingTick.run();
+        assertEquals(1, moves.size());
+
+        // Same position as before the stow, but the servos were moved, so it is sent anyway
+        now -= 3600000;
+        tracker.setStowed(false);
+        assertEquals(now, pendingDueMillis);
+        pendingTick.run();
+        assertEquals(2, moves.size());
+        assertArrayEquals(moves.get(0), moves.get(1));
+    }
+
+    @Test
+    public void start_schedulesNextTickFromIntervalPolicy() {
+        SolarTracker tracker = newTracker(IntervalPolicy.fixed(120000));
+        tracker.start();
+
+        assertNotNull(pendingTick);
+        assertEquals(now + 120000, pendingDueMillis);
+    }
+
+    @Test
+    public void lateTicks_doNotDrift() {
+        long start = now;
+        SolarTracker tracker = newTracker(IntervalPolicy.fixed(120000));
+        tracker.start();
+
+        // Woken 5 s late; the next tick stays on the original grid
+        now = start + 125000;
+        pendingTick.run();
+        assertEquals(start + 240000, pendingDueMillis);
+
+        // Asleep for several intervals; missed ticks are skipped, not replayed
+        now = start + 1000000;
+        pendingTick.run();
+        assertEquals(now + 120000, pendingDueMillis);
+    }
+
+    @Test
+    public void snapshot_reflectsLatestTick() {
+        SolarTracker tracker = newTracker(IntervalPolicy.fixed(120000));
+        assertSame(TrackingSnapshot.EMPTY, tracker.getSnapshot());
+        tracker.start();
+
+        TrackingSnapshot snapshot = tracker.getSnapshot();
+        assertEquals(moves.get(0)[SolarCalculator.BASE_ANGLE], snapshot.baseAngle);
+        assertEquals(moves.get(0)[SolarCalculator.PANEL_ANGLE], snapshot.panelAngle);
+        assertEquals(pendingDueMillis, snapshot.nextTickAtMillis);
+        assertEquals(1, snapshot.tickCount);
+        assertFalse(snapshot.stowed);
+    }
+
+    @Test
+    public void adaptiveInterval_wakesLessThanFixedIntervalOverADay() {
+        now = 1750444200000L; // 2025-06-21 00:00 IST
+        int fixedError = simulateDay(newTracker(IntervalPolicy.fixed(Constants.AUTO_UPDATE_INTERVAL)));
+        int fixedWakeups = wakeups;
+        int fixedMoves = moves.size();
+
+        now = 1750444200000L;
+        wakeups = 0;
+        moves.clear();
+        int adaptiveError = simulateDay(newTracker(new AdaptiveIntervalPolicy(new SolarEphemeris())));
+        int adaptiveWakeups = wakeups;
+        int adaptiveMoves = moves.size();
+
+        assertTrue(adaptiveWakeups < fixedWakeups);
+        assertTrue(adaptiveMoves <= fixedMoves);
+        assertTrue(adaptiveError <= fixedError);
+    }
+}
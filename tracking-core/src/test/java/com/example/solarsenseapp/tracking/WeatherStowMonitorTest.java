@@ -0,0 +1,137 @@
+package com.example.solarsenseapp.tracking;
+
+import com.example.solarsenseapp.models.Coordinates;
+import com.example.solarsenseapp.models.WeatherData;
+import com.example.solarsenseapp.network.WeatherAPI;
+import com.example.solarsenseapp.network.WeatherSource;
+import com.example.solarsenseapp.utils.Constants;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class WeatherStowMonitorTest {
+
+    private static final long POLL_INTERVAL = 300000;
+    private static final long RELEASE_HOLD = 1800000;
+
+    private long now = 1750487400000L;
+    private final List<String> events = new ArrayList<>();
+
+    // Weather requests are held until the test answers them
+    private final List<WeatherAPI.WeatherCallback> pending = new ArrayList<>();
+    private final WeatherSource weatherSource = (query, callback) -> pending.add(callback);
+
+    private Runnable periodicPoll;
+    private final TickScheduler scheduler = new TickScheduler() {
+        @Override
+        public void start(Runnable tick, long periodMillis) {
+            periodicPoll = tick;
+        }
+
+        @Override
+        public void scheduleNext(Runnable tick, long delayMillis) {}
+
+        @Override
+        public void stop() {
+            periodicPoll = null;
+        }
+    };
+
+    private final WeatherStowMonitor.StowListener listener = new WeatherStowMonitor.StowListener() {
+        @Override
+        public void onStow(String reason) {
+            events.add("stow: " + reason);
+        }
+
+        @Override
+        public void onRelease() {
+            events.add("release");
+        }
+    };
+
+    private WeatherStowMonitor newMonitor() {
+        return new WeatherStowMonitor(() -> now, () -> new Coordinates(28.6139, 77.2090),
+                weatherSource, scheduler, listener, POLL_INTERVAL, RELEASE_HOLD);
+    }
+
+    private static WeatherData weather(double windSpeed, boolean thunderstorm) {
+        WeatherData weatherData = new WeatherData(30, 50, windSpeed, 90, "Clear", "☀️");
+        weatherData.isThunderstorm = thunderstorm;
+        return weatherData;
+    }
+
+    // Answers the oldest outstanding request, then runs the next periodic poll
+    private void answerAndPoll(WeatherData weatherData) {
+        pending.remove(0).onSuccess(weatherData);
+        now += POLL_INTERVAL;
+        periodicPoll.run();
+    }
+
+    @Test
+    public void stowReason_checksEachThreshold() {
+        assertNull(WeatherStowMonitor.stowReason(weather(5, false)));
+        assertEquals("thunderstorm", WeatherStowMonitor.stowReason(weather(5, true)));
+        assertNotNull(WeatherStowMonitor.stowReason(weather(Constants.STOW_WIND_SPEED, false)));
+
+        WeatherData rain = weather(5, false);
+        rain.rainAmount = Constants.STOW_RAIN_AMOUNT;
+        assertNotNull(WeatherStowMonitor.stowReason(rain));
+
+        WeatherData snow = weather(5, false);
+        snow.snowAmount = Constants.STOW_SNOW_AMOUNT;
+        assertNotNull(WeatherStowMonitor.stowReason(snow));
+    }
+
+    @Test
+    public void storm_stowsOnceAndReleasesAfterCalmHold() {
+        WeatherStowMonitor monitor = newMonitor();
+        monitor.start();
+        assertEquals(1, pending.size());
+
+        answerAndPoll(weather(4, true));
+        answerAndPoll(weather(20, false)); // still bad, no second stow
+        assertEquals(1, monitor.getStowCount());
+        assertTrue(monitor.isStowed());
+
+        // Gusty but under the stow speed does not count as calm
+        answerAndPoll(weather(Constants.STOW_WIND_SPEED - 1, false));
+        answerAndPoll(weather(3, false));
+        for (long calm = 0; calm < RELEASE_HOLD; calm += POLL_INTERVAL) {
+            assertTrue(monitor.isStowed());
+            answerAndPoll(weather(3, false));
+        }
+
+        assertFalse(monitor.isStowed());
+        assertEquals(2, events.size());
+        assertEquals("stow: thunderstorm", events.get(0));
+        assertEquals("release", events.get(1));
+        assertTrue(monitor.getMaxStowLatencyMicros() >= monitor.getLastStowLatencyMicros());
+    }
+
+    @Test
+    public void slowResponse_doesNotStackPolls() {
+        WeatherStowMonitor monitor = newMonitor();
+        monitor.start();
+        periodicPoll.run();
+        periodicPoll.run();
+
+        assertEquals(1, pending.size());
+        assertEquals(2, monitor.getSkippedPollCount());
+    }
+
+    @Test
+    public void stop_releasesHeldStow() {
+        WeatherStowMonitor monitor = newMonitor();
+        monitor.start();
+        pending.remove(0).onSuccess(weather(25, false));
+        monitor.stop();
+
+        assertFalse(monitor.isStowed());
+        assertEquals("release", events.get(events.size() - 1));
+        assertNull(periodicPoll);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.solarsenseapp.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GeoHashTest {
+
+    @Test
+    public void encode_matchesReferenceHash() {
+        assertEquals("u4pruydqqvj", GeoHash.encode(57.64911, 10.40744, 11));
+        assertEquals("u4pru", GeoHash.encode(57.64911, 10.40744, 5));
+    }
+
+    @Test
+    public void decodeCenter_liesInsideTheSameCell() {
+        String cell = GeoHash.encode(28.6139, 77.2090, 5);
+        double[] center = new double[2];
+        GeoHash.decodeCenter(cell, center);
+
+        assertEquals(cell, GeoHash.encode(center[0], center[1], 5));
+        assertEquals(28.6139, center[0], 0.03);
+        assertEquals(77.2090, center[1], 0.03);
+    }
+}
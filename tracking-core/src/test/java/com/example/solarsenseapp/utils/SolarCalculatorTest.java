@@ -0,0 +1,128 @@
+package com.example.solarsenseapp.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Random;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class SolarCalculatorTest {
+
+    private static final String[] TIME_ZONES = {
+            "UTC", "Asia/Kolkata", "America/New_York", "Australia/Sydney", "Pacific/Chatham"
+    };
+
+    // zone, latitude, longitude, local time (none in DST), then azimuth and altitude as computed by the
+    // original Calendar-based implementation, which the primitive one replaced
+    private static final Object[][] BASELINE = {
+            {"UTC", 51.5074, -0.1278, "2024-01-15 12:00", 2.4047612999174817, 17.19092702840703},
+            {"Asia/Kolkata", 28.6139, 77.2090, "2024-03-21 09:30", 64.15471852124807, 38.628832883614784},
+            {"America/New_York", 40.7128, -74.0060, "2024-12-21 15:45", 308.86375432854453, 6.569992153540336},
+            {"Australia/Sydney", -33.8688, 151.2093, "2024-06-21 08:15", 129.3821833915438, 12.133792000434061},
+            {"Asia/Tokyo", 35.6762, 139.6503, "2024-02-29 17:20", 281.75408596457976, 2.0757525966799166},
+            {"UTC", 0.0, 0.0, "2023-12-31 23:59", 357.50536944954337, -66.89092037007035},
+    };
+
+    private TimeZone originalTimeZone;
+
+    @Before
+    public void setUp() {
+        originalTimeZone = TimeZone.getDefault();
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalTimeZone);
+    }
+
+    @Test
+    public void positions_matchBaselineImplementation() throws ParseException {
+        double[] position = new double[2];
+
+        for (Object[] row : BASELINE) {
+            String zone = (String) row[0];
+            double latitude = (double) row[1];
+            double longitude = (double) row[2];
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            TimeZone.setDefault(timeZone);
+            SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm", Locale.US);
+            format.setTimeZone(timeZone);
+            Date date = format.parse((String) row[3]);
+            String label = zone + " " + row[3];
+
+            SolarCalculator.SolarPosition viaDate = SolarCalculator.calculateSolarPosition(latitude, longitude, date);
+            SolarCalculator.calculateSolarPosition(latitude, longitude,
+                    date.getTime(), timeZone.getOffset(date.getTime()), position);
+
+            assertEquals(label, (double) row[4], viaDate.azimuth, 1e-9);
+            assertEquals(label, (double) row[5], viaDate.altitude, 1e-9);
+            assertEquals(label, (double) row[4], position[SolarCalculator.AZIMUTH], 1e-9);
+            assertEquals(label, (double) row[5], position[SolarCalculator.ALTITUDE], 1e-9);
+        }
+    }
+
+    @Test
+    public void primitiveApi_matchesDateApi() {
+        Random random = new Random(42);
+        double[] position = new double[2];
+
+        for (String zone : TIME_ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(zone);
+            TimeZone.setDefault(timeZone);
+
+            for (int i = 0; i < 5000; i++) {
+                double latitude = random.nextDouble() * 180 - 90;
+                double longitude = random.nextDouble() * 360 - 180;
+                // 2000-01-01 .. 2040-01-01
+                long millis = 946684800000L + (long) (random.nextDouble() * 1262304000000L);
+
+                SolarCalculator.SolarPosition expected =
+                        SolarCalculator.calculateSolarPosition(latitude, longitude, new Date(millis));
+                SolarCalculator.calculateSolarPosition(latitude, longitude,
+                        millis, timeZone.getOffset(millis), position);
+
+                assertEquals(zone, expected.azimuth, position[SolarCalculator.AZIMUTH], 0);
+                assertEquals(zone, expected.altitude, position[SolarCalculator.ALTITUDE], 0);
+            }
+        }
+    }
+
+    @Test
+    public void dayOfYear_matchesCalendar() {
+        // Covers leap days, century years and year boundaries
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        cal.set(1900, Calendar.JANUARY, 1);
+        long epochDay = Math.floorDiv(cal.getTimeInMillis(), 86400000L);
+
+        while (cal.get(Calendar.YEAR) < 2101) {
+            assertEquals(cal.getTime().toString(), cal.get(Calendar.DAY_OF_YEAR), SolarCalculator.dayOfYear(epochDay));
+            cal.add(Calendar.DAY_OF_YEAR, 1);
+            epochDay++;
+        }
+    }
+
+    @Test
+    public void primitiveServoAngles_matchArrayApi() {
+        int[] angles = new int[2];
+
+        for (double azimuth = 0; azimuth <= 360; azimuth += 0.25) {
+            for (double altitude = -90; altitude <= 90; altitude += 0.25) {
+                int[] expected = SolarCalculator.solarPositionToServoAngles(
+                        new SolarCalculator.SolarPosition(azimuth, altitude));
+                SolarCalculator.solarPositionToServoAngles(azimuth, altitude, angles);
+
+                assertEquals(expected[0], angles[SolarCalculator.BASE_ANGLE]);
+                assertEquals(expected[1], angles[SolarCalculator.PANEL_ANGLE]);
+            }
+        }
+    }
+}
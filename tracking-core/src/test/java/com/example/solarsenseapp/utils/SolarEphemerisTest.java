@@ -0,0 +1,178 @@
+package com.example.solarsenseapp.utils;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class SolarEphemerisTest {
+
+    private static final long MINUTE = 60000;
+    private static final long TEN_MINUTES = 10 * MINUTE;
+
+    private TimeZone originalTimeZone;
+    private final double[] cached = new double[2];
+    private final double[] exact = new double[2];
+
+    @Before
+    public void setUp() {
+        originalTimeZone = TimeZone.getDefault();
+        // Tables are built per local day of the default zone
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(originalTimeZone);
+    }
+
+    @Test
+    public void interpolatedPositions_stayCloseToCalculator() {
+        double[][] locations = {{48.85, 2.35}, {-33.87, 151.21}, {19.43, -99.13}, {64.13, -21.94}};
+        SolarEphemeris ephemeris = new SolarEphemeris(TEN_MINUTES, 1.0);
+
+        for (double[] location : locations) {
+            long start = utc(2024, Calendar.MARCH, 12, 0, 0);
+            long lastSample = start + 86400000L - TEN_MINUTES;
+            // Every 7 minutes lands between samples as well as on them
+            for (long t = start; t < start + 86400000L; t += 7 * MINUTE) {
+                ephemeris.lookup(location[0], location[1], t, cached);
+                SolarCalculator.calculateSolarPosition(location[0], location[1], t, 0, exact);
+
+                // The calculator steps the declination once a day, and the closing
+                // sample at midnight is already on the next day's value
+                double altitudeTolerance = t < lastSample ? 0.1 : 0.5;
+                assertEquals(0, angleDifference(exact[SolarCalculator.AZIMUTH], cached[SolarCalculator.AZIMUTH]),
+                        0.5);
+                assertEquals(exact[SolarCalculator.ALTITUDE], cached[SolarCalculator.ALTITUDE], altitudeTolerance);
+            }
+        }
+    }
+
+    @Test
+    public void lookupsOnSampleTimes_matchCalculator() {
+        SolarEphemeris ephemeris = new SolarEphemeris(TEN_MINUTES, 1.0);
+        long start = utc(2024, Calendar.JUNE, 21, 0, 0);
+
+        for (long t = start; t < start + 86400000L; t += TEN_MINUTES) {
+            ephemeris.lookup(52.52, 13.40, t, cached);
+            SolarCalculator.calculateSolarPosition(52.52, 13.40, t, 0, exact);
+
+            // Samples are stored as floats
+            assertEquals(exact[SolarCalculator.AZIMUTH], cached[SolarCalculator.AZIMUTH], 1e-3);
+            assertEquals(exact[SolarCalculator.ALTITUDE], cached[SolarCalculator.ALTITUDE], 1e-3);
+        }
+    }
+
+    @Test
+    public void azimuthAcrossNorth_interpolatesAlongTheShortArc() {
+        // Azimuths here are servo angles, which wrap from 360° to 0° at solar noon: about 14:00 UTC at 30°W
+        SolarEphemeris ephemeris = new SolarEphemeris(TEN_MINUTES, 1.0);
+        long start = utc(2024, Calendar.JANUARY, 15, 12, 0);
+        boolean sawWest = false;
+        boolean sawEast = false;
+
+        for (long t = start; t < start + 4 * 3600000L; t += MINUTE) {
+            ephemeris.lookup(50.0, -30.0, t, cached);
+            SolarCalculator.calculateSolarPosition(50.0, -30.0, t, 0, exact);
+
+            double azimuth = cached[SolarCalculator.AZIMUTH];
+            assertTrue("azimuth " + azimuth, azimuth >= 0 && azimuth < 360);
+            assertEquals(0, angleDifference(exact[SolarCalculator.AZIMUTH], azimuth), 0.5);
+            sawWest |= azimuth > 350;
+            sawEast |= azimuth < 10;
+        }
+        assertTrue(sawWest && sawEast);
+    }
+
+    @Test
+    public void sameDayAndPlace_isAHit() {
+        SolarEphemeris ephemeris = new SolarEphemeris();
+        long start = utc(2024, Calendar.MAY, 3, 0, 0);
+
+        for (long t = start; t < start + 86400000L; t += MINUTE) {
+            ephemeris.lookup(40.71, -74.01, t, cached);
+        }
+
+        assertEquals(1, ephemeris.getMissCount());
+        assertEquals(24 * 60 - 1, ephemeris.getHitCount());
+    }
+
+    @Test
+    public void dateChange_rebuildsTheTable() {
+        SolarEphemeris ephemeris = new SolarEphemeris();
+
+        ephemeris.lookup(40.71, -74.01, utc(2024, Calendar.MAY, 3, 23, 59), cached);
+        ephemeris.lookup(40.71, -74.01, utc(2024, Calendar.MAY, 4, 0, 0), cached);
+        SolarCalculator.calculateSolarPosition(40.71, -74.01, utc(2024, Calendar.MAY, 4, 0, 0), 0, exact);
+
+        assertEquals(2, ephemeris.getMissCount());
+        assertEquals(0, ephemeris.getHitCount());
+        assertEquals(exact[SolarCalculator.ALTITUDE], cached[SolarCalculator.ALTITUDE], 1e-3);
+
+        // Back to the previous day misses again
+        ephemeris.lookup(40.71, -74.01, utc(2024, Calendar.MAY, 3, 12, 0), cached);
+        assertEquals(3, ephemeris.getMissCount());
+    }
+
+    @Test
+    public void movesWithinThreshold_reuseTheTable() {
+        SolarEphemeris ephemeris = new SolarEphemeris(MINUTE, 1.0);
+        long noon = utc(2024, Calendar.MAY, 3, 12, 0);
+
+        ephemeris.lookup(40.71, -74.01, noon, cached);
+        // About 0.5 km north
+        ephemeris.lookup(40.7145, -74.01, noon, cached);
+        assertEquals(1, ephemeris.getMissCount());
+        assertEquals(1, ephemeris.getHitCount());
+
+        // About 2 km north rebuilds, and the next lookup there hits the new table
+        ephemeris.lookup(40.728, -74.01, noon, cached);
+        ephemeris.lookup(40.728, -74.01, noon + MINUTE, cached);
+        assertEquals(2, ephemeris.getMissCount());
+        assertEquals(2, ephemeris.getHitCount());
+
+        SolarCalculator.calculateSolarPosition(40.728, -74.01, noon + MINUTE, 0, exact);
+        assertEquals(exact[SolarCalculator.ALTITUDE], cached[SolarCalculator.ALTITUDE], 1e-3);
+    }
+
+    @Test
+    public void invalidate_forcesARebuild() {
+        SolarEphemeris ephemeris = new SolarEphemeris();
+        long noon = utc(2024, Calendar.MAY, 3, 12, 0);
+
+        ephemeris.lookup(40.71, -74.01, noon, cached);
+        ephemeris.invalidate();
+        ephemeris.lookup(40.71, -74.01, noon, cached);
+
+        assertEquals(2, ephemeris.getMissCount());
+        assertEquals(0, ephemeris.getHitCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void subMinuteResolution_isRejected() {
+        new SolarEphemeris(30000, 1.0);
+    }
+
+    private static long utc(int year, int month, int day, int hour, int minute) {
+        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        cal.clear();
+        cal.set(year, month, day, hour, minute);
+        return cal.getTimeInMillis();
+    }
+
+    // Signed difference on the circle, in (-180, 180]
+    private static double angleDifference(double a, double b) {
+        double difference = (a - b) % 360;
+        if (difference > 180) {
+            difference -= 360;
+        } else if (difference <= -180) {
+            difference += 360;
+        }
+        return difference;
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.solarsenseapp.voice;
+
+import com.example.solarsenseapp.utils.Constants;
+import com.example.solarsenseapp.voice.VoiceCommand.Action;
+
+import org.junit.Test;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class VoiceCommandParserTest {
+
+    private final VoiceCommandParser parser = new VoiceCommandParser();
+
+    // Spoken text, expected action, angle slot, location slot
+    private static final Object[][] TABLE = {
+            // Every phrase in Constants.VOICE_COMMANDS_HELP
+            {"clockwise", Action.BASE_CLOCKWISE, -1, null},
+            {"counter-clockwise", Action.BASE_COUNTER_CLOCKWISE, -1, null},
+            {"anti-clockwise", Action.BASE_COUNTER_CLOCKWISE, -1, null},
+            {"up", Action.PANEL_UP, -1, null},
+            {"panel up", Action.PANEL_UP, -1, null},
+            {"down", Action.PANEL_DOWN, -1, null},
+            {"panel down", Action.PANEL_DOWN, -1, null},
+            {"panel zero", Action.PANEL_ZERO, -1, null},
+            {"panel angle zero", Action.PANEL_ZERO, -1, null},
+            {"panel max", Action.PANEL_MAX, -1, null},
+            {"panel angle max", Action.PANEL_MAX, -1, null},
+            {"base zero", Action.BASE_ZERO, -1, null},
+            {"base position zero", Action.BASE_ZERO, -1, null},
+            {"base max", Action.BASE_MAX, -1, null},
+            {"base position max", Action.BASE_MAX, -1, null},
+            {"auto mode on", Action.AUTO_MODE_ON, -1, null},
+            {"start tracking", Action.AUTO_MODE_ON, -1, null},
+            {"auto mode off", Action.AUTO_MODE_OFF, -1, null},
+            {"stop tracking", Action.AUTO_MODE_OFF, -1, null},
+            {"weather for delhi", Action.WEATHER, -1, "delhi"},
+            {"reset location", Action.RESET_LOCATION, -1, null},
+            {"clear location", Action.RESET_LOCATION, -1, null},
+            {"location reset", Action.RESET_LOCATION, -1, null},
+
+            // Phrases the old contains() chain got wrong
+            {"counter clockwise", Action.BASE_COUNTER_CLOCKWISE, -1, null},
+            {"rotate counterclockwise please", Action.BASE_COUNTER_CLOCKWISE, -1, null},
+            {"weather in cupertino", Action.WEATHER, -1, "cupertino"},
+            {"what's the weather for new york today", Action.WEATHER, -1, "new york"},
+            {"weather", Action.WEATHER, -1, null},
+            {"weather for down patrick", Action.WEATHER, -1, "down patrick"},
+
+            // Angle slot
+            {"90 degrees", Action.SET_PANEL_ANGLE, 90, null},
+            {"set base to 45", Action.SET_BASE_ANGLE, 45, null},
+            {"panel 120°", Action.SET_PANEL_ANGLE, 120, null},
+            {"base angle 270", Action.SET_BASE_ANGLE, Constants.SERVO_MAX_ANGLE, null},
+            {"angle 0", Action.SET_PANEL_ANGLE, 0, null},
+
+            // Nothing to do
+            {"hello there", Action.NONE, -1, null},
+            {"42", Action.NONE, -1, null},
+            {"", Action.NONE, -1, null},
+    };
+
+    @Test
+    public void table() {
+        for (Object[] row : TABLE) {
+            String spoken = (String) row[0];
+            VoiceCommand command = parser.parse(spoken);
+            assertEquals(spoken, row[1], command.action);
+            assertEquals(spoken, ((Integer) row[2]).intValue(), command.angle);
+            assertEquals(spoken, row[3], command.location);
+        }
+    }
+
+    @Test
+    public void everyHelpPhrase_isRecognized() {
+        Matcher quoted = Pattern.compile("'([^']+)'").matcher(Constants.VOICE_COMMANDS_HELP);
+        int phrases = 0;
+        while (quoted.find()) {
+            String spoken = quoted.group(1).replace("[location]", "paris").toLowerCase(Locale.ROOT);
+            assertNotEquals(spoken, Action.NONE, parser.parse(spoken).action);
+            assertTrue(spoken, inTable(spoken.replace("paris", "delhi")));
+            phrases++;
+        }
+        assertEquals(23, phrases);
+    }
+
+    @Test
+    public void recognizerCase_isIgnored() {
+        assertEquals(Action.AUTO_MODE_OFF, parser.parse("Auto Mode OFF").action);
+        assertEquals("New York", parser.parse("Weather for New York").location);
+    }
+
+    private static boolean inTable(String spoken) {
+        for (Object[] row : TABLE) {
+            if (row[0].equals(spoken)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
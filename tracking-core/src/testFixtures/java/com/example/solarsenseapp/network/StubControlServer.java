@@ -0,0 +1,114 @@
+package com.example.solarsenseapp.network;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Local stand-in for the ESP side of the binary control channel.
+ * Acks every command unless acking is switched off, and can drop its
+ * connections to exercise reconnects.
+ */
+public class StubControlServer implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final List<Socket> connections = new CopyOnWriteArrayList<>();
+    private final AtomicInteger commandCount = new AtomicInteger();
+    private volatile boolean acking = true;
+    private volatile int baseAngle = -1;
+    private volatile int panelAngle = -1;
+
+    public StubControlServer() throws IOException {
+        serverSocket = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        Thread acceptor = new Thread(this::acceptLoop, "stub-control-accept");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    private void acceptLoop() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                connections.add(socket);
+                Thread handler = new Thread(() -> serve(socket), "stub-control-conn");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket socket) {
+        try (Socket s = socket) {
+            DataInputStream in = new DataInputStream(s.getInputStream());
+            OutputStream out = s.getOutputStream();
+            byte[] frame = new byte[16];
+            while (true) {
+                int length = in.readUnsignedShort();
+                in.readFully(frame, 0, length);
+                int type = frame[0] & 0xFF;
+                if (type == ESPControlChannel.TYPE_BASE) {
+                    baseAngle = frame[3] & 0xFF;
+                } else if (type == ESPControlChannel.TYPE_PANEL) {
+                    panelAngle = frame[3] & 0xFF;
+                } else if (type == ESPControlChannel.TYPE_MOVE) {
+                    baseAngle = frame[3] & 0xFF;
+                    panelAngle = frame[4] & 0xFF;
+                }
+                commandCount.incrementAndGet();
+                if (acking) {
+                    out.write(new byte[] {0, 4, (byte) ESPControlChannel.TYPE_ACK, frame[1], frame[2],
+                            (byte) ESPControlChannel.STATUS_OK});
+                }
+            }
+        } catch (IOException e) {
+            // Client went away or the test dropped the connection
+        } finally {
+            connections.remove(socket);
+        }
+    }
+
+    public void setAcking(boolean acking) {
+        this.acking = acking;
+    }
+
+    public void dropConnections() throws IOException {
+        for (Socket socket : connections) {
+            socket.close();
+        }
+    }
+
+    public int getConnectionCount() {
+        return connections.size();
+    }
+
+    public int getCommandCount() {
+        return commandCount.get();
+    }
+
+    public int getBaseAngle() {
+        return baseAngle;
+    }
+
+    public int getPanelAngle() {
+        return panelAngle;
+    }
+
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        dropConnections();
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.solarsenseapp.network;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minimal local stand-in for the ESP8266 web server used by network tests.
+ * Serves /, /baseServo and /panelServo, /move when combined moves are enabled,
+ * and /telemetry once a telemetry body has been set.
+ * Each request sleeps for a fixed processing delay to mimic the slow microcontroller.
+ */
+public class StubEspServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final boolean supportsMove;
+    private final long processingDelayMillis;
+
+    private final AtomicInteger requestCount = new AtomicInteger();
+    private final Set<InetSocketAddress> clients = ConcurrentHashMap.newKeySet(); // one per TCP connection
+    private volatile int baseAngle = -1;
+    private volatile int panelAngle = -1;
+    private volatile byte[] telemetryBody;
+    private volatile String lastTelemetryQuery;
+
+    static {
+        // Avoid Nagle/delayed-ACK stalls that would dwarf the simulated ESP delay
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    public StubEspServer(boolean supportsMove, long processingDelayMillis) throws IOException {
+        this(supportsMove, processingDelayMillis, Executors.newFixedThreadPool(4), true);
+    }
+
+    // Lets a farm of stub devices share one worker pool
+    public StubEspServer(boolean supportsMove, long processingDelayMillis, ExecutorService executor) throws IOException {
+        this(supportsMove, processingDelayMillis, executor, false);
+    }
+
+    private StubEspServer(boolean supportsMove, long processingDelayMillis,
+                          ExecutorService executor, boolean ownsExecutor) throws IOException {
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.supportsMove = supportsMove;
+        this.processingDelayMillis = processingDelayMillis;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.createContext("/", this::handle);
+        this.server.setExecutor(executor);
+        this.server.start();
+    }
+
+    public String getBaseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requestCount.incrementAndGet();
+        clients.add(exchange.getRemoteAddress());
+        sleep();
+
+        String path = exchange.getRequestURI().getPath();
+        String query = exchange.getRequestURI().getQuery();
+        int code = 200;
+        byte[] body = null;
+
+        if (path.equals("/baseServo")) {
+            baseAngle = intParam(query, "angle");
+        } else if (path.equals("/panelServo")) {
+            panelAngle = intParam(query, "angle");
+        } else if (path.equals("/move") && supportsMove) {
+            if (query != null) {
+                baseAngle = intParam(query, "base");
+                panelAngle = intParam(query, "panel");
+            }
+        } else if (path.equals("/telemetry") && telemetryBody != null) {
+            lastTelemetryQuery = query;
+            body = telemetryBody;
+        } else if (!path.equals("/")) {
+            code = 404;
+        }
+
+        if (body == null) {
+            body = (code == 200 ? "OK" : "Not found").getBytes(StandardCharsets.UTF_8);
+        }
+        exchange.sendResponseHeaders(code, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void sleep() {
+        if (processingDelayMillis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(processingDelayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static int intParam(String query, String name) {
+        if (query == null) {
+            return -1;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0 && pair.substring(0, eq).equals(name)) {
+                return Integer.parseInt(pair.substring(eq + 1));
+            }
+        }
+        return -1;
+    }
+
+    public int getRequestCount() {
+        return requestCount.get();
+    }
+
+    // Distinct TCP connections that have sent a request so far
+    public int getConnectionCount() {
+        return clients.size();
+    }
+
+    public void resetRequestCount() {
+        requestCount.set(0);
+    }
+
+    public int getBaseAngle() {
+        return baseAngle;
+    }
+
+    public int getPanelAngle() {
+        return panelAngle;
+    }
+
+    // Binary frames returned by /telemetry, or null to answer 404 like old firmware
+    public void setTelemetryBody(byte[] body) {
+        this.telemetryBody = body;
+    }
+
+    public String getLastTelemetryQuery() {
+        return lastTelemetryQuery;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        if (ownsExecutor) {
+            executor.shutdownNow();
+        }
+    }
+}